@@ -16,11 +16,14 @@ import com.srFoodDelivery.model.User;
 import com.srFoodDelivery.model.UserRole;
 import com.srFoodDelivery.repository.RestaurantRepository;
 import com.srFoodDelivery.repository.UserRepository;
+import com.srFoodDelivery.service.CatalogCache;
 import com.srFoodDelivery.service.DonationService;
 import com.srFoodDelivery.service.MenuItemService;
 import com.srFoodDelivery.service.OrderService;
 import com.srFoodDelivery.service.RestaurantService;
 import com.srFoodDelivery.service.UserService;
+import com.srFoodDelivery.service.restaurant.RestaurantDeletionJob;
+import com.srFoodDelivery.service.search.MenuSearchIndex;
 
 @Controller
 @RequestMapping("/admin")
@@ -33,6 +36,8 @@ public class AdminController {
     private final MenuItemService menuItemService;
     private final RestaurantService restaurantService;
     private final UserService userService;
+    private final CatalogCache catalogCache;
+    private final MenuSearchIndex menuSearchIndex;
 
     public AdminController(UserRepository userRepository,
                           RestaurantRepository restaurantRepository,
@@ -40,7 +45,9 @@ public class AdminController {
                           DonationService donationService,
                           MenuItemService menuItemService,
                           RestaurantService restaurantService,
-                          UserService userService) {
+                          UserService userService,
+                          CatalogCache catalogCache,
+                          MenuSearchIndex menuSearchIndex) {
         this.userRepository = userRepository;
         this.restaurantRepository = restaurantRepository;
         this.orderService = orderService;
@@ -48,6 +55,8 @@ public class AdminController {
         this.menuItemService = menuItemService;
         this.restaurantService = restaurantService;
         this.userService = userService;
+        this.catalogCache = catalogCache;
+        this.menuSearchIndex = menuSearchIndex;
     }
 
     @GetMapping({"", "/dashboard"})
@@ -225,6 +234,7 @@ public class AdminController {
             Restaurant restaurant = restaurantRepository.findById(restaurantId)
                 .orElseThrow(() -> new IllegalArgumentException("Restaurant not found"));
             User owner = userService.getById(ownerId);
+            boolean wasCafeLounge = restaurant.isCafeLounge();
             
             restaurant.setName(name);
             restaurant.setDescription(description);
@@ -242,6 +252,11 @@ public class AdminController {
             restaurant.setActive(isActive);
             
             restaurantRepository.save(restaurant);
+            catalogCache.invalidateRestaurant(wasCafeLounge);
+            catalogCache.invalidateRestaurant(isCafeLounge);
+            if (wasCafeLounge != isCafeLounge) {
+                menuSearchIndex.restaurantModeChanged(restaurantId, isCafeLounge);
+            }
             redirectAttributes.addFlashAttribute("successMessage", "Restaurant updated successfully");
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("errorMessage", "Error updating restaurant: " + e.getMessage());
@@ -256,6 +271,7 @@ public class AdminController {
                 .orElseThrow(() -> new IllegalArgumentException("Restaurant not found"));
             restaurant.setActive(!restaurant.isActive());
             restaurantRepository.save(restaurant);
+            catalogCache.invalidateRestaurant(restaurant.isCafeLounge());
             redirectAttributes.addFlashAttribute("successMessage", 
                 "Restaurant " + (restaurant.isActive() ? "activated" : "deactivated") + " successfully");
         } catch (Exception e) {
@@ -267,8 +283,9 @@ public class AdminController {
     @PostMapping("/restaurants/{restaurantId}/delete")
     public String deleteRestaurant(@PathVariable Long restaurantId, RedirectAttributes redirectAttributes) {
         try {
-            restaurantRepository.deleteById(restaurantId);
-            redirectAttributes.addFlashAttribute("successMessage", "Restaurant deleted successfully");
+            RestaurantDeletionJob job = restaurantService.deleteRestaurant(restaurantId);
+            redirectAttributes.addFlashAttribute("successMessage",
+                "Restaurant deletion started (job #" + job.getId() + ")");
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("errorMessage", "Error deleting restaurant: " + e.getMessage());
         }
@@ -341,7 +358,7 @@ public class AdminController {
         try {
             restaurantService.deleteRestaurantByName(name);
             redirectAttributes.addFlashAttribute("successMessage", 
-                "Successfully deleted restaurant '" + name + "' and all its items");
+                "Started deleting restaurant '" + name + "' and all its items");
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("errorMessage", 
                 "Error deleting restaurant: " + e.getMessage());
@@ -354,7 +371,7 @@ public class AdminController {
         try {
             restaurantService.deleteRestaurantByName("Caffeine House");
             redirectAttributes.addFlashAttribute("successMessage", 
-                "Successfully deleted 'Caffeine House' cafe and all its items");
+                "Started deleting 'Caffeine House' cafe and all its items");
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("errorMessage", 
                 "Error deleting Caffeine House: " + e.getMessage());
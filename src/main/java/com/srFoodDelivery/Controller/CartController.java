@@ -19,6 +19,8 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import com.srFoodDelivery.dto.order.CursorPage;
+import com.srFoodDelivery.dto.order.MultiOrderDTO;
 import com.srFoodDelivery.model.Cart;
 import com.srFoodDelivery.model.PaymentSession;
 import com.srFoodDelivery.model.User;
@@ -39,6 +41,8 @@ import jakarta.servlet.http.HttpSession;
 @RequestMapping("/customer")
 public class CartController {
 
+    private static final int ORDER_HISTORY_PAGE_SIZE = 20;
+
     private final CartService cartService;
     private final OrderService orderService;
     private final OfferService offerService;
@@ -242,10 +246,20 @@ public class CartController {
     }
 
     @GetMapping("/orders")
-    public String orderHistory(@AuthenticationPrincipal CustomUserDetails principal, Model model) {
+    public String orderHistory(@RequestParam(name = "cursor", required = false) String cursor,
+            @AuthenticationPrincipal CustomUserDetails principal, Model model) {
         User user = requireUser(principal);
-        // Get multi-orders (new system)
-        model.addAttribute("multiOrders", orderOrchestrationService.getUserMultiOrders(user));
+        // Get multi-orders (new system), one keyset page at a time
+        CursorPage<MultiOrderDTO> page;
+        try {
+            page = orderOrchestrationService.getUserMultiOrderPage(user, cursor, ORDER_HISTORY_PAGE_SIZE);
+        } catch (IllegalArgumentException e) {
+            // Malformed cursor: start from the newest orders
+            return "redirect:/customer/orders";
+        }
+        model.addAttribute("multiOrders", page.getItems());
+        model.addAttribute("cursor", cursor);
+        model.addAttribute("nextCursor", page.getNextCursor());
         return "customer/orders";
     }
 
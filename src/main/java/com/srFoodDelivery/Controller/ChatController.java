@@ -12,7 +12,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import com.srFoodDelivery.model.ChatMessage;
+import com.srFoodDelivery.dto.order.CursorPage;
 import com.srFoodDelivery.model.ChatRoom;
 import com.srFoodDelivery.model.MultiOrder;
 import com.srFoodDelivery.model.SubOrder;
@@ -21,6 +21,7 @@ import com.srFoodDelivery.repository.MultiOrderRepository;
 import com.srFoodDelivery.repository.SubOrderRepository;
 import com.srFoodDelivery.security.CustomUserDetails;
 import com.srFoodDelivery.service.chat.ChatService;
+import com.srFoodDelivery.service.chat.PostedChatMessage;
 
 @Controller
 @RequestMapping("/chat")
@@ -78,10 +79,12 @@ public class ChatController {
             return "chat/error";
         }
         
-        List<ChatMessage> messages = chatService.getConversationForOrder(user, otherParticipant, order);
         ChatRoom chatRoom = chatService.getOrCreateChatRoom(user, otherParticipant, order, null);
+        // Latest page only; older pages come from /api/chat/rooms/{id}/messages
+        CursorPage<PostedChatMessage> messages = chatService.getRoomMessages(chatRoom.getId(), user, null);
         
-        model.addAttribute("messages", messages);
+        model.addAttribute("messages", messages.getItems());
+        model.addAttribute("olderCursor", messages.getNextCursor());
         model.addAttribute("chatRoom", chatRoom);
         model.addAttribute("order", order);
         model.addAttribute("otherParticipant", otherParticipant);
@@ -113,11 +116,13 @@ public class ChatController {
             return "chat/error";
         }
         
-        List<ChatMessage> messages = chatService.getConversation(user, otherParticipant, subOrder);
         ChatRoom chatRoom = chatService.getOrCreateChatRoom(user, otherParticipant, 
                 subOrder.getMultiOrder(), subOrder);
+        // Latest page only; older pages come from /api/chat/rooms/{id}/messages
+        CursorPage<PostedChatMessage> messages = chatService.getRoomMessages(chatRoom.getId(), user, null);
         
-        model.addAttribute("messages", messages);
+        model.addAttribute("messages", messages.getItems());
+        model.addAttribute("olderCursor", messages.getNextCursor());
         model.addAttribute("chatRoom", chatRoom);
         model.addAttribute("subOrder", subOrder);
         model.addAttribute("otherParticipant", otherParticipant);
@@ -135,15 +140,7 @@ public class ChatController {
             @AuthenticationPrincipal CustomUserDetails principal,
             RedirectAttributes redirectAttributes) {
         User sender = requireUser(principal);
-        User receiver = new User();
-        receiver.setId(receiverId);
-        
-        MultiOrder order = orderId != null ? 
-                multiOrderRepository.findById(orderId).orElse(null) : null;
-        SubOrder subOrder = subOrderId != null ? 
-                subOrderRepository.findById(subOrderId).orElse(null) : null;
-        
-        chatService.sendMessage(sender, receiver, message, order, subOrder);
+        chatService.sendMessage(sender.getId(), receiverId, message, orderId, subOrderId);
         
         redirectAttributes.addFlashAttribute("successMessage", "Message sent!");
         
@@ -28,6 +28,7 @@ import com.srFoodDelivery.repository.UserRepository;
 import com.srFoodDelivery.security.CustomUserDetails;
 import com.srFoodDelivery.service.CompanyService;
 import com.srFoodDelivery.service.SubscriptionPackageService;
+import com.srFoodDelivery.service.UserService;
 import com.srFoodDelivery.repository.SubscriptionItemRepository;
 
 @Controller
@@ -40,6 +41,7 @@ public class CompanyController {
     private final SubscriptionItemRepository subscriptionItemRepository;
     private final SubscriptionPackageService subscriptionPackageService;
     private final UserRepository userRepository;
+    private final UserService userService;
 
     public CompanyController(
             CompanyService companyService,
@@ -47,13 +49,15 @@ public class CompanyController {
             MenuItemRepository menuItemRepository,
             SubscriptionItemRepository subscriptionItemRepository,
             SubscriptionPackageService subscriptionPackageService,
-            UserRepository userRepository) {
+            UserRepository userRepository,
+            UserService userService) {
         this.companyService = companyService;
         this.restaurantRepository = restaurantRepository;
         this.menuItemRepository = menuItemRepository;
         this.subscriptionItemRepository = subscriptionItemRepository;
         this.subscriptionPackageService = subscriptionPackageService;
         this.userRepository = userRepository;
+        this.userService = userService;
     }
 
     private User requireUser(CustomUserDetails principal) {
@@ -420,7 +424,7 @@ public class CompanyController {
             companyService.deleteAllCompanyData(companyOpt.get());
         }
 
-        userRepository.delete(user);
+        userService.deleteUser(user.getId());
 
         return "redirect:/logout";
     }
@@ -51,6 +51,9 @@ import com.srFoodDelivery.service.ReviewService;
 import com.srFoodDelivery.service.SiteModeManager;
 import com.srFoodDelivery.service.TableService;
 import com.srFoodDelivery.service.order.OrderOrchestrationService;
+import com.srFoodDelivery.service.search.MenuSearchIndex;
+import com.srFoodDelivery.service.search.MenuSearchQuery;
+import com.srFoodDelivery.service.search.MenuSearchResult;
 import com.srFoodDelivery.model.PreorderSlot;
 import com.srFoodDelivery.model.RestaurantTable;
 import com.srFoodDelivery.model.SiteMode;
@@ -73,6 +76,9 @@ public class CustomerController {
     private final MultiOrderRepository multiOrderRepository;
     private final SiteModeManager siteModeManager;
     private final EmailService emailService;
+    private final MenuSearchIndex menuSearchIndex;
+
+    private static final int BROWSE_PAGE_SIZE = 60;
 
     public CustomerController(RestaurantService restaurantService,
             MenuService menuService,
@@ -86,7 +92,8 @@ public class CustomerController {
             OrderOrchestrationService orderOrchestrationService,
             MultiOrderRepository multiOrderRepository,
             SiteModeManager siteModeManager,
-            EmailService emailService) {
+            EmailService emailService,
+            MenuSearchIndex menuSearchIndex) {
         this.restaurantService = restaurantService;
         this.menuService = menuService;
         this.menuItemService = menuItemService;
@@ -100,6 +107,7 @@ public class CustomerController {
         this.multiOrderRepository = multiOrderRepository;
         this.siteModeManager = siteModeManager;
         this.emailService = emailService;
+        this.menuSearchIndex = menuSearchIndex;
     }
 
     @ModelAttribute("cartItemCount")
@@ -117,6 +125,7 @@ public class CustomerController {
             @RequestParam(required = false) String category,
             @RequestParam(required = false) String vegFilter,
             @RequestParam(required = false, name = "mode") String mode,
+            @RequestParam(defaultValue = "0") int page,
             HttpSession session,
             Model model) {
 
@@ -129,54 +138,21 @@ public class CustomerController {
         String modeLabel = siteMode.isCafeMode() ? "Cafe" : "Restaurant";
 
         // Always show items by default (like Swiggy), not restaurants
-        List<MenuItem> items = menuItemService.getAvailableItemsForMode(siteMode);
+        // Search, category, tag and veg filters run against the in-memory search index;
+        // only the items on the requested page are loaded from the database
+        Boolean vegOnly = vegFilterApplied ? Boolean.valueOf("veg".equalsIgnoreCase(vegFilter)) : null;
+        MenuSearchResult searchResult = menuSearchIndex.search(new MenuSearchQuery(
+                siteMode, search, category, selectedTags, vegOnly, page, BROWSE_PAGE_SIZE));
+        List<MenuItem> items = menuItemService.getItemsInOrder(searchResult.getItemIds());
         // Also get restaurants to show below items
         List<Restaurant> restaurants = restaurantService.findByMode(siteMode);
         boolean showingItems = true; // Always show items
 
-        // Apply search filter
-        if (searchPresent) {
-            String searchLower = search.trim().toLowerCase();
-            items = items.stream()
-                    .filter(item -> item.getName().toLowerCase().contains(searchLower) ||
-                            (item.getDescription() != null
-                                    && item.getDescription().toLowerCase().contains(searchLower)))
-                    .collect(Collectors.toList());
-        }
-
-        // Apply category filter
-        if (categoryFilter) {
-            items = items.stream()
-                    .filter(item -> category.equalsIgnoreCase(item.getCategory()))
-                    .collect(Collectors.toList());
-        }
-
-        // Apply tag filter
-        if (!selectedTags.isEmpty()) {
-            items = items.stream()
-                    .filter(item -> {
-                        Set<String> itemTags = item.getTags();
-                        if (itemTags == null) {
-                            itemTags = Collections.emptySet();
-                        }
-                        return itemTags.containsAll(selectedTags);
-                    })
-                    .collect(Collectors.toList());
-        }
-
-        // Apply veg/non-veg filter (always apply if specified)
-        if (vegFilterApplied) {
-            boolean isVeg = "veg".equalsIgnoreCase(vegFilter);
-            items = items.stream()
-                    .filter(item -> item.isVeg() == isVeg)
-                    .collect(Collectors.toList());
-        }
-
         // Get active offers
         List<com.srFoodDelivery.model.Offer> activeOffers = offerService.getActiveOffersForMode(siteMode);
 
         // Get all available categories
-        List<String> categories = menuItemService.getAllCategoriesForMode(siteMode);
+        List<String> categories = menuSearchIndex.categories(siteMode);
 
         model.addAttribute("availableTags", availableTags);
         model.addAttribute("selectedTags", selectedTags);
@@ -185,7 +161,9 @@ public class CustomerController {
         model.addAttribute("vegFilter", vegFilter != null ? vegFilter : "");
         model.addAttribute("showingItems", Boolean.valueOf(showingItems));
         model.addAttribute("items", items != null ? items : Collections.emptyList());
-        model.addAttribute("itemCount", items != null ? items.size() : 0);
+        model.addAttribute("itemCount", searchResult.getTotalItems());
+        model.addAttribute("searchResult", searchResult);
+        model.addAttribute("tagCounts", searchResult.getTagCounts());
         model.addAttribute("restaurants", restaurants != null ? restaurants : Collections.emptyList());
         model.addAttribute("restaurantCount", restaurants != null ? restaurants.size() : 0);
         model.addAttribute("filtersApplied",
@@ -795,7 +773,8 @@ public class CustomerController {
             // Update the latest order status after payment
             // For preorders, set to PENDING_APPROVAL (needs owner approval)
             // For delivery orders, set to CONFIRMED
-            var latestOrders = orderOrchestrationService.getUserMultiOrders(user);
+            // Only the newest order is needed, not the whole history
+            var latestOrders = orderOrchestrationService.getUserMultiOrderPage(user, null, 1).getItems();
             if (!latestOrders.isEmpty()) {
                 var latestOrderDTO = latestOrders.get(0); // Most recent order
                 var multiOrderOpt = multiOrderRepository.findByIdAndUser(latestOrderDTO.getId(), user);
@@ -1,9 +1,11 @@
 package com.srFoodDelivery.Controller;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -40,7 +42,6 @@ import com.srFoodDelivery.model.SubOrder;
 import com.srFoodDelivery.model.MultiOrder;
 import com.srFoodDelivery.repository.SubOrderRepository;
 import com.srFoodDelivery.repository.MultiOrderRepository;
-import com.srFoodDelivery.repository.PreorderSlotRepository;
 import com.srFoodDelivery.repository.SubscriptionPackageRepository;
 import com.srFoodDelivery.repository.CompanySubscriptionRepository;
 import com.srFoodDelivery.repository.CompanyOrderRepository;
@@ -49,10 +50,12 @@ import com.srFoodDelivery.service.EmailService;
 import com.srFoodDelivery.service.MenuItemService;
 import com.srFoodDelivery.service.MenuService;
 import com.srFoodDelivery.service.OrderService;
+import com.srFoodDelivery.service.PreorderSlotCapacity;
 import com.srFoodDelivery.service.RestaurantService;
 import com.srFoodDelivery.service.SubscriptionPackageService;
 import com.srFoodDelivery.service.TableService;
 import com.srFoodDelivery.service.CompanyService;
+import com.srFoodDelivery.service.order.LiveOrderBoard;
 import com.srFoodDelivery.websocket.OrderWebSocketPublisher;
 
 import jakarta.validation.Valid;
@@ -61,6 +64,8 @@ import jakarta.validation.Valid;
 @RequestMapping("/owner")
 public class OwnerController {
 
+    private static final int COMPANY_ORDERS_SHOWN = 50;
+
     private final RestaurantService restaurantService;
     private final MenuService menuService;
     private final MenuItemService menuItemService;
@@ -68,7 +73,7 @@ public class OwnerController {
     private final OrderService orderService;
     private final SubOrderRepository subOrderRepository;
     private final MultiOrderRepository multiOrderRepository;
-    private final PreorderSlotRepository preorderSlotRepository;
+    private final PreorderSlotCapacity preorderSlotCapacity;
     private final OrderWebSocketPublisher webSocketPublisher;
     private final TableService tableService;
     private final EmailService emailService;
@@ -78,6 +83,7 @@ public class OwnerController {
     private final CompanyService companyService;
     private final CompanyOrderRepository companyOrderRepository;
     private final com.srFoodDelivery.service.OfferService offerService;
+    private final LiveOrderBoard liveOrderBoard;
 
     public OwnerController(RestaurantService restaurantService,
             MenuService menuService,
@@ -86,7 +92,7 @@ public class OwnerController {
             OrderService orderService,
             SubOrderRepository subOrderRepository,
             MultiOrderRepository multiOrderRepository,
-            PreorderSlotRepository preorderSlotRepository,
+            PreorderSlotCapacity preorderSlotCapacity,
             OrderWebSocketPublisher webSocketPublisher,
             TableService tableService,
             EmailService emailService,
@@ -95,7 +101,8 @@ public class OwnerController {
             CompanySubscriptionRepository companySubscriptionRepository,
             CompanyService companyService,
             CompanyOrderRepository companyOrderRepository,
-            com.srFoodDelivery.service.OfferService offerService) {
+            com.srFoodDelivery.service.OfferService offerService,
+            LiveOrderBoard liveOrderBoard) {
         this.restaurantService = restaurantService;
         this.menuService = menuService;
         this.menuItemService = menuItemService;
@@ -103,7 +110,7 @@ public class OwnerController {
         this.orderService = orderService;
         this.subOrderRepository = subOrderRepository;
         this.multiOrderRepository = multiOrderRepository;
-        this.preorderSlotRepository = preorderSlotRepository;
+        this.preorderSlotCapacity = preorderSlotCapacity;
         this.webSocketPublisher = webSocketPublisher;
         this.tableService = tableService;
         this.emailService = emailService;
@@ -113,6 +120,7 @@ public class OwnerController {
         this.companyService = companyService;
         this.companyOrderRepository = companyOrderRepository;
         this.offerService = offerService;
+        this.liveOrderBoard = liveOrderBoard;
     }
 
     @GetMapping({ "", "/dashboard" })
@@ -445,10 +453,25 @@ public class OwnerController {
             Model model) {
         Restaurant restaurant = restaurantService.getOwnedRestaurant(id, principal.getUser());
 
-        List<SubOrder> deliveryOrders = subOrderRepository.findDeliveryOrders(restaurant);
-        List<SubOrder> preorders = subOrderRepository.findPreorders(restaurant);
+        // Only active orders are shown; closed ones are paged from /api/restaurants/{id}/orders/archive
+        List<LiveOrderBoard.Entry> entries = liveOrderBoard.entries(restaurant.getId());
+        Map<Long, SubOrder> active = new HashMap<>();
+        if (!entries.isEmpty()) {
+            for (SubOrder subOrder : subOrderRepository.findForBoard(
+                    entries.stream().map(LiveOrderBoard.Entry::subOrderId).toList())) {
+                active.put(subOrder.getId(), subOrder);
+            }
+        }
+        List<SubOrder> deliveryOrders = new ArrayList<>();
+        List<SubOrder> preorders = new ArrayList<>();
+        for (LiveOrderBoard.Entry entry : entries) {
+            SubOrder subOrder = active.get(entry.subOrderId());
+            if (subOrder != null) {
+                (entry.isPreorder() ? preorders : deliveryOrders).add(subOrder);
+            }
+        }
         List<CompanyOrder> companyOrders = companyOrderRepository
-                .findByMenuItem_Menu_Restaurant_IdOrderByOrderDateDesc(restaurant.getId());
+                .findRecentForRestaurant(restaurant.getId(), PageRequest.of(0, COMPANY_ORDERS_SHOWN));
 
         model.addAttribute("restaurant", restaurant);
         model.addAttribute("deliveryOrders", deliveryOrders);
@@ -679,7 +702,7 @@ public class OwnerController {
 
         // Release the preorder slot
         if (subOrder.getPreorderSlot() != null) {
-            preorderSlotRepository.releaseSlotAtomic(subOrder.getPreorderSlot().getId());
+            preorderSlotCapacity.release(subOrder.getPreorderSlot().getId());
         }
 
         // Reject the preorder
@@ -1,7 +1,6 @@
 package com.srFoodDelivery.Controller;
 
 import java.time.YearMonth;
-import java.util.List;
 import java.util.Locale;
 import java.util.regex.Pattern;
 
@@ -16,17 +15,11 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import com.srFoodDelivery.model.MultiOrder;
 import com.srFoodDelivery.model.PaymentSession;
-import com.srFoodDelivery.model.RiderOffer;
 import com.srFoodDelivery.model.User;
-import com.srFoodDelivery.repository.MultiOrderRepository;
 import com.srFoodDelivery.security.CustomUserDetails;
 import com.srFoodDelivery.service.CartService;
-import com.srFoodDelivery.service.EmailService;
 import com.srFoodDelivery.service.OrderService;
-import com.srFoodDelivery.service.order.OrderOrchestrationService;
-import com.srFoodDelivery.service.rider.RiderService;
 
 import jakarta.servlet.http.HttpSession;
 
@@ -47,22 +40,10 @@ public class PaymentController {
 
     private final CartService cartService;
     private final OrderService orderService;
-    private final OrderOrchestrationService orderOrchestrationService;
-    private final MultiOrderRepository multiOrderRepository;
-    private final RiderService riderService;
-    private final EmailService emailService;
 
-    public PaymentController(CartService cartService, OrderService orderService,
-                             OrderOrchestrationService orderOrchestrationService,
-                             MultiOrderRepository multiOrderRepository,
-                             RiderService riderService,
-                             EmailService emailService) {
+    public PaymentController(CartService cartService, OrderService orderService) {
         this.cartService = cartService;
         this.orderService = orderService;
-        this.orderOrchestrationService = orderOrchestrationService;
-        this.multiOrderRepository = multiOrderRepository;
-        this.riderService = riderService;
-        this.emailService = emailService;
     }
 
     @ModelAttribute("cartItemCount")
@@ -191,83 +172,12 @@ public class PaymentController {
                 }
             }
             
-            orderService.placeOrder(user, paymentSession.getDeliveryAddress(), paymentSession.getSpecialInstructions(),
+            // Place and confirm the order in one transaction. For COD, payment status remains PENDING.
+            // The confirmation email and rider broadcast are queued as outbox events and run after
+            // this request returns.
+            orderService.checkout(user, paymentSession.getDeliveryAddress(), paymentSession.getSpecialInstructions(),
                     paymentSession.getDeliveryLocation(), paymentSession.getDiscountAmount(), paymentSession.getAppliedCoupon(),
-                    paymentSession.getPreorderSlotId(), reservationId);
-            
-            // Update the latest order status to CONFIRMED after payment
-            // Get the most recent order for this user and update its status
-            var latestOrders = orderOrchestrationService.getUserMultiOrders(user);
-            if (!latestOrders.isEmpty()) {
-                var latestOrderDTO = latestOrders.get(0); // Most recent order
-                // Use findByIdAndUser to eagerly fetch sub-orders
-                var multiOrderOpt = multiOrderRepository.findByIdAndUser(latestOrderDTO.getId(), user);
-                if (multiOrderOpt.isPresent()) {
-                    var multiOrder = multiOrderOpt.get();
-                    if ("PENDING".equals(multiOrder.getStatus())) {
-                        // Check if it's a preorder
-                        boolean isPreorder = "PREORDER".equals(multiOrder.getOrderingMode()) || 
-                                           multiOrder.getSubOrders().stream()
-                                               .anyMatch(so -> so.getPreorderSlot() != null);
-                        
-                        if (isPreorder) {
-                            // Preorders need owner approval - set to PENDING_APPROVAL
-                            multiOrder.setStatus("PENDING_APPROVAL");
-                        } else {
-                            // Delivery orders are confirmed immediately
-                            multiOrder.setStatus("CONFIRMED");
-                            
-                            // Update all sub-orders to CONFIRMED (Ordered) status for delivery orders
-                            for (var subOrder : multiOrder.getSubOrders()) {
-                                // Only update delivery orders (not preorders)
-                                if (subOrder.getPreorderSlot() == null && 
-                                    subOrder.getReservation() == null && 
-                                    subOrder.getTable() == null && 
-                                    !"DINE_IN".equals(subOrder.getOrderType())) {
-                                    if ("PENDING".equals(subOrder.getStatus())) {
-                                        subOrder.setStatus("CONFIRMED");
-                                    }
-                                }
-                            }
-                        }
-                        
-                        // For COD, payment status remains PENDING; for others, set to PAID
-                        if (!"Cash on Delivery".equals(paymentDisplayName)) {
-                            multiOrder.setPaymentStatus("PAID");
-                        }
-                        
-                        multiOrderRepository.save(multiOrder);
-                        
-                        // Send order confirmation email to customer
-                        try {
-                            emailService.sendMultiOrderConfirmationEmail(user, multiOrder);
-                        } catch (Exception e) {
-                            // Log error but don't fail the order
-                            System.err.println("Failed to send confirmation email for MultiOrder " + multiOrder.getId() + ": " + e.getMessage());
-                        }
-                        
-                        // Automatically broadcast orders to all riders for delivery orders
-                        for (var subOrder : multiOrder.getSubOrders()) {
-                            // Only broadcast delivery orders (not preorders)
-                            if (subOrder.getPreorderSlot() == null && 
-                                subOrder.getReservation() == null && 
-                                subOrder.getTable() == null &&
-                                !"DINE_IN".equals(subOrder.getOrderType()) &&
-                                subOrder.getRider() == null) {
-                                try {
-                                    // Broadcast to ALL online riders (they can accept)
-                                    List<RiderOffer> offers = riderService.broadcastOrderToAllRiders(subOrder.getId());
-                                    System.out.println("Broadcasted SubOrder " + subOrder.getId() + " to " + offers.size() + " riders");
-                                } catch (Exception e) {
-                                    // Log error but don't fail the order
-                                    // Rider assignment can be retried later
-                                    System.err.println("Failed to broadcast order to riders for SubOrder " + subOrder.getId() + ": " + e.getMessage());
-                                }
-                            }
-                        }
-                    }
-                }
-            }
+                    paymentSession.getPreorderSlotId(), reservationId, !"Cash on Delivery".equals(paymentDisplayName));
             
             redirectAttributes.addFlashAttribute("successMessage",
                     "Order placed successfully using " + paymentDisplayName + "!");
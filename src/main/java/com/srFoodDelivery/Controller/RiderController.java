@@ -34,6 +34,7 @@ import com.srFoodDelivery.repository.RiderRepository;
 import com.srFoodDelivery.repository.SubOrderRepository;
 import com.srFoodDelivery.security.CustomUserDetails;
 import com.srFoodDelivery.service.EmailService;
+import com.srFoodDelivery.service.rider.RiderLocationBuffer;
 import com.srFoodDelivery.service.rider.RiderService;
 import com.srFoodDelivery.websocket.OrderWebSocketPublisher;
 
@@ -48,6 +49,7 @@ public class RiderController {
     private final SubOrderRepository subOrderRepository;
     private final RiderOfferRepository riderOfferRepository;
     private final OrderWebSocketPublisher webSocketPublisher;
+    private final RiderLocationBuffer riderLocationBuffer;
     private final EmailService emailService;
     private final MultiOrderRepository multiOrderRepository;
 
@@ -58,7 +60,8 @@ public class RiderController {
             RiderOfferRepository riderOfferRepository,
             OrderWebSocketPublisher webSocketPublisher,
             EmailService emailService,
-            MultiOrderRepository multiOrderRepository) {
+            MultiOrderRepository multiOrderRepository,
+            RiderLocationBuffer riderLocationBuffer) {
         this.riderService = riderService;
         this.riderRepository = riderRepository;
         this.subOrderRepository = subOrderRepository;
@@ -66,6 +69,7 @@ public class RiderController {
         this.webSocketPublisher = webSocketPublisher;
         this.emailService = emailService;
         this.multiOrderRepository = multiOrderRepository;
+        this.riderLocationBuffer = riderLocationBuffer;
     }
 
     @GetMapping("/dashboard")
@@ -377,8 +381,8 @@ public class RiderController {
                         id,
                         "ACCEPTED",
                         rider.getId(),
-                        rider.getCurrentLatitude() != null ? rider.getCurrentLatitude().doubleValue() : null,
-                        rider.getCurrentLongitude() != null ? rider.getCurrentLongitude().doubleValue() : null);
+                        riderLocationBuffer.latestLatitude(rider),
+                        riderLocationBuffer.latestLongitude(rider));
             }
             
             if (accepted) {
@@ -453,8 +457,8 @@ public class RiderController {
                     id,
                     status,
                     rider.getId(),
-                    rider.getCurrentLatitude() != null ? rider.getCurrentLatitude().doubleValue() : null,
-                    rider.getCurrentLongitude() != null ? rider.getCurrentLongitude().doubleValue() : null);
+                    riderLocationBuffer.latestLatitude(rider),
+                    riderLocationBuffer.latestLongitude(rider));
             
             // Send email notification to customer
             if (multiOrder.getUser() != null) {
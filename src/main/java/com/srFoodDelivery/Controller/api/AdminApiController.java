@@ -3,9 +3,11 @@ package com.srFoodDelivery.Controller.api;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -14,6 +16,9 @@ import org.springframework.web.bind.annotation.RestController;
 import com.srFoodDelivery.model.Restaurant;
 import com.srFoodDelivery.repository.RestaurantRepository;
 import com.srFoodDelivery.security.CustomUserDetails;
+import com.srFoodDelivery.service.RestaurantService;
+import com.srFoodDelivery.service.restaurant.RestaurantDeletionEngine;
+import com.srFoodDelivery.service.restaurant.RestaurantDeletionJob;
 
 @RestController
 @RequestMapping("/api/admin")
@@ -21,9 +26,15 @@ import com.srFoodDelivery.security.CustomUserDetails;
 public class AdminApiController {
 
     private final RestaurantRepository restaurantRepository;
+    private final RestaurantService restaurantService;
+    private final RestaurantDeletionEngine restaurantDeletionEngine;
 
-    public AdminApiController(RestaurantRepository restaurantRepository) {
+    public AdminApiController(RestaurantRepository restaurantRepository,
+                              RestaurantService restaurantService,
+                              RestaurantDeletionEngine restaurantDeletionEngine) {
         this.restaurantRepository = restaurantRepository;
+        this.restaurantService = restaurantService;
+        this.restaurantDeletionEngine = restaurantDeletionEngine;
     }
 
     @PostMapping("/restaurants/{id}/approve")
@@ -63,5 +74,26 @@ public class AdminApiController {
         response.put("message", "Restaurant status toggled successfully");
         return ResponseEntity.ok(response);
     }
-}
 
+    /**
+     * Starts deleting a restaurant and everything that references it. Poll the returned
+     * job at /api/admin/restaurant-deletions/{jobId} for progress.
+     */
+    @PostMapping("/restaurants/{id}/delete")
+    public ResponseEntity<RestaurantDeletionJob> deleteRestaurant(@PathVariable Long id) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(restaurantService.deleteRestaurant(id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/restaurant-deletions/{jobId}")
+    public ResponseEntity<RestaurantDeletionJob> getDeletionJob(@PathVariable Long jobId) {
+        RestaurantDeletionJob job = restaurantDeletionEngine.getJob(jobId);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(job);
+    }
+}
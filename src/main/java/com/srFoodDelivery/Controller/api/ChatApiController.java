@@ -0,0 +1,52 @@
+package com.srFoodDelivery.Controller.api;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.srFoodDelivery.dto.order.CursorPage;
+import com.srFoodDelivery.security.CustomUserDetails;
+import com.srFoodDelivery.service.chat.ChatService;
+import com.srFoodDelivery.service.chat.PostedChatMessage;
+
+/**
+ * Chat history over REST. Clients load the latest page when a conversation opens, then older
+ * pages on demand, while new messages arrive on their /topic/chat.user.{id} subscription.
+ * Both carry the same message shape, so the (roomId, seq) pair de-duplicates them.
+ */
+@RestController
+@RequestMapping("/api/chat")
+public class ChatApiController {
+
+    private final ChatService chatService;
+
+    public ChatApiController(ChatService chatService) {
+        this.chatService = chatService;
+    }
+
+    /**
+     * Messages of the room before the cursor (a sequence number), oldest first; without a
+     * cursor, the latest page.
+     */
+    @GetMapping("/rooms/{roomId}/messages")
+    public ResponseEntity<CursorPage<PostedChatMessage>> getRoomMessages(
+            @PathVariable Long roomId,
+            @RequestParam(required = false) String before,
+            @AuthenticationPrincipal CustomUserDetails principal) {
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            return ResponseEntity.ok(chatService.getRoomMessages(roomId, principal.getUser(), before));
+        } catch (SecurityException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -1,7 +1,5 @@
 package com.srFoodDelivery.Controller.api;
 
-import java.util.List;
-
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -10,10 +8,13 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.srFoodDelivery.dto.order.CursorPage;
 import com.srFoodDelivery.dto.order.MultiOrderCreateRequest;
 import com.srFoodDelivery.dto.order.MultiOrderDTO;
+import com.srFoodDelivery.dto.order.OrderHistoryDTO;
 import com.srFoodDelivery.model.Order;
 import com.srFoodDelivery.security.CustomUserDetails;
 import com.srFoodDelivery.service.OrderService;
@@ -38,8 +39,15 @@ public class OrderApiController {
 
     // Legacy endpoints (backward compatibility)
     @GetMapping("/my-orders")
-    public List<Order> getMyOrders(@AuthenticationPrincipal CustomUserDetails principal) {
-        return orderService.getOrderHistory(principal.getUser());
+    public ResponseEntity<CursorPage<OrderHistoryDTO>> getMyOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @AuthenticationPrincipal CustomUserDetails principal) {
+        try {
+            return ResponseEntity.ok(orderService.getOrderHistoryPage(principal.getUser(), cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/{id}")
@@ -80,10 +88,15 @@ public class OrderApiController {
     }
 
     @GetMapping("/multi")
-    public ResponseEntity<List<MultiOrderDTO>> getMyMultiOrders(
+    public ResponseEntity<CursorPage<MultiOrderDTO>> getMyMultiOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
             @AuthenticationPrincipal CustomUserDetails principal) {
-        List<MultiOrderDTO> multiOrders = orderOrchestrationService.getUserMultiOrders(
-                principal.getUser());
-        return ResponseEntity.ok(multiOrders);
+        try {
+            return ResponseEntity.ok(orderOrchestrationService.getUserMultiOrderPage(
+                    principal.getUser(), cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 }
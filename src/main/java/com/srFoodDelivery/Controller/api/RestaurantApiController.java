@@ -2,22 +2,33 @@ package com.srFoodDelivery.Controller.api;
 
 import java.util.List;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.srFoodDelivery.dto.order.CursorPage;
+import com.srFoodDelivery.dto.order.MultiOrderDTO;
 import com.srFoodDelivery.model.Restaurant;
+import com.srFoodDelivery.security.CustomUserDetails;
 import com.srFoodDelivery.service.RestaurantService;
+import com.srFoodDelivery.service.order.OrderOrchestrationService;
 
 @RestController
 @RequestMapping("/api/restaurants")
 public class RestaurantApiController {
 
     private final RestaurantService restaurantService;
+    private final OrderOrchestrationService orderOrchestrationService;
 
-    public RestaurantApiController(RestaurantService restaurantService) {
+    public RestaurantApiController(RestaurantService restaurantService,
+            OrderOrchestrationService orderOrchestrationService) {
         this.restaurantService = restaurantService;
+        this.orderOrchestrationService = orderOrchestrationService;
     }
 
     @GetMapping
@@ -29,5 +40,28 @@ public class RestaurantApiController {
     public Restaurant getRestaurant(@PathVariable Long id) {
         return restaurantService.getById(id);
     }
+
+    /**
+     * The owner's closed orders (delivered, completed, cancelled or rejected), newest first;
+     * active ones are on the live board of the orders page.
+     */
+    @GetMapping("/{id}/orders/archive")
+    public ResponseEntity<CursorPage<MultiOrderDTO.SubOrderDTO>> getOrderArchive(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @AuthenticationPrincipal CustomUserDetails principal) {
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            Restaurant restaurant = restaurantService.getOwnedRestaurant(id, principal.getUser());
+            return ResponseEntity.ok(orderOrchestrationService.getRestaurantArchivePage(restaurant.getId(), cursor, limit));
+        } catch (SecurityException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
 }
 
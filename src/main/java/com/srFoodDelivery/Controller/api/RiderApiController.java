@@ -17,6 +17,8 @@ import com.srFoodDelivery.dto.rider.RiderStatusUpdateRequest;
 import com.srFoodDelivery.model.Rider;
 import com.srFoodDelivery.model.SubOrder;
 import com.srFoodDelivery.security.CustomUserDetails;
+import com.srFoodDelivery.service.rider.RiderLocationBuffer;
+import com.srFoodDelivery.service.rider.RiderLocationPublisher;
 import com.srFoodDelivery.service.rider.RiderService;
 import com.srFoodDelivery.repository.RiderRepository;
 import com.srFoodDelivery.repository.SubOrderRepository;
@@ -32,16 +34,22 @@ public class RiderApiController {
     private final RiderRepository riderRepository;
     private final SubOrderRepository subOrderRepository;
     private final OrderWebSocketPublisher webSocketPublisher;
+    private final RiderLocationBuffer riderLocationBuffer;
+    private final RiderLocationPublisher riderLocationPublisher;
 
     public RiderApiController(
             RiderService riderService,
             RiderRepository riderRepository,
             SubOrderRepository subOrderRepository,
-            OrderWebSocketPublisher webSocketPublisher) {
+            OrderWebSocketPublisher webSocketPublisher,
+            RiderLocationBuffer riderLocationBuffer,
+            RiderLocationPublisher riderLocationPublisher) {
         this.riderService = riderService;
         this.riderRepository = riderRepository;
         this.subOrderRepository = subOrderRepository;
         this.webSocketPublisher = webSocketPublisher;
+        this.riderLocationBuffer = riderLocationBuffer;
+        this.riderLocationPublisher = riderLocationPublisher;
     }
 
     @PostMapping("/{id}/toggle-online")
@@ -78,28 +86,11 @@ public class RiderApiController {
             @Valid @RequestBody RiderLocationUpdateRequest request,
             @AuthenticationPrincipal CustomUserDetails principal) {
         
-        Rider rider = riderRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Rider not found"));
-
-        // Verify rider belongs to authenticated user
-        if (!rider.getUser().getId().equals(principal.getUser().getId())) {
-            throw new SecurityException("Access denied");
-        }
-
-        riderService.updateRiderLocation(id, request.getLat(), request.getLon());
+        // Checks that the rider belongs to the authenticated user against a cached owner id
+        riderService.recordRiderLocation(id, principal.getUser().getId(), request.getLat(), request.getLon());
 
         // Broadcast location update for active orders
-        if (rider.getAssignedOrders() != null && !rider.getAssignedOrders().isEmpty()) {
-            for (SubOrder subOrder : rider.getAssignedOrders()) {
-                if (subOrder.getMultiOrder() != null) {
-                    webSocketPublisher.publishRiderLocation(
-                            subOrder.getMultiOrder().getId(),
-                            id,
-                            request.getLat().doubleValue(),
-                            request.getLon().doubleValue());
-                }
-            }
-        }
+        riderLocationPublisher.riderMoved(id, request.getLat(), request.getLon());
 
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
@@ -136,8 +127,8 @@ public class RiderApiController {
                     subOrder.getId(),
                     subOrder.getStatus(),
                     id,
-                    rider.getCurrentLatitude() != null ? rider.getCurrentLatitude().doubleValue() : null,
-                    rider.getCurrentLongitude() != null ? rider.getCurrentLongitude().doubleValue() : null);
+                    riderLocationBuffer.latestLatitude(rider),
+                    riderLocationBuffer.latestLongitude(rider));
         }
 
         Map<String, Object> response = new HashMap<>();
@@ -0,0 +1,25 @@
+package com.srFoodDelivery.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class DomainEventConfig {
+
+    /**
+     * Pool for the domain event outbox workers, which run rider dispatch and order
+     * notifications after checkout has returned.
+     */
+    @Bean(name = "domainEventTaskExecutor")
+    public ThreadPoolTaskExecutor domainEventTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(1000);
+        executor.setThreadNamePrefix("domain-event-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
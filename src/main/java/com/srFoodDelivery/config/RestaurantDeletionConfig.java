@@ -0,0 +1,25 @@
+package com.srFoodDelivery.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class RestaurantDeletionConfig {
+
+    /**
+     * Single worker for restaurant deletion jobs, so two large deletes never compete for
+     * the same tables and requests only wait for the job to be queued.
+     */
+    @Bean(name = "restaurantDeletionTaskExecutor")
+    public ThreadPoolTaskExecutor restaurantDeletionTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("restaurant-delete-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
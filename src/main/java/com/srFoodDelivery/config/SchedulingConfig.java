@@ -0,0 +1,21 @@
+package com.srFoodDelivery.config;
+
+import org.springframework.boot.task.ThreadPoolTaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+@Configuration
+public class SchedulingConfig {
+
+    /**
+     * Scheduler for the @Scheduled flushers and sweeps, sized by spring.task.scheduling.pool.size.
+     * Spring Boot skips its own because the STOMP broker already defines a TaskScheduler, and
+     * without a bean named taskScheduler the jobs would fall back to a single thread, where a
+     * slow sweep delays the location and notification flushers behind it.
+     */
+    @Bean(name = "taskScheduler")
+    public ThreadPoolTaskScheduler taskScheduler(ThreadPoolTaskSchedulerBuilder builder) {
+        return builder.build();
+    }
+}
@@ -1,21 +1,167 @@
 package com.srFoodDelivery.config;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.StompBrokerRelayRegistration;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.util.StringUtils;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
+import com.srFoodDelivery.websocket.OutboundBacklog;
+
+/**
+ * STOMP over WebSocket.
+ *
+ * With websocket.broker.mode=simple (the default) subscriptions live in this instance's
+ * in-memory broker, which is fine for a single node. With websocket.broker.mode=relay every
+ * /topic frame goes through an external STOMP broker (RabbitMQ, ActiveMQ, ...) shared by all
+ * nodes, so a rider connected to one node receives offers published on any other. Client
+ * sessions get their own broker connection; messages the application sends use one shared
+ * system connection per node.
+ */
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    public static final String MODE_SIMPLE = "simple";
+    public static final String MODE_RELAY = "relay";
+
+    @Value("${websocket.broker.mode:simple}")
+    private String brokerMode;
+
+    @Value("${websocket.broker.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${websocket.broker.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${websocket.broker.relay.virtual-host:}")
+    private String virtualHost;
+
+    @Value("${websocket.broker.relay.client-login:guest}")
+    private String clientLogin;
+
+    @Value("${websocket.broker.relay.client-passcode:guest}")
+    private String clientPasscode;
+
+    @Value("${websocket.broker.relay.system-login:guest}")
+    private String systemLogin;
+
+    @Value("${websocket.broker.relay.system-passcode:guest}")
+    private String systemPasscode;
+
+    @Value("${websocket.broker.heartbeat-ms:10000}")
+    private long heartbeatMillis;
+
+    @Value("${websocket.inbound.core-pool-size:8}")
+    private int inboundCorePoolSize;
+
+    @Value("${websocket.inbound.max-pool-size:32}")
+    private int inboundMaxPoolSize;
+
+    @Value("${websocket.inbound.queue-capacity:2000}")
+    private int inboundQueueCapacity;
+
+    @Value("${websocket.outbound.core-pool-size:8}")
+    private int outboundCorePoolSize;
+
+    @Value("${websocket.outbound.max-pool-size:32}")
+    private int outboundMaxPoolSize;
+
+    @Value("${websocket.outbound.queue-capacity:2000}")
+    private int outboundQueueCapacity;
+
+    @Value("${websocket.transport.send-buffer-size-limit-bytes:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${websocket.transport.send-time-limit-ms:15000}")
+    private int sendTimeLimitMillis;
+
+    @Value("${websocket.transport.message-size-limit-bytes:65536}")
+    private int messageSizeLimit;
+
+    private final OutboundBacklog outboundBacklog;
+
+    private TaskScheduler heartbeatScheduler;
+
+    public WebSocketConfig(OutboundBacklog outboundBacklog) {
+        this.outboundBacklog = outboundBacklog;
+    }
+
+    /**
+     * The broker's own scheduler, used for simple broker heartbeats. Lazy because it is
+     * created by the same configuration that calls this class.
+     */
+    @Autowired
+    public void setHeartbeatScheduler(@Lazy @Qualifier("messageBrokerTaskScheduler") TaskScheduler heartbeatScheduler) {
+        this.heartbeatScheduler = heartbeatScheduler;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // Enable a simple in-memory message broker to carry messages back to the client
-        config.enableSimpleBroker("/topic");
+        long[] heartbeat = {heartbeatMillis, heartbeatMillis};
+        if (MODE_RELAY.equalsIgnoreCase(brokerMode)) {
+            StompBrokerRelayRegistration relay = config.enableStompBrokerRelay("/topic")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(clientLogin)
+                    .setClientPasscode(clientPasscode)
+                    .setSystemLogin(systemLogin)
+                    .setSystemPasscode(systemPasscode)
+                    .setSystemHeartbeatSendInterval(heartbeatMillis)
+                    .setSystemHeartbeatReceiveInterval(heartbeatMillis);
+            if (StringUtils.hasText(virtualHost)) {
+                relay.setVirtualHost(virtualHost);
+            }
+        } else if (MODE_SIMPLE.equalsIgnoreCase(brokerMode)) {
+            // In-memory broker that carries messages back to clients of this instance only
+            config.enableSimpleBroker("/topic")
+                    .setHeartbeatValue(heartbeat)
+                    .setTaskScheduler(heartbeatScheduler);
+        } else {
+            throw new IllegalStateException("Unknown websocket.broker.mode: " + brokerMode);
+        }
         // Prefix for messages bound to methods annotated with @MessageMapping
         config.setApplicationDestinationPrefixes("/app");
+        // Order status frames must reach each session in the order they were published
+        config.setPreservePublishOrder(true);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(inboundCorePoolSize)
+                .maxPoolSize(inboundMaxPoolSize)
+                .queueCapacity(inboundQueueCapacity);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(outboundCorePoolSize)
+                .maxPoolSize(outboundMaxPoolSize)
+                .queueCapacity(outboundQueueCapacity);
+        // Counts frames per destination until they are written, so notification digests can wait
+        // for slow subscribers; the writes are seen by the decorator added to the transport
+        registration.interceptors(outboundBacklog);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // A slow client is disconnected once this much is buffered or a send blocks this long,
+        // instead of holding an outbound thread
+        registration.setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setSendTimeLimit(sendTimeLimitMillis)
+                .setMessageSizeLimit(messageSizeLimit)
+                .addDecoratorFactory(outboundBacklog);
     }
 
     @Override
@@ -26,4 +172,3 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .withSockJS();
     }
 }
-
@@ -44,6 +44,10 @@ public class ChatRoom {
     @Column(name = "last_message_at")
     private LocalDateTime lastMessageAt;
 
+    // Last message sequence number handed out in this room; maintained by ChatRoomCache only
+    @Column(name = "last_seq", insertable = false, updatable = false)
+    private Long lastSeq;
+
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
@@ -110,6 +114,10 @@ public class ChatRoom {
         this.lastMessageAt = lastMessageAt;
     }
 
+    public Long getLastSeq() {
+        return lastSeq;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
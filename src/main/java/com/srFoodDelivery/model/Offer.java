@@ -238,6 +238,13 @@ public class Offer {
     }
 
     public List<Long> getApplicableMenuItemIdList() {
+        return parseMenuItemIds(applicableMenuItemIds);
+    }
+
+    /**
+     * Parses a comma-separated list of menu item IDs, skipping invalid entries.
+     */
+    public static List<Long> parseMenuItemIds(String applicableMenuItemIds) {
         List<Long> ids = new ArrayList<>();
         if (applicableMenuItemIds != null && !applicableMenuItemIds.trim().isEmpty()) {
             String[] parts = applicableMenuItemIds.split(",");
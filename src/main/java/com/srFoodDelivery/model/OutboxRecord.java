@@ -0,0 +1,25 @@
+package com.srFoodDelivery.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * A row of an outbox table: a unit of work that is claimed by a worker, retried with backoff
+ * on failure and given up on after too many attempts.
+ */
+public interface OutboxRecord {
+
+    String STATUS_PENDING = "PENDING";
+    String STATUS_FAILED = "FAILED";
+
+    Long getId();
+
+    void setStatus(String status);
+
+    Integer getAttempts();
+
+    void setAttempts(Integer attempts);
+
+    void setNextAttemptAt(LocalDateTime nextAttemptAt);
+
+    void setLastError(String lastError);
+}
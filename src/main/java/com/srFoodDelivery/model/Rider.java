@@ -41,10 +41,15 @@ public class Rider {
     @Column(name = "phone_number", nullable = false, length = 20)
     private String phoneNumber;
 
-    @Column(name = "current_latitude", precision = 10, scale = 8)
+    // The position columns are owned by the location write paths: RiderRepository.updateLocation
+    // writes them at once and RiderLocationBuffer in batches. They are not updatable through the
+    // entity, so saving a rider loaded before a GPS flush cannot put an older position back.
+    // Setting them on a managed rider and saving it changes nothing in the database; use
+    // RiderService.updateRiderLocation or recordRiderLocation instead.
+    @Column(name = "current_latitude", precision = 10, scale = 8, updatable = false)
     private BigDecimal currentLatitude;
 
-    @Column(name = "current_longitude", precision = 11, scale = 8)
+    @Column(name = "current_longitude", precision = 11, scale = 8, updatable = false)
     private BigDecimal currentLongitude;
 
     @Column(name = "is_online", nullable = false)
@@ -113,6 +118,9 @@ public class Rider {
         return currentLatitude;
     }
 
+    /**
+     * Sets the in-memory value only; the column is written by the location write paths.
+     */
     public void setCurrentLatitude(BigDecimal currentLatitude) {
         this.currentLatitude = currentLatitude;
     }
@@ -121,6 +129,9 @@ public class Rider {
         return currentLongitude;
     }
 
+    /**
+     * Sets the in-memory value only; the column is written by the location write paths.
+     */
     public void setCurrentLongitude(BigDecimal currentLongitude) {
         this.currentLongitude = currentLongitude;
     }
@@ -5,11 +5,14 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.srFoodDelivery.service.order.SubOrderStatusListener;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -17,14 +20,17 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.PostLoad;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import jakarta.persistence.Version;
 import jakarta.validation.constraints.Size;
 
 @Entity
 @Table(name = "sub_order")
+@EntityListeners(SubOrderStatusListener.class)
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class SubOrder {
 
@@ -102,11 +108,38 @@ public class SubOrder {
         updatedAt = createdAt;
     }
 
+    // Status and rider as last read from / written to the database, used to detect transitions
+    @Transient
+    private String persistedStatus;
+
+    @Transient
+    private Long persistedRiderId;
+
     @PreUpdate
     void preUpdate() {
         updatedAt = LocalDateTime.now();
     }
 
+    @PostLoad
+    void postLoad() {
+        rememberPersistedState();
+    }
+
+    public void rememberPersistedState() {
+        persistedStatus = status;
+        persistedRiderId = rider != null ? rider.getId() : null;
+    }
+
+    @JsonIgnore
+    public String getPersistedStatus() {
+        return persistedStatus;
+    }
+
+    @JsonIgnore
+    public Long getPersistedRiderId() {
+        return persistedRiderId;
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
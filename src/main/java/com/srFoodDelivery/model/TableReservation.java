@@ -83,6 +83,10 @@ public class TableReservation {
     @Column(name = "auto_release_time")
     private LocalDateTime autoReleaseTime;
 
+    // Derived from date, time and duration so overlap checks can use an index
+    @Column(name = "reservation_end_at", nullable = false)
+    private LocalDateTime reservationEndAt;
+
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
@@ -97,11 +101,19 @@ public class TableReservation {
         if (qrCode == null || qrCode.isEmpty()) {
             qrCode = generateQRCode();
         }
+        updateReservationEndAt();
     }
 
     @PreUpdate
     void preUpdate() {
         updatedAt = LocalDateTime.now();
+        updateReservationEndAt();
+    }
+
+    private void updateReservationEndAt() {
+        if (reservationDate != null && reservationTime != null && durationMinutes != null) {
+            reservationEndAt = LocalDateTime.of(reservationDate, reservationTime).plusMinutes(durationMinutes);
+        }
     }
 
     private String generateQRCode() {
@@ -225,6 +237,10 @@ public class TableReservation {
         this.autoReleaseTime = autoReleaseTime;
     }
 
+    public LocalDateTime getReservationEndAt() {
+        return reservationEndAt;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
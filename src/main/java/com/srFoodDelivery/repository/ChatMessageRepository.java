@@ -1,50 +1,63 @@
 package com.srFoodDelivery.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.srFoodDelivery.model.ChatMessage;
-import com.srFoodDelivery.model.MultiOrder;
-import com.srFoodDelivery.model.SubOrder;
 import com.srFoodDelivery.model.User;
 
 @Repository
 public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long> {
     
-    @Query("SELECT cm FROM ChatMessage cm WHERE " +
-           "((cm.sender = :user1 AND cm.receiver = :user2) OR " +
-           "(cm.sender = :user2 AND cm.receiver = :user1)) " +
-           "ORDER BY cm.createdAt ASC")
-    List<ChatMessage> findConversationBetweenUsers(@Param("user1") User user1, @Param("user2") User user2);
-    
-    @Query("SELECT cm FROM ChatMessage cm WHERE " +
-           "cm.subOrder = :subOrder AND " +
-           "((cm.sender = :user1 AND cm.receiver = :user2) OR " +
-           "(cm.sender = :user2 AND cm.receiver = :user1)) " +
-           "ORDER BY cm.createdAt ASC")
-    List<ChatMessage> findConversationForSubOrder(
-            @Param("subOrder") SubOrder subOrder,
-            @Param("user1") User user1,
-            @Param("user2") User user2);
-    
-    @Query("SELECT cm FROM ChatMessage cm WHERE " +
-           "cm.order = :order AND " +
-           "((cm.sender = :user1 AND cm.receiver = :user2) OR " +
-           "(cm.sender = :user2 AND cm.receiver = :user1)) " +
-           "ORDER BY cm.createdAt ASC")
-    List<ChatMessage> findConversationForOrder(
-            @Param("order") MultiOrder order,
-            @Param("user1") User user1,
-            @Param("user2") User user2);
+    /**
+     * Newest messages of the room with a sequence number below beforeSeq, newest first.
+     * Served by the (room_id, seq) unique index.
+     */
+    @Query("SELECT cm.roomId AS roomId, cm.seq AS seq, cm.sender.id AS senderId, cm.receiver.id AS receiverId, " +
+           "cm.message AS message, cm.order.id AS orderId, cm.subOrder.id AS subOrderId, cm.createdAt AS createdAt " +
+           "FROM ChatMessage cm WHERE cm.roomId = :roomId AND cm.seq < :beforeSeq ORDER BY cm.seq DESC")
+    List<RoomMessageRow> findRoomMessagesBefore(
+            @Param("roomId") Long roomId,
+            @Param("beforeSeq") Long beforeSeq,
+            Pageable pageable);
     
     @Query("SELECT COUNT(cm) FROM ChatMessage cm WHERE cm.receiver = :user AND cm.isRead = false")
     Long countUnreadMessages(@Param("user") User user);
     
     @Query("SELECT cm FROM ChatMessage cm WHERE cm.receiver = :user AND cm.isRead = false ORDER BY cm.createdAt DESC")
     List<ChatMessage> findUnreadMessages(@Param("user") User user);
-}
 
+    /**
+     * Marks the receiver's unread messages among the ids as read and returns how many changed.
+     */
+    @Modifying
+    @Query("UPDATE ChatMessage cm SET cm.isRead = true " +
+           "WHERE cm.id IN :ids AND cm.receiver.id = :receiverId AND cm.isRead = false")
+    int markReadForReceiver(@Param("ids") Collection<Long> ids, @Param("receiverId") Long receiverId);
+
+    interface RoomMessageRow {
+        Long getRoomId();
+
+        Long getSeq();
+
+        Long getSenderId();
+
+        Long getReceiverId();
+
+        String getMessage();
+
+        Long getOrderId();
+
+        Long getSubOrderId();
+
+        LocalDateTime getCreatedAt();
+    }
+}
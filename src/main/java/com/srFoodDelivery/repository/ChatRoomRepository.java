@@ -36,5 +36,40 @@ public interface ChatRoomRepository extends JpaRepository<ChatRoom, Long> {
     
     @Query("SELECT cr FROM ChatRoom cr WHERE cr.participant1 = :user OR cr.participant2 = :user ORDER BY cr.lastMessageAt DESC NULLS LAST, cr.updatedAt DESC")
     List<ChatRoom> findChatRoomsForUser(@Param("user") User user);
+
+    @Query("SELECT cr.id AS id, cr.lastSeq AS lastSeq FROM ChatRoom cr WHERE " +
+           "((cr.participant1.id = :user1Id AND cr.participant2.id = :user2Id) OR " +
+           "(cr.participant1.id = :user2Id AND cr.participant2.id = :user1Id)) " +
+           "AND cr.subOrder.id = :subOrderId ORDER BY cr.id")
+    List<RoomSequence> findRoomSequenceForSubOrder(
+            @Param("subOrderId") Long subOrderId,
+            @Param("user1Id") Long user1Id,
+            @Param("user2Id") Long user2Id);
+
+    @Query("SELECT cr.id AS id, cr.lastSeq AS lastSeq FROM ChatRoom cr WHERE " +
+           "((cr.participant1.id = :user1Id AND cr.participant2.id = :user2Id) OR " +
+           "(cr.participant1.id = :user2Id AND cr.participant2.id = :user1Id)) " +
+           "AND cr.order.id = :orderId ORDER BY cr.id")
+    List<RoomSequence> findRoomSequenceForOrder(
+            @Param("orderId") Long orderId,
+            @Param("user1Id") Long user1Id,
+            @Param("user2Id") Long user2Id);
+
+    @Query("SELECT cr.id AS id, cr.lastSeq AS lastSeq FROM ChatRoom cr WHERE " +
+           "((cr.participant1.id = :user1Id AND cr.participant2.id = :user2Id) OR " +
+           "(cr.participant1.id = :user2Id AND cr.participant2.id = :user1Id)) " +
+           "AND cr.order IS NULL AND cr.subOrder IS NULL ORDER BY cr.id")
+    List<RoomSequence> findGeneralRoomSequence(
+            @Param("user1Id") Long user1Id,
+            @Param("user2Id") Long user2Id);
+
+    /**
+     * Room id and the last message sequence number handed out in it.
+     */
+    interface RoomSequence {
+        Long getId();
+
+        Long getLastSeq();
+    }
 }
 
@@ -3,7 +3,10 @@ package com.srFoodDelivery.repository;
 import java.time.LocalDate;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.srFoodDelivery.model.Company;
 import com.srFoodDelivery.model.CompanyOrder;
@@ -17,5 +20,10 @@ public interface CompanyOrderRepository extends JpaRepository<CompanyOrder, Long
 
     List<CompanyOrder> findByCompanyAndStatus(Company company, String status);
 
-    List<CompanyOrder> findByMenuItem_Menu_Restaurant_IdOrderByOrderDateDesc(Long restaurantId);
+    /**
+     * The restaurant's latest company orders with their company and menu item, newest first.
+     */
+    @Query("SELECT co FROM CompanyOrder co JOIN FETCH co.company JOIN FETCH co.menuItem mi " +
+            "WHERE mi.menu.restaurant.id = :restaurantId ORDER BY co.orderDate DESC, co.id DESC")
+    List<CompanyOrder> findRecentForRestaurant(@Param("restaurantId") Long restaurantId, Pageable pageable);
 }
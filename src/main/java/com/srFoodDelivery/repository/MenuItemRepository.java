@@ -3,6 +3,7 @@ package com.srFoodDelivery.repository;
 import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import com.srFoodDelivery.model.Menu;
@@ -28,4 +29,13 @@ public interface MenuItemRepository extends JpaRepository<MenuItem, Long> {
     List<MenuItem> findByCafeRestaurants();
     
     List<MenuItem> findByMenu_Restaurant_IdAndAvailableTrue(Long restaurantId);
+    
+    @EntityGraph(attributePaths = {"menu", "menu.restaurant", "tags"})
+    List<MenuItem> findByIdIn(Collection<Long> ids);
+    
+    @org.springframework.data.jpa.repository.Query("SELECT DISTINCT mi FROM MenuItem mi JOIN FETCH mi.menu m JOIN FETCH m.restaurant LEFT JOIN FETCH mi.tags WHERE mi.available = true")
+    List<MenuItem> findAvailableForSearchIndex();
+    
+    @org.springframework.data.jpa.repository.Query("SELECT mi FROM MenuItem mi JOIN FETCH mi.menu m LEFT JOIN FETCH m.restaurant WHERE mi.id IN :ids")
+    List<MenuItem> findWithRestaurantByIdIn(@org.springframework.data.repository.query.Param("ids") Collection<Long> ids);
 }
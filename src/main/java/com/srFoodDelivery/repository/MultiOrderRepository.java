@@ -1,8 +1,11 @@
 package com.srFoodDelivery.repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -25,5 +28,47 @@ public interface MultiOrderRepository extends JpaRepository<MultiOrder, Long> {
     
     @Query("SELECT mo FROM MultiOrder mo WHERE mo.paymentStatus = :paymentStatus ORDER BY mo.createdAt DESC")
     List<MultiOrder> findByPaymentStatusOrderByCreatedAtDesc(@Param("paymentStatus") String paymentStatus);
+
+    @Query("SELECT mo.id AS id, mo.totalAmount AS totalAmount, mo.discountAmount AS discountAmount, " +
+            "mo.appliedCoupon AS appliedCoupon, mo.status AS status, mo.deliveryAddress AS deliveryAddress, " +
+            "mo.specialInstructions AS specialInstructions, mo.paymentStatus AS paymentStatus, " +
+            "mo.createdAt AS createdAt, mo.updatedAt AS updatedAt " +
+            "FROM MultiOrder mo WHERE mo.user = :user ORDER BY mo.createdAt DESC, mo.id DESC")
+    List<HistoryRow> findHistoryFirstPage(@Param("user") User user, Pageable pageable);
+
+    @Query("SELECT mo.id AS id, mo.totalAmount AS totalAmount, mo.discountAmount AS discountAmount, " +
+            "mo.appliedCoupon AS appliedCoupon, mo.status AS status, mo.deliveryAddress AS deliveryAddress, " +
+            "mo.specialInstructions AS specialInstructions, mo.paymentStatus AS paymentStatus, " +
+            "mo.createdAt AS createdAt, mo.updatedAt AS updatedAt " +
+            "FROM MultiOrder mo WHERE mo.user = :user " +
+            "AND (mo.createdAt < :createdAt OR (mo.createdAt = :createdAt AND mo.id < :id)) " +
+            "ORDER BY mo.createdAt DESC, mo.id DESC")
+    List<HistoryRow> findHistoryPageAfter(
+            @Param("user") User user,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable pageable);
+
+    interface HistoryRow {
+        Long getId();
+
+        BigDecimal getTotalAmount();
+
+        BigDecimal getDiscountAmount();
+
+        String getAppliedCoupon();
+
+        String getStatus();
+
+        String getDeliveryAddress();
+
+        String getSpecialInstructions();
+
+        String getPaymentStatus();
+
+        LocalDateTime getCreatedAt();
+
+        LocalDateTime getUpdatedAt();
+    }
 }
 
@@ -1,8 +1,11 @@
 package com.srFoodDelivery.repository;
 
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -17,6 +20,12 @@ public interface NotificationRepository extends JpaRepository<NotificationEntity
     
     List<NotificationEntity> findByUserAndIsReadFalseOrderByCreatedAtDesc(User user);
     
+    /**
+     * The user's newest notifications; id order follows creation order and is served by idx_user_id.
+     */
+    @Query("SELECT n FROM NotificationEntity n WHERE n.user.id = :userId ORDER BY n.id DESC")
+    List<NotificationEntity> findLatestForUser(@Param("userId") Long userId, Pageable pageable);
+    
     @Query("SELECT COUNT(n) FROM NotificationEntity n WHERE n.user = :user AND n.isRead = false")
     long countUnreadByUser(@Param("user") User user);
     
@@ -28,5 +37,13 @@ public interface NotificationRepository extends JpaRepository<NotificationEntity
         @Param("entityType") String entityType,
         @Param("entityId") Long entityId
     );
+
+    /**
+     * Marks the user's unread notifications among the ids as read and returns how many changed.
+     */
+    @Modifying
+    @Query("UPDATE NotificationEntity n SET n.isRead = true " +
+           "WHERE n.id IN :ids AND n.user.id = :userId AND n.isRead = false")
+    int markReadForUser(@Param("ids") Collection<Long> ids, @Param("userId") Long userId);
 }
 
@@ -1,5 +1,6 @@
 package com.srFoodDelivery.repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -44,4 +45,31 @@ public interface OfferRepository extends JpaRepository<Offer, Long> {
        Offer findActiveCouponByCode(@Param("code") String code,
                      @Param("restaurantId") Long restaurantId,
                      @Param("now") LocalDateTime now);
+
+       /**
+        * Active offers that have not ended yet, including ones that start later,
+        * in the same order as findActiveOffers.
+        */
+       @Query("SELECT o.id AS id, o.restaurant.id AS restaurantId, o.offerType AS offerType, " +
+                     "o.discountValue AS discountValue, o.applicableMenuItemIds AS applicableMenuItemIds, " +
+                     "o.startDate AS startDate, o.endDate AS endDate " +
+                     "FROM Offer o WHERE o.isActive = true AND o.endDate >= :now " +
+                     "ORDER BY o.createdAt DESC")
+       List<OfferRule> findCurrentAndUpcomingOfferRules(@Param("now") LocalDateTime now);
+
+       interface OfferRule {
+              Long getId();
+
+              Long getRestaurantId();
+
+              String getOfferType();
+
+              BigDecimal getDiscountValue();
+
+              String getApplicableMenuItemIds();
+
+              LocalDateTime getStartDate();
+
+              LocalDateTime getEndDate();
+       }
 }
@@ -1,8 +1,15 @@
 package com.srFoodDelivery.repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.srFoodDelivery.model.ChefProfile;
 import com.srFoodDelivery.model.Order;
@@ -16,4 +23,62 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByChefProfileOrderByCreatedAtDesc(ChefProfile chefProfile);
     List<Order> findAllByOrderByCreatedAtDesc();
     long countByUser(User user);
+
+    @EntityGraph(attributePaths = "user")
+    List<Order> findByStatusAndCreatedAtLessThanEqualOrderByCreatedAtAsc(
+            String status, LocalDateTime createdBefore, Pageable pageable);
+
+    @Query("SELECT o.id AS id, r.id AS restaurantId, r.name AS restaurantName, o.status AS status, " +
+            "o.totalAmount AS totalAmount, o.discountAmount AS discountAmount, o.appliedCoupon AS appliedCoupon, " +
+            "o.deliveryAddress AS deliveryAddress, o.specialInstructions AS specialInstructions, " +
+            "o.trackingInfo AS trackingInfo, o.estimatedDeliveryTime AS estimatedDeliveryTime, " +
+            "o.actualDeliveryTime AS actualDeliveryTime, o.createdAt AS createdAt, o.updatedAt AS updatedAt " +
+            "FROM Order o LEFT JOIN o.restaurant r WHERE o.user = :user ORDER BY o.createdAt DESC, o.id DESC")
+    List<HistoryRow> findHistoryFirstPage(@Param("user") User user, Pageable pageable);
+
+    @Query("SELECT o.id AS id, r.id AS restaurantId, r.name AS restaurantName, o.status AS status, " +
+            "o.totalAmount AS totalAmount, o.discountAmount AS discountAmount, o.appliedCoupon AS appliedCoupon, " +
+            "o.deliveryAddress AS deliveryAddress, o.specialInstructions AS specialInstructions, " +
+            "o.trackingInfo AS trackingInfo, o.estimatedDeliveryTime AS estimatedDeliveryTime, " +
+            "o.actualDeliveryTime AS actualDeliveryTime, o.createdAt AS createdAt, o.updatedAt AS updatedAt " +
+            "FROM Order o LEFT JOIN o.restaurant r WHERE o.user = :user " +
+            "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) " +
+            "ORDER BY o.createdAt DESC, o.id DESC")
+    List<HistoryRow> findHistoryPageAfter(
+            @Param("user") User user,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable pageable);
+
+    @Query("SELECT oi.id AS id, oi.order.id AS orderId, oi.menuItemId AS menuItemId, oi.itemName AS itemName, " +
+            "oi.quantity AS quantity, oi.unitPrice AS unitPrice, oi.lineTotal AS lineTotal " +
+            "FROM OrderItem oi WHERE oi.order.id IN :orderIds ORDER BY oi.id")
+    List<HistoryItemRow> findHistoryItemRows(@Param("orderIds") Collection<Long> orderIds);
+
+    interface HistoryRow {
+        Long getId();
+        Long getRestaurantId();
+        String getRestaurantName();
+        String getStatus();
+        BigDecimal getTotalAmount();
+        BigDecimal getDiscountAmount();
+        String getAppliedCoupon();
+        String getDeliveryAddress();
+        String getSpecialInstructions();
+        String getTrackingInfo();
+        LocalDateTime getEstimatedDeliveryTime();
+        LocalDateTime getActualDeliveryTime();
+        LocalDateTime getCreatedAt();
+        LocalDateTime getUpdatedAt();
+    }
+
+    interface HistoryItemRow {
+        Long getId();
+        Long getOrderId();
+        Long getMenuItemId();
+        String getItemName();
+        Integer getQuantity();
+        BigDecimal getUnitPrice();
+        BigDecimal getLineTotal();
+    }
 }
@@ -0,0 +1,52 @@
+package com.srFoodDelivery.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.srFoodDelivery.model.OutboxEvent;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface OutboxEventRepository extends OutboxRepository<OutboxEvent> {
+
+    boolean existsByDedupKey(String dedupKey);
+
+    /**
+     * Locks the next due events, skipping rows another instance has already locked.
+     */
+    @Override
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2")) // SKIP LOCKED
+    @Query("SELECT e FROM OutboxEvent e WHERE e.status = 'PENDING' AND e.nextAttemptAt <= :now ORDER BY e.nextAttemptAt, e.id")
+    List<OutboxEvent> findDueForUpdate(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Marks an event handled. Runs in the handler's transaction, so the handler's writes and
+     * this update commit or roll back together.
+     */
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = 'PROCESSED', e.attempts = e.attempts + 1, e.processedAt = :now, " +
+           "e.lastError = NULL, e.updatedAt = :now WHERE e.id = :id")
+    int markProcessed(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    /**
+     * Returns events left in PROCESSING by an instance that stopped mid-batch to the queue.
+     */
+    @Override
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxEvent e SET e.status = 'PENDING', e.updatedAt = :now " +
+           "WHERE e.status = 'PROCESSING' AND e.updatedAt < :staleBefore")
+    int releaseStale(@Param("staleBefore") LocalDateTime staleBefore, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,29 @@
+package com.srFoodDelivery.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.repository.NoRepositoryBean;
+
+import com.srFoodDelivery.model.OutboxRecord;
+
+/**
+ * The queries every outbox table provides. Each repository declares them with its own query.
+ */
+@NoRepositoryBean
+public interface OutboxRepository<T extends OutboxRecord> extends JpaRepository<T, Long> {
+
+    long countByStatus(String status);
+
+    /**
+     * Locks the next due rows, skipping rows another instance has already locked.
+     */
+    List<T> findDueForUpdate(LocalDateTime now, Pageable pageable);
+
+    /**
+     * Returns rows left claimed by an instance that stopped mid-batch to the queue.
+     */
+    int releaseStale(LocalDateTime staleBefore, LocalDateTime now);
+}
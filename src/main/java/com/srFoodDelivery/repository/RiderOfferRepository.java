@@ -1,13 +1,16 @@
 package com.srFoodDelivery.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.srFoodDelivery.model.Rider;
 import com.srFoodDelivery.model.RiderOffer;
@@ -24,6 +27,13 @@ public interface RiderOfferRepository extends JpaRepository<RiderOffer, Long> {
     
     List<RiderOffer> findBySubOrderAndStatus(SubOrder subOrder, String status);
     
+    @Query("SELECT ro.rider.id FROM RiderOffer ro WHERE ro.subOrder = :subOrder AND ro.status = :status")
+    List<Long> findRiderIdsBySubOrderAndStatus(@Param("subOrder") SubOrder subOrder, @Param("status") String status);
+    
+    @Query("SELECT DISTINCT ro.rider.id FROM RiderOffer ro WHERE ro.subOrder = :subOrder AND ro.status IN :statuses")
+    List<Long> findRiderIdsBySubOrderAndStatusIn(@Param("subOrder") SubOrder subOrder,
+            @Param("statuses") Collection<String> statuses);
+    
     @Query("SELECT ro FROM RiderOffer ro WHERE ro.subOrder = :subOrder AND ro.status = 'PENDING' AND ro.expiresAt > :now ORDER BY ro.createdAt DESC")
     List<RiderOffer> findPendingOffersForSubOrder(@Param("subOrder") SubOrder subOrder, @Param("now") LocalDateTime now);
     
@@ -32,5 +42,35 @@ public interface RiderOfferRepository extends JpaRepository<RiderOffer, Long> {
     
     @Query("SELECT ro FROM RiderOffer ro WHERE ro.status = 'PENDING' AND ro.expiresAt < :now")
     List<RiderOffer> findExpiredOffers(@Param("now") LocalDateTime now);
+    
+    @Query("SELECT ro.id AS id, ro.subOrder.id AS subOrderId, ro.rider.id AS riderId, ro.expiresAt AS expiresAt " +
+           "FROM RiderOffer ro WHERE ro.status = 'PENDING'")
+    List<PendingOfferDeadline> findPendingOfferDeadlines();
+    
+    @Query("SELECT ro.id AS id, ro.subOrder.id AS subOrderId, ro.rider.id AS riderId, ro.expiresAt AS expiresAt " +
+           "FROM RiderOffer ro WHERE ro.status = 'PENDING' AND ro.expiresAt <= :cutoff")
+    List<PendingOfferDeadline> findOverduePendingOfferDeadlines(@Param("cutoff") LocalDateTime cutoff);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE RiderOffer ro SET ro.status = 'EXPIRED', ro.updatedAt = :now " +
+           "WHERE ro.id IN :ids AND ro.status = 'PENDING' AND ro.expiresAt <= :now")
+    int markExpired(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE RiderOffer ro SET ro.status = 'EXPIRED', ro.updatedAt = :now " +
+           "WHERE ro.subOrder.id IN :subOrderIds AND ro.status = 'PENDING' AND ro.expiresAt <= :now")
+    int markExpiredForSubOrders(@Param("subOrderIds") Collection<Long> subOrderIds, @Param("now") LocalDateTime now);
+    
+    interface PendingOfferDeadline {
+        Long getId();
+        
+        Long getSubOrderId();
+        
+        Long getRiderId();
+        
+        LocalDateTime getExpiresAt();
+    }
 }
 
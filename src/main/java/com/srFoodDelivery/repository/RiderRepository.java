@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -23,6 +24,10 @@ public interface RiderRepository extends JpaRepository<Rider, Long> {
            "AND r.currentLatitude IS NOT NULL AND r.currentLongitude IS NOT NULL")
     List<Rider> findOnlineAvailableRidersWithLocation();
     
+    @Query("SELECT r.id FROM Rider r WHERE r.isOnline = true AND r.isAvailable = true " +
+           "AND r.currentLatitude IS NOT NULL AND r.currentLongitude IS NOT NULL")
+    List<Long> findOnlineAvailableRiderIdsWithLocation();
+    
     @Query(value = "SELECT r.* FROM rider r " +
            "WHERE r.is_online = true " +
            "AND r.is_available = true " +
@@ -30,14 +35,27 @@ public interface RiderRepository extends JpaRepository<Rider, Long> {
            "AND r.current_longitude IS NOT NULL " +
            "ORDER BY (6371 * acos(cos(radians(?1)) * cos(radians(r.current_latitude)) * " +
            "cos(radians(r.current_longitude) - radians(?2)) + " +
-           "sin(radians(?1)) * sin(radians(r.current_latitude)))) ASC " 
-           , nativeQuery = true)
+           "sin(radians(?1)) * sin(radians(r.current_latitude)))) ASC " +
+           "LIMIT ?3", nativeQuery = true)
     List<Rider> findNearestRiders(
         BigDecimal latitude,
         BigDecimal longitude,
         int limit
     );
     
+    @Query("SELECT r.user.id FROM Rider r WHERE r.id = :id")
+    Optional<Long> findUserIdById(@Param("id") Long id);
+
+    /**
+     * Writes only the position columns, which entity saves never touch.
+     */
+    @Modifying
+    @Query(value = "UPDATE rider SET current_latitude = :latitude, current_longitude = :longitude, " +
+           "updated_at = CURRENT_TIMESTAMP WHERE id = :id", nativeQuery = true)
+    int updateLocation(@Param("id") Long id,
+            @Param("latitude") BigDecimal latitude,
+            @Param("longitude") BigDecimal longitude);
+    
     @Query("SELECT r FROM Rider r WHERE r.status IN :statuses")
     List<Rider> findByStatusIn(@Param("statuses") List<String> statuses);
 }
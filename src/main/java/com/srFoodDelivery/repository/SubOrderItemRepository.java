@@ -1,8 +1,12 @@
 package com.srFoodDelivery.repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.srFoodDelivery.model.SubOrder;
@@ -12,5 +16,26 @@ import com.srFoodDelivery.model.SubOrderItem;
 public interface SubOrderItemRepository extends JpaRepository<SubOrderItem, Long> {
     
     List<SubOrderItem> findBySubOrder(SubOrder subOrder);
+
+    @Query("SELECT i.id AS id, i.subOrder.id AS subOrderId, mi.id AS menuItemId, i.itemName AS itemName, " +
+            "i.quantity AS quantity, i.unitPrice AS unitPrice, i.lineTotal AS lineTotal " +
+            "FROM SubOrderItem i LEFT JOIN i.menuItem mi WHERE i.subOrder.id IN :subOrderIds ORDER BY i.id")
+    List<HistoryRow> findHistoryRows(@Param("subOrderIds") Collection<Long> subOrderIds);
+
+    interface HistoryRow {
+        Long getId();
+
+        Long getSubOrderId();
+
+        Long getMenuItemId();
+
+        String getItemName();
+
+        Integer getQuantity();
+
+        BigDecimal getUnitPrice();
+
+        BigDecimal getLineTotal();
+    }
 }
 
@@ -1,15 +1,23 @@
 package com.srFoodDelivery.repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 
 import com.srFoodDelivery.model.ChefProfile;
 import com.srFoodDelivery.model.MultiOrder;
@@ -38,19 +46,168 @@ public interface SubOrderRepository extends JpaRepository<SubOrder, Long> {
                         @Param("rider") Rider rider,
                         @Param("statuses") List<String> statuses);
 
+        @Query("SELECT so.rider.id AS riderId, COUNT(so) AS activeCount FROM SubOrder so " +
+                        "WHERE so.rider IS NOT NULL AND so.status IN :statuses GROUP BY so.rider.id")
+        List<RiderActiveLoad> countByRiderAndStatusIn(@Param("statuses") List<String> statuses);
+
+        @Query("SELECT DISTINCT so.multiOrder.id FROM SubOrder so WHERE so.rider.id = :riderId AND so.status IN :statuses")
+        List<Long> findMultiOrderIdsByRiderAndStatusIn(@Param("riderId") Long riderId,
+                        @Param("statuses") List<String> statuses);
+
         Optional<SubOrder> findByIdAndRestaurant(Long id, Restaurant restaurant);
 
         Optional<SubOrder> findByIdAndChefProfile(Long id, ChefProfile chefProfile);
 
-        @Query("SELECT so FROM SubOrder so WHERE so.restaurant = :restaurant AND (so.preorderSlot IS NOT NULL OR so.multiOrder.orderingMode = 'PREORDER' OR so.multiOrder.orderingMode = 'DINE_IN') ORDER BY so.createdAt DESC")
-        List<SubOrder> findPreorders(@Param("restaurant") Restaurant restaurant);
-
-        @Query("SELECT so FROM SubOrder so WHERE so.restaurant = :restaurant AND so.preorderSlot IS NULL AND (so.multiOrder.orderingMode IS NULL OR (so.multiOrder.orderingMode != 'PREORDER' AND so.multiOrder.orderingMode != 'DINE_IN')) ORDER BY so.createdAt DESC")
-        List<SubOrder> findDeliveryOrders(@Param("restaurant") Restaurant restaurant);
+        /**
+         * The restaurant's sub orders not in one of the given statuses, each with whether it is a
+         * preorder (slot booked, or a PREORDER / DINE_IN order) or a delivery.
+         */
+        @Query("SELECT so.id AS id, so.status AS status, " +
+                        "CASE WHEN so.preorderSlot IS NOT NULL OR mo.orderingMode = 'PREORDER' OR mo.orderingMode = 'DINE_IN' " +
+                        "THEN true ELSE false END AS preorder " +
+                        "FROM SubOrder so LEFT JOIN so.multiOrder mo " +
+                        "WHERE so.restaurant.id = :restaurantId AND so.status NOT IN :excludedStatuses")
+        List<BoardRow> findBoardRows(@Param("restaurantId") Long restaurantId,
+                        @Param("excludedStatuses") Collection<String> excludedStatuses);
+
+        @Query("SELECT so.id AS id, so.status AS status, " +
+                        "CASE WHEN so.preorderSlot IS NOT NULL OR mo.orderingMode = 'PREORDER' OR mo.orderingMode = 'DINE_IN' " +
+                        "THEN true ELSE false END AS preorder " +
+                        "FROM SubOrder so LEFT JOIN so.multiOrder mo WHERE so.id = :id")
+        Optional<BoardRow> findBoardRow(@Param("id") Long id);
+
+        /**
+         * The given sub orders with everything the owner's order cards show, newest first.
+         */
+        @Query("SELECT DISTINCT so FROM SubOrder so JOIN FETCH so.multiOrder mo LEFT JOIN FETCH mo.user " +
+                        "LEFT JOIN FETCH so.rider rd LEFT JOIN FETCH rd.user LEFT JOIN FETCH so.preorderSlot " +
+                        "LEFT JOIN FETCH so.reservation res LEFT JOIN FETCH res.table LEFT JOIN FETCH so.items " +
+                        "WHERE so.id IN :ids ORDER BY so.id DESC")
+        List<SubOrder> findForBoard(@Param("ids") Collection<Long> ids);
+
+        interface BoardRow {
+                Long getId();
+
+                String getStatus();
+
+                Boolean getPreorder();
+        }
 
         @Query("SELECT so FROM SubOrder so WHERE (so.status = 'CONFIRMED' OR so.status = 'OFFERED') AND so.rider IS NULL AND so.preorderSlot IS NULL AND so.reservation IS NULL AND (so.multiOrder.orderingMode IS NULL OR so.multiOrder.orderingMode = 'DELIVERY') ORDER BY so.createdAt DESC")
         List<SubOrder> findAvailableOrdersForRiders();
 
+        @Query("SELECT so.id FROM SubOrder so WHERE so.id IN :ids AND so.rider IS NULL AND so.status = 'OFFERED' " +
+                        "AND NOT EXISTS (SELECT ro.id FROM RiderOffer ro WHERE ro.subOrder = so " +
+                        "AND ro.status = 'PENDING' AND ro.expiresAt > :now)")
+        List<Long> findOfferedWithoutPendingOffers(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+        /**
+         * Locks an unassigned OFFERED sub order for re-dispatch after an offer expiry, skipping it
+         * when another node already holds the lock. Every node ticks the same deadlines, so only
+         * the node that gets the row may re-dispatch it.
+         */
+        @Lock(LockModeType.PESSIMISTIC_WRITE)
+        @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2")) // SKIP LOCKED
+        @Query("SELECT so FROM SubOrder so WHERE so.id = :id AND so.rider IS NULL AND so.status = 'OFFERED'")
+        Optional<SubOrder> claimOfferedForRedispatch(@Param("id") Long id);
+
+        interface RiderActiveLoad {
+                Long getRiderId();
+
+                Long getActiveCount();
+        }
+
+        /**
+         * Sub orders of the given multi orders with just the restaurant, rider, slot and table
+         * columns the order history shows, in one query however many there are.
+         */
+        @Query("SELECT so.id AS id, so.multiOrder.id AS multiOrderId, r.id AS restaurantId, r.name AS restaurantName, " +
+                        "r.latitude AS restaurantLatitude, r.longitude AS restaurantLongitude, " +
+                        "so.status AS status, so.totalAmount AS totalAmount, rd.id AS riderId, ru.fullName AS riderName, " +
+                        "ps.id AS preorderSlotId, ps.slotStartTime AS preorderSlotStartTime, ps.slotEndTime AS preorderSlotEndTime, " +
+                        "res.id AS reservationId, res.reservationDate AS reservationDate, res.reservationTime AS reservationTime, " +
+                        "res.durationMinutes AS durationMinutes, res.numberOfGuests AS numberOfGuests, " +
+                        "t.id AS tableId, t.tableName AS tableName, t.tableNumber AS tableNumber, " +
+                        "so.orderType AS orderType, so.estimatedDeliveryTime AS estimatedDeliveryTime, " +
+                        "so.actualDeliveryTime AS actualDeliveryTime, so.trackingInfo AS trackingInfo " +
+                        "FROM SubOrder so LEFT JOIN so.restaurant r LEFT JOIN so.rider rd LEFT JOIN rd.user ru " +
+                        "LEFT JOIN so.preorderSlot ps LEFT JOIN so.reservation res LEFT JOIN so.table t " +
+                        "WHERE so.multiOrder.id IN :multiOrderIds ORDER BY so.id")
+        List<HistoryRow> findHistoryRows(@Param("multiOrderIds") Collection<Long> multiOrderIds);
+
+        interface HistoryRow {
+                Long getId();
+
+                Long getMultiOrderId();
+
+                Long getRestaurantId();
+
+                String getRestaurantName();
+
+                BigDecimal getRestaurantLatitude();
+
+                BigDecimal getRestaurantLongitude();
+
+                String getStatus();
+
+                BigDecimal getTotalAmount();
+
+                Long getRiderId();
+
+                String getRiderName();
+
+                Long getPreorderSlotId();
+
+                LocalDateTime getPreorderSlotStartTime();
+
+                LocalDateTime getPreorderSlotEndTime();
+
+                Long getReservationId();
+
+                LocalDate getReservationDate();
+
+                LocalTime getReservationTime();
+
+                Integer getDurationMinutes();
+
+                Integer getNumberOfGuests();
+
+                Long getTableId();
+
+                String getTableName();
+
+                String getTableNumber();
+
+                String getOrderType();
+
+                LocalDateTime getEstimatedDeliveryTime();
+
+                LocalDateTime getActualDeliveryTime();
+
+                String getTrackingInfo();
+        }
+
+        /**
+         * A page of the restaurant's sub orders in the given statuses with ids below beforeId,
+         * newest first, with the same columns as {@link #findHistoryRows}.
+         */
+        @Query("SELECT so.id AS id, so.multiOrder.id AS multiOrderId, r.id AS restaurantId, r.name AS restaurantName, " +
+                        "r.latitude AS restaurantLatitude, r.longitude AS restaurantLongitude, " +
+                        "so.status AS status, so.totalAmount AS totalAmount, rd.id AS riderId, ru.fullName AS riderName, " +
+                        "ps.id AS preorderSlotId, ps.slotStartTime AS preorderSlotStartTime, ps.slotEndTime AS preorderSlotEndTime, " +
+                        "res.id AS reservationId, res.reservationDate AS reservationDate, res.reservationTime AS reservationTime, " +
+                        "res.durationMinutes AS durationMinutes, res.numberOfGuests AS numberOfGuests, " +
+                        "t.id AS tableId, t.tableName AS tableName, t.tableNumber AS tableNumber, " +
+                        "so.orderType AS orderType, so.estimatedDeliveryTime AS estimatedDeliveryTime, " +
+                        "so.actualDeliveryTime AS actualDeliveryTime, so.trackingInfo AS trackingInfo " +
+                        "FROM SubOrder so JOIN so.restaurant r LEFT JOIN so.rider rd LEFT JOIN rd.user ru " +
+                        "LEFT JOIN so.preorderSlot ps LEFT JOIN so.reservation res LEFT JOIN so.table t " +
+                        "WHERE r.id = :restaurantId AND so.status IN :statuses AND so.id < :beforeId ORDER BY so.id DESC")
+        List<HistoryRow> findArchiveRows(@Param("restaurantId") Long restaurantId,
+                        @Param("statuses") Collection<String> statuses,
+                        @Param("beforeId") Long beforeId,
+                        Pageable pageable);
+
         @Lock(LockModeType.PESSIMISTIC_WRITE)
         @Query("SELECT so FROM SubOrder so WHERE so.id = :id")
         Optional<SubOrder> findByIdWithLock(@Param("id") Long id);
@@ -27,18 +27,32 @@ public interface TableReservationRepository extends JpaRepository<TableReservati
     
     Optional<TableReservation> findByQrCode(String qrCode);
     
+    /**
+     * Active reservations on the table that overlap [startAt, endAt) on the given day.
+     * Compares plain columns so (table_id, reservation_date, reservation_end_at) can be used.
+     */
     @Query("SELECT r FROM TableReservation r WHERE r.table = :table " +
            "AND r.reservationDate = :date " +
            "AND r.status IN ('PENDING', 'CONFIRMED', 'CHECKED_IN') " +
-           "AND ((r.reservationTime <= :endTime AND FUNCTION('ADDTIME', r.reservationTime, FUNCTION('SEC_TO_TIME', r.durationMinutes * 60)) >= :startTime) OR " +
-           "(r.reservationTime >= :startTime AND r.reservationTime < :endTime))")
+           "AND r.reservationEndAt > :startAt " +
+           "AND r.reservationTime < :endTime")
     List<TableReservation> findConflictingReservations(
         @Param("table") RestaurantTable table,
         @Param("date") LocalDate date,
-        @Param("startTime") LocalTime startTime,
+        @Param("startAt") LocalDateTime startAt,
         @Param("endTime") LocalTime endTime
     );
     
+    @Query("SELECT r.id AS id, r.table.id AS tableId, r.reservationTime AS reservationTime, " +
+           "r.durationMinutes AS durationMinutes FROM TableReservation r " +
+           "WHERE r.restaurant.id = :restaurantId " +
+           "AND r.reservationDate = :date " +
+           "AND r.status IN ('PENDING', 'CONFIRMED', 'CHECKED_IN')")
+    List<ReservationInterval> findActiveIntervals(
+        @Param("restaurantId") Long restaurantId,
+        @Param("date") LocalDate date
+    );
+    
     @Query("SELECT r FROM TableReservation r WHERE r.restaurant = :restaurant " +
            "AND r.reservationDate = :date " +
            "AND r.status IN ('PENDING', 'CONFIRMED', 'CHECKED_IN')")
@@ -50,5 +64,15 @@ public interface TableReservationRepository extends JpaRepository<TableReservati
     @Query("SELECT r FROM TableReservation r WHERE r.autoReleaseTime <= :now " +
            "AND r.status = 'PENDING'")
     List<TableReservation> findReservationsToAutoRelease(@Param("now") LocalDateTime now);
+    
+    interface ReservationInterval {
+        Long getId();
+        
+        Long getTableId();
+        
+        LocalTime getReservationTime();
+        
+        Integer getDurationMinutes();
+    }
 }
 
@@ -0,0 +1,272 @@
+package com.srFoodDelivery.service;
+
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.srFoodDelivery.model.SiteMode;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Read-through cache of the storefront catalog (active restaurants, available menu items)
+ * per {@link SiteMode}.
+ *
+ * Each entry is an unmodifiable list loaded once and shared by every page view until it
+ * expires, is evicted to stay within the size limit, or is invalidated by an owner/admin
+ * edit. Invalidation runs after the editing transaction commits and bumps a per-entry
+ * generation, so a load that started before the edit is returned to its caller but never
+ * published. An entry may also carry a stamp (e.g. the offer label snapshot it was built
+ * with); a read with a different stamp reloads it.
+ *
+ * Requests, loads and evictions are exported as {@code catalog.cache.*} meters.
+ */
+@Component
+public class CatalogCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogCache.class);
+
+    public enum Catalog {
+        RESTAURANTS,
+        MENU_ITEMS
+    }
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Key, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final Map<Key, Object> loadLocks = new ConcurrentHashMap<>();
+
+    private final Map<Catalog, Map<SiteMode, Counter>> hitCounters = new EnumMap<>(Catalog.class);
+    private final Map<Catalog, Map<SiteMode, Counter>> missCounters = new EnumMap<>(Catalog.class);
+    private final Map<Catalog, Timer> loadTimers = new EnumMap<>(Catalog.class);
+    private final Counter expiredEvictions;
+    private final Counter sizeEvictions;
+    private final Counter invalidations;
+
+    private final long ttlMillis;
+    private final int maxEntries;
+
+    public CatalogCache(MeterRegistry meterRegistry,
+            @Value("${catalog.cache.ttl-seconds:300}") long ttlSeconds,
+            @Value("${catalog.cache.max-entries:16}") int maxEntries) {
+        this.ttlMillis = ttlSeconds * 1000;
+        this.maxEntries = Math.max(1, maxEntries);
+
+        for (Catalog catalog : Catalog.values()) {
+            String catalogTag = tagValue(catalog);
+            Map<SiteMode, Counter> hits = new EnumMap<>(SiteMode.class);
+            Map<SiteMode, Counter> misses = new EnumMap<>(SiteMode.class);
+            for (SiteMode mode : SiteMode.values()) {
+                hits.put(mode, Counter.builder("catalog.cache.requests")
+                        .description("Catalog cache lookups")
+                        .tag("catalog", catalogTag)
+                        .tag("mode", mode.name())
+                        .tag("result", "hit")
+                        .register(meterRegistry));
+                misses.put(mode, Counter.builder("catalog.cache.requests")
+                        .description("Catalog cache lookups")
+                        .tag("catalog", catalogTag)
+                        .tag("mode", mode.name())
+                        .tag("result", "miss")
+                        .register(meterRegistry));
+            }
+            hitCounters.put(catalog, hits);
+            missCounters.put(catalog, misses);
+            loadTimers.put(catalog, Timer.builder("catalog.cache.load")
+                    .description("Time to load a catalog snapshot from the database")
+                    .tag("catalog", catalogTag)
+                    .register(meterRegistry));
+        }
+
+        this.expiredEvictions = Counter.builder("catalog.cache.evictions")
+                .description("Catalog snapshots dropped from the cache")
+                .tag("cause", "expired")
+                .register(meterRegistry);
+        this.sizeEvictions = Counter.builder("catalog.cache.evictions")
+                .description("Catalog snapshots dropped from the cache")
+                .tag("cause", "size")
+                .register(meterRegistry);
+        this.invalidations = Counter.builder("catalog.cache.evictions")
+                .description("Catalog snapshots dropped from the cache")
+                .tag("cause", "invalidated")
+                .register(meterRegistry);
+        Gauge.builder("catalog.cache.entries", entries, Map::size)
+                .description("Catalog snapshots currently cached")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached list for a catalog and mode, loading it on a miss. A null mode is
+     * treated as restaurant mode, matching the services that call this.
+     */
+    public <T> List<T> get(Catalog catalog, SiteMode siteMode, Supplier<List<T>> loader) {
+        return get(catalog, siteMode, null, loader);
+    }
+
+    /**
+     * Same as {@link #get(Catalog, SiteMode, Supplier)}, but a cached entry built with a
+     * different stamp is treated as stale.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> get(Catalog catalog, SiteMode siteMode, Object stamp, Supplier<List<T>> loader) {
+        SiteMode mode = siteMode != null ? siteMode : SiteMode.RESTAURANT;
+        Key key = new Key(catalog, mode);
+
+        Entry cached = freshEntry(key, stamp);
+        if (cached != null) {
+            hitCounters.get(catalog).get(mode).increment();
+            return (List<T>) cached.values;
+        }
+
+        // One load per key at a time; concurrent readers wait and then share its result
+        synchronized (loadLocks.computeIfAbsent(key, k -> new Object())) {
+            cached = freshEntry(key, stamp);
+            if (cached != null) {
+                hitCounters.get(catalog).get(mode).increment();
+                return (List<T>) cached.values;
+            }
+            missCounters.get(catalog).get(mode).increment();
+
+            long loadGeneration = generation(key).get();
+            List<T> values = List.copyOf(loadTimers.get(catalog).record(loader));
+
+            if (generation(key).get() == loadGeneration) {
+                entries.put(key, new Entry(values, stamp, System.currentTimeMillis() + ttlMillis));
+                evictOverflow();
+            } else {
+                logger.debug("Not caching {} for {}: invalidated while loading", catalog, mode);
+            }
+            return values;
+        }
+    }
+
+    /**
+     * Drops one catalog for one mode after the current transaction commits.
+     */
+    public void invalidate(Catalog catalog, SiteMode siteMode) {
+        Key key = new Key(catalog, siteMode != null ? siteMode : SiteMode.RESTAURANT);
+        afterCommit(() -> evict(key));
+    }
+
+    /**
+     * Drops one catalog for the mode a restaurant is listed under.
+     */
+    public void invalidate(Catalog catalog, boolean cafeLounge) {
+        invalidate(catalog, modeOf(cafeLounge));
+    }
+
+    /**
+     * Drops the restaurant and menu item lists for the mode a restaurant is listed under.
+     */
+    public void invalidateRestaurant(boolean cafeLounge) {
+        SiteMode mode = modeOf(cafeLounge);
+        invalidate(Catalog.RESTAURANTS, mode);
+        invalidate(Catalog.MENU_ITEMS, mode);
+    }
+
+    /**
+     * Drops one catalog for every mode after the current transaction commits.
+     */
+    public void invalidateAll(Catalog catalog) {
+        afterCommit(() -> {
+            for (SiteMode mode : SiteMode.values()) {
+                evict(new Key(catalog, mode));
+            }
+        });
+    }
+
+    private Entry freshEntry(Key key, Object stamp) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            if (entries.remove(key, entry)) {
+                expiredEvictions.increment();
+            }
+            return null;
+        }
+        if (!Objects.equals(entry.stamp, stamp)) {
+            return null;
+        }
+        entry.lastAccess = System.currentTimeMillis();
+        return entry;
+    }
+
+    private void evict(Key key) {
+        generation(key).incrementAndGet();
+        if (entries.remove(key) != null) {
+            invalidations.increment();
+        }
+    }
+
+    private void evictOverflow() {
+        while (entries.size() > maxEntries) {
+            Map.Entry<Key, Entry> oldest = entries.entrySet().stream()
+                    .min(Comparator.comparingLong(e -> e.getValue().lastAccess))
+                    .orElse(null);
+            if (oldest == null) {
+                return;
+            }
+            if (entries.remove(oldest.getKey(), oldest.getValue())) {
+                sizeEvictions.increment();
+            }
+        }
+    }
+
+    private AtomicLong generation(Key key) {
+        return generations.computeIfAbsent(key, k -> new AtomicLong());
+    }
+
+    private static SiteMode modeOf(boolean cafeLounge) {
+        return cafeLounge ? SiteMode.CAFE : SiteMode.RESTAURANT;
+    }
+
+    private static String tagValue(Catalog catalog) {
+        return catalog.name().toLowerCase().replace('_', '-');
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record Key(Catalog catalog, SiteMode mode) {
+    }
+
+    private static final class Entry {
+        private final List<?> values;
+        private final Object stamp;
+        private final long expiresAt;
+        private volatile long lastAccess;
+
+        private Entry(List<?> values, Object stamp, long expiresAt) {
+            this.values = values;
+            this.stamp = stamp;
+            this.expiresAt = expiresAt;
+            this.lastAccess = System.currentTimeMillis();
+        }
+    }
+}
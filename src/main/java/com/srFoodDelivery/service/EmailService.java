@@ -4,39 +4,30 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+import com.srFoodDelivery.model.EmailOutboxMessage;
 import com.srFoodDelivery.model.MultiOrder;
 import com.srFoodDelivery.model.Order;
 import com.srFoodDelivery.model.OrderStatus;
 import com.srFoodDelivery.model.User;
+import com.srFoodDelivery.repository.EmailOutboxRepository;
 
 @Service
 public class EmailService {
 
     private static final Logger logger = LoggerFactory.getLogger(EmailService.class);
     
-    private final JavaMailSender mailSender;
+    private final EmailOutboxRepository emailOutboxRepository;
     
     @Value("${spring.mail.username:}")
     private String fromEmail;
 
-    public EmailService(JavaMailSender mailSender) {
-        this.mailSender = mailSender;
-        if (mailSender == null) {
-            logger.error("JavaMailSender is NULL! Email functionality will not work. Check Spring Boot mail autoconfiguration.");
-        } else {
-            logger.info("EmailService initialized successfully with JavaMailSender");
-        }
+    public EmailService(EmailOutboxRepository emailOutboxRepository) {
+        this.emailOutboxRepository = emailOutboxRepository;
     }
 
     public void sendOrderConfirmationEmail(User user, Order order) {
-        if (mailSender == null) {
-            logger.warn("JavaMailSender is not configured. Email will not be sent.");
-            return;
-        }
-        
         try {
             logger.info("Sending order confirmation email to {} for order #{}", user.getEmail(), order.getId());
             
@@ -67,24 +58,15 @@ public class EmailService {
                 order.getStatus() != null ? order.getStatus() : "CONFIRMED"
             ));
             
-            mailSender.send(message);
-            logger.info("✅ EMAIL SENT SUCCESSFULLY to {}", user.getEmail());
+            enqueue(message);
+            logger.info("Email queued for {}", user.getEmail());
             logger.info("Email Subject: Order Confirmation - Tummy Go!");
-        } catch (org.springframework.mail.MailAuthenticationException e) {
-            logger.error("Email authentication failed. Please check your email credentials in application.properties: {}", e.getMessage());
-        } catch (org.springframework.mail.MailSendException e) {
-            logger.error("Failed to send email to {}. Check SMTP settings and network connection: {}", user.getEmail(), e.getMessage());
         } catch (Exception e) {
             logger.error("Failed to send order confirmation email to {}: {}", user.getEmail(), e.getMessage(), e);
         }
     }
 
     public void sendOrderStatusUpdateEmail(User user, Order order) {
-        if (mailSender == null) {
-            logger.warn("JavaMailSender is not configured. Email will not be sent.");
-            return;
-        }
-        
         try {
             logger.info("Sending order status update email to {} for order #{}", user.getEmail(), order.getId());
             
@@ -116,23 +98,14 @@ public class EmailService {
                 order.getDeliveryAddress() != null ? order.getDeliveryAddress() : "N/A"
             ));
             
-            mailSender.send(message);
-            logger.info("Order status update email sent successfully to {}", user.getEmail());
-        } catch (org.springframework.mail.MailAuthenticationException e) {
-            logger.error("Email authentication failed. Please check your email credentials in application.properties: {}", e.getMessage());
-        } catch (org.springframework.mail.MailSendException e) {
-            logger.error("Failed to send email to {}. Check SMTP settings and network connection: {}", user.getEmail(), e.getMessage());
+            enqueue(message);
+            logger.info("Order status update email queued for {}", user.getEmail());
         } catch (Exception e) {
             logger.error("Failed to send order status update email to {}: {}", user.getEmail(), e.getMessage(), e);
         }
     }
 
     public void sendMultiOrderConfirmationEmail(User user, MultiOrder multiOrder) {
-        if (mailSender == null) {
-            logger.error("JavaMailSender is NULL. Email will not be sent. Check application.properties email configuration.");
-            return;
-        }
-        
         try {
             logger.info("=== ATTEMPTING TO SEND MULTIORDER CONFIRMATION EMAIL ===");
             logger.info("To: {}", user != null ? user.getEmail() : "NULL USER");
@@ -197,24 +170,15 @@ public class EmailService {
                 multiOrder.getPaymentStatus() != null ? multiOrder.getPaymentStatus() : "PENDING"
             ));
             
-            mailSender.send(message);
-            logger.info("✅ EMAIL SENT SUCCESSFULLY to {}", user.getEmail());
+            enqueue(message);
+            logger.info("Email queued for {}", user.getEmail());
             logger.info("Email Subject: Order Confirmation - Tummy Go!");
-        } catch (org.springframework.mail.MailAuthenticationException e) {
-            logger.error("Email authentication failed. Please check your email credentials in application.properties: {}", e.getMessage());
-        } catch (org.springframework.mail.MailSendException e) {
-            logger.error("Failed to send email to {}. Check SMTP settings and network connection: {}", user.getEmail(), e.getMessage());
         } catch (Exception e) {
             logger.error("Failed to send MultiOrder confirmation email to {}: {}", user.getEmail(), e.getMessage(), e);
         }
     }
 
     public void sendMultiOrderStatusUpdateEmail(User user, MultiOrder multiOrder) {
-        if (mailSender == null) {
-            logger.warn("JavaMailSender is not configured. Email will not be sent.");
-            return;
-        }
-        
         try {
             logger.info("Sending MultiOrder status update email to {} for MultiOrder #{}", user.getEmail(), multiOrder.getId());
             
@@ -251,24 +215,15 @@ public class EmailService {
                 multiOrder.getDeliveryAddress() != null ? multiOrder.getDeliveryAddress() : "N/A"
             ));
             
-            mailSender.send(message);
-            logger.info("✅ EMAIL SENT SUCCESSFULLY to {}", user.getEmail());
+            enqueue(message);
+            logger.info("Email queued for {}", user.getEmail());
             logger.info("Email Subject: Order Status Update - Tummy Go!");
-        } catch (org.springframework.mail.MailAuthenticationException e) {
-            logger.error("Email authentication failed. Please check your email credentials in application.properties: {}", e.getMessage());
-        } catch (org.springframework.mail.MailSendException e) {
-            logger.error("Failed to send email to {}. Check SMTP settings and network connection: {}", user.getEmail(), e.getMessage());
         } catch (Exception e) {
             logger.error("Failed to send MultiOrder status update email to {}: {}", user.getEmail(), e.getMessage(), e);
         }
     }
 
     public void sendPreorderApprovalEmail(User user, MultiOrder multiOrder, String restaurantName) {
-        if (mailSender == null) {
-            logger.error("JavaMailSender is NULL. Email will not be sent. Check application.properties email configuration.");
-            return;
-        }
-        
         try {
             logger.info("=== ATTEMPTING TO SEND PREORDER APPROVAL EMAIL ===");
             logger.info("To: {}", user != null ? user.getEmail() : "NULL USER");
@@ -319,24 +274,15 @@ public class EmailService {
                 multiOrder.getDeliveryAddress() != null ? multiOrder.getDeliveryAddress() : "N/A"
             ));
             
-            mailSender.send(message);
-            logger.info("✅ EMAIL SENT SUCCESSFULLY to {}", user.getEmail());
+            enqueue(message);
+            logger.info("Email queued for {}", user.getEmail());
             logger.info("Email Subject: Preorder Approved - Tummy Go!");
-        } catch (org.springframework.mail.MailAuthenticationException e) {
-            logger.error("Email authentication failed. Please check your email credentials in application.properties: {}", e.getMessage());
-        } catch (org.springframework.mail.MailSendException e) {
-            logger.error("Failed to send email to {}. Check SMTP settings and network connection: {}", user.getEmail(), e.getMessage());
         } catch (Exception e) {
             logger.error("Failed to send preorder approval email to {}: {}", user.getEmail(), e.getMessage(), e);
         }
     }
 
     public void sendPreorderRejectionEmail(User user, MultiOrder multiOrder, String restaurantName, String reason) {
-        if (mailSender == null) {
-            logger.error("JavaMailSender is NULL. Email will not be sent. Check application.properties email configuration.");
-            return;
-        }
-        
         try {
             logger.info("=== ATTEMPTING TO SEND PREORDER REJECTION EMAIL ===");
             logger.info("To: {}", user != null ? user.getEmail() : "NULL USER");
@@ -389,18 +335,28 @@ public class EmailService {
                 reason != null && !reason.isEmpty() ? "Reason: " + reason + "\n" : ""
             ));
             
-            mailSender.send(message);
-            logger.info("✅ EMAIL SENT SUCCESSFULLY to {}", user.getEmail());
+            enqueue(message);
+            logger.info("Email queued for {}", user.getEmail());
             logger.info("Email Subject: Preorder Rejected - Tummy Go!");
-        } catch (org.springframework.mail.MailAuthenticationException e) {
-            logger.error("Email authentication failed. Please check your email credentials in application.properties: {}", e.getMessage());
-        } catch (org.springframework.mail.MailSendException e) {
-            logger.error("Failed to send email to {}. Check SMTP settings and network connection: {}", user.getEmail(), e.getMessage());
         } catch (Exception e) {
             logger.error("Failed to send preorder rejection email to {}: {}", user.getEmail(), e.getMessage(), e);
         }
     }
 
+    /**
+     * Writes the message to the email outbox. EmailOutboxDispatcher delivers it in the background,
+     * so callers never wait on SMTP. When called inside a transaction the email is only sent if
+     * that transaction commits.
+     */
+    private void enqueue(SimpleMailMessage message) {
+        EmailOutboxMessage outboxMessage = new EmailOutboxMessage();
+        outboxMessage.setSender(message.getFrom());
+        outboxMessage.setRecipient(message.getTo()[0]);
+        outboxMessage.setSubject(message.getSubject());
+        outboxMessage.setBody(message.getText());
+        emailOutboxRepository.save(outboxMessage);
+    }
+
     private String getStatusMessage(String status) {
         return switch (status) {
             case OrderStatus.CONFIRMED -> "Confirmed - Your order has been confirmed by the restaurant";
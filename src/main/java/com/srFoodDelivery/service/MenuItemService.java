@@ -1,8 +1,11 @@
 package com.srFoodDelivery.service;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
@@ -14,6 +17,8 @@ import com.srFoodDelivery.model.MenuItem;
 import com.srFoodDelivery.model.SiteMode;
 import com.srFoodDelivery.repository.MenuItemRepository;
 import com.srFoodDelivery.repository.MenuRepository;
+import com.srFoodDelivery.service.CatalogCache.Catalog;
+import com.srFoodDelivery.service.search.MenuSearchIndex;
 
 @Service
 @Transactional(readOnly = true)
@@ -22,14 +27,19 @@ public class MenuItemService {
     private final MenuItemRepository menuItemRepository;
     private final MenuRepository menuRepository;
     private final ImageService imageService;
-    private final com.srFoodDelivery.repository.OfferRepository offerRepository;
+    private final OfferApplicabilityIndex offerApplicabilityIndex;
+    private final MenuSearchIndex menuSearchIndex;
+    private final CatalogCache catalogCache;
 
     public MenuItemService(MenuItemRepository menuItemRepository, MenuRepository menuRepository,
-            ImageService imageService, com.srFoodDelivery.repository.OfferRepository offerRepository) {
+            ImageService imageService, OfferApplicabilityIndex offerApplicabilityIndex,
+            MenuSearchIndex menuSearchIndex, CatalogCache catalogCache) {
         this.menuItemRepository = menuItemRepository;
         this.menuRepository = menuRepository;
         this.imageService = imageService;
-        this.offerRepository = offerRepository;
+        this.offerApplicabilityIndex = offerApplicabilityIndex;
+        this.menuSearchIndex = menuSearchIndex;
+        this.catalogCache = catalogCache;
     }
 
     public List<MenuItem> getAvailableItems() {
@@ -38,9 +48,19 @@ public class MenuItemService {
         return items;
     }
 
+    /**
+     * Available items for a storefront mode, served from the catalog cache.
+     * The returned list is shared and unmodifiable. Offer labels are the ones in effect
+     * when the list was loaded; a change to the offer snapshot forces a reload.
+     */
     public List<MenuItem> getAvailableItemsForMode(SiteMode siteMode) {
-        List<MenuItem> items = getAvailableItems();
-        return filterByMode(items, siteMode);
+        OfferApplicabilityIndex.Snapshot offers = offerApplicabilityIndex.current();
+        return catalogCache.get(Catalog.MENU_ITEMS, siteMode, offers, () -> {
+            // Menu, restaurant and tags are fetched up front so the cached items can be rendered detached
+            List<MenuItem> items = filterByMode(menuItemRepository.findAvailableForSearchIndex(), siteMode);
+            ensureImageUrls(items);
+            return items;
+        });
     }
 
     public List<MenuItem> getAvailableItemsByTags(Set<String> tags) {
@@ -63,6 +83,26 @@ public class MenuItemService {
         return items;
     }
 
+    /**
+     * Loads items by ID in the given order, e.g. one page of search results.
+     */
+    public List<MenuItem> getItemsInOrder(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, MenuItem> byId = menuItemRepository.findByIdIn(ids).stream()
+                .collect(Collectors.toMap(MenuItem::getId, Function.identity()));
+        List<MenuItem> items = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            MenuItem item = byId.get(id);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        ensureImageUrls(items);
+        return items;
+    }
+
     private void ensureImageUrls(List<MenuItem> items) {
         enrichValuesWithOffers(items);
         for (MenuItem item : items) {
@@ -76,52 +116,16 @@ public class MenuItemService {
         if (items == null || items.isEmpty())
             return;
 
-        List<com.srFoodDelivery.model.Offer> activeOffers = offerRepository
-                .findActiveOffers(java.time.LocalDateTime.now());
+        OfferApplicabilityIndex.Snapshot offers = offerApplicabilityIndex.current();
 
         for (MenuItem item : items) {
-            String bestLabel = null;
-            java.math.BigDecimal bestValue = java.math.BigDecimal.ZERO;
-
-            for (com.srFoodDelivery.model.Offer offer : activeOffers) {
-                // Check if offer applies to this item
-                List<Long> applicableIds = offer.getApplicableMenuItemIdList();
-                boolean isApplicable = applicableIds.isEmpty() || applicableIds.contains(item.getId());
-
-                // Also check if restaurant matches (crucial for multi-restaurant)
-                if (item.getMenu() != null && item.getMenu().getRestaurant() != null) {
-                    if (!offer.getRestaurant().getId().equals(item.getMenu().getRestaurant().getId())) {
-                        continue;
-                    }
-                }
-
-                if (isApplicable) {
-                    if ("PERCENTAGE_OFF".equals(offer.getOfferType())) {
-                        if (offer.getDiscountValue() != null && offer.getDiscountValue().compareTo(bestValue) > 0) {
-                            bestValue = offer.getDiscountValue();
-                            bestLabel = String.format("%.0f%% OFF", bestValue);
-                        }
-                    } else if ("BUY_ONE_GET_ONE".equals(offer.getOfferType())) {
-                        // BOGO is visually very strong, prioritize it unless we have a huge % off
-                        if (bestLabel == null || !bestLabel.contains("BOGO")) {
-                            bestLabel = "BOGO FREE";
-                            bestValue = java.math.BigDecimal.valueOf(50); // treat as approx 50%
-                        }
-                    } else if ("FLAT_DISCOUNT".equals(offer.getOfferType())) {
-                        // Flat discount is hard to put on a single item label unless we know the total
-                        // But we can show "₹X OFF"
-                        if (offer.getDiscountValue() != null) {
-                            // Only show flat discount label if it's significant relative to item price?
-                            // For now, let's just show it.
-                            String label = "₹" + offer.getDiscountValue().intValue() + " OFF";
-                            // Simple priority: if we don't have a label yet
-                            if (bestLabel == null)
-                                bestLabel = label;
-                        }
-                    }
-                }
+            // Offers only apply to items of their own restaurant (crucial for multi-restaurant)
+            Long restaurantId = null;
+            if (item.getMenu() != null && item.getMenu().getRestaurant() != null) {
+                restaurantId = item.getMenu().getRestaurant().getId();
             }
 
+            String bestLabel = offers.bestLabel(restaurantId, item.getId());
             if (bestLabel != null) {
                 item.setOfferDisplayLabel(bestLabel);
             }
@@ -136,7 +140,10 @@ public class MenuItemService {
         MenuItem item = new MenuItem();
         item.setMenu(menu);
         applyForm(item, form);
-        return menuItemRepository.save(item);
+        MenuItem saved = menuItemRepository.save(item);
+        menuSearchIndex.index(saved);
+        invalidateCatalog(saved);
+        return saved;
     }
 
     public MenuItem getMenuItem(Long id) {
@@ -166,12 +173,17 @@ public class MenuItemService {
         MenuItem item = menuItemRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Menu item not found"));
         applyForm(item, form);
-        return menuItemRepository.save(item);
+        MenuItem saved = menuItemRepository.save(item);
+        menuSearchIndex.index(saved);
+        invalidateCatalog(saved);
+        return saved;
     }
 
     @Transactional
     public void deleteMenuItem(Long id) {
+        menuItemRepository.findById(id).ifPresent(this::invalidateCatalog);
         menuItemRepository.deleteById(id);
+        menuSearchIndex.remove(id);
     }
 
     @Transactional
@@ -179,6 +191,8 @@ public class MenuItemService {
         List<MenuItem> cafeItems = menuItemRepository.findByCafeRestaurants();
         int count = cafeItems.size();
         menuItemRepository.deleteAll(cafeItems);
+        cafeItems.forEach(item -> menuSearchIndex.remove(item.getId()));
+        catalogCache.invalidate(Catalog.MENU_ITEMS, SiteMode.CAFE);
         return count;
     }
 
@@ -211,6 +225,16 @@ public class MenuItemService {
         return menuItemRepository.findDistinctCategories();
     }
 
+    /**
+     * Drops the cached item list for the mode an item's restaurant is listed under.
+     * Items on chef menus have no restaurant and are never in the catalog.
+     */
+    private void invalidateCatalog(MenuItem item) {
+        if (item.getMenu() != null && item.getMenu().getRestaurant() != null) {
+            catalogCache.invalidate(Catalog.MENU_ITEMS, item.getMenu().getRestaurant().isCafeLounge());
+        }
+    }
+
     public List<String> getAllCategoriesForMode(SiteMode siteMode) {
         List<MenuItem> items = getAvailableItemsForMode(siteMode);
         return items.stream()
@@ -12,6 +12,7 @@ import com.srFoodDelivery.model.Restaurant;
 import com.srFoodDelivery.repository.ChefProfileRepository;
 import com.srFoodDelivery.repository.MenuRepository;
 import com.srFoodDelivery.repository.RestaurantRepository;
+import com.srFoodDelivery.service.CatalogCache.Catalog;
 
 @Service
 @Transactional(readOnly = true)
@@ -20,13 +21,16 @@ public class MenuService {
     private final MenuRepository menuRepository;
     private final RestaurantRepository restaurantRepository;
     private final ChefProfileRepository chefProfileRepository;
+    private final CatalogCache catalogCache;
 
     public MenuService(MenuRepository menuRepository,
                        RestaurantRepository restaurantRepository,
-                       ChefProfileRepository chefProfileRepository) {
+                       ChefProfileRepository chefProfileRepository,
+                       CatalogCache catalogCache) {
         this.menuRepository = menuRepository;
         this.restaurantRepository = restaurantRepository;
         this.chefProfileRepository = chefProfileRepository;
+        this.catalogCache = catalogCache;
     }
 
     @Transactional
@@ -44,12 +48,16 @@ public class MenuService {
     @Transactional
     public Menu updateMenu(Long id, MenuForm form) {
         Menu menu = getMenu(id);
+        // The menu's items move with it if it is reassigned to another restaurant
+        invalidateCatalog(menu);
         applyForm(menu, form);
+        invalidateCatalog(menu);
         return menu;
     }
 
     @Transactional
     public void deleteMenu(Long id) {
+        menuRepository.findById(id).ifPresent(this::invalidateCatalog);
         menuRepository.deleteById(id);
     }
 
@@ -69,6 +77,12 @@ public class MenuService {
         return menuRepository.findByType(type);
     }
 
+    private void invalidateCatalog(Menu menu) {
+        if (menu.getRestaurant() != null) {
+            catalogCache.invalidate(Catalog.MENU_ITEMS, menu.getRestaurant().isCafeLounge());
+        }
+    }
+
     private void applyForm(Menu menu, MenuForm form) {
         menu.setTitle(form.getTitle());
         menu.setDescription(form.getDescription());
@@ -0,0 +1,440 @@
+package com.srFoodDelivery.service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.srFoodDelivery.model.NotificationEntity;
+import com.srFoodDelivery.repository.NotificationRepository;
+import com.srFoodDelivery.websocket.OrderWebSocketPublisher;
+import com.srFoodDelivery.websocket.OutboundBacklog;
+import com.srFoodDelivery.websocket.event.DigestPayload;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Batches notification writes and the WebSocket frames that announce them.
+ *
+ * Notifications are queued once the transaction that created them commits and are inserted
+ * with one JDBC batch per notifications.flush-interval-ms. Each user then gets one frame per
+ * interval: the notification itself if only one arrived, otherwise a NOTIFICATION_DIGEST such as
+ * "12 new orders". Restaurant topic events queued here are collapsed the same way per restaurant
+ * and event type. A destination whose subscribers still have more than
+ * notifications.max-backlog-frames frames waiting to be written is skipped for the interval; its
+ * events keep folding into the next digest, which holds at most DIGEST_LATEST payloads however
+ * long it waits.
+ *
+ * The newest notifications.inbox-size notifications of each user seen recently are kept in
+ * memory for the dashboard. Like the other write-behind buffers, queued notifications are lost
+ * if the process dies before the next flush.
+ */
+@Component
+public class NotificationAggregator {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationAggregator.class);
+    private static final int FLUSH_BATCH_SIZE = 500;
+    private static final int MAX_ATTEMPTS = 5;
+    private static final int DIGEST_LATEST = 10;
+    private static final String INSERT_SQL =
+            "INSERT INTO notification (user_id, title, message, notification_type, related_entity_type, " +
+            "related_entity_id, is_read, created_at) VALUES (?, ?, ?, ?, ?, ?, FALSE, ?)";
+    private static final Map<String, String> DIGEST_NOUNS = Map.of(
+            "NEW_ORDER", "new orders",
+            "NEW_SUBORDER", "new orders");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NotificationRepository notificationRepository;
+    private final OrderWebSocketPublisher webSocketPublisher;
+    private final OutboundBacklog outboundBacklog;
+    private final UnreadCounters unreadCounters;
+    private final int inboxSize;
+    private final int maxBacklogFrames;
+    private final long inboxIdleMillis;
+
+    private final BlockingQueue<Draft> pending = new LinkedBlockingQueue<>();
+    private final BlockingQueue<RestaurantEvent> restaurantEvents = new LinkedBlockingQueue<>();
+    private final Map<Long, Inbox> inboxes = new ConcurrentHashMap<>();
+
+    // Frames not sent yet; only touched by flush()
+    private final Map<Long, FrameBatch> userFrames = new LinkedHashMap<>();
+    private final Map<RestaurantTopicKey, FrameBatch> restaurantFrames = new LinkedHashMap<>();
+
+    private final Counter notificationsWritten;
+    private final Counter notificationsDropped;
+    private final Counter framesSent;
+    private final Counter framesCollapsed;
+    private final Counter framesDeferred;
+
+    public NotificationAggregator(JdbcTemplate jdbcTemplate,
+            NotificationRepository notificationRepository,
+            OrderWebSocketPublisher webSocketPublisher,
+            OutboundBacklog outboundBacklog,
+            UnreadCounters unreadCounters,
+            MeterRegistry meterRegistry,
+            @Value("${notifications.inbox-size:50}") int inboxSize,
+            @Value("${notifications.max-backlog-frames:20}") int maxBacklogFrames,
+            @Value("${notifications.inbox-idle-ttl-ms:1800000}") long inboxIdleMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.notificationRepository = notificationRepository;
+        this.webSocketPublisher = webSocketPublisher;
+        this.outboundBacklog = outboundBacklog;
+        this.unreadCounters = unreadCounters;
+        this.inboxSize = inboxSize;
+        this.maxBacklogFrames = maxBacklogFrames;
+        this.inboxIdleMillis = inboxIdleMillis;
+        this.notificationsWritten = Counter.builder("notifications.writes")
+                .description("Notifications written to the database")
+                .tag("result", "written")
+                .register(meterRegistry);
+        this.notificationsDropped = Counter.builder("notifications.writes")
+                .description("Notifications written to the database")
+                .tag("result", "dropped")
+                .register(meterRegistry);
+        this.framesSent = Counter.builder("notifications.frames")
+                .description("Notification and restaurant event frames")
+                .tag("result", "sent")
+                .register(meterRegistry);
+        this.framesCollapsed = Counter.builder("notifications.frames")
+                .description("Notification and restaurant event frames")
+                .tag("result", "collapsed")
+                .register(meterRegistry);
+        this.framesDeferred = Counter.builder("notifications.frames")
+                .description("Notification and restaurant event frames")
+                .tag("result", "deferred")
+                .register(meterRegistry);
+        Gauge.builder("notifications.buffered", pending, BlockingQueue::size)
+                .description("Notifications waiting to be written")
+                .register(meterRegistry);
+        Gauge.builder("notifications.inboxes", inboxes, Map::size)
+                .description("Users with a notification inbox held in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a notification for the user once the calling transaction commits.
+     */
+    public void notifyUser(Long userId, String title, String message, String notificationType,
+                           String relatedEntityType, Long relatedEntityId) {
+        Draft draft = new Draft(userId, title, message, notificationType, relatedEntityType, relatedEntityId,
+                LocalDateTime.now(), 0);
+        afterCommit(() -> pending.add(draft));
+    }
+
+    /**
+     * Queues an event for the restaurant's topic once the calling transaction commits. Events of
+     * the same type that pile up within an interval go out as one {event}_DIGEST frame.
+     */
+    public void publishToRestaurant(Long restaurantId, String event, Object payload) {
+        RestaurantEvent restaurantEvent = new RestaurantEvent(restaurantId, event, payload);
+        afterCommit(() -> restaurantEvents.add(restaurantEvent));
+    }
+
+    /**
+     * The user's newest notifications, newest first, loaded from the database on first use.
+     */
+    public List<NotificationView> getInbox(Long userId) {
+        Inbox inbox = inboxes.get(userId);
+        if (inbox == null) {
+            // Loaded inside the map: a notification written meanwhile waits in write() for the
+            // load to finish and is then added, instead of missing an inbox that is not there yet
+            inbox = inboxes.computeIfAbsent(userId, this::loadInbox);
+        }
+        return inbox.snapshot();
+    }
+
+    private Inbox loadInbox(Long userId) {
+        Inbox loaded = new Inbox(inboxSize);
+        List<NotificationEntity> latest = notificationRepository.findLatestForUser(userId, PageRequest.of(0, inboxSize));
+        for (int i = latest.size() - 1; i >= 0; i--) {
+            loaded.add(NotificationView.of(latest.get(i)));
+        }
+        return loaded;
+    }
+
+    /**
+     * Reflects notifications marked read in the database in the user's inbox, if it is loaded.
+     */
+    public void markRead(Long userId, Collection<Long> notificationIds) {
+        afterCommit(() -> {
+            Inbox inbox = inboxes.get(userId);
+            if (inbox != null) {
+                inbox.markRead(notificationIds);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        List<Draft> drained = new ArrayList<>();
+        pending.drainTo(drained);
+        for (int from = 0; from < drained.size(); from += FLUSH_BATCH_SIZE) {
+            write(drained.subList(from, Math.min(from + FLUSH_BATCH_SIZE, drained.size())));
+        }
+
+        List<RestaurantEvent> events = new ArrayList<>();
+        restaurantEvents.drainTo(events);
+        for (RestaurantEvent event : events) {
+            restaurantFrames.computeIfAbsent(new RestaurantTopicKey(event.restaurantId(), event.event()),
+                    key -> new FrameBatch()).add(event.payload());
+        }
+
+        sendUserFrames();
+        sendRestaurantFrames();
+
+        long now = System.currentTimeMillis();
+        inboxes.values().removeIf(inbox -> now - inbox.lastUsedAt >= inboxIdleMillis);
+
+        if (!drained.isEmpty() || !events.isEmpty()) {
+            logger.debug("Wrote {} notifications and collected {} restaurant events", drained.size(), events.size());
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    private void write(List<Draft> chunk) {
+        GeneratedKeyHolder keys = new GeneratedKeyHolder();
+        try {
+            jdbcTemplate.batchUpdate(
+                    connection -> connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            Draft draft = chunk.get(i);
+                            ps.setLong(1, draft.userId());
+                            ps.setString(2, draft.title());
+                            ps.setString(3, draft.message());
+                            ps.setString(4, draft.notificationType());
+                            ps.setString(5, draft.relatedEntityType());
+                            ps.setObject(6, draft.relatedEntityId(), Types.BIGINT);
+                            ps.setTimestamp(7, Timestamp.valueOf(draft.createdAt()));
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return chunk.size();
+                        }
+                    },
+                    keys);
+        } catch (Exception e) {
+            logger.error("Failed to write {} notifications: {}", chunk.size(), e.getMessage(), e);
+            for (Draft draft : chunk) {
+                retryOrDrop(draft);
+            }
+            return;
+        }
+        notificationsWritten.increment(chunk.size());
+
+        List<Map<String, Object>> keyList = keys.getKeyList();
+        for (int i = 0; i < chunk.size(); i++) {
+            Draft draft = chunk.get(i);
+            Long id = keyList.size() == chunk.size() ? generatedId(keyList.get(i)) : null;
+            NotificationView view = new NotificationView(id, draft.title(), draft.message(), draft.notificationType(),
+                    draft.relatedEntityType(), draft.relatedEntityId(), false, draft.createdAt());
+            // Blocks while the user's inbox is being loaded; the row is committed, so a load that
+            // already read it is covered by add() skipping known ids
+            inboxes.computeIfPresent(draft.userId(), (userId, inbox) -> {
+                inbox.add(view);
+                return inbox;
+            });
+            unreadCounters.notificationReceived(draft.userId());
+            userFrames.computeIfAbsent(draft.userId(), userId -> new FrameBatch()).add(view);
+        }
+    }
+
+    private void retryOrDrop(Draft draft) {
+        if (draft.attempts() + 1 < MAX_ATTEMPTS) {
+            pending.add(draft.retried());
+            return;
+        }
+        logger.error("Dropping notification '{}' for user {} after {} failed writes",
+                draft.title(), draft.userId(), MAX_ATTEMPTS);
+        notificationsDropped.increment();
+    }
+
+    private void sendUserFrames() {
+        Iterator<Map.Entry<Long, FrameBatch>> it = userFrames.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, FrameBatch> entry = it.next();
+            Long userId = entry.getKey();
+            FrameBatch batch = entry.getValue();
+            if (outboundBacklog.get(OrderWebSocketPublisher.userTopic(userId)) > maxBacklogFrames) {
+                framesDeferred.increment();
+                continue;
+            }
+            if (batch.count == 1) {
+                webSocketPublisher.publishToUser(userId, "NOTIFICATION", batch.latest.getFirst());
+            } else {
+                webSocketPublisher.publishToUser(userId, "NOTIFICATION_DIGEST", batch.digest(userDigestNoun(batch)));
+                framesCollapsed.increment(batch.count - 1);
+            }
+            framesSent.increment();
+            it.remove();
+        }
+    }
+
+    private void sendRestaurantFrames() {
+        Iterator<Map.Entry<RestaurantTopicKey, FrameBatch>> it = restaurantFrames.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<RestaurantTopicKey, FrameBatch> entry = it.next();
+            RestaurantTopicKey key = entry.getKey();
+            FrameBatch batch = entry.getValue();
+            if (outboundBacklog.get(OrderWebSocketPublisher.restaurantTopic(key.restaurantId())) > maxBacklogFrames) {
+                framesDeferred.increment();
+                continue;
+            }
+            if (batch.count == 1) {
+                webSocketPublisher.publishToRestaurant(key.restaurantId(), key.event(), batch.latest.getFirst());
+            } else {
+                webSocketPublisher.publishToRestaurant(key.restaurantId(), key.event() + "_DIGEST",
+                        batch.digest(DIGEST_NOUNS.getOrDefault(key.event(), "updates")));
+                framesCollapsed.increment(batch.count - 1);
+            }
+            framesSent.increment();
+            it.remove();
+        }
+    }
+
+    /**
+     * "new orders" when every collapsed notification is of one type with a known noun,
+     * otherwise "new notifications".
+     */
+    private static String userDigestNoun(FrameBatch batch) {
+        String type = batch.commonType;
+        return type != null ? DIGEST_NOUNS.getOrDefault(type, "new notifications") : "new notifications";
+    }
+
+    private static Long generatedId(Map<String, Object> key) {
+        Object value = key.values().stream().findFirst().orElse(null);
+        return value instanceof Number number ? number.longValue() : null;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record Draft(Long userId, String title, String message, String notificationType,
+                         String relatedEntityType, Long relatedEntityId, LocalDateTime createdAt, int attempts) {
+
+        Draft retried() {
+            return new Draft(userId, title, message, notificationType, relatedEntityType, relatedEntityId,
+                    createdAt, attempts + 1);
+        }
+    }
+
+    private record RestaurantEvent(Long restaurantId, String event, Object payload) {
+    }
+
+    private record RestaurantTopicKey(Long restaurantId, String event) {
+    }
+
+    /**
+     * Events for one destination since its last frame: how many, and the newest few payloads.
+     */
+    private static final class FrameBatch {
+        private final Deque<Object> latest = new ArrayDeque<>();
+        private int count;
+        private String commonType;
+        private boolean mixedTypes;
+
+        private void add(Object payload) {
+            count++;
+            latest.addFirst(payload);
+            if (latest.size() > DIGEST_LATEST) {
+                latest.removeLast();
+            }
+            if (payload instanceof NotificationView view && !mixedTypes) {
+                if (commonType == null) {
+                    commonType = view.getNotificationType();
+                } else if (!commonType.equals(view.getNotificationType())) {
+                    commonType = null;
+                    mixedTypes = true;
+                }
+            }
+        }
+
+        private DigestPayload digest(String noun) {
+            return new DigestPayload(count, count + " " + noun, List.copyOf(latest));
+        }
+    }
+
+    /**
+     * A user's newest notifications, newest first; guarded by its own monitor.
+     */
+    private static final class Inbox {
+        private final int capacity;
+        private final Deque<NotificationView> entries = new ArrayDeque<>();
+        private volatile long lastUsedAt = System.currentTimeMillis();
+
+        private Inbox(int capacity) {
+            this.capacity = capacity;
+        }
+
+        private synchronized void add(NotificationView view) {
+            if (view.getId() != null) {
+                for (NotificationView existing : entries) {
+                    if (view.getId().equals(existing.getId())) {
+                        return;
+                    }
+                }
+            }
+            entries.addFirst(view);
+            if (entries.size() > capacity) {
+                entries.removeLast();
+            }
+        }
+
+        private synchronized void markRead(Collection<Long> ids) {
+            for (NotificationView entry : entries) {
+                if (entry.getId() != null && ids.contains(entry.getId())) {
+                    entry.markRead();
+                }
+            }
+        }
+
+        private synchronized List<NotificationView> snapshot() {
+            lastUsedAt = System.currentTimeMillis();
+            return List.copyOf(entries);
+        }
+    }
+}
@@ -1,16 +1,17 @@
 package com.srFoodDelivery.service;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.srFoodDelivery.model.NotificationEntity;
 import com.srFoodDelivery.model.User;
 import com.srFoodDelivery.repository.NotificationRepository;
-import com.srFoodDelivery.websocket.OrderWebSocketPublisher;
 
 @Service
 @Transactional
@@ -19,43 +20,32 @@ public class NotificationService {
     private static final Logger logger = LoggerFactory.getLogger(NotificationService.class);
 
     private final NotificationRepository notificationRepository;
-    private final OrderWebSocketPublisher webSocketPublisher;
+    private final NotificationAggregator notificationAggregator;
+    private final UnreadCounters unreadCounters;
 
     public NotificationService(
             NotificationRepository notificationRepository,
-            OrderWebSocketPublisher webSocketPublisher) {
+            NotificationAggregator notificationAggregator,
+            UnreadCounters unreadCounters) {
         this.notificationRepository = notificationRepository;
-        this.webSocketPublisher = webSocketPublisher;
+        this.notificationAggregator = notificationAggregator;
+        this.unreadCounters = unreadCounters;
     }
 
     /**
-     * Creates and sends a notification to a user
+     * Queues a notification for the user. It is written and announced over WebSocket with the
+     * next batch after the calling transaction commits.
      */
-    public NotificationEntity createNotification(
+    public void createNotification(
             User user,
             String title,
             String message,
             String notificationType,
             String relatedEntityType,
             Long relatedEntityId) {
-        
-        NotificationEntity notification = new NotificationEntity();
-        notification.setUser(user);
-        notification.setTitle(title);
-        notification.setMessage(message);
-        notification.setNotificationType(notificationType);
-        notification.setRelatedEntityType(relatedEntityType);
-        notification.setRelatedEntityId(relatedEntityId);
-        notification.setIsRead(false);
-
-        NotificationEntity saved = notificationRepository.save(notification);
-        
-        // Send via WebSocket
-        webSocketPublisher.publishToUser(user.getId(), "NOTIFICATION", createNotificationPayload(saved));
-        
-        logger.info("Created notification for user {}: {}", user.getId(), title);
-        
-        return saved;
+        notificationAggregator.notifyUser(user.getId(), title, message, notificationType,
+                relatedEntityType, relatedEntityId);
+        logger.debug("Queued notification for user {}: {}", user.getId(), title);
     }
 
     /**
@@ -69,8 +59,26 @@ public class NotificationService {
             throw new SecurityException("Access denied");
         }
 
-        notification.setIsRead(true);
-        notificationRepository.save(notification);
+        if (notificationRepository.markReadForUser(List.of(notificationId), user.getId()) > 0) {
+            unreadCounters.notificationsRead(user.getId(), 1);
+            notificationAggregator.markRead(user.getId(), List.of(notificationId));
+        }
+    }
+
+    /**
+     * Marks the user's notifications among the ids as read with one UPDATE and returns how
+     * many were unread
+     */
+    public int markAsRead(Collection<Long> notificationIds, User user) {
+        if (notificationIds == null || notificationIds.isEmpty()) {
+            return 0;
+        }
+        int updated = notificationRepository.markReadForUser(notificationIds, user.getId());
+        if (updated > 0) {
+            unreadCounters.notificationsRead(user.getId(), updated);
+            notificationAggregator.markRead(user.getId(), notificationIds);
+        }
+        return updated;
     }
 
     /**
@@ -90,58 +98,18 @@ public class NotificationService {
     }
 
     /**
-     * Gets unread notification count for a user
+     * The user's newest notifications for the dashboard, newest first, from the in-memory inbox
      */
     @Transactional(readOnly = true)
-    public long getUnreadCount(User user) {
-        return notificationRepository.countUnreadByUser(user);
+    public List<NotificationView> getInbox(User user) {
+        return notificationAggregator.getInbox(user.getId());
     }
 
-    private Object createNotificationPayload(NotificationEntity notification) {
-        return new NotificationPayload(
-                notification.getId(),
-                notification.getTitle(),
-                notification.getMessage(),
-                notification.getNotificationType(),
-                notification.getRelatedEntityType(),
-                notification.getRelatedEntityId(),
-                notification.getIsRead(),
-                notification.getCreatedAt()
-        );
-    }
-
-    private static class NotificationPayload {
-        private final Long id;
-        private final String title;
-        private final String message;
-        private final String notificationType;
-        private final String relatedEntityType;
-        private final Long relatedEntityId;
-        private final Boolean isRead;
-        private final java.time.LocalDateTime createdAt;
-
-        public NotificationPayload(Long id, String title, String message, String notificationType,
-                                  String relatedEntityType, Long relatedEntityId, Boolean isRead,
-                                  java.time.LocalDateTime createdAt) {
-            this.id = id;
-            this.title = title;
-            this.message = message;
-            this.notificationType = notificationType;
-            this.relatedEntityType = relatedEntityType;
-            this.relatedEntityId = relatedEntityId;
-            this.isRead = isRead;
-            this.createdAt = createdAt;
-        }
-
-        // Getters
-        public Long getId() { return id; }
-        public String getTitle() { return title; }
-        public String getMessage() { return message; }
-        public String getNotificationType() { return notificationType; }
-        public String getRelatedEntityType() { return relatedEntityType; }
-        public Long getRelatedEntityId() { return relatedEntityId; }
-        public Boolean getIsRead() { return isRead; }
-        public java.time.LocalDateTime getCreatedAt() { return createdAt; }
+    /**
+     * Gets unread notification count for a user, from the cached counters
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long getUnreadCount(User user) {
+        return unreadCounters.getUnreadNotifications(user.getId());
     }
 }
-
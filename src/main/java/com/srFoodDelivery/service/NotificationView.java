@@ -0,0 +1,59 @@
+package com.srFoodDelivery.service;
+
+import java.time.LocalDateTime;
+
+import com.srFoodDelivery.model.NotificationEntity;
+
+/**
+ * A notification as sent over WebSocket and kept in the in-memory inbox. Only the read flag
+ * changes after it is created.
+ */
+public class NotificationView {
+
+    private final Long id;
+    private final String title;
+    private final String message;
+    private final String notificationType;
+    private final String relatedEntityType;
+    private final Long relatedEntityId;
+    private final LocalDateTime createdAt;
+    private volatile boolean read;
+
+    public NotificationView(Long id, String title, String message, String notificationType,
+                            String relatedEntityType, Long relatedEntityId, boolean read,
+                            LocalDateTime createdAt) {
+        this.id = id;
+        this.title = title;
+        this.message = message;
+        this.notificationType = notificationType;
+        this.relatedEntityType = relatedEntityType;
+        this.relatedEntityId = relatedEntityId;
+        this.read = read;
+        this.createdAt = createdAt;
+    }
+
+    public static NotificationView of(NotificationEntity notification) {
+        return new NotificationView(
+                notification.getId(),
+                notification.getTitle(),
+                notification.getMessage(),
+                notification.getNotificationType(),
+                notification.getRelatedEntityType(),
+                notification.getRelatedEntityId(),
+                Boolean.TRUE.equals(notification.getIsRead()),
+                notification.getCreatedAt());
+    }
+
+    public Long getId() { return id; }
+    public String getTitle() { return title; }
+    public String getMessage() { return message; }
+    public String getNotificationType() { return notificationType; }
+    public String getRelatedEntityType() { return relatedEntityType; }
+    public Long getRelatedEntityId() { return relatedEntityId; }
+    public Boolean getIsRead() { return read; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+
+    void markRead() {
+        read = true;
+    }
+}
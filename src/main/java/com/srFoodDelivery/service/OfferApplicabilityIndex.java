@@ -0,0 +1,265 @@
+package com.srFoodDelivery.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.srFoodDelivery.model.Offer;
+import com.srFoodDelivery.repository.OfferRepository;
+import com.srFoodDelivery.repository.OfferRepository.OfferRule;
+
+/**
+ * Precomputed best-offer labels for menu items.
+ *
+ * Built once from the active offers and reused by every listing request until an offer is
+ * created, updated or deleted, or until the next offer start/end time is reached. Each
+ * restaurant gets a default label (offers that apply to all of its items) plus labels for
+ * the items named by item-specific offers, stored in sorted long arrays and looked up by
+ * binary search, so a listing costs one lookup per item instead of items x offers.
+ */
+@Component
+public class OfferApplicabilityIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(OfferApplicabilityIndex.class);
+
+    private final OfferRepository offerRepository;
+
+    private volatile Snapshot snapshot;
+    private long generation;
+
+    public OfferApplicabilityIndex(OfferRepository offerRepository) {
+        this.offerRepository = offerRepository;
+    }
+
+    /**
+     * Returns the labels valid right now, rebuilding them if offers changed or an offer
+     * window opened or closed since the last build.
+     */
+    public Snapshot current() {
+        LocalDateTime now = LocalDateTime.now();
+        Snapshot current = snapshot;
+        if (current != null && now.isBefore(current.validUntil)) {
+            return current;
+        }
+
+        long buildGeneration;
+        synchronized (this) {
+            buildGeneration = generation;
+        }
+        Snapshot rebuilt = build(now);
+        synchronized (this) {
+            // Don't publish a snapshot if an offer changed while it was being built
+            if (generation == buildGeneration) {
+                snapshot = rebuilt;
+            }
+        }
+        return rebuilt;
+    }
+
+    /**
+     * Drops the current labels. Inside a transaction this happens after commit,
+     * so the next rebuild sees the change.
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    clear();
+                }
+            });
+        } else {
+            clear();
+        }
+    }
+
+    private synchronized void clear() {
+        generation++;
+        snapshot = null;
+    }
+
+    private Snapshot build(LocalDateTime now) {
+        List<OfferRule> rules = offerRepository.findCurrentAndUpcomingOfferRules(now);
+
+        LocalDateTime validUntil = LocalDateTime.MAX;
+        TreeMap<Long, List<CompiledOffer>> offersByRestaurant = new TreeMap<>();
+        List<CompiledOffer> allOffers = new ArrayList<>();
+        for (OfferRule rule : rules) {
+            if (rule.getStartDate().isAfter(now)) {
+                // Not started yet: only its start time matters
+                validUntil = min(validUntil, rule.getStartDate());
+                continue;
+            }
+            // Offers are active up to and including endDate
+            validUntil = min(validUntil, rule.getEndDate().plusNanos(1));
+
+            CompiledOffer offer = new CompiledOffer(rule);
+            allOffers.add(offer);
+            offersByRestaurant.computeIfAbsent(rule.getRestaurantId(), id -> new ArrayList<>()).add(offer);
+        }
+
+        long[] restaurantIds = new long[offersByRestaurant.size()];
+        LabelTable[] restaurantTables = new LabelTable[offersByRestaurant.size()];
+        int i = 0;
+        for (Map.Entry<Long, List<CompiledOffer>> entry : offersByRestaurant.entrySet()) {
+            restaurantIds[i] = entry.getKey();
+            restaurantTables[i] = LabelTable.compile(entry.getValue());
+            i++;
+        }
+
+        logger.debug("Built offer index: {} offers across {} restaurants, valid until {}",
+                allOffers.size(), restaurantIds.length, validUntil);
+        return new Snapshot(restaurantIds, restaurantTables, LabelTable.compile(allOffers), validUntil);
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    /**
+     * Immutable set of labels for one point in time.
+     */
+    public static final class Snapshot {
+        private final long[] restaurantIds;
+        private final LabelTable[] restaurantTables;
+        private final LabelTable anyRestaurant;
+        private final LocalDateTime validUntil;
+
+        private Snapshot(long[] restaurantIds, LabelTable[] restaurantTables, LabelTable anyRestaurant,
+                LocalDateTime validUntil) {
+            this.restaurantIds = restaurantIds;
+            this.restaurantTables = restaurantTables;
+            this.anyRestaurant = anyRestaurant;
+            this.validUntil = validUntil;
+        }
+
+        /**
+         * Best offer label for a menu item, or null if no offer applies.
+         * Items with no known restaurant are matched against offers from every restaurant.
+         */
+        public String bestLabel(Long restaurantId, Long menuItemId) {
+            LabelTable table;
+            if (restaurantId == null) {
+                table = anyRestaurant;
+            } else {
+                int index = Arrays.binarySearch(restaurantIds, restaurantId);
+                if (index < 0) {
+                    return null;
+                }
+                table = restaurantTables[index];
+            }
+            return table.labelFor(menuItemId);
+        }
+    }
+
+    /**
+     * Labels for one group of offers: a default for items no item-specific offer names,
+     * and a sorted item ID array with the label for each named item.
+     */
+    private static final class LabelTable {
+        private final String defaultLabel;
+        private final long[] itemIds;
+        private final String[] itemLabels;
+
+        private LabelTable(String defaultLabel, long[] itemIds, String[] itemLabels) {
+            this.defaultLabel = defaultLabel;
+            this.itemIds = itemIds;
+            this.itemLabels = itemLabels;
+        }
+
+        static LabelTable compile(List<CompiledOffer> offers) {
+            TreeSet<Long> namedItems = new TreeSet<>();
+            for (CompiledOffer offer : offers) {
+                for (long itemId : offer.itemIds) {
+                    namedItems.add(itemId);
+                }
+            }
+
+            long[] itemIds = new long[namedItems.size()];
+            String[] itemLabels = new String[namedItems.size()];
+            int i = 0;
+            for (Long itemId : namedItems) {
+                itemIds[i] = itemId;
+                itemLabels[i] = bestLabel(offers, itemId);
+                i++;
+            }
+            return new LabelTable(bestLabel(offers, null), itemIds, itemLabels);
+        }
+
+        String labelFor(Long menuItemId) {
+            if (menuItemId != null) {
+                int index = Arrays.binarySearch(itemIds, menuItemId);
+                if (index >= 0) {
+                    return itemLabels[index];
+                }
+            }
+            return defaultLabel;
+        }
+
+        /**
+         * Folds the offers that apply to an item, in offer order, into the label shown on it.
+         * A null item ID stands for any item not named by an item-specific offer.
+         */
+        private static String bestLabel(List<CompiledOffer> offers, Long menuItemId) {
+            String bestLabel = null;
+            BigDecimal bestValue = BigDecimal.ZERO;
+
+            for (CompiledOffer offer : offers) {
+                if (!offer.appliesTo(menuItemId)) {
+                    continue;
+                }
+                if ("PERCENTAGE_OFF".equals(offer.offerType)) {
+                    if (offer.discountValue != null && offer.discountValue.compareTo(bestValue) > 0) {
+                        bestValue = offer.discountValue;
+                        bestLabel = String.format("%.0f%% OFF", bestValue);
+                    }
+                } else if ("BUY_ONE_GET_ONE".equals(offer.offerType)) {
+                    // BOGO is visually very strong, prioritize it unless we have a huge % off
+                    if (bestLabel == null || !bestLabel.contains("BOGO")) {
+                        bestLabel = "BOGO FREE";
+                        bestValue = BigDecimal.valueOf(50); // treat as approx 50%
+                    }
+                } else if ("FLAT_DISCOUNT".equals(offer.offerType)) {
+                    // Flat discount only labels an item that has no other offer
+                    if (offer.discountValue != null && bestLabel == null) {
+                        bestLabel = "₹" + offer.discountValue.intValue() + " OFF";
+                    }
+                }
+            }
+            return bestLabel;
+        }
+    }
+
+    private static final class CompiledOffer {
+        private final String offerType;
+        private final BigDecimal discountValue;
+        private final long[] itemIds; // sorted; empty means the offer applies to every item
+
+        private CompiledOffer(OfferRule rule) {
+            this.offerType = rule.getOfferType();
+            this.discountValue = rule.getDiscountValue();
+            this.itemIds = Offer.parseMenuItemIds(rule.getApplicableMenuItemIds()).stream()
+                    .mapToLong(Long::longValue)
+                    .sorted()
+                    .toArray();
+        }
+
+        boolean appliesTo(Long menuItemId) {
+            if (itemIds.length == 0) {
+                return true;
+            }
+            return menuItemId != null && Arrays.binarySearch(itemIds, menuItemId) >= 0;
+        }
+    }
+}
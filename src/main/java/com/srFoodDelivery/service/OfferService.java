@@ -21,9 +21,11 @@ import com.srFoodDelivery.repository.OfferRepository;
 public class OfferService {
 
     private final OfferRepository offerRepository;
+    private final OfferApplicabilityIndex offerApplicabilityIndex;
 
-    public OfferService(OfferRepository offerRepository) {
+    public OfferService(OfferRepository offerRepository, OfferApplicabilityIndex offerApplicabilityIndex) {
         this.offerRepository = offerRepository;
+        this.offerApplicabilityIndex = offerApplicabilityIndex;
     }
 
     public List<Offer> getActiveOffers() {
@@ -224,7 +226,9 @@ public class OfferService {
 
     @Transactional
     public Offer createOffer(Offer offer) {
-        return offerRepository.save(offer);
+        Offer saved = offerRepository.save(offer);
+        offerApplicabilityIndex.invalidate();
+        return saved;
     }
 
     @Transactional
@@ -244,12 +248,15 @@ public class OfferService {
         offer.setActive(offerDetails.isActive());
         offer.setImageUrl(offerDetails.getImageUrl());
 
-        return offerRepository.save(offer);
+        Offer saved = offerRepository.save(offer);
+        offerApplicabilityIndex.invalidate();
+        return saved;
     }
 
     @Transactional
     public void deleteOffer(Long id) {
         offerRepository.deleteById(id);
+        offerApplicabilityIndex.invalidate();
     }
 
     public Offer getOfferById(Long id) {
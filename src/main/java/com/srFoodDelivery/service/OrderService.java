@@ -2,13 +2,20 @@ package com.srFoodDelivery.service;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.srFoodDelivery.dto.order.CursorPage;
+import com.srFoodDelivery.dto.order.HistoryCursor;
 import com.srFoodDelivery.dto.order.MultiOrderCreateRequest;
+import com.srFoodDelivery.dto.order.OrderHistoryDTO;
 import com.srFoodDelivery.model.Cart;
 import com.srFoodDelivery.model.CartItem;
 import com.srFoodDelivery.model.Order;
@@ -17,6 +24,7 @@ import com.srFoodDelivery.model.OrderStatus;
 import com.srFoodDelivery.model.User;
 import com.srFoodDelivery.repository.OrderRepository;
 import com.srFoodDelivery.service.order.OrderOrchestrationService;
+import com.srFoodDelivery.service.order.PlacedOrder;
 
 @Service
 @Transactional
@@ -51,18 +59,49 @@ public class OrderService {
 
     public Order placeOrder(User user, String deliveryAddress, String specialInstructions, 
                            String deliveryLocation, BigDecimal discountAmount, String appliedCoupon, Long preorderSlotId, Long reservationId) {
+        Cart cart = requireCart(user);
+        
+        // Use MultiOrder system for ALL orders (both single and multi-restaurant)
+        // Convert cart to MultiOrderCreateRequest and create MultiOrder
+        MultiOrderCreateRequest request = convertCartToMultiOrderRequest(cart, deliveryAddress, 
+                specialInstructions, discountAmount, appliedCoupon, preorderSlotId, reservationId);
+        orderOrchestrationService.placeMultiOrder(user, request);
+        return completePlacement(user, cart, deliveryAddress, specialInstructions, discountAmount, appliedCoupon);
+    }
+
+    /**
+     * Places the user's cart as a MultiOrder and confirms it after payment, all in one
+     * transaction. Returns a handle to the new order; the cost does not depend on how many
+     * orders the user has placed before.
+     */
+    public PlacedOrder checkout(User user, String deliveryAddress, String specialInstructions, 
+                                String deliveryLocation, BigDecimal discountAmount, String appliedCoupon,
+                                Long preorderSlotId, Long reservationId, boolean paid) {
+        Cart cart = requireCart(user);
+        MultiOrderCreateRequest request = convertCartToMultiOrderRequest(cart, deliveryAddress, 
+                specialInstructions, discountAmount, appliedCoupon, preorderSlotId, reservationId);
+        PlacedOrder placed = orderOrchestrationService.placeAndConfirm(user, request, paid);
+        completePlacement(user, cart, deliveryAddress, specialInstructions, discountAmount, appliedCoupon);
+        return placed;
+    }
+
+    private Cart requireCart(User user) {
         Cart cart = cartService.findCart(user)
                 .orElseThrow(() -> new IllegalStateException("Cart is empty"));
 
         if (cart.getItems().isEmpty()) {
             throw new IllegalStateException("Cart is empty");
         }
-        
-        // Use MultiOrder system for ALL orders (both single and multi-restaurant)
-        // Convert cart to MultiOrderCreateRequest and create MultiOrder
-        MultiOrderCreateRequest request = convertCartToMultiOrderRequest(cart, deliveryAddress, 
-                specialInstructions, discountAmount, appliedCoupon, preorderSlotId, reservationId);
-        orderOrchestrationService.createMultiOrder(user, request);
+        return cart;
+    }
+
+    /**
+     * Clears the cart and sends the order email once the MultiOrder has been created.
+     */
+    private Order completePlacement(User user, Cart cart, String deliveryAddress, String specialInstructions,
+                                    BigDecimal discountAmount, String appliedCoupon) {
+        // Totals are read before the cart is cleared
+        BigDecimal cartTotal = cart.getTotalAmount();
         cartService.clearCart(cart);
         
         // For backward compatibility, return a dummy Order object
@@ -72,7 +111,7 @@ public class OrderService {
         dummyOrder.setDeliveryAddress(deliveryAddress);
         dummyOrder.setSpecialInstructions(specialInstructions);
         dummyOrder.setStatus(OrderStatus.NEW);
-        dummyOrder.setTotalAmount(cart.getTotalAmount().subtract(discountAmount != null ? discountAmount : BigDecimal.ZERO));
+        dummyOrder.setTotalAmount(cartTotal.subtract(discountAmount != null ? discountAmount : BigDecimal.ZERO));
         dummyOrder.setDiscountAmount(discountAmount);
         dummyOrder.setAppliedCoupon(appliedCoupon);
         
@@ -82,9 +121,60 @@ public class OrderService {
         return dummyOrder;
     }
 
+    /**
+     * One page of the user's legacy orders, newest first, starting after the given cursor.
+     * Takes two queries per page: the orders with their restaurant name, then their items.
+     */
     @Transactional(readOnly = true)
-    public List<Order> getOrderHistory(User user) {
-        return orderRepository.findByUserOrderByCreatedAtDesc(user);
+    public CursorPage<OrderHistoryDTO> getOrderHistoryPage(User user, String cursor, int limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        HistoryCursor after = HistoryCursor.decode(cursor);
+        Pageable window = PageRequest.of(0, pageSize + 1);
+        List<OrderRepository.HistoryRow> rows = after == null
+                ? orderRepository.findHistoryFirstPage(user, window)
+                : orderRepository.findHistoryPageAfter(user, after.getCreatedAt(), after.getId(), window);
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+        if (rows.isEmpty()) {
+            return new CursorPage<>(List.of(), null);
+        }
+
+        Map<Long, OrderHistoryDTO> orders = new LinkedHashMap<>();
+        for (OrderRepository.HistoryRow row : rows) {
+            OrderHistoryDTO dto = new OrderHistoryDTO();
+            dto.setId(row.getId());
+            dto.setRestaurantId(row.getRestaurantId());
+            dto.setRestaurantName(row.getRestaurantName());
+            dto.setStatus(row.getStatus());
+            dto.setTotalAmount(row.getTotalAmount());
+            dto.setDiscountAmount(row.getDiscountAmount());
+            dto.setAppliedCoupon(row.getAppliedCoupon());
+            dto.setDeliveryAddress(row.getDeliveryAddress());
+            dto.setSpecialInstructions(row.getSpecialInstructions());
+            dto.setTrackingInfo(row.getTrackingInfo());
+            dto.setEstimatedDeliveryTime(row.getEstimatedDeliveryTime());
+            dto.setActualDeliveryTime(row.getActualDeliveryTime());
+            dto.setCreatedAt(row.getCreatedAt());
+            dto.setUpdatedAt(row.getUpdatedAt());
+            orders.put(row.getId(), dto);
+        }
+
+        for (OrderRepository.HistoryItemRow row : orderRepository.findHistoryItemRows(orders.keySet())) {
+            OrderHistoryDTO.ItemDTO itemDTO = new OrderHistoryDTO.ItemDTO();
+            itemDTO.setId(row.getId());
+            itemDTO.setMenuItemId(row.getMenuItemId());
+            itemDTO.setItemName(row.getItemName());
+            itemDTO.setQuantity(row.getQuantity());
+            itemDTO.setUnitPrice(row.getUnitPrice());
+            itemDTO.setLineTotal(row.getLineTotal());
+            orders.get(row.getOrderId()).getItems().add(itemDTO);
+        }
+
+        OrderRepository.HistoryRow last = rows.get(rows.size() - 1);
+        String nextCursor = hasMore ? new HistoryCursor(last.getCreatedAt(), last.getId()).encode() : null;
+        return new CursorPage<>(new ArrayList<>(orders.values()), nextCursor);
     }
 
     public Order updateStatus(Long orderId, String status) {
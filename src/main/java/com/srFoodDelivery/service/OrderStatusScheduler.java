@@ -3,9 +3,13 @@ package com.srFoodDelivery.service;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.srFoodDelivery.model.Order;
 import com.srFoodDelivery.model.OrderStatus;
@@ -15,70 +19,97 @@ import com.srFoodDelivery.repository.OrderRepository;
 @Component
 public class OrderStatusScheduler {
 
+    private static final Logger logger = LoggerFactory.getLogger(OrderStatusScheduler.class);
+    private static final int CHUNK_SIZE = 200;
+
+    /**
+     * Status transitions with the age (seconds since creation) at which they become due.
+     * Listed from the last stage back to the first so an order advances at most one step per run.
+     */
+    private static final List<Transition> TRANSITIONS = List.of(
+            new Transition(OrderStatus.OUT_FOR_DELIVERY, OrderStatus.DELIVERED, 60, "Order delivered successfully"),
+            new Transition(OrderStatus.PREPARING, OrderStatus.OUT_FOR_DELIVERY, 40, "Your order is out for delivery"),
+            new Transition(OrderStatus.CONFIRMED, OrderStatus.PREPARING, 20, "Your order is being prepared"),
+            new Transition(OrderStatus.NEW, OrderStatus.CONFIRMED, 10, "Order confirmed by restaurant/chef"));
+
     private final OrderRepository orderRepository;
     private final EmailService emailService;
+    private final TransactionTemplate transactionTemplate;
 
-    public OrderStatusScheduler(OrderRepository orderRepository, EmailService emailService) {
+    public OrderStatusScheduler(
+            OrderRepository orderRepository,
+            EmailService emailService,
+            PlatformTransactionManager transactionManager) {
         this.orderRepository = orderRepository;
         this.emailService = emailService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     /**
      * Automatically update order statuses based on time elapsed
      * Runs every 10 seconds for demo purposes
      * Complete flow: NEW → CONFIRMED → PREPARING → OUT_FOR_DELIVERY → DELIVERED (within 1 minute)
+     *
+     * Only orders that are due are read, through the (status, created_at) index,
+     * in chunks of CHUNK_SIZE that each commit on their own. Advanced orders drop out
+     * of their status, so every chunk query simply takes the next oldest due rows.
      */
     @Scheduled(fixedRate = 10000) // 10 seconds
-    @Transactional
     public void autoUpdateOrderStatuses() {
         LocalDateTime now = LocalDateTime.now();
-        List<Order> activeOrders = orderRepository.findAll().stream()
-                .filter(order -> !order.getStatus().equals(OrderStatus.DELIVERED) 
-                        && !order.getStatus().equals(OrderStatus.CANCELLED))
-                .toList();
 
-        for (Order order : activeOrders) {
-            LocalDateTime createdAt = order.getCreatedAt();
-            long secondsElapsed = java.time.Duration.between(createdAt, now).getSeconds();
+        for (Transition transition : TRANSITIONS) {
+            LocalDateTime createdBefore = now.minusSeconds(transition.afterSeconds);
+            List<Order> advanced;
+            do {
+                try {
+                    advanced = transactionTemplate.execute(status -> advanceChunk(transition, createdBefore, now));
+                } catch (Exception e) {
+                    logger.error("Failed to advance orders from {} to {}: {}",
+                            transition.from, transition.to, e.getMessage(), e);
+                    break;
+                }
+            } while (advanced.size() == CHUNK_SIZE);
+        }
+    }
 
-            String currentStatus = order.getStatus();
-            String newStatus = null;
+    private List<Order> advanceChunk(Transition transition, LocalDateTime createdBefore, LocalDateTime now) {
+        List<Order> due = orderRepository.findByStatusAndCreatedAtLessThanEqualOrderByCreatedAtAsc(
+                transition.from, createdBefore, PageRequest.of(0, CHUNK_SIZE));
 
-            // Auto-progress order status based on time (all within 1 minute for demo)
-            if (currentStatus.equals(OrderStatus.NEW) && secondsElapsed >= 10) {
-                newStatus = OrderStatus.CONFIRMED;
-                order.setTrackingInfo("Order confirmed by restaurant/chef");
-            } else if (currentStatus.equals(OrderStatus.CONFIRMED) && secondsElapsed >= 20) {
-                newStatus = OrderStatus.PREPARING;
-                order.setTrackingInfo("Your order is being prepared");
-            } else if (currentStatus.equals(OrderStatus.PREPARING) && secondsElapsed >= 40) {
-                newStatus = OrderStatus.OUT_FOR_DELIVERY;
-                order.setTrackingInfo("Your order is out for delivery");
+        for (Order order : due) {
+            order.setStatus(transition.to);
+            order.setTrackingInfo(transition.trackingInfo);
+            if (OrderStatus.OUT_FOR_DELIVERY.equals(transition.to)) {
                 // Set estimated delivery time (20 seconds from now for demo)
                 order.setEstimatedDeliveryTime(now.plusSeconds(20));
-            } else if (currentStatus.equals(OrderStatus.OUT_FOR_DELIVERY) && secondsElapsed >= 60) {
-                newStatus = OrderStatus.DELIVERED;
-                order.setTrackingInfo("Order delivered successfully");
+            } else if (OrderStatus.DELIVERED.equals(transition.to)) {
                 order.setActualDeliveryTime(now);
             }
+        }
+        List<Order> saved = orderRepository.saveAll(due);
 
-            if (newStatus != null && !newStatus.equals(currentStatus)) {
-                order.setStatus(newStatus);
-                Order savedOrder = orderRepository.save(order);
-                
-                // Get the customer user from the order (ensure it's loaded)
-                User customer = savedOrder.getUser();
-                if (customer != null) {
-                    // Send email notification for status change to the customer
-                    try {
-                        emailService.sendOrderStatusUpdateEmail(customer, savedOrder);
-                    } catch (Exception e) {
-                        // Log error but don't fail the update
-                        System.err.println("Failed to send email for order " + savedOrder.getId() + ": " + e.getMessage());
-                    }
-                }
+        // Status emails go to the outbox in the same transaction, so they are sent only if the chunk commits
+        for (Order order : saved) {
+            User customer = order.getUser();
+            if (customer != null) {
+                emailService.sendOrderStatusUpdateEmail(customer, order);
             }
         }
+        return saved;
     }
-}
 
+    private static final class Transition {
+        private final String from;
+        private final String to;
+        private final long afterSeconds;
+        private final String trackingInfo;
+
+        private Transition(String from, String to, long afterSeconds, String trackingInfo) {
+            this.from = from;
+            this.to = to;
+            this.afterSeconds = afterSeconds;
+            this.trackingInfo = trackingInfo;
+        }
+    }
+}
@@ -25,26 +25,27 @@ public class PreorderService {
     private final PreorderSlotRepository preorderSlotRepository;
     private final RestaurantRepository restaurantRepository;
     private final SubOrderRepository subOrderRepository;
+    private final PreorderSlotCapacity preorderSlotCapacity;
 
     public PreorderService(
             PreorderSlotRepository preorderSlotRepository,
             RestaurantRepository restaurantRepository,
-            SubOrderRepository subOrderRepository) {
+            SubOrderRepository subOrderRepository,
+            PreorderSlotCapacity preorderSlotCapacity) {
         this.preorderSlotRepository = preorderSlotRepository;
         this.restaurantRepository = restaurantRepository;
         this.subOrderRepository = subOrderRepository;
+        this.preorderSlotCapacity = preorderSlotCapacity;
     }
 
     /**
-     * Atomically reserves a slot by decrementing capacity.
+     * Atomically reserves a place in a slot; see {@link PreorderSlotCapacity}.
      * Returns true if reservation successful, false if capacity exhausted.
      */
     public boolean reserveSlot(Long slotId) {
         logger.info("Attempting to reserve slot: {}", slotId);
         
-        int rowsAffected = preorderSlotRepository.reserveSlotAtomic(slotId);
-        
-        if (rowsAffected > 0) {
+        if (preorderSlotCapacity.tryReserve(slotId)) {
             logger.info("Successfully reserved slot: {}", slotId);
             return true;
         } else {
@@ -54,14 +55,12 @@ public class PreorderService {
     }
 
     /**
-     * Releases a slot reservation by incrementing capacity.
+     * Releases a slot reservation as part of the current transaction.
      */
     public boolean releaseSlot(Long slotId) {
         logger.info("Releasing slot: {}", slotId);
         
-        int rowsAffected = preorderSlotRepository.releaseSlotAtomic(slotId);
-        
-        if (rowsAffected > 0) {
+        if (preorderSlotCapacity.release(slotId)) {
             logger.info("Successfully released slot: {}", slotId);
             return true;
         } else {
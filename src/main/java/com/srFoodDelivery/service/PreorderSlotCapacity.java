@@ -0,0 +1,403 @@
+package com.srFoodDelivery.service;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.srFoodDelivery.repository.PreorderSlotRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Admits preorder slot reservations from places this node has leased from
+ * preorder_slot.current_capacity.
+ *
+ * The row stays the authority across nodes. A node takes places from it in leases of up to
+ * preorder.capacity.lease-size with one conditional UPDATE that never raises current_capacity
+ * past max_capacity, and then admits reservations from the lease in memory. Places counted in
+ * the row are therefore either booked or held in some node's lease, so nodes can never book
+ * more than the slot has between them.
+ *
+ * The reservation that finds the lease empty takes the next lease itself, inside the caller's
+ * transaction: the lease's places reach the other reservers once that transaction commits, and
+ * vanish with the UPDATE if it rolls back. Reservers arriving meanwhile wait for it for up to
+ * preorder.capacity.refill-wait-ms, then take a single place from the row. No reservation
+ * opens a transaction or connection of its own. A reservation taken from the lease whose
+ * transaction rolls back puts its place back into the lease.
+ *
+ * Places a node holds but does not book are returned to the row once its lease has been idle
+ * for preorder.capacity.lease-idle-ms, and on shutdown. Until then another node may find the
+ * slot full although places are left, and a node that dies holding a lease under-books the slot
+ * by at most the lease size until the places are released by hand. The slot is never over-booked.
+ *
+ * A slot whose row has no places left is remembered for preorder.capacity.full-recheck-ms, and
+ * reservations for it are rejected in memory for that long once the lease is empty. A release
+ * committed on this node forgets the mark at once; a release on another node is seen after the
+ * recheck interval.
+ */
+@Component
+public class PreorderSlotCapacity {
+
+    private static final Logger logger = LoggerFactory.getLogger(PreorderSlotCapacity.class);
+
+    // LAST_INSERT_ID(expr) records how many places the UPDATE granted, for the SELECT on the same connection
+    private static final String TAKE_PLACES_SQL =
+            "UPDATE preorder_slot SET current_capacity = current_capacity + " +
+            "LAST_INSERT_ID(LEAST(?, max_capacity - current_capacity)), " +
+            "version = version + 1, updated_at = CURRENT_TIMESTAMP " +
+            "WHERE id = ? AND current_capacity < max_capacity";
+
+    private static final String RETURN_PLACES_SQL =
+            "UPDATE preorder_slot SET current_capacity = GREATEST(0, current_capacity - ?), " +
+            "version = version + 1, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
+
+    private final PreorderSlotRepository preorderSlotRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate callerTransaction;
+    private final int leaseSize;
+    private final long leaseIdleMillis;
+    private final long fullRecheckMillis;
+    private final long refillWaitMillis;
+
+    // Slot ID -> places leased to this node and not yet booked
+    private final Map<Long, Lease> leases = new ConcurrentHashMap<>();
+
+    // Slot ID -> time in millis until which the slot is treated as full without asking the database
+    private final Map<Long, Long> fullUntil = new ConcurrentHashMap<>();
+
+    private final Counter admittedFromLeaseCounter;
+    private final Counter admittedCounter;
+    private final Counter rejectedCounter;
+    private final Counter rejectedInMemoryCounter;
+
+    public PreorderSlotCapacity(PreorderSlotRepository preorderSlotRepository,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${preorder.capacity.lease-size:4}") int leaseSize,
+            @Value("${preorder.capacity.lease-idle-ms:5000}") long leaseIdleMillis,
+            @Value("${preorder.capacity.full-recheck-ms:1000}") long fullRecheckMillis,
+            @Value("${preorder.capacity.refill-wait-ms:5000}") long refillWaitMillis) {
+        this.preorderSlotRepository = preorderSlotRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.callerTransaction = new TransactionTemplate(transactionManager);
+        this.leaseSize = Math.max(0, leaseSize);
+        this.leaseIdleMillis = leaseIdleMillis;
+        this.fullRecheckMillis = fullRecheckMillis;
+        this.refillWaitMillis = refillWaitMillis;
+
+        this.admittedFromLeaseCounter = Counter.builder("preorder.capacity.reservations")
+                .description("Preorder slot reservations admitted or rejected")
+                .tag("result", "admitted-from-lease")
+                .register(meterRegistry);
+        this.admittedCounter = Counter.builder("preorder.capacity.reservations")
+                .description("Preorder slot reservations admitted or rejected")
+                .tag("result", "admitted")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("preorder.capacity.reservations")
+                .description("Preorder slot reservations admitted or rejected")
+                .tag("result", "rejected")
+                .register(meterRegistry);
+        this.rejectedInMemoryCounter = Counter.builder("preorder.capacity.reservations")
+                .description("Preorder slot reservations admitted or rejected")
+                .tag("result", "rejected-in-memory")
+                .register(meterRegistry);
+        Gauge.builder("preorder.capacity.full-slots", fullUntil, Map::size)
+                .description("Preorder slots currently treated as full without a database check")
+                .register(meterRegistry);
+        Gauge.builder("preorder.capacity.leased-places", leases,
+                        map -> map.values().stream().mapToInt(Lease::places).sum())
+                .description("Preorder slot places leased to this node and not yet booked")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes one place in the slot if any is left, as part of the calling transaction. Returns
+     * false if the slot is full or does not exist.
+     */
+    public boolean tryReserve(Long slotId) {
+        long deadline = System.currentTimeMillis() + refillWaitMillis;
+        while (true) {
+            Lease lease = leases.computeIfAbsent(slotId, id -> new Lease());
+            Claim claim = lease.claim(deadline, () -> isMarkedFull(slotId));
+            if (claim == Claim.TAKEN) {
+                afterCompletion(lease::completed);
+                admittedFromLeaseCounter.increment();
+                return true;
+            }
+            if (claim == Claim.REFILL) {
+                return refillAndReserve(slotId, lease);
+            }
+            if (claim == Claim.FULL) {
+                rejectedInMemoryCounter.increment();
+                return false;
+            }
+            if (claim == Claim.TIMED_OUT) {
+                return reserveFromRow(slotId);
+            }
+            // RETIRED: the idle sweep dropped this lease while we waited, look the slot up again
+        }
+    }
+
+    /**
+     * Gives one place back as part of the calling transaction, or in a transaction of its own if
+     * there is none. Returns false if the slot does not exist.
+     */
+    public boolean release(Long slotId) {
+        Integer updated = callerTransaction.execute(status -> preorderSlotRepository.releaseSlotAtomic(slotId));
+        if (updated == null || updated == 0) {
+            return false;
+        }
+        afterCompletion(committed -> {
+            if (committed) {
+                fullUntil.remove(slotId);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Returns the places of leases nobody has booked from lately to their rows, and drops the
+     * empty ones.
+     */
+    @Scheduled(fixedDelayString = "${preorder.capacity.lease-idle-ms:5000}")
+    public void returnIdleLeases() {
+        long idleBefore = System.currentTimeMillis() - leaseIdleMillis;
+        leases.forEach((slotId, lease) -> {
+            int places = lease.drainIfIdle(idleBefore);
+            if (places > 0) {
+                returnPlaces(slotId, lease, places);
+            }
+            if (lease.retireIfIdle(idleBefore)) {
+                leases.remove(slotId, lease);
+            }
+        });
+    }
+
+    /**
+     * Returns every unbooked place before the node stops, so a restart does not under-book.
+     */
+    @PreDestroy
+    public void returnAllLeases() {
+        leases.forEach((slotId, lease) -> {
+            int places = lease.drainIfIdle(Long.MAX_VALUE);
+            if (places > 0) {
+                returnPlaces(slotId, lease, places);
+            }
+        });
+    }
+
+    /**
+     * Drops full marks that have run out, so the map only holds slots seen full recently.
+     */
+    @Scheduled(fixedDelayString = "${preorder.capacity.full-recheck-ms:1000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        fullUntil.values().removeIf(until -> until <= now);
+    }
+
+    /**
+     * Takes a lease plus the caller's own place from the row in the caller's transaction. The
+     * lease's places are handed to the waiting reservers when that transaction commits.
+     */
+    private boolean refillAndReserve(Long slotId, Lease lease) {
+        Integer granted;
+        try {
+            granted = callerTransaction.execute(status -> takePlaces(slotId, leaseSize + 1));
+        } catch (RuntimeException e) {
+            lease.refilled(0);
+            throw e;
+        }
+        if (granted == null || granted == 0) {
+            markFull(slotId);
+            lease.refilled(0);
+            rejectedCounter.increment();
+            return false;
+        }
+        int spare = granted - 1;
+        afterCompletion(committed -> lease.refilled(committed ? spare : 0));
+        admittedCounter.increment();
+        return true;
+    }
+
+    /**
+     * Takes a single place from the row, for a reserver that gave up waiting for a lease.
+     */
+    private boolean reserveFromRow(Long slotId) {
+        Integer updated = callerTransaction.execute(status -> preorderSlotRepository.reserveSlotAtomic(slotId));
+        if (updated == null || updated == 0) {
+            markFull(slotId);
+            rejectedCounter.increment();
+            return false;
+        }
+        admittedCounter.increment();
+        return true;
+    }
+
+    /**
+     * Adds up to the given number of places to the row and returns how many it had left to give.
+     * LAST_INSERT_ID is per connection, so the UPDATE and the read share one.
+     */
+    private int takePlaces(Long slotId, int wanted) {
+        Integer taken = jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            try (PreparedStatement update = connection.prepareStatement(TAKE_PLACES_SQL)) {
+                update.setInt(1, wanted);
+                update.setLong(2, slotId);
+                if (update.executeUpdate() == 0) {
+                    return 0;
+                }
+            }
+            try (Statement select = connection.createStatement();
+                    ResultSet result = select.executeQuery("SELECT LAST_INSERT_ID()")) {
+                result.next();
+                return result.getInt(1);
+            }
+        });
+        return taken != null ? taken : 0;
+    }
+
+    private void returnPlaces(Long slotId, Lease lease, int places) {
+        try {
+            jdbcTemplate.update(RETURN_PLACES_SQL, places, slotId);
+            fullUntil.remove(slotId);
+        } catch (Exception e) {
+            // Keep the places leased; the next sweep tries again
+            lease.refilled(places);
+            logger.warn("Failed to return {} places to preorder slot {}: {}", places, slotId, e.getMessage());
+        }
+    }
+
+    private boolean isMarkedFull(Long slotId) {
+        Long until = fullUntil.get(slotId);
+        return until != null && until > System.currentTimeMillis();
+    }
+
+    private void markFull(Long slotId) {
+        fullUntil.put(slotId, System.currentTimeMillis() + fullRecheckMillis);
+    }
+
+    /**
+     * Runs the callback once the caller's transaction has finished, with whether it committed;
+     * at once if there is no transaction, as the statements have already been committed.
+     */
+    private static void afterCompletion(CompletionCallback callback) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    callback.completed(status == STATUS_COMMITTED);
+                }
+            });
+        } else {
+            callback.completed(true);
+        }
+    }
+
+    private interface CompletionCallback {
+        void completed(boolean committed);
+    }
+
+    private enum Claim {
+        TAKEN, REFILL, FULL, TIMED_OUT, RETIRED
+    }
+
+    /**
+     * Places leased to this node for one slot. A lease is only dropped from the map once it is
+     * empty, idle, has no refill in flight and no reservation of its still awaiting its outcome.
+     */
+    private static final class Lease {
+
+        private int places;
+        private int open;
+        private boolean refilling;
+        private boolean retired;
+        private long lastUsed = System.currentTimeMillis();
+
+        synchronized Claim claim(long deadline, BooleanSupplier markedFull) {
+            while (true) {
+                if (retired) {
+                    return Claim.RETIRED;
+                }
+                if (places > 0) {
+                    places--;
+                    open++;
+                    lastUsed = System.currentTimeMillis();
+                    return Claim.TAKEN;
+                }
+                if (markedFull.getAsBoolean()) {
+                    return Claim.FULL;
+                }
+                if (!refilling) {
+                    refilling = true;
+                    return Claim.REFILL;
+                }
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return Claim.TIMED_OUT;
+                }
+                try {
+                    wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return Claim.TIMED_OUT;
+                }
+            }
+        }
+
+        synchronized void completed(boolean committed) {
+            open--;
+            if (!committed) {
+                places++;
+                notifyAll();
+            }
+        }
+
+        synchronized void refilled(int granted) {
+            places += granted;
+            refilling = false;
+            lastUsed = System.currentTimeMillis();
+            notifyAll();
+        }
+
+        synchronized int drainIfIdle(long idleBefore) {
+            if (refilling || lastUsed > idleBefore) {
+                return 0;
+            }
+            int drained = places;
+            places = 0;
+            return drained;
+        }
+
+        synchronized boolean retireIfIdle(long idleBefore) {
+            if (places > 0 || open > 0 || refilling || lastUsed > idleBefore) {
+                return false;
+            }
+            retired = true;
+            notifyAll();
+            return true;
+        }
+
+        synchronized int places() {
+            return places;
+        }
+    }
+}
@@ -19,12 +19,15 @@ public class RestaurantNotificationService {
 
     private final OrderWebSocketPublisher webSocketPublisher;
     private final NotificationService notificationService;
+    private final NotificationAggregator notificationAggregator;
 
     public RestaurantNotificationService(
             OrderWebSocketPublisher webSocketPublisher,
-            NotificationService notificationService) {
+            NotificationService notificationService,
+            NotificationAggregator notificationAggregator) {
         this.webSocketPublisher = webSocketPublisher;
         this.notificationService = notificationService;
+        this.notificationAggregator = notificationAggregator;
     }
 
     /**
@@ -39,8 +42,8 @@ public class RestaurantNotificationService {
         User owner = restaurant.getOwner();
         MultiOrder multiOrder = subOrder.getMultiOrder();
 
-        // Send WebSocket notification
-        webSocketPublisher.publishToRestaurant(
+        // Batched with other new orders for the restaurant; a burst goes out as one NEW_SUBORDER_DIGEST
+        notificationAggregator.publishToRestaurant(
                 restaurant.getId(),
                 "NEW_SUBORDER",
                 createSubOrderPayload(subOrder, multiOrder));
@@ -9,23 +9,13 @@ import com.srFoodDelivery.dto.RestaurantForm;
 import com.srFoodDelivery.model.Restaurant;
 import com.srFoodDelivery.model.RestaurantTable;
 import com.srFoodDelivery.model.SiteMode;
-import com.srFoodDelivery.model.SubOrder;
 import com.srFoodDelivery.model.User;
-import com.srFoodDelivery.repository.CartRepository;
-import com.srFoodDelivery.repository.DonationRepository;
-import com.srFoodDelivery.repository.OfferRepository;
-import com.srFoodDelivery.repository.OrderRepository;
-import com.srFoodDelivery.repository.PreorderSlotRepository;
-import com.srFoodDelivery.repository.RatingReviewRepository;
 import com.srFoodDelivery.repository.RestaurantRepository;
-import com.srFoodDelivery.repository.RestaurantReviewRepository;
-import com.srFoodDelivery.repository.RestaurantRiderRepository;
 import com.srFoodDelivery.repository.RestaurantTableRepository;
-import com.srFoodDelivery.repository.ReviewRepository;
-import com.srFoodDelivery.repository.RiderOfferRepository;
-import com.srFoodDelivery.repository.SubOrderItemRepository;
-import com.srFoodDelivery.repository.SubOrderRepository;
-import com.srFoodDelivery.repository.TableReservationRepository;
+import com.srFoodDelivery.service.CatalogCache.Catalog;
+import com.srFoodDelivery.service.restaurant.RestaurantDeletionEngine;
+import com.srFoodDelivery.service.restaurant.RestaurantDeletionJob;
+import com.srFoodDelivery.service.search.MenuSearchIndex;
 
 @Service
 @Transactional(readOnly = true)
@@ -34,51 +24,21 @@ public class RestaurantService {
     private final RestaurantRepository restaurantRepository;
     private final ImageService imageService;
     private final RestaurantTableRepository tableRepository;
-    private final OrderRepository orderRepository;
-    private final SubOrderRepository subOrderRepository;
-    private final SubOrderItemRepository subOrderItemRepository;
-    private final RiderOfferRepository riderOfferRepository;
-    private final OfferRepository offerRepository;
-    private final RestaurantReviewRepository restaurantReviewRepository;
-    private final RatingReviewRepository ratingReviewRepository;
-    private final ReviewRepository reviewRepository;
-    private final TableReservationRepository tableReservationRepository;
-    private final PreorderSlotRepository preorderSlotRepository;
-    private final RestaurantRiderRepository restaurantRiderRepository;
-    private final DonationRepository donationRepository;
-    private final CartRepository cartRepository;
+    private final RestaurantDeletionEngine restaurantDeletionEngine;
+    private final CatalogCache catalogCache;
+    private final MenuSearchIndex menuSearchIndex;
 
     public RestaurantService(RestaurantRepository restaurantRepository, ImageService imageService,
                              RestaurantTableRepository tableRepository,
-                             OrderRepository orderRepository,
-                             SubOrderRepository subOrderRepository,
-                             SubOrderItemRepository subOrderItemRepository,
-                             RiderOfferRepository riderOfferRepository,
-                             OfferRepository offerRepository,
-                             RestaurantReviewRepository restaurantReviewRepository,
-                             RatingReviewRepository ratingReviewRepository,
-                             ReviewRepository reviewRepository,
-                             TableReservationRepository tableReservationRepository,
-                             PreorderSlotRepository preorderSlotRepository,
-                             RestaurantRiderRepository restaurantRiderRepository,
-                             DonationRepository donationRepository,
-                             CartRepository cartRepository) {
+                             RestaurantDeletionEngine restaurantDeletionEngine,
+                             CatalogCache catalogCache,
+                             MenuSearchIndex menuSearchIndex) {
         this.restaurantRepository = restaurantRepository;
         this.imageService = imageService;
         this.tableRepository = tableRepository;
-        this.orderRepository = orderRepository;
-        this.subOrderRepository = subOrderRepository;
-        this.subOrderItemRepository = subOrderItemRepository;
-        this.riderOfferRepository = riderOfferRepository;
-        this.offerRepository = offerRepository;
-        this.restaurantReviewRepository = restaurantReviewRepository;
-        this.ratingReviewRepository = ratingReviewRepository;
-        this.reviewRepository = reviewRepository;
-        this.tableReservationRepository = tableReservationRepository;
-        this.preorderSlotRepository = preorderSlotRepository;
-        this.restaurantRiderRepository = restaurantRiderRepository;
-        this.donationRepository = donationRepository;
-        this.cartRepository = cartRepository;
+        this.restaurantDeletionEngine = restaurantDeletionEngine;
+        this.catalogCache = catalogCache;
+        this.menuSearchIndex = menuSearchIndex;
     }
 
     @Transactional
@@ -105,6 +65,7 @@ public class RestaurantService {
         restaurant.setFamilyRestaurant(!isCafe);
 
         Restaurant savedRestaurant = restaurantRepository.save(restaurant);
+        catalogCache.invalidate(Catalog.RESTAURANTS, isCafe);
         
         // Create tables if dine-in is enabled and number of tables is specified
         if (form.getHasDineIn() != null && form.getHasDineIn() && 
@@ -203,6 +164,8 @@ public class RestaurantService {
         if (!restaurant.getOwner().getId().equals(owner.getId())) {
             throw new SecurityException("Access denied");
         }
+        // Switching business type moves the restaurant and its items to the other mode
+        catalogCache.invalidateRestaurant(restaurant.isCafeLounge());
         
         restaurant.setName(form.getName());
         restaurant.setDescription(form.getDescription());
@@ -230,8 +193,12 @@ public class RestaurantService {
         restaurant.setClosingTime(form.getClosingTime());
 
         boolean isCafe = "CAFE".equalsIgnoreCase(form.getBusinessType());
+        if (restaurant.isCafeLounge() != isCafe) {
+            menuSearchIndex.restaurantModeChanged(restaurant.getId(), isCafe);
+        }
         restaurant.setCafeLounge(isCafe);
         restaurant.setFamilyRestaurant(!isCafe);
+        catalogCache.invalidateRestaurant(isCafe);
         
         Restaurant saved = restaurantRepository.save(restaurant);
         restaurantRepository.flush();
@@ -240,83 +207,33 @@ public class RestaurantService {
         return saved;
     }
 
-    @Transactional
-    public void deleteRestaurant(Long id, User owner) {
+    /**
+     * Queues the owner's restaurant for deletion; see {@link RestaurantDeletionEngine}.
+     */
+    public RestaurantDeletionJob deleteRestaurant(Long id, User owner) {
         Restaurant restaurant = getOwnedRestaurant(id, owner);
-        deleteRestaurantAndRelatedEntities(restaurant);
+        return restaurantDeletionEngine.submit(restaurant.getId());
     }
 
-    @Transactional
-    public void deleteRestaurantByName(String name) {
-        List<Restaurant> restaurants = restaurantRepository.findByNameIgnoreCase(name);
-        if (restaurants.isEmpty()) {
-            throw new IllegalArgumentException("Restaurant with name '" + name + "' not found");
-        }
-        // Delete all restaurants with this name (should typically be just one)
-        for (Restaurant restaurant : restaurants) {
-            deleteRestaurantAndRelatedEntities(restaurant);
-        }
+    /**
+     * Queues a restaurant for deletion on behalf of an admin.
+     */
+    public RestaurantDeletionJob deleteRestaurant(Long id) {
+        return restaurantDeletionEngine.submit(id);
     }
 
     /**
-     * Deletes a restaurant and all related entities to avoid foreign key constraint violations.
-     * Order of deletion is important to respect foreign key constraints.
+     * Queues every restaurant with this name for deletion and returns their jobs.
      */
-    private void deleteRestaurantAndRelatedEntities(Restaurant restaurant) {
-        Long restaurantId = restaurant.getId();
-        
-        // 1. Delete RiderOffers for SubOrders of this restaurant
-        List<SubOrder> subOrders = subOrderRepository.findByRestaurantOrderByCreatedAtDesc(restaurant);
-        for (SubOrder subOrder : subOrders) {
-            riderOfferRepository.deleteAll(riderOfferRepository.findBySubOrderOrderByCreatedAtDesc(subOrder));
-            subOrderItemRepository.deleteAll(subOrderItemRepository.findBySubOrder(subOrder));
-        }
-        
-        // 2. Delete SubOrders for this restaurant
-        subOrderRepository.deleteAll(subOrders);
-        
-        // 3. Delete Orders (old system) for this restaurant
-        orderRepository.deleteAll(orderRepository.findByRestaurantOrderByCreatedAtDesc(restaurant));
-        
-        // 4. Delete Offers for this restaurant
-        offerRepository.deleteAll(offerRepository.findByRestaurantOrderByCreatedAtDesc(restaurant));
-        
-        // 5. Delete Reviews for this restaurant
-        restaurantReviewRepository.deleteAll(restaurantReviewRepository.findByRestaurantOrderByCreatedAtDesc(restaurant));
-        ratingReviewRepository.deleteAll(ratingReviewRepository.findByRestaurantOrderByCreatedAtDesc(restaurant));
-        reviewRepository.deleteAll(reviewRepository.findByRestaurantOrderByCreatedAtDesc(restaurant));
-        
-        // 6. Delete TableReservations for this restaurant
-        // Delete reservations by date range (past and future)
-        java.time.LocalDate today = java.time.LocalDate.now();
-        for (int i = -365; i <= 365; i++) { // Check 1 year back and 1 year ahead
-            java.time.LocalDate date = today.plusDays(i);
-            tableReservationRepository.deleteAll(tableReservationRepository.findByRestaurantAndReservationDate(restaurant, date));
+    public List<RestaurantDeletionJob> deleteRestaurantByName(String name) {
+        List<Restaurant> restaurants = restaurantRepository.findByNameIgnoreCase(name);
+        if (restaurants.isEmpty()) {
+            throw new IllegalArgumentException("Restaurant with name '" + name + "' not found");
         }
-        
-        // 7. Delete RestaurantTables for this restaurant
-        // Get all tables (active and inactive) by filtering from all tables
-        List<RestaurantTable> allTables = tableRepository.findAll().stream()
-                .filter(t -> t.getRestaurant() != null && t.getRestaurant().getId().equals(restaurantId))
-                .collect(java.util.stream.Collectors.toList());
-        tableRepository.deleteAll(allTables);
-        
-        // 8. Delete PreorderSlots for this restaurant
-        preorderSlotRepository.deleteAll(preorderSlotRepository.findByRestaurantAndIsActiveTrueOrderBySlotStartTimeAsc(restaurant));
-        
-        // 9. Delete RestaurantRiders for this restaurant
-        restaurantRiderRepository.deleteAll(restaurantRiderRepository.findByRestaurantAndIsActiveTrue(restaurant));
-        
-        // 10. Delete Donations for this restaurant
-        donationRepository.deleteAll(donationRepository.findByRestaurantOrderByCreatedAtDesc(restaurant));
-        
-        // 11. Delete Carts that reference this restaurant
-        // Note: CartRepository doesn't have findByRestaurant, but we can check if needed
-        // Carts are typically user-specific, so we'll skip this to avoid deleting user carts
-        
-        // 12. Finally, delete the restaurant itself
-        // Menus and MenuItems will be deleted via cascade (Restaurant has @OneToMany with cascade = CascadeType.ALL)
-        restaurantRepository.delete(restaurant);
+        // Delete all restaurants with this name (should typically be just one)
+        return restaurants.stream()
+                .map(restaurant -> restaurantDeletionEngine.submit(restaurant.getId()))
+                .toList();
     }
 
     public List<Restaurant> findByOwner(User owner) {
@@ -331,19 +248,25 @@ public class RestaurantService {
         return restaurants;
     }
 
+    /**
+     * Active restaurants for a storefront mode, served from the catalog cache.
+     * The returned list is shared and unmodifiable.
+     */
     public List<Restaurant> findByMode(SiteMode siteMode) {
-        List<Restaurant> restaurants;
-        if (siteMode != null && siteMode.isCafeMode()) {
-            // Cafe mode: show only cafes
-            restaurants = restaurantRepository.findByIsActiveTrueAndIsCafeLoungeTrue();
-        } else {
-            // Restaurant mode (or null): show only non-cafe restaurants
-            restaurants = restaurantRepository.findByIsActiveTrue().stream()
-                    .filter(r -> !r.isCafeLounge())
-                    .collect(java.util.stream.Collectors.toList());
-        }
-        ensureImageUrls(restaurants);
-        return restaurants;
+        return catalogCache.get(Catalog.RESTAURANTS, siteMode, () -> {
+            List<Restaurant> restaurants;
+            if (siteMode != null && siteMode.isCafeMode()) {
+                // Cafe mode: show only cafes
+                restaurants = restaurantRepository.findByIsActiveTrueAndIsCafeLoungeTrue();
+            } else {
+                // Restaurant mode (or null): show only non-cafe restaurants
+                restaurants = restaurantRepository.findByIsActiveTrue().stream()
+                        .filter(r -> !r.isCafeLounge())
+                        .collect(java.util.stream.Collectors.toList());
+            }
+            ensureImageUrls(restaurants);
+            return restaurants;
+        });
     }
 
     public Restaurant getById(Long id) {
@@ -17,6 +17,7 @@ import com.srFoodDelivery.model.TableReservation;
 import com.srFoodDelivery.model.User;
 import com.srFoodDelivery.repository.RestaurantTableRepository;
 import com.srFoodDelivery.repository.TableReservationRepository;
+import com.srFoodDelivery.service.table.TableAvailabilityIndex;
 
 @Service
 @Transactional
@@ -25,13 +26,16 @@ public class TableService {
     private final RestaurantTableRepository tableRepository;
     private final TableReservationRepository reservationRepository;
     private final RestaurantService restaurantService;
+    private final TableAvailabilityIndex availabilityIndex;
 
     public TableService(RestaurantTableRepository tableRepository,
             TableReservationRepository reservationRepository,
-            RestaurantService restaurantService) {
+            RestaurantService restaurantService,
+            TableAvailabilityIndex availabilityIndex) {
         this.tableRepository = tableRepository;
         this.reservationRepository = reservationRepository;
         this.restaurantService = restaurantService;
+        this.availabilityIndex = availabilityIndex;
     }
 
     // Table Management
@@ -78,12 +82,21 @@ public class TableService {
         }
 
         RestaurantTable table = tableOpt.get();
-        LocalTime endTime = startTime.plusMinutes(durationMinutes);
-
-        List<TableReservation> conflicts = reservationRepository.findConflictingReservations(
-                table, date, startTime, endTime);
+        return availabilityIndex.day(table.getRestaurant().getId(), date)
+                .isFree(tableId, startTime, durationMinutes);
+    }
 
-        return conflicts.isEmpty();
+    /**
+     * Checks the table against the database rather than the availability index, right
+     * before a booking is written.
+     */
+    private boolean hasConflictingReservation(RestaurantTable table, LocalDate date, LocalTime startTime,
+            Integer durationMinutes) {
+        LocalDateTime startAt = LocalDateTime.of(date, startTime);
+        LocalDateTime endAt = startAt.plusMinutes(durationMinutes);
+        // A booking running past midnight overlaps everything that starts later that day
+        LocalTime endTime = endAt.toLocalDate().isAfter(date) ? LocalTime.MAX : endAt.toLocalTime();
+        return !reservationRepository.findConflictingReservations(table, date, startAt, endTime).isEmpty();
     }
 
     public TableReservation createReservation(User user, Long restaurantId, Long tableId,
@@ -99,7 +112,7 @@ public class TableService {
         }
 
         // Check availability
-        if (!isTableAvailable(tableId, date, time, durationMinutes)) {
+        if (hasConflictingReservation(table, date, time, durationMinutes)) {
             throw new IllegalStateException(
                     "This table is already booked at that time. Please select another table or time slot.");
         }
@@ -123,7 +136,9 @@ public class TableService {
         LocalDateTime reservationDateTime = LocalDateTime.of(date, time);
         reservation.setAutoReleaseTime(reservationDateTime.plusMinutes(15));
 
-        return reservationRepository.save(reservation);
+        TableReservation saved = reservationRepository.save(reservation);
+        availabilityIndex.reservationChanged(saved);
+        return saved;
     }
 
     public TableReservation checkIn(String qrCode) {
@@ -148,17 +163,24 @@ public class TableService {
         reservation.setStatus("COMPLETED");
         reservation.setCheckOutTime(LocalDateTime.now());
 
-        return reservationRepository.save(reservation);
+        TableReservation saved = reservationRepository.save(reservation);
+        availabilityIndex.reservationChanged(saved);
+        return saved;
     }
 
+    /**
+     * Active tables seating at least numberOfGuests that are free for the whole slot,
+     * answered from the availability index in one pass over the restaurant's tables.
+     */
     @Transactional(readOnly = true)
     public List<RestaurantTable> getAvailableTables(Long restaurantId, LocalDate date, LocalTime time,
             Integer durationMinutes, Integer numberOfGuests) {
         List<RestaurantTable> allTables = getActiveTablesByRestaurant(restaurantId);
+        TableAvailabilityIndex.Day day = availabilityIndex.day(restaurantId, date);
 
         return allTables.stream()
                 .filter(table -> table.getCapacity() >= numberOfGuests)
-                .filter(table -> isTableAvailable(table.getId(), date, time, durationMinutes))
+                .filter(table -> day.isFree(table.getId(), time, durationMinutes))
                 .collect(Collectors.toList());
     }
 
@@ -172,6 +194,7 @@ public class TableService {
         for (TableReservation reservation : expired) {
             reservation.setStatus("CANCELLED");
             reservationRepository.save(reservation);
+            availabilityIndex.reservationChanged(reservation);
         }
     }
 
@@ -338,5 +361,6 @@ public class TableService {
 
         reservation.setStatus("CANCELLED");
         reservationRepository.save(reservation);
+        availabilityIndex.reservationChanged(reservation);
     }
 }
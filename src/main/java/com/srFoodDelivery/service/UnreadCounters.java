@@ -0,0 +1,303 @@
+package com.srFoodDelivery.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Unread chat message and notification counts per user, for the badges on every page.
+ *
+ * A user's counts are read from user_unread_counter and then kept here; creating a message or
+ * notification adds one and marking rows read subtracts the number of rows that changed.
+ * Changes made inside a transaction apply when it commits. Each interval the changes made here
+ * since the last write are added to the rows in one JDBC batch and transaction, so nodes changing the same user
+ * add up instead of overwriting each other, and the cached counts are then read again so they
+ * include the other nodes' changes. Users idle for unread.counters.idle-ttl-ms are dropped once
+ * written. A user without a summary row is counted from the source tables once.
+ *
+ * A user deleted through {@link #forget} is dropped at once. If a row still cannot be written
+ * because its user is gone, the batch is written row by row and that user is dropped, so one
+ * deleted user does not hold back everyone else's counts.
+ *
+ * A crash can lose the changes of the last interval, leaving a badge off until the user's rows
+ * are next marked read.
+ */
+@Component
+public class UnreadCounters {
+
+    private static final Logger logger = LoggerFactory.getLogger(UnreadCounters.class);
+    private static final int FLUSH_BATCH_SIZE = 500;
+    private static final String SELECT_SQL =
+            "SELECT unread_chat_messages, unread_notifications FROM user_unread_counter WHERE user_id = ?";
+    private static final String COUNT_SQL =
+            "SELECT (SELECT COUNT(*) FROM chat_message WHERE receiver_id = ? AND is_read = FALSE), " +
+            "(SELECT COUNT(*) FROM notification WHERE user_id = ? AND is_read = FALSE)";
+    private static final String REFRESH_SQL =
+            "SELECT user_id, unread_chat_messages, unread_notifications FROM user_unread_counter WHERE user_id IN (%s)";
+    // A new row starts from the counts known here; an existing one only gets the changes added
+    private static final String UPSERT_SQL =
+            "INSERT INTO user_unread_counter (user_id, unread_chat_messages, unread_notifications) VALUES (?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE unread_chat_messages = GREATEST(0, unread_chat_messages + ?), " +
+            "unread_notifications = GREATEST(0, unread_notifications + ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final long idleMillis;
+    private final ConcurrentHashMap<Long, UserCounts> counts = new ConcurrentHashMap<>();
+
+    private final Counter rowsWritten;
+    private final Counter usersDropped;
+
+    public UnreadCounters(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${unread.counters.idle-ttl-ms:1800000}") long idleMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.idleMillis = idleMillis;
+        this.rowsWritten = Counter.builder("unread.counters.writes")
+                .description("Unread counter rows written to the database")
+                .register(meterRegistry);
+        this.usersDropped = Counter.builder("unread.counters.dropped")
+                .description("Users whose unread counts could not be written because the user no longer exists")
+                .register(meterRegistry);
+        Gauge.builder("unread.counters.users", counts, Map::size)
+                .description("Users with unread counts held in memory")
+                .register(meterRegistry);
+    }
+
+    public int getUnreadChatMessages(Long userId) {
+        UserCounts userCounts = countsFor(userId);
+        return Math.max(0, userCounts.chatMessages + userCounts.chatDelta.get());
+    }
+
+    public int getUnreadNotifications(Long userId) {
+        UserCounts userCounts = countsFor(userId);
+        return Math.max(0, userCounts.notifications + userCounts.notificationDelta.get());
+    }
+
+    public void chatMessageReceived(Long userId) {
+        adjust(userId, 1, 0);
+    }
+
+    public void chatMessagesRead(Long userId, int count) {
+        adjust(userId, -count, 0);
+    }
+
+    public void notificationReceived(Long userId) {
+        adjust(userId, 0, 1);
+    }
+
+    public void notificationsRead(Long userId, int count) {
+        adjust(userId, 0, -count);
+    }
+
+    /**
+     * Drops a deleted user's counts, once the deleting transaction commits.
+     */
+    public void forget(Long userId) {
+        onCommit(() -> counts.remove(userId));
+    }
+
+    @Scheduled(fixedDelayString = "${unread.counters.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        List<Change> changes = new ArrayList<>();
+        for (Map.Entry<Long, UserCounts> entry : counts.entrySet()) {
+            UserCounts userCounts = entry.getValue();
+            int chatDelta = userCounts.chatDelta.get();
+            int notificationDelta = userCounts.notificationDelta.get();
+            if (chatDelta != 0 || notificationDelta != 0 || !userCounts.persisted) {
+                changes.add(new Change(entry.getKey(), userCounts, chatDelta, notificationDelta));
+            }
+        }
+
+        for (int from = 0; from < changes.size(); from += FLUSH_BATCH_SIZE) {
+            List<Change> batch = changes.subList(from, Math.min(from + FLUSH_BATCH_SIZE, changes.size()));
+            List<Object[]> rows = new ArrayList<>(batch.size());
+            batch.forEach(change -> rows.add(change.row()));
+            try {
+                // One transaction, so a failed batch adds nothing and the rows can be written again
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT_SQL, rows));
+                batch.forEach(Change::written);
+                rowsWritten.increment(batch.size());
+            } catch (Exception e) {
+                logger.warn("Failed to write unread counters for {} users as a batch, writing them one by one: {}",
+                        batch.size(), e.getMessage());
+                batch.forEach(this::writeOne);
+            }
+        }
+
+        refresh();
+
+        long now = System.currentTimeMillis();
+        counts.entrySet().removeIf(entry -> entry.getValue().isClean()
+                && now - entry.getValue().lastUsedAt >= idleMillis);
+
+        if (!changes.isEmpty()) {
+            logger.debug("Wrote unread counters for {} users", changes.size());
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    private void adjust(Long userId, int chatDelta, int notificationDelta) {
+        onCommit(() -> {
+            UserCounts userCounts = countsFor(userId);
+            if (chatDelta != 0) {
+                userCounts.chatDelta.addAndGet(chatDelta);
+            }
+            if (notificationDelta != 0) {
+                userCounts.notificationDelta.addAndGet(notificationDelta);
+            }
+        });
+    }
+
+    private void writeOne(Change change) {
+        try {
+            jdbcTemplate.update(UPSERT_SQL, change.row());
+            change.written();
+            rowsWritten.increment();
+        } catch (DataIntegrityViolationException e) {
+            // The user has been deleted; the row can never be written
+            logger.warn("Dropping unread counters of user {}: {}", change.userId(), e.getMessage());
+            counts.remove(change.userId(), change.userCounts());
+            usersDropped.increment();
+        } catch (Exception e) {
+            // The changes stay pending and are written with the next flush
+            logger.error("Failed to write unread counters for user {}: {}", change.userId(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads the written counts of every cached user again, so changes made on other nodes show.
+     */
+    private void refresh() {
+        List<Long> userIds = new ArrayList<>(counts.keySet());
+        for (int from = 0; from < userIds.size(); from += FLUSH_BATCH_SIZE) {
+            List<Long> batch = userIds.subList(from, Math.min(from + FLUSH_BATCH_SIZE, userIds.size()));
+            String sql = String.format(REFRESH_SQL, String.join(", ", Collections.nCopies(batch.size(), "?")));
+            try {
+                jdbcTemplate.query(sql, rs -> {
+                    UserCounts userCounts = counts.get(rs.getLong(1));
+                    if (userCounts != null && userCounts.persisted) {
+                        userCounts.chatMessages = rs.getInt(2);
+                        userCounts.notifications = rs.getInt(3);
+                    }
+                }, batch.toArray());
+            } catch (Exception e) {
+                logger.error("Failed to refresh unread counters for {} users: {}", batch.size(), e.getMessage(), e);
+            }
+        }
+    }
+
+    private UserCounts countsFor(Long userId) {
+        UserCounts userCounts = counts.get(userId);
+        if (userCounts == null) {
+            // Load outside the map so a slow query does not block other users; the first loader wins
+            UserCounts loaded = load(userId);
+            userCounts = counts.putIfAbsent(userId, loaded);
+            if (userCounts == null) {
+                userCounts = loaded;
+            }
+        }
+        userCounts.lastUsedAt = System.currentTimeMillis();
+        return userCounts;
+    }
+
+    private UserCounts load(Long userId) {
+        List<UserCounts> rows = jdbcTemplate.query(SELECT_SQL,
+                (rs, rowNum) -> new UserCounts(rs.getInt(1), rs.getInt(2)), userId);
+        if (!rows.isEmpty()) {
+            return rows.get(0);
+        }
+        UserCounts counted = jdbcTemplate.queryForObject(COUNT_SQL,
+                (rs, rowNum) -> new UserCounts(rs.getInt(1), rs.getInt(2)), userId, userId);
+        counted.persisted = false;
+        return counted;
+    }
+
+    private void onCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Counts as last written, plus the changes made here since. The written counts are only
+     * replaced by the flush, which holds the lock.
+     */
+    private static final class UserCounts {
+        private volatile int chatMessages;
+        private volatile int notifications;
+        private final AtomicInteger chatDelta = new AtomicInteger();
+        private final AtomicInteger notificationDelta = new AtomicInteger();
+        // False until a row counted from the source tables has been inserted
+        private volatile boolean persisted = true;
+        private volatile long lastUsedAt = System.currentTimeMillis();
+
+        private UserCounts(int chatMessages, int notifications) {
+            this.chatMessages = chatMessages;
+            this.notifications = notifications;
+        }
+
+        private boolean isClean() {
+            return persisted && chatDelta.get() == 0 && notificationDelta.get() == 0;
+        }
+    }
+
+    /**
+     * The changes of one user taken for a write.
+     */
+    private record Change(Long userId, UserCounts userCounts, int chatDelta, int notificationDelta) {
+
+        Object[] row() {
+            return new Object[] {
+                    userId,
+                    Math.max(0, userCounts.chatMessages + chatDelta),
+                    Math.max(0, userCounts.notifications + notificationDelta),
+                    chatDelta,
+                    notificationDelta
+            };
+        }
+
+        /**
+         * Moves the written changes into the written counts; changes made since stay pending.
+         */
+        void written() {
+            userCounts.chatMessages = Math.max(0, userCounts.chatMessages + chatDelta);
+            userCounts.notifications = Math.max(0, userCounts.notifications + notificationDelta);
+            userCounts.chatDelta.addAndGet(-chatDelta);
+            userCounts.notificationDelta.addAndGet(-notificationDelta);
+            userCounts.persisted = true;
+        }
+    }
+}
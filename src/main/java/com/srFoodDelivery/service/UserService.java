@@ -17,10 +17,13 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UnreadCounters unreadCounters;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder,
+            UnreadCounters unreadCounters) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.unreadCounters = unreadCounters;
     }
 
     @Transactional
@@ -99,5 +102,6 @@ public class UserService {
     @Transactional
     public void deleteUser(Long id) {
         userRepository.deleteById(id);
+        unreadCounters.forget(id);
     }
 }
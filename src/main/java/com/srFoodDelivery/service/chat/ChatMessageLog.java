@@ -0,0 +1,196 @@
+package com.srFoodDelivery.service.chat;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.srFoodDelivery.service.UnreadCounters;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Write-behind log for chat messages. Sent messages are queued in memory and inserted with one
+ * JDBC batch per interval, followed by one chat_room update per room that received messages,
+ * instead of a transaction per message.
+ *
+ * Rows are keyed by (room_id, seq). A chunk is written in one transaction, so a chunk that fails
+ * leaves nothing behind; its messages are then written one at a time, so one bad row does not
+ * hold back the rest. A message whose (room_id, seq) is already taken can never be written and
+ * is dropped with an error rather than skipped silently. Messages still queued when the process
+ * dies are lost; the window is one flush interval.
+ */
+@Component
+public class ChatMessageLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatMessageLog.class);
+    private static final int FLUSH_BATCH_SIZE = 500;
+    private static final int MAX_ATTEMPTS = 5;
+    private static final String INSERT_SQL =
+            "INSERT INTO chat_message (room_id, seq, sender_id, receiver_id, order_id, sub_order_id, "
+                    + "message, message_type, is_read, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, 'TEXT', FALSE, ?)";
+    private static final String ROOM_SQL =
+            "UPDATE chat_room SET last_message_at = GREATEST(COALESCE(last_message_at, ?), ?) WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UnreadCounters unreadCounters;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<Pending> pending = new LinkedBlockingQueue<>();
+
+    private final Counter messagesWritten;
+    private final Counter messagesDropped;
+
+    public ChatMessageLog(JdbcTemplate jdbcTemplate, UnreadCounters unreadCounters,
+            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.unreadCounters = unreadCounters;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.messagesWritten = Counter.builder("chat.messages.writes")
+                .description("Chat messages written to the database")
+                .tag("result", "written")
+                .register(meterRegistry);
+        this.messagesDropped = Counter.builder("chat.messages.writes")
+                .description("Chat messages written to the database")
+                .tag("result", "dropped")
+                .register(meterRegistry);
+        Gauge.builder("chat.messages.buffered", pending, BlockingQueue::size)
+                .description("Chat messages waiting to be written")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a sent message for the next flush.
+     */
+    public void append(PostedChatMessage message) {
+        pending.add(new Pending(message, 0));
+    }
+
+    /**
+     * Messages of the room that are queued but not written yet, in no particular order.
+     */
+    public List<PostedChatMessage> pendingForRoom(Long roomId) {
+        List<PostedChatMessage> messages = new ArrayList<>();
+        for (Pending entry : pending) {
+            if (entry.message().roomId().equals(roomId)) {
+                messages.add(entry.message());
+            }
+        }
+        return messages;
+    }
+
+    @Scheduled(fixedDelayString = "${chat.messages.flush-interval-ms:200}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<Pending> drained = new ArrayList<>();
+        pending.drainTo(drained);
+
+        for (int from = 0; from < drained.size(); from += FLUSH_BATCH_SIZE) {
+            List<Pending> chunk = drained.subList(from, Math.min(from + FLUSH_BATCH_SIZE, drained.size()));
+            List<Object[]> rows = new ArrayList<>(chunk.size());
+            Map<Long, PostedChatMessage> latestByRoom = new HashMap<>();
+            for (Pending entry : chunk) {
+                rows.add(insertRow(entry.message()));
+                latestByRoom.merge(entry.message().roomId(), entry.message(), (a, b) -> a.seq() >= b.seq() ? a : b);
+            }
+            List<Object[]> roomRows = new ArrayList<>(latestByRoom.size());
+            for (PostedChatMessage latest : latestByRoom.values()) {
+                roomRows.add(roomRow(latest));
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+                    jdbcTemplate.batchUpdate(ROOM_SQL, roomRows);
+                });
+                messagesWritten.increment(chunk.size());
+            } catch (Exception e) {
+                logger.warn("Failed to write {} chat messages as a batch, writing them one by one: {}",
+                        chunk.size(), e.getMessage());
+                for (Pending entry : chunk) {
+                    writeOne(entry);
+                }
+            }
+        }
+
+        logger.debug("Wrote {} chat messages", drained.size());
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    private void writeOne(Pending entry) {
+        PostedChatMessage message = entry.message();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update(INSERT_SQL, insertRow(message));
+                jdbcTemplate.update(ROOM_SQL, roomRow(message));
+            });
+            messagesWritten.increment();
+        } catch (DuplicateKeyException e) {
+            logger.error("Dropping chat message {}#{} from user {}: the sequence number is already taken",
+                    message.roomId(), message.seq(), message.senderId());
+            drop(message);
+        } catch (Exception e) {
+            logger.error("Failed to write chat message {}#{}: {}", message.roomId(), message.seq(), e.getMessage(), e);
+            retryOrDrop(entry);
+        }
+    }
+
+    private void retryOrDrop(Pending entry) {
+        if (entry.attempts() + 1 < MAX_ATTEMPTS) {
+            pending.add(new Pending(entry.message(), entry.attempts() + 1));
+            return;
+        }
+        PostedChatMessage message = entry.message();
+        logger.error("Dropping chat message {}#{} from user {} after {} failed writes",
+                message.roomId(), message.seq(), message.senderId(), MAX_ATTEMPTS);
+        drop(message);
+    }
+
+    private void drop(PostedChatMessage message) {
+        // The receiver's unread count included it when it was sent
+        unreadCounters.chatMessagesRead(message.receiverId(), 1);
+        messagesDropped.increment();
+    }
+
+    private static Object[] insertRow(PostedChatMessage message) {
+        return new Object[] {
+                message.roomId(),
+                message.seq(),
+                message.senderId(),
+                message.receiverId(),
+                message.orderId(),
+                message.subOrderId(),
+                message.message(),
+                Timestamp.valueOf(message.timestamp())
+        };
+    }
+
+    private static Object[] roomRow(PostedChatMessage message) {
+        Timestamp sentAt = Timestamp.valueOf(message.timestamp());
+        return new Object[] { sentAt, sentAt, message.roomId() };
+    }
+
+    private record Pending(PostedChatMessage message, int attempts) {
+    }
+}
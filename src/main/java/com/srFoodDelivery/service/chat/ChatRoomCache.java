@@ -0,0 +1,214 @@
+package com.srFoodDelivery.service.chat;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.srFoodDelivery.model.ChatRoom;
+import com.srFoodDelivery.repository.ChatRoomRepository;
+import com.srFoodDelivery.repository.ChatRoomRepository.RoomSequence;
+import com.srFoodDelivery.repository.MultiOrderRepository;
+import com.srFoodDelivery.repository.SubOrderRepository;
+import com.srFoodDelivery.repository.UserRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Chat rooms by participant pair and order context, and the sequence numbers of their messages.
+ *
+ * A room is looked up (or created) on its first message and then kept here until it has been
+ * idle for chat.rooms.idle-ttl-ms, so sending a message does not look the room up again.
+ * Sequence numbers come from chat_room.last_seq: each message takes the next one with a single
+ * UPDATE of the room's row, so every node sending into the room draws from the same counter and
+ * no two messages get the same number.
+ */
+@Component
+public class ChatRoomCache {
+
+    private static final String NEXT_SEQ_SQL =
+            "UPDATE chat_room SET last_seq = LAST_INSERT_ID(last_seq + 1) WHERE id = ?";
+
+    private final ChatRoomRepository chatRoomRepository;
+    private final UserRepository userRepository;
+    private final MultiOrderRepository multiOrderRepository;
+    private final SubOrderRepository subOrderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final long idleMillis;
+
+    private final Map<RoomKey, Room> rooms = new ConcurrentHashMap<>();
+
+    public ChatRoomCache(ChatRoomRepository chatRoomRepository,
+            UserRepository userRepository,
+            MultiOrderRepository multiOrderRepository,
+            SubOrderRepository subOrderRepository,
+            PlatformTransactionManager transactionManager,
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${chat.rooms.idle-ttl-ms:1800000}") long idleMillis) {
+        this.chatRoomRepository = chatRoomRepository;
+        this.userRepository = userRepository;
+        this.multiOrderRepository = multiOrderRepository;
+        this.subOrderRepository = subOrderRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jdbcTemplate = jdbcTemplate;
+        this.idleMillis = idleMillis;
+        Gauge.builder("chat.rooms.cached", rooms, Map::size)
+                .description("Chat rooms held in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reserves the next sequence number in the room for a message between the two users,
+     * loading or creating the room on first use. Order and sub order ids that do not exist
+     * are ignored, as they were when messages were saved one by one.
+     */
+    public Slot nextMessage(Long senderId, Long receiverId, Long orderId, Long subOrderId) {
+        RoomKey key = RoomKey.of(senderId, receiverId, orderId, subOrderId);
+        while (true) {
+            Room room = rooms.get(key);
+            if (room == null) {
+                if (!userRepository.existsById(senderId)) {
+                    throw new IllegalArgumentException("Sender not found");
+                }
+                if (!userRepository.existsById(receiverId)) {
+                    throw new IllegalArgumentException("Receiver not found");
+                }
+                // One caller loads or creates the room; others asking for it wait for the result
+                room = rooms.computeIfAbsent(key, this::load);
+            }
+            room.touch(System.currentTimeMillis());
+            Long seq = reserveSeq(room.getId());
+            if (seq != null) {
+                return new Slot(room, seq);
+            }
+            // The room's row is gone; look it up again
+            rooms.remove(key, room);
+        }
+    }
+
+    /**
+     * Drops rooms that have been idle for the TTL.
+     */
+    @Scheduled(fixedDelayString = "${chat.rooms.sweep-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.currentTimeMillis();
+        rooms.values().removeIf(room -> room.isIdle(now, idleMillis));
+    }
+
+    /**
+     * Takes the room's next sequence number, or returns null if the room no longer exists.
+     * LAST_INSERT_ID is per connection, so the UPDATE and the read share one.
+     */
+    private Long reserveSeq(Long roomId) {
+        return jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try (PreparedStatement update = connection.prepareStatement(NEXT_SEQ_SQL)) {
+                update.setLong(1, roomId);
+                if (update.executeUpdate() == 0) {
+                    return null;
+                }
+            }
+            try (Statement select = connection.createStatement();
+                    ResultSet result = select.executeQuery("SELECT LAST_INSERT_ID()")) {
+                result.next();
+                return result.getLong(1);
+            }
+        });
+    }
+
+    private Room load(RoomKey key) {
+        return transactionTemplate.execute(status -> {
+            Long subOrderId = key.subOrderId() != null && subOrderRepository.existsById(key.subOrderId())
+                    ? key.subOrderId() : null;
+            Long orderId = key.orderId() != null && multiOrderRepository.existsById(key.orderId())
+                    ? key.orderId() : null;
+
+            List<RoomSequence> existing;
+            if (subOrderId != null) {
+                existing = chatRoomRepository.findRoomSequenceForSubOrder(subOrderId, key.user1Id(), key.user2Id());
+            } else if (orderId != null) {
+                existing = chatRoomRepository.findRoomSequenceForOrder(orderId, key.user1Id(), key.user2Id());
+            } else {
+                existing = chatRoomRepository.findGeneralRoomSequence(key.user1Id(), key.user2Id());
+            }
+            if (!existing.isEmpty()) {
+                return new Room(existing.get(0).getId(), orderId, subOrderId);
+            }
+
+            ChatRoom chatRoom = new ChatRoom();
+            chatRoom.setParticipant1(userRepository.getReferenceById(key.user1Id()));
+            chatRoom.setParticipant2(userRepository.getReferenceById(key.user2Id()));
+            chatRoom.setOrder(orderId != null ? multiOrderRepository.getReferenceById(orderId) : null);
+            chatRoom.setSubOrder(subOrderId != null ? subOrderRepository.getReferenceById(subOrderId) : null);
+            return new Room(chatRoomRepository.save(chatRoom).getId(), orderId, subOrderId);
+        });
+    }
+
+    /**
+     * A reserved sequence number in a room.
+     */
+    public record Slot(Room room, long seq) {
+    }
+
+    /**
+     * Participants in id order plus the order context the message was sent in.
+     */
+    private record RoomKey(Long user1Id, Long user2Id, Long orderId, Long subOrderId) {
+
+        static RoomKey of(Long senderId, Long receiverId, Long orderId, Long subOrderId) {
+            return senderId < receiverId
+                    ? new RoomKey(senderId, receiverId, orderId, subOrderId)
+                    : new RoomKey(receiverId, senderId, orderId, subOrderId);
+        }
+    }
+
+    /**
+     * One cached room and when it last had a message.
+     */
+    public static final class Room {
+
+        private final Long id;
+        private final Long orderId;
+        private final Long subOrderId;
+        private volatile long lastUsedAt;
+
+        private Room(Long id, Long orderId, Long subOrderId) {
+            this.id = id;
+            this.orderId = orderId;
+            this.subOrderId = subOrderId;
+            this.lastUsedAt = System.currentTimeMillis();
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public Long getOrderId() {
+            return orderId;
+        }
+
+        public Long getSubOrderId() {
+            return subOrderId;
+        }
+
+        private void touch(long now) {
+            lastUsedAt = now;
+        }
+
+        private boolean isIdle(long now, long idleMillis) {
+            return now - lastUsedAt >= idleMillis;
+        }
+    }
+}
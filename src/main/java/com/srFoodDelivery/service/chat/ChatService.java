@@ -1,14 +1,22 @@
 package com.srFoodDelivery.service.chat;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.srFoodDelivery.dto.order.CursorPage;
 import com.srFoodDelivery.model.ChatMessage;
 import com.srFoodDelivery.model.ChatRoom;
 import com.srFoodDelivery.model.MultiOrder;
@@ -16,6 +24,8 @@ import com.srFoodDelivery.model.SubOrder;
 import com.srFoodDelivery.model.User;
 import com.srFoodDelivery.repository.ChatMessageRepository;
 import com.srFoodDelivery.repository.ChatRoomRepository;
+import com.srFoodDelivery.service.UnreadCounters;
+import com.srFoodDelivery.websocket.ChatWebSocketPublisher;
 
 @Service
 @Transactional
@@ -25,39 +35,52 @@ public class ChatService {
 
     private final ChatMessageRepository chatMessageRepository;
     private final ChatRoomRepository chatRoomRepository;
+    private final ChatRoomCache chatRoomCache;
+    private final ChatMessageLog chatMessageLog;
+    private final ChatWebSocketPublisher chatWebSocketPublisher;
+    private final UnreadCounters unreadCounters;
+    private final int historyPageSize;
 
     public ChatService(
             ChatMessageRepository chatMessageRepository,
-            ChatRoomRepository chatRoomRepository) {
+            ChatRoomRepository chatRoomRepository,
+            ChatRoomCache chatRoomCache,
+            ChatMessageLog chatMessageLog,
+            ChatWebSocketPublisher chatWebSocketPublisher,
+            UnreadCounters unreadCounters,
+            @Value("${chat.history.page-size:50}") int historyPageSize) {
         this.chatMessageRepository = chatMessageRepository;
         this.chatRoomRepository = chatRoomRepository;
+        this.chatRoomCache = chatRoomCache;
+        this.chatMessageLog = chatMessageLog;
+        this.chatWebSocketPublisher = chatWebSocketPublisher;
+        this.unreadCounters = unreadCounters;
+        this.historyPageSize = historyPageSize;
     }
 
     /**
-     * Sends a message between two users
+     * Sends a message between two users. The room and the message's sequence number come from
+     * the room cache, which takes the number from chat_room.last_seq. The row is queued for the
+     * next batch write and the message goes straight to both participants' chat topics.
      */
-    public ChatMessage sendMessage(User sender, User receiver, String message, 
-                                   MultiOrder order, SubOrder subOrder) {
-        ChatMessage chatMessage = new ChatMessage();
-        chatMessage.setSender(sender);
-        chatMessage.setReceiver(receiver);
-        chatMessage.setMessage(message);
-        chatMessage.setMessageType("TEXT");
-        chatMessage.setOrder(order);
-        chatMessage.setSubOrder(subOrder);
-        chatMessage.setIsRead(false);
-
-        ChatMessage savedMessage = chatMessageRepository.save(chatMessage);
-
-        // Update or create chat room
-        ChatRoom chatRoom = getOrCreateChatRoom(sender, receiver, order, subOrder);
-        chatRoom.setLastMessageAt(LocalDateTime.now());
-        chatRoomRepository.save(chatRoom);
-
-        logger.info("Message sent from user {} to user {} for order {}", 
-                sender.getId(), receiver.getId(), order != null ? order.getId() : "N/A");
-
-        return savedMessage;
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public PostedChatMessage sendMessage(Long senderId, Long receiverId, String message,
+                                         Long orderId, Long subOrderId) {
+        if (message == null || message.isBlank()) {
+            throw new IllegalArgumentException("Message is empty");
+        }
+        ChatRoomCache.Slot slot = chatRoomCache.nextMessage(senderId, receiverId, orderId, subOrderId);
+        ChatRoomCache.Room room = slot.room();
+        PostedChatMessage posted = new PostedChatMessage(room.getId(), slot.seq(), senderId, receiverId,
+                message, room.getOrderId(), room.getSubOrderId(), LocalDateTime.now());
+
+        chatMessageLog.append(posted);
+        unreadCounters.chatMessageReceived(receiverId);
+        chatWebSocketPublisher.publishToParticipants(posted);
+
+        logger.debug("Message {}#{} sent from user {} to user {}",
+                posted.roomId(), posted.seq(), senderId, receiverId);
+        return posted;
     }
 
     /**
@@ -97,22 +120,52 @@ public class ChatService {
     }
 
     /**
-     * Gets conversation between two users
+     * One page of a room's history for a participant, oldest first. Without a cursor the page
+     * ends with the newest message; pass nextCursor back to load the page before it. Messages
+     * still waiting to be written are included. Pages hold at most chat.history.page-size messages.
      */
     @Transactional(readOnly = true)
-    public List<ChatMessage> getConversation(User user1, User user2, SubOrder subOrder) {
-        if (subOrder != null) {
-            return chatMessageRepository.findConversationForSubOrder(subOrder, user1, user2);
+    public CursorPage<PostedChatMessage> getRoomMessages(Long roomId, User user, String cursor) {
+        ChatRoom room = chatRoomRepository.findById(roomId)
+                .orElseThrow(() -> new IllegalArgumentException("Chat room not found"));
+        if (!room.hasParticipant(user.getId())) {
+            throw new SecurityException("Access denied");
+        }
+        long beforeSeq = Long.MAX_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                beforeSeq = Long.parseLong(cursor);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
         }
-        return chatMessageRepository.findConversationBetweenUsers(user1, user2);
-    }
 
-    /**
-     * Gets conversation for an order
-     */
-    @Transactional(readOnly = true)
-    public List<ChatMessage> getConversationForOrder(User user1, User user2, MultiOrder order) {
-        return chatMessageRepository.findConversationForOrder(order, user1, user2);
+        List<ChatMessageRepository.RoomMessageRow> rows = chatMessageRepository.findRoomMessagesBefore(
+                roomId, beforeSeq, PageRequest.of(0, historyPageSize + 1));
+
+        List<PostedChatMessage> messages = new ArrayList<>(rows.size());
+        Set<Long> writtenSeqs = new HashSet<>();
+        for (ChatMessageRepository.RoomMessageRow row : rows) {
+            messages.add(new PostedChatMessage(row.getRoomId(), row.getSeq(), row.getSenderId(), row.getReceiverId(),
+                    row.getMessage(), row.getOrderId(), row.getSubOrderId(), row.getCreatedAt()));
+            writtenSeqs.add(row.getSeq());
+        }
+        // Sent but not yet written; without them a reload right after sending would miss them
+        for (PostedChatMessage queued : chatMessageLog.pendingForRoom(roomId)) {
+            if (queued.seq() < beforeSeq && !writtenSeqs.contains(queued.seq())) {
+                messages.add(queued);
+            }
+        }
+        messages.sort(Comparator.comparingLong(PostedChatMessage::seq));
+
+        // Keep the newest page-size messages; anything older is on the next page
+        boolean hasMore = messages.size() > historyPageSize;
+        if (hasMore) {
+            messages = new ArrayList<>(messages.subList(messages.size() - historyPageSize, messages.size()));
+        }
+
+        String nextCursor = hasMore ? String.valueOf(messages.get(0).seq()) : null;
+        return new CursorPage<>(messages, nextCursor);
     }
 
     /**
@@ -124,25 +177,26 @@ public class ChatService {
     }
 
     /**
-     * Marks messages as read
+     * Marks the user's messages among the ids as read with one UPDATE and returns how many
+     * were unread
      */
-    public void markMessagesAsRead(User user, List<Long> messageIds) {
-        for (Long messageId : messageIds) {
-            ChatMessage message = chatMessageRepository.findById(messageId)
-                    .orElse(null);
-            if (message != null && message.getReceiver().getId().equals(user.getId())) {
-                message.setIsRead(true);
-                chatMessageRepository.save(message);
-            }
+    public int markMessagesAsRead(User user, List<Long> messageIds) {
+        if (messageIds == null || messageIds.isEmpty()) {
+            return 0;
         }
+        int updated = chatMessageRepository.markReadForReceiver(messageIds, user.getId());
+        if (updated > 0) {
+            unreadCounters.chatMessagesRead(user.getId(), updated);
+        }
+        return updated;
     }
 
     /**
-     * Gets unread message count for a user
+     * Gets unread message count for a user, from the cached counters
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Long getUnreadMessageCount(User user) {
-        return chatMessageRepository.countUnreadMessages(user);
+        return (long) unreadCounters.getUnreadChatMessages(user.getId());
     }
 
     /**
@@ -0,0 +1,18 @@
+package com.srFoodDelivery.service.chat;
+
+import java.time.LocalDateTime;
+
+/**
+ * A sent chat message as the participants receive it. The message is identified by its room
+ * and its sequence number in that room; the row is written shortly after it is sent.
+ */
+public record PostedChatMessage(
+        Long roomId,
+        long seq,
+        Long senderId,
+        Long receiverId,
+        String message,
+        Long orderId,
+        Long subOrderId,
+        LocalDateTime timestamp) {
+}
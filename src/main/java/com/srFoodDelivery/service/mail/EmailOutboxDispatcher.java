@@ -0,0 +1,171 @@
+package com.srFoodDelivery.service.mail;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.srFoodDelivery.model.EmailOutboxMessage;
+import com.srFoodDelivery.repository.EmailOutboxRepository;
+import com.srFoodDelivery.service.outbox.OutboxWorker;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Delivers queued emails from the email_outbox table.
+ *
+ * Batches are claimed and handed to the mailTaskExecutor by {@link OutboxWorker}. A worker sends
+ * its whole batch through one JavaMailSender call, which keeps a single SMTP transport open for
+ * every message in the batch. Failed messages are retried with exponential backoff until
+ * mail.outbox.max-attempts is reached.
+ *
+ * A batch stays SENDING for as long as its single send call takes, which with a slow server is
+ * up to one SMTP timeout per message. The stale cutoff is therefore never shorter than that worst
+ * case, or a batch still being sent would be handed to a second worker and sent twice.
+ */
+@Component
+public class EmailOutboxDispatcher extends OutboxWorker<EmailOutboxMessage> {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final JavaMailSender mailSender;
+
+    private final Counter sentCounter;
+    private final Timer batchTimer;
+
+    public EmailOutboxDispatcher(
+            EmailOutboxRepository emailOutboxRepository,
+            JavaMailSender mailSender,
+            @Qualifier("mailTaskExecutor") TaskExecutor mailTaskExecutor,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${mail.outbox.batch-size:50}") int batchSize,
+            @Value("${mail.outbox.workers:2}") int workers,
+            @Value("${mail.outbox.max-attempts:6}") int maxAttempts,
+            @Value("${mail.outbox.initial-backoff-ms:30000}") long initialBackoffMillis,
+            @Value("${mail.outbox.max-backoff-ms:3600000}") long maxBackoffMillis,
+            @Value("${mail.outbox.stale-after-ms:300000}") long staleAfterMillis,
+            @Value("${spring.mail.properties.mail.smtp.connectiontimeout:0}") long connectTimeoutMillis,
+            @Value("${spring.mail.properties.mail.smtp.timeout:0}") long readTimeoutMillis,
+            @Value("${spring.mail.properties.mail.smtp.writetimeout:0}") long writeTimeoutMillis) {
+        super("Email outbox", EmailOutboxMessage.STATUS_SENDING, "email.outbox", "Emails",
+                emailOutboxRepository, mailTaskExecutor,
+                new Settings(batchSize, workers, maxAttempts, initialBackoffMillis, maxBackoffMillis,
+                        staleAfterMillis(staleAfterMillis, batchSize, connectTimeoutMillis, readTimeoutMillis, writeTimeoutMillis)),
+                transactionManager, meterRegistry);
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.mailSender = mailSender;
+
+        this.sentCounter = Counter.builder("email.outbox.sent")
+                .description("Emails delivered to the SMTP server")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("email.outbox.batch")
+                .description("Time to send one batch of emails over a single SMTP connection")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The configured cutoff, raised to the longest a batch can take when the connection and every
+     * message run into their SMTP timeouts. JavaMail waits forever when a timeout is not set, so
+     * then no bound can be derived.
+     */
+    static long staleAfterMillis(long configured, int batchSize,
+            long connectTimeoutMillis, long readTimeoutMillis, long writeTimeoutMillis) {
+        if (connectTimeoutMillis <= 0 || readTimeoutMillis <= 0 || writeTimeoutMillis <= 0) {
+            logger.warn("SMTP timeouts are not all set; a batch still sending after {} ms may be sent twice", configured);
+            return configured;
+        }
+        long worstCaseBatch = connectTimeoutMillis + batchSize * (readTimeoutMillis + writeTimeoutMillis);
+        if (worstCaseBatch > configured) {
+            logger.info("Email outbox stale cutoff raised from {} ms to {} ms to cover a batch of {} slow sends",
+                    configured, worstCaseBatch, batchSize);
+            return worstCaseBatch;
+        }
+        return configured;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${mail.outbox.poll-interval-ms:2000}")
+    public void poll() {
+        super.poll();
+    }
+
+    @Override
+    protected String describe(EmailOutboxMessage message) {
+        return "email #" + message.getId() + " to " + message.getRecipient();
+    }
+
+    @Override
+    protected void process(List<EmailOutboxMessage> batch) {
+        SimpleMailMessage[] messages = new SimpleMailMessage[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            messages[i] = toMailMessage(batch.get(i));
+        }
+
+        Map<Object, Exception> failures = Collections.emptyMap();
+        Exception batchFailure = null;
+        Timer.Sample sample = Timer.start();
+        try {
+            // JavaMailSenderImpl opens one transport for the whole array and reuses it for each message
+            mailSender.send(messages);
+        } catch (MailSendException e) {
+            failures = e.getFailedMessages();
+            batchFailure = e;
+        } catch (MailException e) {
+            batchFailure = e;
+        } finally {
+            sample.stop(batchTimer);
+        }
+
+        List<Long> sentIds = new ArrayList<>();
+        List<EmailOutboxMessage> failed = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            EmailOutboxMessage message = batch.get(i);
+            Exception error = failures.get(messages[i]);
+            if (error == null && batchFailure != null && failures.isEmpty()) {
+                // Connection or authentication failure: nothing in the batch was sent
+                error = batchFailure;
+            }
+            if (error == null) {
+                sentIds.add(message.getId());
+            } else {
+                scheduleRetry(message, error);
+                failed.add(message);
+            }
+        }
+
+        if (!sentIds.isEmpty()) {
+            emailOutboxRepository.markSent(sentIds, LocalDateTime.now());
+            sentCounter.increment(sentIds.size());
+        }
+        if (!failed.isEmpty()) {
+            emailOutboxRepository.saveAll(failed);
+        }
+    }
+
+    private SimpleMailMessage toMailMessage(EmailOutboxMessage outboxMessage) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(outboxMessage.getSender());
+        message.setTo(outboxMessage.getRecipient());
+        message.setSubject(outboxMessage.getSubject());
+        message.setText(outboxMessage.getBody());
+        return message;
+    }
+}
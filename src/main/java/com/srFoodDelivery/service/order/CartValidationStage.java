@@ -0,0 +1,103 @@
+package com.srFoodDelivery.service.order;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.stereotype.Component;
+
+import com.srFoodDelivery.dto.order.MultiOrderCreateRequest;
+import com.srFoodDelivery.model.MenuItem;
+import com.srFoodDelivery.model.Restaurant;
+import com.srFoodDelivery.repository.MenuItemRepository;
+
+/**
+ * Validates and prices a checkout cart before any order rows are written.
+ *
+ * All menu items are loaded in one query with their menu and restaurant, and every unit price
+ * is read once into a snapshot, so a cart of any size costs one round trip and two lines for
+ * the same item can never be charged differently. Each restaurant group is then priced from
+ * the snapshot alone, without touching the database, so groups can be priced in parallel.
+ */
+@Component
+public class CartValidationStage {
+
+    private final MenuItemRepository menuItemRepository;
+
+    public CartValidationStage(MenuItemRepository menuItemRepository) {
+        this.menuItemRepository = menuItemRepository;
+    }
+
+    /**
+     * @throws IllegalArgumentException if an item does not exist or a quantity is not positive
+     * @throws IllegalStateException if an item is unavailable or does not belong to a restaurant
+     */
+    public ValidatedCart validate(List<MultiOrderCreateRequest.CartItemRequest> cartItems) {
+        if (cartItems == null || cartItems.isEmpty()) {
+            return new ValidatedCart(List.of());
+        }
+
+        Set<Long> ids = new LinkedHashSet<>();
+        for (MultiOrderCreateRequest.CartItemRequest cartItem : cartItems) {
+            ids.add(cartItem.getMenuItemId());
+        }
+        Map<Long, MenuItem> menuItems = new HashMap<>();
+        for (MenuItem menuItem : menuItemRepository.findWithRestaurantByIdIn(ids)) {
+            menuItems.put(menuItem.getId(), menuItem);
+        }
+
+        Map<Long, BigDecimal> priceSnapshot = new HashMap<>();
+        Map<Long, Restaurant> restaurants = new LinkedHashMap<>();
+        Map<Long, List<MultiOrderCreateRequest.CartItemRequest>> linesByRestaurant = new LinkedHashMap<>();
+
+        for (MultiOrderCreateRequest.CartItemRequest cartItem : cartItems) {
+            MenuItem menuItem = menuItems.get(cartItem.getMenuItemId());
+            if (menuItem == null) {
+                throw new IllegalArgumentException("Menu item not found: " + cartItem.getMenuItemId());
+            }
+            if (!menuItem.isAvailable()) {
+                throw new IllegalStateException("Menu item is not available: " + menuItem.getName());
+            }
+            if (cartItem.getQuantity() == null || cartItem.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Quantity must be positive for item: " + menuItem.getName());
+            }
+            Restaurant restaurant = menuItem.getMenu().getRestaurant();
+            if (restaurant == null) {
+                throw new IllegalStateException("Menu item must belong to a restaurant: " + menuItem.getName());
+            }
+
+            priceSnapshot.computeIfAbsent(menuItem.getId(), id -> menuItem.getEffectivePrice());
+            restaurants.putIfAbsent(restaurant.getId(), restaurant);
+            linesByRestaurant.computeIfAbsent(restaurant.getId(), id -> new ArrayList<>()).add(cartItem);
+        }
+
+        List<ValidatedCart.RestaurantGroup> groups = new ArrayList<>();
+        for (Map.Entry<Long, List<MultiOrderCreateRequest.CartItemRequest>> entry : linesByRestaurant.entrySet()) {
+            groups.add(priceGroup(restaurants.get(entry.getKey()), entry.getValue(), menuItems, priceSnapshot));
+        }
+        return new ValidatedCart(groups);
+    }
+
+    /**
+     * Prices one restaurant's lines. Reads only the loaded items and the snapshot.
+     */
+    static ValidatedCart.RestaurantGroup priceGroup(
+            Restaurant restaurant,
+            List<MultiOrderCreateRequest.CartItemRequest> cartItems,
+            Map<Long, MenuItem> menuItems,
+            Map<Long, BigDecimal> priceSnapshot) {
+        List<ValidatedCart.Line> lines = new ArrayList<>(cartItems.size());
+        for (MultiOrderCreateRequest.CartItemRequest cartItem : cartItems) {
+            lines.add(new ValidatedCart.Line(
+                    menuItems.get(cartItem.getMenuItemId()),
+                    cartItem.getQuantity(),
+                    priceSnapshot.get(cartItem.getMenuItemId())));
+        }
+        return new ValidatedCart.RestaurantGroup(restaurant, lines);
+    }
+}
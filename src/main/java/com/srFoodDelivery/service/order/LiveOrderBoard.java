@@ -0,0 +1,249 @@
+package com.srFoodDelivery.service.order;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.srFoodDelivery.repository.SubOrderRepository;
+import com.srFoodDelivery.repository.SubOrderRepository.BoardRow;
+import com.srFoodDelivery.websocket.OrderWebSocketPublisher;
+import com.srFoodDelivery.websocket.event.BoardChangePayload;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * The active sub orders of each restaurant, split into the delivery and preorder lanes of the
+ * owner's orders page.
+ *
+ * A restaurant's board is loaded with one indexed query the first time its page is opened and is
+ * then kept up to date from {@link SubOrderStatusChangedEvent}s after they commit: orders reaching
+ * a closed status leave the board, which is what keeps it small however many orders the
+ * restaurant has had. Each change is also sent to the restaurant's topic as a BOARD_UPSERT or
+ * BOARD_REMOVE event, so an open page can update in place.
+ *
+ * Every change also bumps the restaurant's row in restaurant_board_version, and each read
+ * compares that version with the one the board was loaded at, so a change made on another node
+ * shows on the next read here. A board that only missed its own node's latest change takes the
+ * new version without reloading. Boards are also reloaded on the first read after
+ * orders.board.ttl-ms, which repairs any change applied out of order or whose bump failed, and
+ * dropped when nobody has read them for that long.
+ */
+@Component
+public class LiveOrderBoard {
+
+    public static final List<String> CLOSED_STATUSES = List.of("DELIVERED", "COMPLETED", "CANCELLED", "REJECTED");
+    public static final String DELIVERY = "DELIVERY";
+    public static final String PREORDER = "PREORDER";
+
+    private static final Logger logger = LoggerFactory.getLogger(LiveOrderBoard.class);
+    private static final String VERSION_SQL =
+            "SELECT version FROM restaurant_board_version WHERE restaurant_id = ?";
+    // LAST_INSERT_ID(expr) hands the new version back on this connection
+    private static final String BUMP_SQL =
+            "INSERT INTO restaurant_board_version (restaurant_id, version) VALUES (?, LAST_INSERT_ID(1)) " +
+            "ON DUPLICATE KEY UPDATE version = LAST_INSERT_ID(version + 1)";
+
+    private final SubOrderRepository subOrderRepository;
+    private final OrderWebSocketPublisher webSocketPublisher;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate ownTransaction;
+    private final long ttlMillis;
+
+    private final Map<Long, Board> boards = new ConcurrentHashMap<>();
+
+    public LiveOrderBoard(SubOrderRepository subOrderRepository,
+            OrderWebSocketPublisher webSocketPublisher,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${orders.board.ttl-ms:600000}") long ttlMillis) {
+        this.subOrderRepository = subOrderRepository;
+        this.webSocketPublisher = webSocketPublisher;
+        this.jdbcTemplate = jdbcTemplate;
+        // Changes are applied after their transaction commits, so the bump needs one of its own
+        this.ownTransaction = new TransactionTemplate(transactionManager);
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.ttlMillis = ttlMillis;
+        Gauge.builder("orders.board.restaurants", boards, Map::size)
+                .description("Restaurants with a live order board in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The restaurant's active sub orders, newest first.
+     */
+    public List<Entry> entries(Long restaurantId) {
+        long now = System.currentTimeMillis();
+        // Read before loading: a change committed during the load leaves the board behind the
+        // version and is picked up by the next read
+        long version = currentVersion(restaurantId);
+        Board board = boards.get(restaurantId);
+        if (board == null || !board.isCurrent(version, now, ttlMillis)) {
+            // Loading inside compute holds back changes to this board until the load is in place
+            board = boards.compute(restaurantId, (id, current) ->
+                    current != null && current.isCurrent(version, now, ttlMillis) ? current : load(id, version, now));
+        }
+        board.lastReadAt = now;
+        List<Entry> entries = new ArrayList<>(board.entries.values());
+        entries.sort(Comparator.comparing(Entry::subOrderId).reversed());
+        return entries;
+    }
+
+    @EventListener
+    public void onSubOrderStatusChanged(SubOrderStatusChangedEvent event) {
+        Long restaurantId = event.getRestaurantId();
+        if (restaurantId == null || Objects.equals(event.getOldStatus(), event.getNewStatus())) {
+            return;
+        }
+        Long subOrderId = event.getSubOrderId();
+        String status = event.getNewStatus();
+        afterCommit(() -> apply(restaurantId, subOrderId, status));
+    }
+
+    /**
+     * Drops boards nobody has read within the TTL.
+     */
+    @Scheduled(fixedDelayString = "${orders.board.ttl-ms:600000}")
+    public void evictIdle() {
+        long now = System.currentTimeMillis();
+        boards.entrySet().removeIf(entry -> now - entry.getValue().lastReadAt >= ttlMillis);
+    }
+
+    private void apply(Long restaurantId, Long subOrderId, String status) {
+        if (status == null || CLOSED_STATUSES.contains(status)) {
+            Board applied = boards.computeIfPresent(restaurantId, (id, board) -> {
+                board.entries.remove(subOrderId);
+                return board;
+            });
+            bumpVersion(restaurantId, applied);
+            webSocketPublisher.publishToRestaurant(restaurantId, "BOARD_REMOVE",
+                    new BoardChangePayload(subOrderId, null, status));
+            return;
+        }
+
+        Board board = boards.get(restaurantId);
+        String lane = null;
+        if (board != null) {
+            Entry current = board.entries.get(subOrderId);
+            // Only an order new to the board needs its lane looked up
+            lane = current != null
+                    ? current.lane()
+                    : subOrderRepository.findBoardRow(subOrderId).map(LiveOrderBoard::laneOf).orElse(null);
+        }
+        Board applied = null;
+        if (lane != null) {
+            Entry entry = new Entry(subOrderId, lane, status);
+            applied = boards.computeIfPresent(restaurantId, (id, current) -> {
+                current.entries.put(subOrderId, entry);
+                return current;
+            });
+        }
+        bumpVersion(restaurantId, applied);
+        webSocketPublisher.publishToRestaurant(restaurantId, "BOARD_UPSERT",
+                new BoardChangePayload(subOrderId, lane, status));
+    }
+
+    private long currentVersion(Long restaurantId) {
+        List<Long> versions = jdbcTemplate.queryForList(VERSION_SQL, Long.class, restaurantId);
+        return versions.isEmpty() ? 0 : versions.get(0);
+    }
+
+    /**
+     * Records a change for the other nodes. If the change was applied to the board held here and
+     * that board was at the version just before, the board takes the new version.
+     */
+    private void bumpVersion(Long restaurantId, Board applied) {
+        Long version;
+        try {
+            version = ownTransaction.execute(status -> {
+                jdbcTemplate.update(BUMP_SQL, restaurantId);
+                return jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Long.class);
+            });
+        } catch (Exception e) {
+            // Other nodes see the change once their board's TTL runs out
+            logger.error("Failed to bump the order board version of restaurant {}: {}",
+                    restaurantId, e.getMessage(), e);
+            return;
+        }
+        if (version == null) {
+            return;
+        }
+        long bumped = version;
+        boards.computeIfPresent(restaurantId, (id, board) -> {
+            if (board == applied && board.version == bumped - 1) {
+                board.version = bumped;
+            }
+            return board;
+        });
+    }
+
+    private Board load(Long restaurantId, long version, long now) {
+        Board board = new Board(version, now);
+        for (BoardRow row : subOrderRepository.findBoardRows(restaurantId, CLOSED_STATUSES)) {
+            board.entries.put(row.getId(), new Entry(row.getId(), laneOf(row), row.getStatus()));
+        }
+        return board;
+    }
+
+    private static String laneOf(BoardRow row) {
+        return Boolean.TRUE.equals(row.getPreorder()) ? PREORDER : DELIVERY;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * One sub order on a board.
+     */
+    public record Entry(Long subOrderId, String lane, String status) {
+
+        public boolean isPreorder() {
+            return PREORDER.equals(lane);
+        }
+    }
+
+    private static final class Board {
+        private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+        private final long loadedAt;
+        // Only changed inside compute on the boards map
+        private volatile long version;
+        private volatile long lastReadAt;
+
+        private Board(long version, long loadedAt) {
+            this.version = version;
+            this.loadedAt = loadedAt;
+            this.lastReadAt = loadedAt;
+        }
+
+        private boolean isCurrent(long currentVersion, long now, long ttlMillis) {
+            return version == currentVersion && now - loadedAt < ttlMillis;
+        }
+    }
+}
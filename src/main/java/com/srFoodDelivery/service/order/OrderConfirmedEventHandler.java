@@ -0,0 +1,45 @@
+package com.srFoodDelivery.service.order;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.srFoodDelivery.model.MultiOrder;
+import com.srFoodDelivery.model.OutboxEvent;
+import com.srFoodDelivery.repository.MultiOrderRepository;
+import com.srFoodDelivery.service.EmailService;
+import com.srFoodDelivery.service.outbox.DomainEventHandler;
+
+/**
+ * Sends the customer's order confirmation email once a MultiOrder's payment is confirmed.
+ * The email is queued in the email outbox in the same transaction that marks the event
+ * processed, so a retried event never queues it twice.
+ */
+@Component
+public class OrderConfirmedEventHandler implements DomainEventHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderConfirmedEventHandler.class);
+
+    private final MultiOrderRepository multiOrderRepository;
+    private final EmailService emailService;
+
+    public OrderConfirmedEventHandler(MultiOrderRepository multiOrderRepository, EmailService emailService) {
+        this.multiOrderRepository = multiOrderRepository;
+        this.emailService = emailService;
+    }
+
+    @Override
+    public String getEventType() {
+        return OutboxEvent.TYPE_ORDER_CONFIRMED;
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        MultiOrder multiOrder = multiOrderRepository.findById(event.getAggregateId()).orElse(null);
+        if (multiOrder == null) {
+            logger.warn("MultiOrder {} no longer exists, skipping confirmation email", event.getAggregateId());
+            return;
+        }
+        emailService.sendMultiOrderConfirmationEmail(multiOrder.getUser(), multiOrder);
+    }
+}
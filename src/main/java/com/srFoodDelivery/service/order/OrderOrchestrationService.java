@@ -3,31 +3,38 @@ package com.srFoodDelivery.service.order;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.srFoodDelivery.dto.order.CursorPage;
+import com.srFoodDelivery.dto.order.HistoryCursor;
 import com.srFoodDelivery.dto.order.MultiOrderCreateRequest;
 import com.srFoodDelivery.dto.order.MultiOrderDTO;
-import com.srFoodDelivery.model.MenuItem;
 import com.srFoodDelivery.model.MultiOrder;
+import com.srFoodDelivery.model.OutboxEvent;
 import com.srFoodDelivery.model.PreorderSlot;
 import com.srFoodDelivery.model.Restaurant;
 import com.srFoodDelivery.model.SubOrder;
 import com.srFoodDelivery.model.SubOrderItem;
 import com.srFoodDelivery.model.TableReservation;
 import com.srFoodDelivery.model.User;
-import com.srFoodDelivery.repository.MenuItemRepository;
 import com.srFoodDelivery.repository.MultiOrderRepository;
 import com.srFoodDelivery.repository.PreorderSlotRepository;
+import com.srFoodDelivery.repository.SubOrderItemRepository;
 import com.srFoodDelivery.repository.SubOrderRepository;
 import com.srFoodDelivery.repository.TableReservationRepository;
 import com.srFoodDelivery.service.MenuItemService;
+import com.srFoodDelivery.service.PreorderSlotCapacity;
+import com.srFoodDelivery.service.outbox.DomainEventOutbox;
 
 @Service
 @Transactional
@@ -37,24 +44,33 @@ public class OrderOrchestrationService {
 
     private final MultiOrderRepository multiOrderRepository;
     private final SubOrderRepository subOrderRepository;
-    private final MenuItemRepository menuItemRepository;
+    private final SubOrderItemRepository subOrderItemRepository;
+    private final CartValidationStage cartValidationStage;
     private final PreorderSlotRepository preorderSlotRepository;
+    private final PreorderSlotCapacity preorderSlotCapacity;
     private final TableReservationRepository tableReservationRepository;
     private final MenuItemService menuItemService;
+    private final DomainEventOutbox domainEventOutbox;
 
     public OrderOrchestrationService(
             MultiOrderRepository multiOrderRepository,
             SubOrderRepository subOrderRepository,
-            MenuItemRepository menuItemRepository,
+            SubOrderItemRepository subOrderItemRepository,
+            CartValidationStage cartValidationStage,
             PreorderSlotRepository preorderSlotRepository,
+            PreorderSlotCapacity preorderSlotCapacity,
             TableReservationRepository tableReservationRepository,
-            MenuItemService menuItemService) {
+            MenuItemService menuItemService,
+            DomainEventOutbox domainEventOutbox) {
         this.multiOrderRepository = multiOrderRepository;
         this.subOrderRepository = subOrderRepository;
-        this.menuItemRepository = menuItemRepository;
+        this.subOrderItemRepository = subOrderItemRepository;
+        this.cartValidationStage = cartValidationStage;
         this.preorderSlotRepository = preorderSlotRepository;
+        this.preorderSlotCapacity = preorderSlotCapacity;
         this.tableReservationRepository = tableReservationRepository;
         this.menuItemService = menuItemService;
+        this.domainEventOutbox = domainEventOutbox;
     }
 
     /**
@@ -62,42 +78,32 @@ public class OrderOrchestrationService {
      * This is a transactional operation - all or nothing.
      */
     public MultiOrderDTO createMultiOrder(User user, MultiOrderCreateRequest request) {
-        logger.info("Creating MultiOrder for user: {}", user.getEmail());
-
-        // Validate all menu items exist and are available
-        Map<Long, MenuItem> menuItemMap = new HashMap<>();
-        for (MultiOrderCreateRequest.CartItemRequest cartItem : request.getCartItems()) {
-            MenuItem menuItem = menuItemRepository.findById(cartItem.getMenuItemId())
-                    .orElseThrow(() -> new IllegalArgumentException(
-                            "Menu item not found: " + cartItem.getMenuItemId()));
-
-            if (!menuItem.isAvailable()) {
-                throw new IllegalStateException(
-                        "Menu item is not available: " + menuItem.getName());
-            }
-
-            if (cartItem.getQuantity() <= 0) {
-                throw new IllegalArgumentException(
-                        "Quantity must be positive for item: " + menuItem.getName());
-            }
+        return convertToDTO(buildMultiOrder(user, request));
+    }
 
-            menuItemMap.put(cartItem.getMenuItemId(), menuItem);
-        }
+    /**
+     * Creates a MultiOrder like {@link #createMultiOrder} and returns a handle to it
+     * instead of a full DTO.
+     */
+    public PlacedOrder placeMultiOrder(User user, MultiOrderCreateRequest request) {
+        return PlacedOrder.of(buildMultiOrder(user, request));
+    }
 
-        // Group items by restaurant (chef feature removed - only restaurants supported)
-        Map<Restaurant, List<MultiOrderCreateRequest.CartItemRequest>> restaurantGroups = new HashMap<>();
+    /**
+     * Creates a MultiOrder and confirms it in the same transaction, working on the order just
+     * built, so checkout never reloads it or the customer's order history.
+     */
+    public PlacedOrder placeAndConfirm(User user, MultiOrderCreateRequest request, boolean paid) {
+        MultiOrder multiOrder = buildMultiOrder(user, request);
+        confirm(multiOrder, paid);
+        return PlacedOrder.of(multiOrder);
+    }
 
-        for (MultiOrderCreateRequest.CartItemRequest cartItem : request.getCartItems()) {
-            MenuItem menuItem = menuItemMap.get(cartItem.getMenuItemId());
+    private MultiOrder buildMultiOrder(User user, MultiOrderCreateRequest request) {
+        logger.info("Creating MultiOrder for user: {}", user.getEmail());
 
-            if (menuItem.getMenu().getRestaurant() != null) {
-                Restaurant restaurant = menuItem.getMenu().getRestaurant();
-                restaurantGroups.computeIfAbsent(restaurant, k -> new ArrayList<>()).add(cartItem);
-            } else {
-                throw new IllegalStateException(
-                        "Menu item must belong to a restaurant: " + menuItem.getName());
-            }
-        }
+        // Validate and price the whole cart up front, one query for all items
+        ValidatedCart cart = cartValidationStage.validate(request.getCartItems());
 
         // Create MultiOrder
         MultiOrder multiOrder = new MultiOrder();
@@ -117,11 +123,8 @@ public class OrderOrchestrationService {
         BigDecimal totalAmount = BigDecimal.ZERO;
 
         // Create SubOrders for restaurants (one per restaurant)
-        for (Map.Entry<Restaurant, List<MultiOrderCreateRequest.CartItemRequest>> entry : restaurantGroups.entrySet()) {
-            Restaurant restaurant = entry.getKey();
-            List<MultiOrderCreateRequest.CartItemRequest> items = entry.getValue();
-
-            SubOrder subOrder = createSubOrder(multiOrder, restaurant, items, menuItemMap);
+        for (ValidatedCart.RestaurantGroup group : cart.getGroups()) {
+            SubOrder subOrder = createSubOrder(multiOrder, group);
             multiOrder.addSubOrder(subOrder);
             totalAmount = totalAmount.add(subOrder.getTotalAmount());
         }
@@ -134,14 +137,14 @@ public class OrderOrchestrationService {
         multiOrder.setTotalAmount(finalAmount);
 
         // Handle preorder slot if specified
-        if (request.getPreorderSlotId() != null && !restaurantGroups.isEmpty()) {
+        if (request.getPreorderSlotId() != null && !cart.isEmpty()) {
             // Set ordering mode to PREORDER
             multiOrder.setOrderingMode("PREORDER");
             multiOrder.setStatus("PENDING_APPROVAL"); // Set status to PENDING_APPROVAL for owner review
 
             // For simplicity, assign to first restaurant suborder
             // In production, this should be more sophisticated (match by restaurant)
-            Restaurant firstRestaurant = restaurantGroups.keySet().iterator().next();
+            Restaurant firstRestaurant = cart.getGroups().get(0).getRestaurant();
             SubOrder preorderSubOrder = multiOrder.getSubOrders().stream()
                     .filter(so -> so.getRestaurant() != null && so.getRestaurant().equals(firstRestaurant))
                     .findFirst()
@@ -151,10 +154,9 @@ public class OrderOrchestrationService {
                 PreorderSlot slot = preorderSlotRepository.findById(request.getPreorderSlotId())
                         .orElseThrow(() -> new IllegalArgumentException("Preorder slot not found"));
 
-                // Reserve the slot atomically (this will fail if capacity is exhausted)
-                // Note: This should be done before saving to ensure atomicity
-                int rowsAffected = preorderSlotRepository.reserveSlotAtomic(slot.getId());
-                if (rowsAffected == 0) {
+                // Reserve the slot atomically (this will fail if capacity is exhausted);
+                // the place is given back if this transaction rolls back
+                if (!preorderSlotCapacity.tryReserve(slot.getId())) {
                     throw new IllegalStateException("Preorder slot is fully booked. Please select another time slot.");
                 }
 
@@ -170,14 +172,14 @@ public class OrderOrchestrationService {
         }
 
         // Handle table reservation if specified
-        if (request.getReservationId() != null && !restaurantGroups.isEmpty()) {
+        if (request.getReservationId() != null && !cart.isEmpty()) {
             // Set ordering mode to DINE_IN if not already set to PREORDER
             if (!"PREORDER".equals(multiOrder.getOrderingMode())) {
                 multiOrder.setOrderingMode("DINE_IN");
                 multiOrder.setStatus("PENDING_APPROVAL"); // Set status to PENDING_APPROVAL for owner review
             }
 
-            Restaurant firstRestaurant = restaurantGroups.keySet().iterator().next();
+            Restaurant firstRestaurant = cart.getGroups().get(0).getRestaurant();
             SubOrder reservationSubOrder = multiOrder.getSubOrders().stream()
                     .filter(so -> so.getRestaurant() != null && so.getRestaurant().equals(firstRestaurant))
                     .findFirst()
@@ -207,46 +209,84 @@ public class OrderOrchestrationService {
         logger.info("Created MultiOrder {} with {} SubOrders", savedMultiOrder.getId(),
                 savedMultiOrder.getSubOrders().size());
 
-        return convertToDTO(savedMultiOrder);
+        return savedMultiOrder;
     }
 
-    private SubOrder createSubOrder(
-            MultiOrder multiOrder,
-            Restaurant restaurant,
-            List<MultiOrderCreateRequest.CartItemRequest> cartItems,
-            Map<Long, MenuItem> menuItemMap) {
-
+    private SubOrder createSubOrder(MultiOrder multiOrder, ValidatedCart.RestaurantGroup group) {
         SubOrder subOrder = new SubOrder();
         subOrder.setMultiOrder(multiOrder);
-        subOrder.setRestaurant(restaurant);
+        subOrder.setRestaurant(group.getRestaurant());
         subOrder.setChefProfile(null); // Chef feature removed
         subOrder.setStatus("PENDING");
         // Default orderType to DELIVERY (will be overridden if preorder/reservation)
         subOrder.setOrderType("DELIVERY");
 
-        BigDecimal subOrderTotal = BigDecimal.ZERO;
-
-        for (MultiOrderCreateRequest.CartItemRequest cartItem : cartItems) {
-            MenuItem menuItem = menuItemMap.get(cartItem.getMenuItemId());
-            BigDecimal unitPrice = menuItem.getEffectivePrice();
-            BigDecimal lineTotal = unitPrice.multiply(BigDecimal.valueOf(cartItem.getQuantity()));
-
+        for (ValidatedCart.Line line : group.getLines()) {
             SubOrderItem subOrderItem = new SubOrderItem();
             subOrderItem.setSubOrder(subOrder);
-            subOrderItem.setMenuItem(menuItem);
-            subOrderItem.setItemName(menuItem.getName());
-            subOrderItem.setQuantity(cartItem.getQuantity());
-            subOrderItem.setUnitPrice(unitPrice);
-            subOrderItem.setLineTotal(lineTotal);
-
+            subOrderItem.setMenuItem(line.getMenuItem());
+            subOrderItem.setItemName(line.getMenuItem().getName());
+            subOrderItem.setQuantity(line.getQuantity());
+            subOrderItem.setUnitPrice(line.getUnitPrice());
+            subOrderItem.setLineTotal(line.getLineTotal());
             subOrder.addItem(subOrderItem);
-            subOrderTotal = subOrderTotal.add(lineTotal);
         }
 
-        subOrder.setTotalAmount(subOrderTotal);
+        subOrder.setTotalAmount(group.getSubtotal());
         return subOrder;
     }
 
+    /**
+     * Confirms a checkout after the customer has paid (or chosen cash on delivery).
+     * Preorders wait for owner approval; delivery orders and their sub orders are confirmed.
+     * The confirmation email and the rider broadcast are recorded as outbox events in this
+     * transaction and run in the background, so checkout does not wait on SMTP or riders.
+     * Does nothing unless the order is still PENDING.
+     */
+    private void confirm(MultiOrder multiOrder, boolean paid) {
+        if (!"PENDING".equals(multiOrder.getStatus())) {
+            return;
+        }
+
+        boolean isPreorder = "PREORDER".equals(multiOrder.getOrderingMode()) ||
+                multiOrder.getSubOrders().stream().anyMatch(so -> so.getPreorderSlot() != null);
+
+        if (isPreorder) {
+            // Preorders need owner approval
+            multiOrder.setStatus("PENDING_APPROVAL");
+        } else {
+            // Delivery orders are confirmed immediately
+            multiOrder.setStatus("CONFIRMED");
+            for (SubOrder subOrder : multiOrder.getSubOrders()) {
+                if (isDeliverySubOrder(subOrder) && "PENDING".equals(subOrder.getStatus())) {
+                    subOrder.setStatus("CONFIRMED");
+                }
+            }
+        }
+
+        if (paid) {
+            multiOrder.setPaymentStatus("PAID");
+        }
+        multiOrderRepository.save(multiOrder);
+
+        domainEventOutbox.record(OutboxEvent.TYPE_ORDER_CONFIRMED, multiOrder.getId());
+        for (SubOrder subOrder : multiOrder.getSubOrders()) {
+            if (isDeliverySubOrder(subOrder) && subOrder.getRider() == null) {
+                domainEventOutbox.record(OutboxEvent.TYPE_SUBORDER_READY_FOR_DISPATCH, subOrder.getId());
+            }
+        }
+    }
+
+    /**
+     * Only delivery sub orders are dispatched to riders (not preorders or dine-in).
+     */
+    private boolean isDeliverySubOrder(SubOrder subOrder) {
+        return subOrder.getPreorderSlot() == null &&
+                subOrder.getReservation() == null &&
+                subOrder.getTable() == null &&
+                !"DINE_IN".equals(subOrder.getOrderType());
+    }
+
     @Transactional(readOnly = true)
     public MultiOrderDTO getMultiOrderById(Long id, User user) {
         MultiOrder multiOrder = multiOrderRepository.findByIdAndUser(id, user)
@@ -261,6 +301,146 @@ public class OrderOrchestrationService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * One page of the user's orders, newest first, starting after the given cursor.
+     * Reads only the columns the DTO needs and always takes three queries: the page of orders,
+     * their sub orders joined to restaurant, rider, slot, reservation and table, and their items.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<MultiOrderDTO> getUserMultiOrderPage(User user, String cursor, int limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        HistoryCursor after = HistoryCursor.decode(cursor);
+        // One extra row tells us whether there is a next page without a count query
+        Pageable window = PageRequest.of(0, pageSize + 1);
+        List<MultiOrderRepository.HistoryRow> rows = after == null
+                ? multiOrderRepository.findHistoryFirstPage(user, window)
+                : multiOrderRepository.findHistoryPageAfter(user, after.getCreatedAt(), after.getId(), window);
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+        if (rows.isEmpty()) {
+            return new CursorPage<>(List.of(), null);
+        }
+
+        Map<Long, MultiOrderDTO> orders = new LinkedHashMap<>();
+        for (MultiOrderRepository.HistoryRow row : rows) {
+            MultiOrderDTO dto = new MultiOrderDTO();
+            dto.setId(row.getId());
+            dto.setUserId(user.getId());
+            dto.setUserName(user.getFullName());
+            dto.setTotalAmount(row.getTotalAmount());
+            dto.setDiscountAmount(row.getDiscountAmount());
+            dto.setAppliedCoupon(row.getAppliedCoupon());
+            dto.setStatus(row.getStatus());
+            dto.setDeliveryAddress(row.getDeliveryAddress());
+            dto.setSpecialInstructions(row.getSpecialInstructions());
+            dto.setPaymentStatus(row.getPaymentStatus());
+            dto.setCreatedAt(row.getCreatedAt());
+            dto.setUpdatedAt(row.getUpdatedAt());
+            orders.put(row.getId(), dto);
+        }
+
+        Map<Long, MultiOrderDTO.SubOrderDTO> subOrders = new HashMap<>();
+        for (SubOrderRepository.HistoryRow row : subOrderRepository.findHistoryRows(orders.keySet())) {
+            MultiOrderDTO.SubOrderDTO subOrderDTO = convertToSubOrderDTO(row);
+            orders.get(row.getMultiOrderId()).getSubOrders().add(subOrderDTO);
+            subOrders.put(row.getId(), subOrderDTO);
+        }
+
+        if (!subOrders.isEmpty()) {
+            for (SubOrderItemRepository.HistoryRow row : subOrderItemRepository.findHistoryRows(subOrders.keySet())) {
+                MultiOrderDTO.SubOrderItemDTO itemDTO = new MultiOrderDTO.SubOrderItemDTO();
+                itemDTO.setId(row.getId());
+                itemDTO.setMenuItemId(row.getMenuItemId());
+                itemDTO.setItemName(row.getItemName());
+                itemDTO.setQuantity(row.getQuantity());
+                itemDTO.setUnitPrice(row.getUnitPrice());
+                itemDTO.setLineTotal(row.getLineTotal());
+                subOrders.get(row.getSubOrderId()).getItems().add(itemDTO);
+            }
+        }
+
+        MultiOrderRepository.HistoryRow last = rows.get(rows.size() - 1);
+        String nextCursor = hasMore ? new HistoryCursor(last.getCreatedAt(), last.getId()).encode() : null;
+        return new CursorPage<>(new ArrayList<>(orders.values()), nextCursor);
+    }
+
+    /**
+     * One page of the restaurant's closed sub orders (those no longer on its live board), newest
+     * first. The cursor is the id of the last sub order of the previous page.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<MultiOrderDTO.SubOrderDTO> getRestaurantArchivePage(Long restaurantId, String cursor, int limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        long beforeId;
+        try {
+            beforeId = cursor == null || cursor.isBlank() ? Long.MAX_VALUE : Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid archive cursor", e);
+        }
+        List<SubOrderRepository.HistoryRow> rows = subOrderRepository.findArchiveRows(
+                restaurantId, LiveOrderBoard.CLOSED_STATUSES, beforeId, PageRequest.of(0, pageSize + 1));
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+        if (rows.isEmpty()) {
+            return new CursorPage<>(List.of(), null);
+        }
+
+        Map<Long, MultiOrderDTO.SubOrderDTO> subOrders = new LinkedHashMap<>();
+        for (SubOrderRepository.HistoryRow row : rows) {
+            subOrders.put(row.getId(), convertToSubOrderDTO(row));
+        }
+        for (SubOrderItemRepository.HistoryRow row : subOrderItemRepository.findHistoryRows(subOrders.keySet())) {
+            MultiOrderDTO.SubOrderItemDTO itemDTO = new MultiOrderDTO.SubOrderItemDTO();
+            itemDTO.setId(row.getId());
+            itemDTO.setMenuItemId(row.getMenuItemId());
+            itemDTO.setItemName(row.getItemName());
+            itemDTO.setQuantity(row.getQuantity());
+            itemDTO.setUnitPrice(row.getUnitPrice());
+            itemDTO.setLineTotal(row.getLineTotal());
+            subOrders.get(row.getSubOrderId()).getItems().add(itemDTO);
+        }
+
+        String nextCursor = hasMore ? String.valueOf(rows.get(rows.size() - 1).getId()) : null;
+        return new CursorPage<>(new ArrayList<>(subOrders.values()), nextCursor);
+    }
+
+    private MultiOrderDTO.SubOrderDTO convertToSubOrderDTO(SubOrderRepository.HistoryRow row) {
+        MultiOrderDTO.SubOrderDTO subOrderDTO = new MultiOrderDTO.SubOrderDTO();
+        subOrderDTO.setId(row.getId());
+        subOrderDTO.setRestaurantId(row.getRestaurantId());
+        subOrderDTO.setRestaurantName(row.getRestaurantName());
+        if (row.getRestaurantLatitude() != null && row.getRestaurantLongitude() != null) {
+            subOrderDTO.setRestaurantLat(row.getRestaurantLatitude().toString());
+            subOrderDTO.setRestaurantLon(row.getRestaurantLongitude().toString());
+        }
+        subOrderDTO.setStatus(row.getStatus());
+        subOrderDTO.setTotalAmount(row.getTotalAmount());
+        subOrderDTO.setRiderId(row.getRiderId());
+        subOrderDTO.setRiderName(row.getRiderName());
+        subOrderDTO.setPreorderSlotId(row.getPreorderSlotId());
+        subOrderDTO.setPreorderSlotStartTime(row.getPreorderSlotStartTime());
+        subOrderDTO.setPreorderSlotEndTime(row.getPreorderSlotEndTime());
+        if (row.getReservationId() != null) {
+            subOrderDTO.setReservationId(row.getReservationId());
+            subOrderDTO.setReservationDate(row.getReservationDate().toString());
+            subOrderDTO.setReservationTime(row.getReservationTime().toString());
+            subOrderDTO.setDurationMinutes(row.getDurationMinutes());
+            subOrderDTO.setNumberOfGuests(row.getNumberOfGuests());
+        }
+        subOrderDTO.setTableId(row.getTableId());
+        subOrderDTO.setTableName(row.getTableName());
+        subOrderDTO.setTableNumber(row.getTableNumber());
+        subOrderDTO.setOrderType(row.getOrderType());
+        subOrderDTO.setEstimatedDeliveryTime(row.getEstimatedDeliveryTime());
+        subOrderDTO.setActualDeliveryTime(row.getActualDeliveryTime());
+        subOrderDTO.setTrackingInfo(row.getTrackingInfo());
+        return subOrderDTO;
+    }
+
     private MultiOrderDTO convertToDTO(MultiOrder multiOrder) {
         MultiOrderDTO dto = new MultiOrderDTO();
         dto.setId(multiOrder.getId());
@@ -0,0 +1,56 @@
+package com.srFoodDelivery.service.order;
+
+import java.math.BigDecimal;
+
+import com.srFoodDelivery.model.MultiOrder;
+
+/**
+ * Handle to a MultiOrder returned by the checkout path, so callers can redirect, confirm or
+ * report on the order they just placed without looking it up again.
+ */
+public final class PlacedOrder {
+
+    private final Long multiOrderId;
+    private final String status;
+    private final String paymentStatus;
+    private final String orderingMode;
+    private final BigDecimal totalAmount;
+    private final int subOrderCount;
+
+    private PlacedOrder(MultiOrder multiOrder) {
+        this.multiOrderId = multiOrder.getId();
+        this.status = multiOrder.getStatus();
+        this.paymentStatus = multiOrder.getPaymentStatus();
+        this.orderingMode = multiOrder.getOrderingMode();
+        this.totalAmount = multiOrder.getTotalAmount();
+        this.subOrderCount = multiOrder.getSubOrders().size();
+    }
+
+    static PlacedOrder of(MultiOrder multiOrder) {
+        return new PlacedOrder(multiOrder);
+    }
+
+    public Long getMultiOrderId() {
+        return multiOrderId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getPaymentStatus() {
+        return paymentStatus;
+    }
+
+    public String getOrderingMode() {
+        return orderingMode;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public int getSubOrderCount() {
+        return subOrderCount;
+    }
+}
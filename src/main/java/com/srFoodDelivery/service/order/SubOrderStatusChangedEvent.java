@@ -0,0 +1,57 @@
+package com.srFoodDelivery.service.order;
+
+/**
+ * Published whenever a SubOrder's status or assigned rider changes in the
+ * database. Old values are null for newly inserted suborders, new values are
+ * null for deleted ones.
+ */
+public class SubOrderStatusChangedEvent {
+
+    private final Long subOrderId;
+    private final Long multiOrderId;
+    private final Long restaurantId;
+    private final String oldStatus;
+    private final String newStatus;
+    private final Long oldRiderId;
+    private final Long newRiderId;
+
+    public SubOrderStatusChangedEvent(Long subOrderId, Long multiOrderId, Long restaurantId,
+                                      String oldStatus, String newStatus,
+                                      Long oldRiderId, Long newRiderId) {
+        this.subOrderId = subOrderId;
+        this.multiOrderId = multiOrderId;
+        this.restaurantId = restaurantId;
+        this.oldStatus = oldStatus;
+        this.newStatus = newStatus;
+        this.oldRiderId = oldRiderId;
+        this.newRiderId = newRiderId;
+    }
+
+    public Long getSubOrderId() {
+        return subOrderId;
+    }
+
+    public Long getMultiOrderId() {
+        return multiOrderId;
+    }
+
+    public Long getRestaurantId() {
+        return restaurantId;
+    }
+
+    public String getOldStatus() {
+        return oldStatus;
+    }
+
+    public String getNewStatus() {
+        return newStatus;
+    }
+
+    public Long getOldRiderId() {
+        return oldRiderId;
+    }
+
+    public Long getNewRiderId() {
+        return newRiderId;
+    }
+}
@@ -0,0 +1,56 @@
+package com.srFoodDelivery.service.order;
+
+import java.util.Objects;
+
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.srFoodDelivery.model.SubOrder;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA entity listener that turns SubOrder writes into
+ * {@link SubOrderStatusChangedEvent}s, so in-memory read models can follow
+ * status and rider changes no matter which controller or service made them.
+ * Hibernate obtains it from the Spring context, which injects the publisher.
+ */
+public class SubOrderStatusListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public SubOrderStatusListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    void afterWrite(SubOrder subOrder) {
+        Long riderId = subOrder.getRider() != null ? subOrder.getRider().getId() : null;
+        if (!Objects.equals(subOrder.getPersistedStatus(), subOrder.getStatus())
+                || !Objects.equals(subOrder.getPersistedRiderId(), riderId)) {
+            eventPublisher.publishEvent(new SubOrderStatusChangedEvent(
+                    subOrder.getId(),
+                    subOrder.getMultiOrder() != null ? subOrder.getMultiOrder().getId() : null,
+                    subOrder.getRestaurant() != null ? subOrder.getRestaurant().getId() : null,
+                    subOrder.getPersistedStatus(),
+                    subOrder.getStatus(),
+                    subOrder.getPersistedRiderId(),
+                    riderId));
+        }
+        subOrder.rememberPersistedState();
+    }
+
+    @PostRemove
+    void afterRemove(SubOrder subOrder) {
+        eventPublisher.publishEvent(new SubOrderStatusChangedEvent(
+                subOrder.getId(),
+                subOrder.getMultiOrder() != null ? subOrder.getMultiOrder().getId() : null,
+                subOrder.getRestaurant() != null ? subOrder.getRestaurant().getId() : null,
+                subOrder.getPersistedStatus(),
+                null,
+                subOrder.getPersistedRiderId(),
+                null));
+    }
+}
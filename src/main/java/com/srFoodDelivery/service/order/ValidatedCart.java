@@ -0,0 +1,95 @@
+package com.srFoodDelivery.service.order;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import com.srFoodDelivery.model.MenuItem;
+import com.srFoodDelivery.model.Restaurant;
+
+/**
+ * A cart that passed {@link CartValidationStage}: lines grouped by restaurant, in cart order,
+ * each priced from the same price snapshot.
+ */
+public final class ValidatedCart {
+
+    private final List<RestaurantGroup> groups;
+
+    ValidatedCart(List<RestaurantGroup> groups) {
+        this.groups = List.copyOf(groups);
+    }
+
+    public List<RestaurantGroup> getGroups() {
+        return groups;
+    }
+
+    public boolean isEmpty() {
+        return groups.isEmpty();
+    }
+
+    public BigDecimal getSubtotal() {
+        return groups.stream()
+                .map(RestaurantGroup::getSubtotal)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    /**
+     * The lines one restaurant will fulfil; becomes one SubOrder.
+     */
+    public static final class RestaurantGroup {
+
+        private final Restaurant restaurant;
+        private final List<Line> lines;
+        private final BigDecimal subtotal;
+
+        RestaurantGroup(Restaurant restaurant, List<Line> lines) {
+            this.restaurant = restaurant;
+            this.lines = List.copyOf(lines);
+            this.subtotal = lines.stream()
+                    .map(Line::getLineTotal)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+        }
+
+        public Restaurant getRestaurant() {
+            return restaurant;
+        }
+
+        public List<Line> getLines() {
+            return lines;
+        }
+
+        public BigDecimal getSubtotal() {
+            return subtotal;
+        }
+    }
+
+    public static final class Line {
+
+        private final MenuItem menuItem;
+        private final int quantity;
+        private final BigDecimal unitPrice;
+        private final BigDecimal lineTotal;
+
+        Line(MenuItem menuItem, int quantity, BigDecimal unitPrice) {
+            this.menuItem = menuItem;
+            this.quantity = quantity;
+            this.unitPrice = unitPrice;
+            this.lineTotal = unitPrice.multiply(BigDecimal.valueOf(quantity));
+        }
+
+        public MenuItem getMenuItem() {
+            return menuItem;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public BigDecimal getUnitPrice() {
+            return unitPrice;
+        }
+
+        public BigDecimal getLineTotal() {
+            return lineTotal;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.srFoodDelivery.service.outbox;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.srFoodDelivery.model.OutboxEvent;
+import com.srFoodDelivery.repository.OutboxEventRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Handles events from the domain_event_outbox table on the domainEventTaskExecutor.
+ *
+ * Batches are claimed and handed to workers by {@link OutboxWorker}, up to domain.events.workers
+ * at once. Every event is handled in its own transaction together with the update that marks it
+ * processed, so a crash or failure leaves it pending; failures are retried with exponential
+ * backoff until domain.events.max-attempts is reached. {@link DomainEventOutbox} wakes the
+ * dispatcher after each commit, so the poll interval only bounds the delay for retries and
+ * missed wake-ups.
+ */
+@Component
+public class DomainEventDispatcher extends OutboxWorker<OutboxEvent> {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final Map<String, DomainEventHandler> handlers = new HashMap<>();
+    private final Map<String, Timer> handleTimers = new HashMap<>();
+
+    private final Counter processedCounter;
+
+    public DomainEventDispatcher(
+            OutboxEventRepository outboxEventRepository,
+            List<DomainEventHandler> handlerBeans,
+            @Qualifier("domainEventTaskExecutor") TaskExecutor taskExecutor,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${domain.events.batch-size:50}") int batchSize,
+            @Value("${domain.events.workers:2}") int workers,
+            @Value("${domain.events.max-attempts:8}") int maxAttempts,
+            @Value("${domain.events.initial-backoff-ms:5000}") long initialBackoffMillis,
+            @Value("${domain.events.max-backoff-ms:600000}") long maxBackoffMillis,
+            @Value("${domain.events.stale-after-ms:300000}") long staleAfterMillis) {
+        super("Domain event outbox", OutboxEvent.STATUS_PROCESSING, "domain.events", "Events",
+                outboxEventRepository, taskExecutor,
+                new Settings(batchSize, workers, maxAttempts, initialBackoffMillis, maxBackoffMillis, staleAfterMillis),
+                transactionManager, meterRegistry);
+        this.outboxEventRepository = outboxEventRepository;
+
+        for (DomainEventHandler handler : handlerBeans) {
+            DomainEventHandler previous = handlers.put(handler.getEventType(), handler);
+            if (previous != null) {
+                throw new IllegalStateException("Two handlers for event type " + handler.getEventType());
+            }
+            handleTimers.put(handler.getEventType(), Timer.builder("domain.events.handle")
+                    .description("Time to handle one outbox event, including its transaction")
+                    .tag("type", handler.getEventType())
+                    .register(meterRegistry));
+        }
+
+        this.processedCounter = Counter.builder("domain.events.processed")
+                .description("Outbox events handled successfully")
+                .register(meterRegistry);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${domain.events.poll-interval-ms:1000}")
+    public void poll() {
+        super.poll();
+    }
+
+    @Override
+    protected void process(List<OutboxEvent> batch) {
+        batch.forEach(this::handle);
+    }
+
+    @Override
+    protected String describe(OutboxEvent event) {
+        return event.getDedupKey();
+    }
+
+    private void handle(OutboxEvent event) {
+        DomainEventHandler handler = handlers.get(event.getEventType());
+        if (handler == null) {
+            fail(event, "No handler for event type " + event.getEventType());
+            outboxEventRepository.save(event);
+            return;
+        }
+
+        Timer.Sample sample = Timer.start();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                handler.handle(event);
+                outboxEventRepository.markProcessed(event.getId(), LocalDateTime.now());
+            });
+            processedCounter.increment();
+        } catch (Exception e) {
+            scheduleRetry(event, e);
+            outboxEventRepository.save(event);
+        } finally {
+            sample.stop(handleTimers.get(event.getEventType()));
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.srFoodDelivery.service.outbox;
+
+import com.srFoodDelivery.model.OutboxEvent;
+
+/**
+ * Consumes one type of outbox event. Handlers are picked up by {@link DomainEventDispatcher}.
+ */
+public interface DomainEventHandler {
+
+    /**
+     * The {@link OutboxEvent} type this handler consumes.
+     */
+    String getEventType();
+
+    /**
+     * Handles an event inside the dispatcher's transaction; the event is marked processed in the
+     * same transaction. An event whose previous attempt failed is handled again, so handlers
+     * must tolerate seeing the same event more than once.
+     */
+    void handle(OutboxEvent event);
+}
@@ -0,0 +1,58 @@
+package com.srFoodDelivery.service.outbox;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.srFoodDelivery.model.OutboxEvent;
+import com.srFoodDelivery.repository.OutboxEventRepository;
+
+/**
+ * Records domain events in the domain_event_outbox table.
+ *
+ * Events must be recorded inside the transaction that makes them true (e.g. the payment), so
+ * they are stored if and only if it commits. Each event type is recorded at most once per
+ * aggregate. After commit the dispatcher is woken so the event is usually handled within
+ * milliseconds rather than at the next poll.
+ */
+@Component
+public class DomainEventOutbox {
+
+    private static final Logger logger = LoggerFactory.getLogger(DomainEventOutbox.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final DomainEventDispatcher dispatcher;
+
+    public DomainEventOutbox(OutboxEventRepository outboxEventRepository, DomainEventDispatcher dispatcher) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.dispatcher = dispatcher;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(String eventType, Long aggregateId) {
+        String dedupKey = eventType + ":" + aggregateId;
+        if (outboxEventRepository.existsByDedupKey(dedupKey)) {
+            logger.debug("Event {} already recorded, skipping", dedupKey);
+            return;
+        }
+
+        OutboxEvent event = new OutboxEvent();
+        event.setEventType(eventType);
+        event.setAggregateId(aggregateId);
+        event.setDedupKey(dedupKey);
+        outboxEventRepository.save(event);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatcher.wakeUp();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.srFoodDelivery.service.outbox;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.srFoodDelivery.model.OutboxRecord;
+import com.srFoodDelivery.repository.OutboxRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Claims and works off the rows of an outbox table on a task executor.
+ *
+ * Each poll claims a batch of due rows (SKIP LOCKED, so several instances can share the table),
+ * marks them with the claimed status and hands the batch to a worker, up to
+ * {@link Settings#workers()} at once. A worker keeps claiming batches until the queue is drained.
+ * Subclasses decide how a batch is processed; failures go through {@link #scheduleRetry}, which
+ * backs off exponentially until {@link Settings#maxAttempts()} is reached. Rows left claimed by an
+ * instance that stopped are returned to the queue after {@link Settings#staleAfterMillis()}.
+ *
+ * Meters are registered under the given prefix: .retries, .failed, .pending and .workers.active.
+ */
+public abstract class OutboxWorker<T extends OutboxRecord> {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxWorker.class);
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final String name;
+    private final String claimedStatus;
+    private final OutboxRepository<T> repository;
+    private final TaskExecutor taskExecutor;
+    private final Settings settings;
+    protected final TransactionTemplate transactionTemplate;
+
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+    private final AtomicLong pendingCount = new AtomicLong();
+    private final AtomicBoolean wakeUpQueued = new AtomicBoolean();
+
+    private final Counter retryCounter;
+    private final Counter failedCounter;
+
+    /**
+     * @param name          used in log messages, e.g. "Email outbox"
+     * @param claimedStatus the status a claimed row holds while a worker has it
+     * @param metricPrefix  prefix of the meters this worker registers
+     * @param itemNoun      plural noun for meter descriptions, e.g. "Emails"
+     */
+    protected OutboxWorker(String name, String claimedStatus, String metricPrefix, String itemNoun,
+            OutboxRepository<T> repository,
+            TaskExecutor taskExecutor,
+            Settings settings,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry) {
+        this.name = name;
+        this.claimedStatus = claimedStatus;
+        this.repository = repository;
+        this.taskExecutor = taskExecutor;
+        this.settings = settings;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        this.retryCounter = Counter.builder(metricPrefix + ".retries")
+                .description(itemNoun + " that failed and were rescheduled")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder(metricPrefix + ".failed")
+                .description(itemNoun + " abandoned after the maximum number of attempts")
+                .register(meterRegistry);
+        Gauge.builder(metricPrefix + ".pending", pendingCount, AtomicLong::get)
+                .description(itemNoun + " waiting in the outbox as of the last poll")
+                .register(meterRegistry);
+        Gauge.builder(metricPrefix + ".workers.active", activeWorkers, AtomicInteger::get)
+                .description("Outbox workers currently running")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Works off one claimed batch. Every row must end up processed, rescheduled through
+     * {@link #scheduleRetry} or failed through {@link #fail} and saved.
+     */
+    protected abstract void process(List<T> batch);
+
+    /**
+     * Identifies a row in log messages.
+     */
+    protected abstract String describe(T record);
+
+    /**
+     * Schedules a poll on the worker pool. Calls made while one is already queued are merged.
+     */
+    public void wakeUp() {
+        if (!wakeUpQueued.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            taskExecutor.execute(() -> {
+                wakeUpQueued.set(false);
+                poll();
+            });
+        } catch (RejectedExecutionException e) {
+            // The scheduled poll will pick the rows up
+            wakeUpQueued.set(false);
+        }
+    }
+
+    /**
+     * Starts a worker for each due batch, up to the configured number running at once.
+     * Workers that are already running pick up new rows themselves.
+     */
+    public synchronized void poll() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            int released = repository.releaseStale(now.minusNanos(settings.staleAfterMillis() * 1_000_000), now);
+            if (released > 0) {
+                logger.warn("{}: returned {} stale {} rows to the queue", name, released, claimedStatus);
+            }
+
+            while (activeWorkers.get() < settings.workers()) {
+                List<T> batch = claimBatch();
+                if (batch.isEmpty()) {
+                    break;
+                }
+                activeWorkers.incrementAndGet();
+                try {
+                    taskExecutor.execute(() -> runWorker(batch));
+                } catch (RejectedExecutionException e) {
+                    activeWorkers.decrementAndGet();
+                    release(batch);
+                    break;
+                }
+            }
+
+            pendingCount.set(repository.countByStatus(OutboxRecord.STATUS_PENDING));
+        } catch (Exception e) {
+            logger.error("{} poll failed: {}", name, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Works off every due row on the calling thread instead of the worker pool.
+     */
+    public void drainNow() {
+        List<T> batch = claimBatch();
+        while (!batch.isEmpty()) {
+            process(batch);
+            batch = claimBatch();
+        }
+        pendingCount.set(repository.countByStatus(OutboxRecord.STATUS_PENDING));
+    }
+
+    /**
+     * Counts a failed attempt and either reschedules the row with backoff or gives up on it.
+     * The caller saves the row.
+     */
+    protected void scheduleRetry(T record, Exception error) {
+        int attempts = record.getAttempts() + 1;
+        if (attempts >= settings.maxAttempts()) {
+            fail(record, error.getMessage());
+            return;
+        }
+
+        long backoff = Math.min(settings.maxBackoffMillis(), settings.initialBackoffMillis() << Math.min(attempts - 1, 20));
+        record.setAttempts(attempts);
+        record.setLastError(truncate(error.getMessage()));
+        record.setStatus(OutboxRecord.STATUS_PENDING);
+        record.setNextAttemptAt(LocalDateTime.now().plusNanos(backoff * 1_000_000));
+        retryCounter.increment();
+        logger.warn("{}: failed {} (attempt {}), retrying in {} ms: {}",
+                name, describe(record), attempts, backoff, error.getMessage());
+    }
+
+    /**
+     * Counts a final attempt and marks the row FAILED. The caller saves the row.
+     */
+    protected void fail(T record, String error) {
+        int attempts = record.getAttempts() + 1;
+        record.setAttempts(attempts);
+        record.setLastError(truncate(error));
+        record.setStatus(OutboxRecord.STATUS_FAILED);
+        failedCounter.increment();
+        logger.error("{}: giving up on {} after {} attempts: {}", name, describe(record), attempts, error);
+    }
+
+    private void runWorker(List<T> firstBatch) {
+        try {
+            List<T> batch = firstBatch;
+            while (!batch.isEmpty()) {
+                process(batch);
+                if (batch.size() < settings.batchSize()) {
+                    break;
+                }
+                batch = claimBatch();
+            }
+        } catch (Exception e) {
+            logger.error("{} worker stopped: {}", name, e.getMessage(), e);
+        } finally {
+            activeWorkers.decrementAndGet();
+        }
+    }
+
+    /**
+     * Locks the next due rows and marks them claimed so no other worker or instance takes them.
+     */
+    private List<T> claimBatch() {
+        List<T> batch = transactionTemplate.execute(status -> {
+            List<T> due = repository.findDueForUpdate(LocalDateTime.now(), PageRequest.of(0, settings.batchSize()));
+            due.forEach(record -> record.setStatus(claimedStatus));
+            return due;
+        });
+        return batch != null ? batch : Collections.emptyList();
+    }
+
+    private void release(List<T> batch) {
+        batch.forEach(record -> record.setStatus(OutboxRecord.STATUS_PENDING));
+        repository.saveAll(batch);
+    }
+
+    private static String truncate(String error) {
+        if (error == null) {
+            return null;
+        }
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+
+    /**
+     * Batch size, concurrency and retry policy of one outbox.
+     */
+    public record Settings(int batchSize, int workers, int maxAttempts,
+            long initialBackoffMillis, long maxBackoffMillis, long staleAfterMillis) {
+    }
+}
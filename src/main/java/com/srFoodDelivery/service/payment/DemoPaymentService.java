@@ -2,7 +2,6 @@ package com.srFoodDelivery.service.payment;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.List;
 import java.util.UUID;
 
 import org.slf4j.Logger;
@@ -14,13 +13,13 @@ import com.srFoodDelivery.dto.payment.DemoPaymentRequest;
 import com.srFoodDelivery.dto.payment.DemoPaymentResponse;
 import com.srFoodDelivery.dto.payment.OtpVerificationRequest;
 import com.srFoodDelivery.model.MultiOrder;
+import com.srFoodDelivery.model.OutboxEvent;
 import com.srFoodDelivery.model.Payment;
-import com.srFoodDelivery.model.RiderOffer;
 import com.srFoodDelivery.model.SubOrder;
 import com.srFoodDelivery.repository.MultiOrderRepository;
 import com.srFoodDelivery.repository.PaymentRepository;
 import com.srFoodDelivery.repository.SubOrderRepository;
-import com.srFoodDelivery.service.rider.RiderService;
+import com.srFoodDelivery.service.outbox.DomainEventOutbox;
 
 @Service
 @Transactional
@@ -34,17 +33,17 @@ public class DemoPaymentService {
     private final PaymentRepository paymentRepository;
     private final MultiOrderRepository multiOrderRepository;
     private final SubOrderRepository subOrderRepository;
-    private final RiderService riderService;
+    private final DomainEventOutbox domainEventOutbox;
 
     public DemoPaymentService(
             PaymentRepository paymentRepository,
             MultiOrderRepository multiOrderRepository,
             SubOrderRepository subOrderRepository,
-            RiderService riderService) {
+            DomainEventOutbox domainEventOutbox) {
         this.paymentRepository = paymentRepository;
         this.multiOrderRepository = multiOrderRepository;
         this.subOrderRepository = subOrderRepository;
-        this.riderService = riderService;
+        this.domainEventOutbox = domainEventOutbox;
     }
 
     /**
@@ -176,8 +175,13 @@ public class DemoPaymentService {
         return response;
     }
 
+    /**
+     * Confirms the delivery sub orders and records the events that notify the customer and
+     * broadcast them to riders. Both run from the outbox after this transaction commits.
+     */
     private void dispatchSubOrders(MultiOrder multiOrder) {
         logger.info("Dispatching SubOrders for MultiOrder: {}", multiOrder.getId());
+        domainEventOutbox.record(OutboxEvent.TYPE_ORDER_CONFIRMED, multiOrder.getId());
         
         for (SubOrder subOrder : multiOrder.getSubOrders()) {
             // Only dispatch delivery orders (not preorders or dine-in)
@@ -193,16 +197,9 @@ public class DemoPaymentService {
             subOrder.setStatus("CONFIRMED");
             subOrderRepository.save(subOrder);
             
-            // Broadcast order to ALL online riders (NEW: All riders can see and accept)
+            // Broadcast order to ALL online riders (they can see and accept)
             if (subOrder.getRestaurant() != null) {
-                try {
-                    List<RiderOffer> offers = riderService.broadcastOrderToAllRiders(subOrder.getId());
-                    logger.info("Broadcasted SubOrder {} to {} riders for restaurant {}", 
-                            subOrder.getId(), offers.size(), subOrder.getRestaurant().getId());
-                } catch (Exception e) {
-                    logger.warn("Failed to broadcast order to riders for SubOrder {}: {}", 
-                            subOrder.getId(), e.getMessage());
-                }
+                domainEventOutbox.record(OutboxEvent.TYPE_SUBORDER_READY_FOR_DISPATCH, subOrder.getId());
             }
         }
     }
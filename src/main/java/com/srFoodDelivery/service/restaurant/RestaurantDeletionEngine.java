@@ -0,0 +1,239 @@
+package com.srFoodDelivery.service.restaurant;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.srFoodDelivery.service.CatalogCache;
+import com.srFoodDelivery.service.OfferApplicabilityIndex;
+import com.srFoodDelivery.service.rider.RiderLoadTracker;
+import com.srFoodDelivery.service.search.MenuSearchIndex;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Deletes a restaurant and everything that references it as a background job.
+ *
+ * Each dependent table is emptied with set-based DELETE ... WHERE restaurant_id = ? statements
+ * (or a sub-select on the parent for tables that reach the restaurant through another row),
+ * children before parents so no foreign key is violated or left to cascade. Every statement
+ * deletes at most restaurant.deletion.chunk-size rows and commits on its own, so row locks are
+ * held for one chunk rather than for the whole delete. The restaurant is deactivated first so
+ * it leaves the storefront immediately, and its menu items are dropped from the search index
+ * both then and when the job ends. Rider loads are recounted when the job ends, since sub
+ * orders are deleted past the entity listener. Every step can be re-run, so a failed job is
+ * finished by submitting it again.
+ *
+ * Jobs run one at a time on the restaurantDeletionTaskExecutor; their progress stays
+ * available for an hour after they finish.
+ */
+@Component
+public class RestaurantDeletionEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(RestaurantDeletionEngine.class);
+
+    private static final String SUB_ORDERS = "(SELECT id FROM sub_order WHERE restaurant_id = ?)";
+    private static final String MENU_ITEM_IDS =
+            "SELECT mi.id FROM menu_items mi JOIN menus m ON mi.menu_id = m.id WHERE m.restaurant_id = ?";
+    private static final String MENU_ITEMS = "(" + MENU_ITEM_IDS + ")";
+
+    /**
+     * Deletion order: every table comes before the tables its foreign keys point to.
+     */
+    static final List<Step> STEPS = List.of(
+            new Step("rider_offer", "sub_order_id IN " + SUB_ORDERS),
+            new Step("chat_message", "sub_order_id IN " + SUB_ORDERS),
+            new Step("chat_room", "sub_order_id IN " + SUB_ORDERS),
+            new Step("rating_review", "restaurant_id = ? OR sub_order_id IN " + SUB_ORDERS),
+            new Step("sub_order_item", "sub_order_id IN " + SUB_ORDERS),
+            new Step("sub_order", "restaurant_id = ?"),
+            new Step("order_items", "order_id IN (SELECT id FROM orders WHERE restaurant_id = ?)"),
+            new Step("orders", "restaurant_id = ?"),
+            new Step("offer", "restaurant_id = ?"),
+            new Step("restaurant_reviews", "restaurant_id = ?"),
+            new Step("reviews", "restaurant_id = ? OR menu_item_id IN " + MENU_ITEMS),
+            new Step("table_status_history", "table_id IN (SELECT id FROM restaurant_table WHERE restaurant_id = ?)"),
+            new Step("table_reservation", "restaurant_id = ?"),
+            new Step("restaurant_table", "restaurant_id = ?"),
+            new Step("preorder_slot", "restaurant_id = ?"),
+            new Step("restaurant_rider", "restaurant_id = ?"),
+            new Step("donations", "restaurant_id = ?"),
+            new Step("restaurant_category_tags", "restaurant_id = ?"),
+            new Step("cart_items", "menu_item_id IN " + MENU_ITEMS),
+            new Step("menu_item_tags", "menu_item_id IN " + MENU_ITEMS),
+            new Step("menu_item_reviews", "menu_item_id IN " + MENU_ITEMS),
+            new Step("menu_items", "menu_id IN (SELECT id FROM menus WHERE restaurant_id = ?)"),
+            new Step("menus", "restaurant_id = ?"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TaskExecutor taskExecutor;
+    private final CatalogCache catalogCache;
+    private final OfferApplicabilityIndex offerApplicabilityIndex;
+    private final MenuSearchIndex menuSearchIndex;
+    private final RiderLoadTracker riderLoadTracker;
+    private final int chunkSize;
+
+    private final AtomicLong jobIds = new AtomicLong();
+    private final Map<Long, RestaurantDeletionJob> jobs = new ConcurrentHashMap<>();
+    private final Map<Long, RestaurantDeletionJob> activeByRestaurant = new ConcurrentHashMap<>();
+
+    private final Counter rowsCounter;
+    private final Timer completedTimer;
+    private final Timer failedTimer;
+
+    public RestaurantDeletionEngine(JdbcTemplate jdbcTemplate,
+            @Qualifier("restaurantDeletionTaskExecutor") TaskExecutor taskExecutor,
+            CatalogCache catalogCache,
+            OfferApplicabilityIndex offerApplicabilityIndex,
+            MenuSearchIndex menuSearchIndex,
+            RiderLoadTracker riderLoadTracker,
+            MeterRegistry meterRegistry,
+            @Value("${restaurant.deletion.chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.taskExecutor = taskExecutor;
+        this.catalogCache = catalogCache;
+        this.offerApplicabilityIndex = offerApplicabilityIndex;
+        this.menuSearchIndex = menuSearchIndex;
+        this.riderLoadTracker = riderLoadTracker;
+        this.chunkSize = chunkSize;
+        this.rowsCounter = Counter.builder("restaurant.deletion.rows")
+                .description("Rows deleted by restaurant deletion jobs")
+                .register(meterRegistry);
+        this.completedTimer = Timer.builder("restaurant.deletion.duration")
+                .description("Time to run a restaurant deletion job")
+                .tag("result", "completed")
+                .register(meterRegistry);
+        this.failedTimer = Timer.builder("restaurant.deletion.duration")
+                .description("Time to run a restaurant deletion job")
+                .tag("result", "failed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues the restaurant for deletion and returns its job. If the restaurant already has
+     * a queued or running job, that job is returned instead.
+     */
+    public RestaurantDeletionJob submit(Long restaurantId) {
+        List<Boolean> cafeLounge = jdbcTemplate.query(
+                "SELECT is_cafe_lounge FROM restaurants WHERE id = ?",
+                (rs, rowNum) -> rs.getBoolean(1), restaurantId);
+        if (cafeLounge.isEmpty()) {
+            throw new IllegalArgumentException("Restaurant not found");
+        }
+
+        RestaurantDeletionJob job = activeByRestaurant.computeIfAbsent(restaurantId,
+                id -> new RestaurantDeletionJob(jobIds.incrementAndGet(), id, STEPS.size() + 1));
+        if (jobs.putIfAbsent(job.getId(), job) != null) {
+            return job;
+        }
+
+        try {
+            taskExecutor.execute(() -> run(job, cafeLounge.get(0)));
+        } catch (RejectedExecutionException e) {
+            job.failed("Too many restaurant deletions queued, try again later");
+            activeByRestaurant.remove(restaurantId, job);
+        }
+        logger.info("Queued deletion job #{} for restaurant {}", job.getId(), restaurantId);
+        return job;
+    }
+
+    /**
+     * The job with the given id, or null if it is unknown or finished more than an hour ago.
+     */
+    public RestaurantDeletionJob getJob(Long jobId) {
+        return jobs.get(jobId);
+    }
+
+    @Scheduled(fixedDelayString = "${restaurant.deletion.sweep-interval-ms:600000}")
+    public void evictFinished() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(1);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(cutoff));
+    }
+
+    private void run(RestaurantDeletionJob job, boolean cafeLounge) {
+        Long restaurantId = job.getRestaurantId();
+        job.started();
+        Timer.Sample sample = Timer.start();
+        List<Long> menuItemIds = List.of();
+        try {
+            jdbcTemplate.update("UPDATE restaurants SET is_active = false WHERE id = ?", restaurantId);
+            catalogCache.invalidateRestaurant(cafeLounge);
+            menuItemIds = jdbcTemplate.queryForList(MENU_ITEM_IDS, Long.class, restaurantId);
+            menuItemIds.forEach(menuSearchIndex::remove);
+
+            for (Step step : STEPS) {
+                job.stepStarted(step.table());
+                String sql = "DELETE FROM " + step.table() + " WHERE " + step.where() + " LIMIT ?";
+                Object[] args = step.args(restaurantId, chunkSize);
+                int deleted;
+                do {
+                    deleted = jdbcTemplate.update(sql, args);
+                    job.rowsDeleted(step.table(), deleted);
+                    rowsCounter.increment(deleted);
+                } while (deleted >= chunkSize);
+                job.stepCompleted();
+            }
+
+            job.stepStarted("restaurants");
+            job.rowsDeleted("restaurants", jdbcTemplate.update("DELETE FROM restaurants WHERE id = ?", restaurantId));
+            rowsCounter.increment();
+            job.stepCompleted();
+
+            job.completed();
+            sample.stop(completedTimer);
+            logger.info("Deleted restaurant {} and {} related rows (job #{})",
+                    restaurantId, job.getTotalRowsDeleted() - 1, job.getId());
+        } catch (Exception e) {
+            job.failed(e.getMessage());
+            sample.stop(failedTimer);
+            logger.error("Deletion job #{} for restaurant {} failed at {}: {}",
+                    job.getId(), restaurantId, job.getCurrentStep(), e.getMessage(), e);
+        } finally {
+            activeByRestaurant.remove(restaurantId, job);
+            catalogCache.invalidateRestaurant(cafeLounge);
+            offerApplicabilityIndex.invalidate();
+            // Again, in case a periodic rebuild put them back while the job ran
+            menuItemIds.forEach(menuSearchIndex::remove);
+            reconcileRiderLoads(restaurantId);
+        }
+    }
+
+    /**
+     * Sub orders are deleted in bulk, past the entity listener that moves rider loads, so a
+     * rider assigned to one of them is recounted from the database.
+     */
+    private void reconcileRiderLoads(Long restaurantId) {
+        try {
+            riderLoadTracker.reconcile();
+        } catch (Exception e) {
+            logger.warn("Could not reconcile rider loads after deleting restaurant {}: {}",
+                    restaurantId, e.getMessage());
+        }
+    }
+
+    record Step(String table, String where) {
+
+        Object[] args(Long restaurantId, int limit) {
+            int placeholders = (int) where.chars().filter(c -> c == '?').count();
+            Object[] args = new Object[placeholders + 1];
+            Arrays.fill(args, 0, placeholders, restaurantId);
+            args[placeholders] = limit;
+            return args;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.srFoodDelivery.service.restaurant;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Progress of one restaurant deletion. Updated by the deletion worker and read by
+ * status requests, so getters return point-in-time values.
+ */
+public class RestaurantDeletionJob {
+
+    public static final String STATUS_QUEUED = "QUEUED";
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    private final Long id;
+    private final Long restaurantId;
+    private final int totalSteps;
+    private final LocalDateTime queuedAt = LocalDateTime.now();
+    private final Map<String, Long> rowsDeleted = new LinkedHashMap<>();
+
+    private volatile String status = STATUS_QUEUED;
+    private volatile String currentStep;
+    private volatile int completedSteps;
+    private volatile String error;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    RestaurantDeletionJob(Long id, Long restaurantId, int totalSteps) {
+        this.id = id;
+        this.restaurantId = restaurantId;
+        this.totalSteps = totalSteps;
+    }
+
+    void started() {
+        startedAt = LocalDateTime.now();
+        status = STATUS_RUNNING;
+    }
+
+    void stepStarted(String table) {
+        currentStep = table;
+    }
+
+    synchronized void rowsDeleted(String table, int rows) {
+        rowsDeleted.merge(table, (long) rows, Long::sum);
+    }
+
+    void stepCompleted() {
+        completedSteps++;
+    }
+
+    void completed() {
+        currentStep = null;
+        finishedAt = LocalDateTime.now();
+        status = STATUS_COMPLETED;
+    }
+
+    void failed(String message) {
+        error = message;
+        finishedAt = LocalDateTime.now();
+        status = STATUS_FAILED;
+    }
+
+    public boolean isFinished() {
+        String current = status;
+        return STATUS_COMPLETED.equals(current) || STATUS_FAILED.equals(current);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getRestaurantId() {
+        return restaurantId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getCurrentStep() {
+        return currentStep;
+    }
+
+    public int getCompletedSteps() {
+        return completedSteps;
+    }
+
+    public int getTotalSteps() {
+        return totalSteps;
+    }
+
+    /**
+     * Rows deleted so far, per table, in deletion order.
+     */
+    public synchronized Map<String, Long> getRowsDeleted() {
+        return new LinkedHashMap<>(rowsDeleted);
+    }
+
+    public synchronized long getTotalRowsDeleted() {
+        return rowsDeleted.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public LocalDateTime getQueuedAt() {
+        return queuedAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+}
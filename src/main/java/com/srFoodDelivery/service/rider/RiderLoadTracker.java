@@ -0,0 +1,116 @@
+package com.srFoodDelivery.service.rider;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.srFoodDelivery.repository.SubOrderRepository;
+import com.srFoodDelivery.repository.SubOrderRepository.RiderActiveLoad;
+import com.srFoodDelivery.service.order.SubOrderStatusChangedEvent;
+
+/**
+ * Keeps a per-rider count of active assignments (ASSIGNED, ACCEPTED, EN_ROUTE)
+ * so LEAST_LOADED dispatch can compare riders without querying their suborders.
+ * Counts move with {@link SubOrderStatusChangedEvent}s once their transaction
+ * commits, and are periodically corrected against a GROUP BY count from the
+ * database to repair any drift. Events come from the SubOrder entity listener,
+ * so code that changes sub order status or rider with bulk SQL must call
+ * {@link #reconcile()} afterwards.
+ */
+@Component
+public class RiderLoadTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(RiderLoadTracker.class);
+
+    public static final List<String> ACTIVE_STATUSES = List.of("ASSIGNED", "ACCEPTED", "EN_ROUTE");
+
+    private final SubOrderRepository subOrderRepository;
+    private final ConcurrentHashMap<Long, AtomicInteger> activeLoads = new ConcurrentHashMap<>();
+
+    public RiderLoadTracker(SubOrderRepository subOrderRepository) {
+        this.subOrderRepository = subOrderRepository;
+    }
+
+    public int activeLoad(Long riderId) {
+        AtomicInteger load = activeLoads.get(riderId);
+        return load != null ? Math.max(load.get(), 0) : 0;
+    }
+
+    @EventListener
+    public void onSubOrderStatusChanged(SubOrderStatusChangedEvent event) {
+        boolean wasActive = event.getOldRiderId() != null && ACTIVE_STATUSES.contains(event.getOldStatus());
+        boolean isActive = event.getNewRiderId() != null && ACTIVE_STATUSES.contains(event.getNewStatus());
+        boolean sameRider = Objects.equals(event.getOldRiderId(), event.getNewRiderId());
+
+        Long releasedRiderId = wasActive && (!isActive || !sameRider) ? event.getOldRiderId() : null;
+        Long assignedRiderId = isActive && (!wasActive || !sameRider) ? event.getNewRiderId() : null;
+        if (releasedRiderId == null && assignedRiderId == null) {
+            return;
+        }
+        // Applied after commit so an assignment that rolls back never changes the load
+        afterCommit(() -> {
+            if (releasedRiderId != null) {
+                activeLoads.computeIfAbsent(releasedRiderId, id -> new AtomicInteger()).decrementAndGet();
+            }
+            if (assignedRiderId != null) {
+                activeLoads.computeIfAbsent(assignedRiderId, id -> new AtomicInteger()).incrementAndGet();
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${rider.load.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        Map<Long, Integer> before = new HashMap<>();
+        for (Map.Entry<Long, AtomicInteger> entry : activeLoads.entrySet()) {
+            before.put(entry.getKey(), entry.getValue().get());
+        }
+        Map<Long, Integer> actual = new HashMap<>();
+        for (RiderActiveLoad row : subOrderRepository.countByRiderAndStatusIn(ACTIVE_STATUSES)) {
+            actual.put(row.getRiderId(), row.getActiveCount().intValue());
+        }
+
+        int corrected = 0;
+        for (Map.Entry<Long, Integer> entry : before.entrySet()) {
+            AtomicInteger load = activeLoads.get(entry.getKey());
+            int expected = actual.getOrDefault(entry.getKey(), 0);
+            // A rider whose count moved while the query ran may or may not be in its result; it is
+            // left for the next run rather than overwriting that change
+            if (load != null && entry.getValue() != expected && load.compareAndSet(entry.getValue(), expected)) {
+                corrected++;
+            }
+        }
+        for (Map.Entry<Long, Integer> entry : actual.entrySet()) {
+            if (activeLoads.putIfAbsent(entry.getKey(), new AtomicInteger(entry.getValue())) == null) {
+                corrected++;
+            }
+        }
+
+        if (corrected > 0) {
+            logger.info("Reconciled active load for {} riders against the database", corrected);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.srFoodDelivery.service.rider;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.srFoodDelivery.model.Rider;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Write-behind buffer for rider GPS pings. Riders report their position every
+ * few seconds; only the latest position per rider matters, so pings are
+ * coalesced in memory and flushed to the rider table with one JDBC batch per
+ * interval instead of one transaction per ping.
+ */
+@Component
+public class RiderLocationBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(RiderLocationBuffer.class);
+    private static final int FLUSH_BATCH_SIZE = 500;
+    private static final String UPDATE_SQL =
+            "UPDATE rider SET current_latitude = ?, current_longitude = ?, updated_at = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ConcurrentHashMap<Long, Location> pending = new ConcurrentHashMap<>();
+
+    private final Counter pingsReceived;
+    private final Counter rowsWritten;
+
+    public RiderLocationBuffer(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.pingsReceived = Counter.builder("rider.location.pings")
+                .description("Rider location pings received")
+                .register(meterRegistry);
+        this.rowsWritten = Counter.builder("rider.location.writes")
+                .description("Rider location rows written to the database")
+                .register(meterRegistry);
+        FunctionCounter.builder("rider.location.writes.saved", this,
+                        buffer -> buffer.pingsReceived.count() - buffer.rowsWritten.count() - buffer.pending.size())
+                .description("Location pings coalesced away instead of being written individually")
+                .register(meterRegistry);
+        Gauge.builder("rider.location.buffered", pending, Map::size)
+                .description("Rider locations waiting to be flushed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records the latest position for a rider. Older unflushed positions are replaced.
+     */
+    public void record(Long riderId, BigDecimal latitude, BigDecimal longitude) {
+        pending.put(riderId, new Location(latitude, longitude, LocalDateTime.now()));
+        pingsReceived.increment();
+    }
+
+    /**
+     * Drops an unflushed position, used when the location was just written synchronously.
+     */
+    public void discard(Long riderId) {
+        pending.remove(riderId);
+    }
+
+    public Location getPending(Long riderId) {
+        return pending.get(riderId);
+    }
+
+    /**
+     * Latest known latitude: the buffered ping if one is waiting, otherwise the persisted value.
+     */
+    public Double latestLatitude(Rider rider) {
+        Location location = pending.get(rider.getId());
+        BigDecimal latitude = location != null ? location.getLatitude() : rider.getCurrentLatitude();
+        return latitude != null ? latitude.doubleValue() : null;
+    }
+
+    /**
+     * Latest known longitude: the buffered ping if one is waiting, otherwise the persisted value.
+     */
+    public Double latestLongitude(Rider rider) {
+        Location location = pending.get(rider.getId());
+        BigDecimal longitude = location != null ? location.getLongitude() : rider.getCurrentLongitude();
+        return longitude != null ? longitude.doubleValue() : null;
+    }
+
+    @Scheduled(fixedDelayString = "${rider.location.flush-interval-ms:5000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<Long, Location>> drained = new ArrayList<>();
+        for (Map.Entry<Long, Location> entry : pending.entrySet()) {
+            // Only remove the exact value we snapshot so a ping arriving mid-flush is kept for the next round
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                drained.add(Map.entry(entry.getKey(), entry.getValue()));
+            }
+        }
+
+        for (int from = 0; from < drained.size(); from += FLUSH_BATCH_SIZE) {
+            List<Object[]> batch = new ArrayList<>();
+            for (Map.Entry<Long, Location> entry : drained.subList(from, Math.min(from + FLUSH_BATCH_SIZE, drained.size()))) {
+                Location location = entry.getValue();
+                batch.add(new Object[] {
+                        location.getLatitude(),
+                        location.getLongitude(),
+                        Timestamp.valueOf(location.getCapturedAt()),
+                        entry.getKey()
+                });
+            }
+            try {
+                jdbcTemplate.batchUpdate(UPDATE_SQL, batch);
+                rowsWritten.increment(batch.size());
+            } catch (Exception e) {
+                logger.error("Failed to flush {} rider locations: {}", batch.size(), e.getMessage(), e);
+                // Put the positions back unless a newer ping has already replaced them
+                for (Map.Entry<Long, Location> entry : drained.subList(from, Math.min(from + FLUSH_BATCH_SIZE, drained.size()))) {
+                    pending.putIfAbsent(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+
+        logger.debug("Flushed {} rider locations", drained.size());
+    }
+
+    /**
+     * Writes what is buffered before the context closes. Positions that still fail are lost;
+     * the rider's next ping after a restart writes a fresh one.
+     */
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+        if (!pending.isEmpty()) {
+            logger.warn("{} rider locations could not be written before shutdown", pending.size());
+        }
+    }
+
+    public static final class Location {
+        private final BigDecimal latitude;
+        private final BigDecimal longitude;
+        private final LocalDateTime capturedAt;
+
+        private Location(BigDecimal latitude, BigDecimal longitude, LocalDateTime capturedAt) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.capturedAt = capturedAt;
+        }
+
+        public BigDecimal getLatitude() {
+            return latitude;
+        }
+
+        public BigDecimal getLongitude() {
+            return longitude;
+        }
+
+        public LocalDateTime getCapturedAt() {
+            return capturedAt;
+        }
+    }
+}
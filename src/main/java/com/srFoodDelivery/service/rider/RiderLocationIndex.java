@@ -0,0 +1,269 @@
+package com.srFoodDelivery.service.rider;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.srFoodDelivery.model.Rider;
+import com.srFoodDelivery.repository.RiderRepository;
+
+/**
+ * In-memory grid index of online, available riders keyed by their last known
+ * position. Riders are bucketed into fixed-size lat/lon cells so a nearest
+ * rider lookup only inspects the rings of cells around the restaurant instead
+ * of running a Haversine sort over every rider row in the database.
+ *
+ * The index is a hint, not the source of truth: callers still filter results
+ * against the candidate list they loaded, so a briefly stale entry can never
+ * cause an offer to go to an offline rider. Each node holds its own index, so
+ * dispatch refreshes it from the rider table when a candidate is missing.
+ */
+@Component
+public class RiderLocationIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(RiderLocationIndex.class);
+
+    private static final double CELL_SIZE_DEGREES = 0.01; // ~1.1 km per cell
+    private static final long LON_CELLS = (long) Math.ceil(360 / CELL_SIZE_DEGREES) + 1;
+    private static final double KM_PER_DEGREE = 111.32;
+    private static final double EARTH_RADIUS_KM = 6371;
+    private static final int MAX_SEARCH_RING = 500; // ~550 km, well beyond any delivery radius
+
+    private final RiderRepository riderRepository;
+
+    private final ConcurrentHashMap<Long, Position> positions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Set<Long>> cells = new ConcurrentHashMap<>();
+    private volatile boolean warm = false;
+
+    public RiderLocationIndex(RiderRepository riderRepository) {
+        this.riderRepository = riderRepository;
+    }
+
+    /**
+     * Loads every online rider with a location once the application is up.
+     * Until this succeeds, {@link #isWarm()} stays false and dispatch keeps
+     * using the SQL nearest-rider query.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            rebuild(riderRepository.findOnlineAvailableRidersWithLocation());
+        } catch (Exception e) {
+            logger.warn("Could not warm rider location index, falling back to SQL: {}", e.getMessage());
+        }
+    }
+
+    public void rebuild(List<Rider> riders) {
+        positions.clear();
+        cells.clear();
+        for (Rider rider : riders) {
+            if (rider.getCurrentLatitude() != null && rider.getCurrentLongitude() != null) {
+                upsert(rider.getId(),
+                        rider.getCurrentLatitude().doubleValue(),
+                        rider.getCurrentLongitude().doubleValue());
+            }
+        }
+        warm = true;
+        logger.info("Rider location index built with {} riders", positions.size());
+    }
+
+    /**
+     * Adds or moves every rider in the list that has a position, keeping the riders
+     * already indexed. Used to pick up riders this node has not seen go online.
+     */
+    public void refresh(List<Rider> riders) {
+        for (Rider rider : riders) {
+            if (rider.getCurrentLatitude() != null && rider.getCurrentLongitude() != null) {
+                upsert(rider.getId(),
+                        rider.getCurrentLatitude().doubleValue(),
+                        rider.getCurrentLongitude().doubleValue());
+            }
+        }
+    }
+
+    public boolean isWarm() {
+        return warm;
+    }
+
+    public boolean contains(Long riderId) {
+        return positions.containsKey(riderId);
+    }
+
+    public int size() {
+        return positions.size();
+    }
+
+    /**
+     * Adds or moves a rider. Moving between cells happens inside the per-rider
+     * compute so concurrent pings for the same rider cannot leave it in two cells.
+     */
+    public void upsert(Long riderId, double lat, double lon) {
+        long cell = cellKey(lat, lon);
+        positions.compute(riderId, (id, previous) -> {
+            if (previous != null && previous.cell != cell) {
+                Set<Long> oldCell = cells.get(previous.cell);
+                if (oldCell != null) {
+                    oldCell.remove(id);
+                }
+            }
+            if (previous == null || previous.cell != cell) {
+                cells.computeIfAbsent(cell, k -> ConcurrentHashMap.newKeySet()).add(id);
+            }
+            return new Position(lat, lon, cell);
+        });
+    }
+
+    /**
+     * Moves a rider that is already indexed and ignores any other, so a GPS ping can never put
+     * back a rider that went offline or became unavailable while the ping was in flight.
+     */
+    public void moveIfPresent(Long riderId, double lat, double lon) {
+        long cell = cellKey(lat, lon);
+        positions.computeIfPresent(riderId, (id, previous) -> {
+            if (previous.cell != cell) {
+                Set<Long> oldCell = cells.get(previous.cell);
+                if (oldCell != null) {
+                    oldCell.remove(id);
+                }
+                cells.computeIfAbsent(cell, k -> ConcurrentHashMap.newKeySet()).add(id);
+            }
+            return new Position(lat, lon, cell);
+        });
+    }
+
+    public void remove(Long riderId) {
+        positions.computeIfPresent(riderId, (id, previous) -> {
+            Set<Long> cell = cells.get(previous.cell);
+            if (cell != null) {
+                cell.remove(id);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Returns up to {@code limit} rider IDs accepted by {@code filter}, nearest first.
+     * Rings of cells are scanned outward until the k-th best distance is closer
+     * than anything an unvisited ring could contain.
+     */
+    public List<Long> findNearest(double lat, double lon, int limit, Predicate<Long> filter) {
+        if (limit <= 0 || positions.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        long centerLat = latIndex(lat);
+        long centerLon = lonIndex(lon);
+        int indexed = positions.size();
+        int inspected = 0;
+
+        // Max-heap on distance so the worst of the current best k is at the head
+        PriorityQueue<Match> best = new PriorityQueue<>((a, b) -> Double.compare(b.distanceKm, a.distanceKm));
+
+        for (int ring = 0; ring <= MAX_SEARCH_RING; ring++) {
+            for (long dLat = -ring; dLat <= ring; dLat++) {
+                // Interior cells were visited by earlier rings: between its top and bottom rows,
+                // a ring is only its first and last column
+                long step = Math.abs(dLat) == ring ? 1 : 2L * ring;
+                for (long dLon = -ring; dLon <= ring; dLon += step) {
+                    Set<Long> riders = cells.get((centerLat + dLat) * LON_CELLS + (centerLon + dLon));
+                    if (riders == null) {
+                        continue;
+                    }
+                    for (Long riderId : riders) {
+                        Position position = positions.get(riderId);
+                        if (position == null) {
+                            continue;
+                        }
+                        inspected++;
+                        if (!filter.test(riderId)) {
+                            continue;
+                        }
+                        double distance = haversineKm(lat, lon, position.lat, position.lon);
+                        if (best.size() < limit) {
+                            best.add(new Match(riderId, distance));
+                        } else if (distance < best.peek().distanceKm) {
+                            best.poll();
+                            best.add(new Match(riderId, distance));
+                        }
+                    }
+                }
+            }
+
+            if (inspected >= indexed) {
+                break;
+            }
+            if (best.size() == limit && best.peek().distanceKm <= minDistanceOutsideRing(lat, ring)) {
+                break;
+            }
+        }
+
+        List<Match> ordered = new ArrayList<>(best);
+        ordered.sort((a, b) -> Double.compare(a.distanceKm, b.distanceKm));
+        List<Long> result = new ArrayList<>(ordered.size());
+        for (Match match : ordered) {
+            result.add(match.riderId);
+        }
+        return result;
+    }
+
+    private static double minDistanceOutsideRing(double lat, int ring) {
+        // Longitude cells shrink towards the poles, so use the narrowest width the ring can reach.
+        // A ring that reaches a pole bounds nothing, and the search runs on until every rider is seen.
+        double farthestLat = Math.min(90.0, Math.abs(lat) + (ring + 1) * CELL_SIZE_DEGREES);
+        double cellWidthKm = CELL_SIZE_DEGREES * KM_PER_DEGREE * Math.cos(Math.toRadians(farthestLat));
+        return ring * cellWidthKm;
+    }
+
+    private static long cellKey(double lat, double lon) {
+        return latIndex(lat) * LON_CELLS + lonIndex(lon);
+    }
+
+    private static long latIndex(double lat) {
+        return (long) Math.floor((lat + 90) / CELL_SIZE_DEGREES);
+    }
+
+    private static long lonIndex(double lon) {
+        return (long) Math.floor((lon + 180) / CELL_SIZE_DEGREES);
+    }
+
+    static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double deltaLat = Math.toRadians(lat2 - lat1);
+        double deltaLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(deltaLat / 2) * Math.sin(deltaLat / 2) +
+                   Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) *
+                   Math.sin(deltaLon / 2) * Math.sin(deltaLon / 2);
+        return EARTH_RADIUS_KM * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    private static final class Position {
+        private final double lat;
+        private final double lon;
+        private final long cell;
+
+        private Position(double lat, double lon, long cell) {
+            this.lat = lat;
+            this.lon = lon;
+            this.cell = cell;
+        }
+    }
+
+    private static final class Match {
+        private final Long riderId;
+        private final double distanceKm;
+
+        private Match(Long riderId, double distanceKm) {
+            this.riderId = riderId;
+            this.distanceKm = distanceKm;
+        }
+    }
+}
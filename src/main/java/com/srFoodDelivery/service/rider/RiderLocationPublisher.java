@@ -0,0 +1,216 @@
+package com.srFoodDelivery.service.rider;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.srFoodDelivery.repository.SubOrderRepository;
+import com.srFoodDelivery.service.order.SubOrderStatusChangedEvent;
+import com.srFoodDelivery.websocket.OrderWebSocketPublisher;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Fans rider GPS pings out to the tracking topics of the orders the rider is delivering.
+ *
+ * Only orders in a delivery status are tracked; the rider's active multi orders come from
+ * one id query that is cached for rider.location.active-orders-ttl-ms and dropped when one
+ * of the rider's sub orders changes. Each drop bumps the rider's generation, so a query that
+ * raced with the change is answered from but never cached. Each ping is serialized once into a compact frame, and
+ * each order topic gets at most one frame per rider.location.publish-interval-ms: the first
+ * ping in an interval goes out immediately, later ones replace each other and the latest is
+ * sent when the interval ends, so maps keep moving without every ping reaching the broker.
+ */
+@Component
+public class RiderLocationPublisher {
+
+    public static final List<String> TRACKED_STATUSES =
+            List.of("ASSIGNED", "ACCEPTED", "EN_ROUTE", "PICKED_UP", "OUT_FOR_DELIVERY");
+
+    private final SubOrderRepository subOrderRepository;
+    private final OrderWebSocketPublisher webSocketPublisher;
+    private final long publishIntervalMillis;
+    private final long activeOrdersTtlMillis;
+
+    private final Map<Long, ActiveOrders> activeOrders = new ConcurrentHashMap<>();
+    // One counter per rider seen; kept for the life of the node since riders are few
+    private final Map<Long, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final Map<Long, Topic> topics = new ConcurrentHashMap<>();
+
+    private final Counter publishedCounter;
+    private final Counter coalescedCounter;
+
+    public RiderLocationPublisher(SubOrderRepository subOrderRepository,
+            OrderWebSocketPublisher webSocketPublisher,
+            MeterRegistry meterRegistry,
+            @Value("${rider.location.publish-interval-ms:1000}") long publishIntervalMillis,
+            @Value("${rider.location.active-orders-ttl-ms:30000}") long activeOrdersTtlMillis) {
+        this.subOrderRepository = subOrderRepository;
+        this.webSocketPublisher = webSocketPublisher;
+        this.publishIntervalMillis = publishIntervalMillis;
+        this.activeOrdersTtlMillis = activeOrdersTtlMillis;
+        this.publishedCounter = Counter.builder("rider.location.frames")
+                .description("Rider location frames for order tracking topics")
+                .tag("result", "published")
+                .register(meterRegistry);
+        this.coalescedCounter = Counter.builder("rider.location.frames")
+                .description("Rider location frames for order tracking topics")
+                .tag("result", "coalesced")
+                .register(meterRegistry);
+        Gauge.builder("rider.location.topics", topics, Map::size)
+                .description("Order tracking topics with a recent rider location")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Publishes the rider's new position to each order the rider is delivering, subject to the
+     * per-order publish interval.
+     */
+    public void riderMoved(Long riderId, BigDecimal lat, BigDecimal lon) {
+        List<Long> multiOrderIds = activeMultiOrderIds(riderId);
+        if (multiOrderIds.isEmpty()) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        Message<byte[]> frame = webSocketPublisher.riderLocationFrame(riderId, lat, lon, now);
+        for (Long multiOrderId : multiOrderIds) {
+            Topic topic = topics.computeIfAbsent(multiOrderId, id -> new Topic());
+            Message<byte[]> sendNow;
+            synchronized (topic) {
+                topic.lastPingAt = now;
+                if (now - topic.lastPublishedAt >= publishIntervalMillis) {
+                    topic.lastPublishedAt = now;
+                    topic.pending = null;
+                    sendNow = frame;
+                } else {
+                    if (topic.pending != null) {
+                        coalescedCounter.increment();
+                    }
+                    topic.pending = frame;
+                    sendNow = null;
+                }
+            }
+            if (sendNow != null) {
+                send(multiOrderId, sendNow);
+            }
+        }
+    }
+
+    /**
+     * Sends the latest held-back frame of every topic whose interval has ended, and forgets
+     * topics that have had no pings for a while.
+     */
+    @Scheduled(fixedDelayString = "${rider.location.publish-interval-ms:1000}")
+    public void publishPending() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Long, Topic> entry : topics.entrySet()) {
+            Topic topic = entry.getValue();
+            Message<byte[]> due = null;
+            synchronized (topic) {
+                if (topic.pending != null && now - topic.lastPublishedAt >= publishIntervalMillis) {
+                    due = topic.pending;
+                    topic.pending = null;
+                    topic.lastPublishedAt = now;
+                }
+            }
+            if (due != null) {
+                send(entry.getKey(), due);
+            }
+        }
+        topics.entrySet().removeIf(entry -> entry.getValue().isIdle(now, activeOrdersTtlMillis));
+        activeOrders.entrySet().removeIf(entry -> now - entry.getValue().loadedAt >= activeOrdersTtlMillis);
+    }
+
+    @EventListener
+    public void onSubOrderStatusChanged(SubOrderStatusChangedEvent event) {
+        Long oldRiderId = event.getOldRiderId();
+        Long newRiderId = event.getNewRiderId();
+        if (oldRiderId == null && newRiderId == null) {
+            return;
+        }
+        // Drop after commit so a reload cannot cache the state from before the change
+        afterCommit(() -> {
+            if (oldRiderId != null) {
+                invalidate(oldRiderId);
+            }
+            if (newRiderId != null) {
+                invalidate(newRiderId);
+            }
+        });
+    }
+
+    private List<Long> activeMultiOrderIds(Long riderId) {
+        long now = System.currentTimeMillis();
+        ActiveOrders cached = activeOrders.get(riderId);
+        if (cached != null && now - cached.loadedAt < activeOrdersTtlMillis) {
+            return cached.multiOrderIds;
+        }
+        long loadGeneration = generation(riderId).get();
+        List<Long> multiOrderIds = List.copyOf(
+                subOrderRepository.findMultiOrderIdsByRiderAndStatusIn(riderId, TRACKED_STATUSES));
+        ActiveOrders loaded = new ActiveOrders(multiOrderIds, now);
+        // Publish under the key's lock so an invalidation committed during the query is never overwritten
+        activeOrders.compute(riderId, (id, current) -> generation(id).get() == loadGeneration ? loaded : current);
+        return multiOrderIds;
+    }
+
+    private void invalidate(Long riderId) {
+        activeOrders.compute(riderId, (id, current) -> {
+            generation(id).incrementAndGet();
+            return null;
+        });
+    }
+
+    private AtomicLong generation(Long riderId) {
+        return generations.computeIfAbsent(riderId, id -> new AtomicLong());
+    }
+
+    private void send(Long multiOrderId, Message<byte[]> frame) {
+        webSocketPublisher.publishRiderLocation(multiOrderId, frame);
+        publishedCounter.increment();
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record ActiveOrders(List<Long> multiOrderIds, long loadedAt) {
+    }
+
+    /**
+     * Publish state of one order's tracking topic; guarded by its own monitor.
+     */
+    private static final class Topic {
+        private long lastPublishedAt;
+        private long lastPingAt;
+        private Message<byte[]> pending;
+
+        private boolean isIdle(long now, long idleMillis) {
+            synchronized (this) {
+                return pending == null && now - lastPingAt >= idleMillis;
+            }
+        }
+    }
+}
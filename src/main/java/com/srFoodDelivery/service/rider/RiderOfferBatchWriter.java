@@ -0,0 +1,53 @@
+package com.srFoodDelivery.service.rider;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Inserts rider offers in JDBC batches. RiderOffer uses IDENTITY keys, which
+ * stops Hibernate from batching inserts, so broadcasts that create one offer
+ * per online rider go through here instead of one save() per rider.
+ */
+@Component
+public class RiderOfferBatchWriter {
+
+    private static final int BATCH_SIZE = 500;
+
+    // INSERT IGNORE keeps the broadcast idempotent against unique_pending_offer
+    // (sub_order_id, rider_id, pending_flag): a rider holds at most one PENDING offer per sub order
+    private static final String INSERT_SQL =
+            "INSERT IGNORE INTO rider_offer (sub_order_id, rider_id, status, expires_at, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RiderOfferBatchWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Creates a PENDING offer for each rider and returns the number of rows inserted.
+     */
+    public int insertPendingOffers(Long subOrderId, List<Long> riderIds, LocalDateTime expiresAt) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Timestamp expires = Timestamp.valueOf(expiresAt);
+        int inserted = 0;
+
+        for (int from = 0; from < riderIds.size(); from += BATCH_SIZE) {
+            List<Object[]> batch = new ArrayList<>();
+            for (Long riderId : riderIds.subList(from, Math.min(from + BATCH_SIZE, riderIds.size()))) {
+                batch.add(new Object[] { subOrderId, riderId, "PENDING", expires, now, now });
+            }
+            for (int rows : jdbcTemplate.batchUpdate(INSERT_SQL, batch)) {
+                // rewriteBatchedStatements reports SUCCESS_NO_INFO (-2) for rows it inserted
+                inserted += rows < 0 ? 1 : rows;
+            }
+        }
+        return inserted;
+    }
+}
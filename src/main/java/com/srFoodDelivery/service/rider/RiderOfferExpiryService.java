@@ -0,0 +1,176 @@
+package com.srFoodDelivery.service.rider;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.srFoodDelivery.model.RiderOffer;
+import com.srFoodDelivery.model.SubOrder;
+import com.srFoodDelivery.repository.RiderOfferRepository;
+import com.srFoodDelivery.repository.RiderOfferRepository.PendingOfferDeadline;
+import com.srFoodDelivery.repository.SubOrderRepository;
+
+/**
+ * Expires rider offers when their deadline passes and re-dispatches the
+ * suborders that are left without a pending offer. Deadlines live in
+ * {@link RiderOfferExpiryWheel}; this service ticks the wheel, bulk-marks the
+ * offers it returns as EXPIRED and rebuilds the wheel from the database on startup.
+ * <p>
+ * Every node runs its own wheel and recovers the same PENDING offers, so the same
+ * deadline fires on several nodes. Marking offers EXPIRED is conditional and safe to
+ * repeat; a re-dispatch is only done by the node that claims the sub order row (SKIP
+ * LOCKED) and still finds it without a live offer. Offers scheduled on a node that
+ * has since gone away are picked up by the overdue sweep.
+ */
+@Service
+public class RiderOfferExpiryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RiderOfferExpiryService.class);
+
+    private final RiderOfferExpiryWheel expiryWheel;
+    private final RiderOfferRepository riderOfferRepository;
+    private final SubOrderRepository subOrderRepository;
+    private final RiderService riderService;
+    private final TransactionTemplate redispatchTransaction;
+    private final long sweepGraceMillis;
+
+    public RiderOfferExpiryService(
+            RiderOfferExpiryWheel expiryWheel,
+            RiderOfferRepository riderOfferRepository,
+            SubOrderRepository subOrderRepository,
+            RiderService riderService,
+            PlatformTransactionManager transactionManager,
+            @Value("${rider.offers.overdue-sweep-grace-ms:5000}") long sweepGraceMillis) {
+        this.expiryWheel = expiryWheel;
+        this.riderOfferRepository = riderOfferRepository;
+        this.subOrderRepository = subOrderRepository;
+        this.riderService = riderService;
+        this.redispatchTransaction = new TransactionTemplate(transactionManager);
+        this.sweepGraceMillis = sweepGraceMillis;
+    }
+
+    /**
+     * Reloads every PENDING offer into the wheel so deadlines survive a restart.
+     * Offers that expired while the application was down fire on the first tick.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverPendingOffers() {
+        try {
+            List<PendingOfferDeadline> pending = riderOfferRepository.findPendingOfferDeadlines();
+            for (PendingOfferDeadline offer : pending) {
+                expiryWheel.schedule(offer.getId(), offer.getSubOrderId(), offer.getRiderId(), offer.getExpiresAt());
+            }
+            logger.info("Recovered {} pending rider offers into the expiry wheel", pending.size());
+        } catch (Exception e) {
+            logger.warn("Could not recover pending rider offers: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Schedules PENDING offers that are past their deadline by more than the grace period.
+     * The node that created an offer normally expires it on time; this covers offers whose
+     * node stopped before their deadline. They fire on the next tick.
+     */
+    @Scheduled(fixedDelayString = "${rider.offers.overdue-sweep-ms:30000}")
+    public void sweepOverdueOffers() {
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minusNanos(sweepGraceMillis * 1_000_000);
+            for (PendingOfferDeadline offer : riderOfferRepository.findOverduePendingOfferDeadlines(cutoff)) {
+                expiryWheel.schedule(offer.getId(), offer.getSubOrderId(), offer.getRiderId(), offer.getExpiresAt());
+            }
+        } catch (Exception e) {
+            logger.warn("Could not sweep overdue rider offers: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedRate = 1000)
+    public void tick() {
+        List<RiderOfferExpiryWheel.Timeout> due = expiryWheel.advance(System.currentTimeMillis());
+        if (!due.isEmpty()) {
+            expire(due);
+        }
+    }
+
+    void expire(List<RiderOfferExpiryWheel.Timeout> due) {
+        List<Long> offerIds = new ArrayList<>(due.size());
+        List<Long> broadcastSubOrderIds = new ArrayList<>();
+        Set<Long> subOrderIds = new HashSet<>();
+        for (RiderOfferExpiryWheel.Timeout timeout : due) {
+            subOrderIds.add(timeout.getSubOrderId());
+            if (timeout.isBroadcast()) {
+                broadcastSubOrderIds.add(timeout.getSubOrderId());
+            } else {
+                offerIds.add(timeout.getOfferId());
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int expired = 0;
+        try {
+            if (!offerIds.isEmpty()) {
+                expired += riderOfferRepository.markExpired(offerIds, now);
+            }
+            if (!broadcastSubOrderIds.isEmpty()) {
+                expired += riderOfferRepository.markExpiredForSubOrders(broadcastSubOrderIds, now);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to expire {} due rider offer deadlines: {}", due.size(), e.getMessage(), e);
+            return;
+        }
+        logger.info("Expired {} rider offers for {} due deadlines", expired, due.size());
+
+        // Only suborders that are still unassigned and have no other live offer need a new rider
+        List<Long> toRedispatch = subOrderRepository.findOfferedWithoutPendingOffers(subOrderIds, now);
+        for (Long subOrderId : toRedispatch) {
+            try {
+                // One transaction per sub order so one failure does not undo the others
+                redispatchTransaction.executeWithoutResult(status -> redispatch(subOrderId, now));
+            } catch (Exception e) {
+                logger.warn("Failed to re-dispatch SubOrder {} after offer expiry: {}", subOrderId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Runs inside the claim transaction; the rider service joins it, so the new offer (or the
+     * return to CONFIRMED) commits together with the release of the row lock.
+     */
+    private void redispatch(Long subOrderId, LocalDateTime now) {
+        Optional<SubOrder> claimed = subOrderRepository.claimOfferedForRedispatch(subOrderId);
+        if (claimed.isEmpty()) {
+            // Another node holds the row, or it was assigned or returned to CONFIRMED meanwhile
+            logger.debug("SubOrder {} is being re-dispatched elsewhere or no longer needs a rider", subOrderId);
+            return;
+        }
+        if (!riderOfferRepository.findPendingOffersForSubOrder(claimed.get(), now).isEmpty()) {
+            // Another node re-dispatched it and committed before this node got the lock
+            logger.debug("SubOrder {} already has a new pending offer", subOrderId);
+            return;
+        }
+
+        // Riders with an expired or rejected offer for the sub order are excluded by the service
+        Optional<RiderOffer> offer = riderService.sendOfferToNearestRider(
+                subOrderId, RiderService.AssignmentStrategy.NEAREST, List.of());
+        if (offer.isPresent()) {
+            logger.info("Re-dispatched SubOrder {} to rider {} after offer expiry",
+                    subOrderId, offer.get().getRider().getId());
+        } else if (riderService.returnUnclaimedToConfirmed(subOrderId)) {
+            // Nothing else would re-arm an OFFERED sub order without a live offer
+            logger.warn("No rider available to re-dispatch SubOrder {} after offer expiry, returned it to CONFIRMED",
+                    subOrderId);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.srFoodDelivery.service.rider;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Hashed timer wheel holding the expiry deadline of every pending rider offer.
+ * Deadlines are hashed into one-second buckets; each tick only looks at the
+ * bucket for that second, so the cost of a tick is independent of how many
+ * offers are outstanding. Deadlines further away than one revolution simply
+ * stay in their bucket until the wheel comes round to the right tick.
+ *
+ * The wheel does no I/O: {@link RiderOfferExpiryService} drives it and acts on
+ * the offers it returns.
+ */
+@Component
+public class RiderOfferExpiryWheel {
+
+    private static final long TICK_MILLIS = 1000;
+    private static final int WHEEL_SIZE = 512; // power of two, ~8.5 minutes per revolution
+    private static final int MASK = WHEEL_SIZE - 1;
+
+    private final List<ArrayDeque<Timeout>> buckets = new ArrayList<>(WHEEL_SIZE);
+    private final Map<Long, Timeout> scheduled = new ConcurrentHashMap<>();
+    private final Map<Long, Timeout> broadcasts = new ConcurrentHashMap<>();
+    private long lastTick;
+
+    public RiderOfferExpiryWheel() {
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            buckets.add(new ArrayDeque<>());
+        }
+        lastTick = System.currentTimeMillis() / TICK_MILLIS;
+    }
+
+    /**
+     * Schedules (or reschedules) expiry of an offer. Deadlines already in the
+     * past fire on the next tick.
+     */
+    public synchronized void schedule(Long offerId, Long subOrderId, Long riderId, LocalDateTime expiresAt) {
+        long deadlineMillis = expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        long deadlineTick = Math.max((deadlineMillis + TICK_MILLIS - 1) / TICK_MILLIS, lastTick + 1);
+
+        Timeout previous = scheduled.remove(offerId);
+        if (previous != null) {
+            previous.cancelled = true;
+        }
+        Timeout timeout = new Timeout(offerId, subOrderId, riderId, deadlineTick);
+        scheduled.put(offerId, timeout);
+        buckets.get((int) (deadlineTick & MASK)).add(timeout);
+    }
+
+    /**
+     * Schedules (or reschedules) expiry of every offer of a broadcast. All offers of a broadcast
+     * share one deadline, so one entry per sub order stands in for them without their ids.
+     */
+    public synchronized void scheduleBroadcast(Long subOrderId, LocalDateTime expiresAt) {
+        long deadlineMillis = expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        long deadlineTick = Math.max((deadlineMillis + TICK_MILLIS - 1) / TICK_MILLIS, lastTick + 1);
+
+        Timeout previous = broadcasts.remove(subOrderId);
+        if (previous != null) {
+            previous.cancelled = true;
+        }
+        Timeout timeout = new Timeout(null, subOrderId, null, deadlineTick);
+        broadcasts.put(subOrderId, timeout);
+        buckets.get((int) (deadlineTick & MASK)).add(timeout);
+    }
+
+    /**
+     * Drops an offer that was accepted or rejected before it expired.
+     * The entry is skipped lazily when its bucket comes round.
+     */
+    public void cancel(Long offerId) {
+        Timeout timeout = scheduled.remove(offerId);
+        if (timeout != null) {
+            timeout.cancelled = true;
+        }
+    }
+
+    public int size() {
+        return scheduled.size() + broadcasts.size();
+    }
+
+    /**
+     * Advances the wheel to {@code nowMillis} and returns every offer whose deadline has passed.
+     */
+    public synchronized List<Timeout> advance(long nowMillis) {
+        long nowTick = nowMillis / TICK_MILLIS;
+        List<Timeout> due = new ArrayList<>();
+        if (nowTick <= lastTick) {
+            return due;
+        }
+
+        // After a long pause every bucket is visited once; later rounds are still caught by deadlineTick
+        long firstTick = Math.max(lastTick + 1, nowTick - MASK);
+        for (long tick = firstTick; tick <= nowTick; tick++) {
+            Iterator<Timeout> it = buckets.get((int) (tick & MASK)).iterator();
+            while (it.hasNext()) {
+                Timeout timeout = it.next();
+                if (timeout.cancelled) {
+                    it.remove();
+                } else if (timeout.deadlineTick <= nowTick) {
+                    it.remove();
+                    if (timeout.isBroadcast()) {
+                        broadcasts.remove(timeout.subOrderId, timeout);
+                    } else {
+                        scheduled.remove(timeout.offerId, timeout);
+                    }
+                    due.add(timeout);
+                }
+            }
+        }
+        lastTick = nowTick;
+        return due;
+    }
+
+    public static final class Timeout {
+        private final Long offerId;
+        private final Long subOrderId;
+        private final Long riderId;
+        private final long deadlineTick;
+        private volatile boolean cancelled;
+
+        private Timeout(Long offerId, Long subOrderId, Long riderId, long deadlineTick) {
+            this.offerId = offerId;
+            this.subOrderId = subOrderId;
+            this.riderId = riderId;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public Long getOfferId() {
+            return offerId;
+        }
+
+        public Long getSubOrderId() {
+            return subOrderId;
+        }
+
+        public Long getRiderId() {
+            return riderId;
+        }
+
+        /**
+         * True for the entry standing in for all offers of a broadcast, which has no offer or rider id.
+         */
+        public boolean isBroadcast() {
+            return offerId == null;
+        }
+    }
+}
@@ -2,15 +2,24 @@ package com.srFoodDelivery.service.rider;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 
@@ -42,6 +51,13 @@ public class RiderService {
     private final RestaurantRiderRepository restaurantRiderRepository;
     private final RiderOfferRepository riderOfferRepository;
     private final OrderWebSocketPublisher webSocketPublisher;
+    private final RiderLocationIndex riderLocationIndex;
+    private final RiderLocationBuffer riderLocationBuffer;
+    private final RiderOfferBatchWriter riderOfferBatchWriter;
+    private final RiderLoadTracker riderLoadTracker;
+    private final RiderOfferExpiryWheel offerExpiryWheel;
+    // Rider id to owning user id for authorizing GPS pings; riders are dropped when they go offline
+    private final Map<Long, Long> riderOwners = new ConcurrentHashMap<>();
     private static final int OFFER_EXPIRY_MINUTES = 5; // Offers expire after 5 minutes
 
     public RiderService(
@@ -49,12 +65,22 @@ public class RiderService {
             SubOrderRepository subOrderRepository,
             RestaurantRiderRepository restaurantRiderRepository,
             RiderOfferRepository riderOfferRepository,
-            OrderWebSocketPublisher webSocketPublisher) {
+            OrderWebSocketPublisher webSocketPublisher,
+            RiderLocationIndex riderLocationIndex,
+            RiderLocationBuffer riderLocationBuffer,
+            RiderOfferBatchWriter riderOfferBatchWriter,
+            RiderLoadTracker riderLoadTracker,
+            RiderOfferExpiryWheel offerExpiryWheel) {
         this.riderRepository = riderRepository;
         this.subOrderRepository = subOrderRepository;
         this.restaurantRiderRepository = restaurantRiderRepository;
         this.riderOfferRepository = riderOfferRepository;
         this.webSocketPublisher = webSocketPublisher;
+        this.riderLocationIndex = riderLocationIndex;
+        this.riderLocationBuffer = riderLocationBuffer;
+        this.riderOfferBatchWriter = riderOfferBatchWriter;
+        this.riderLoadTracker = riderLoadTracker;
+        this.offerExpiryWheel = offerExpiryWheel;
     }
 
     /**
@@ -94,16 +120,14 @@ public class RiderService {
                     .toList();
         }
         
-        // Also exclude riders who have already rejected this order
-        List<RiderOffer> previousRejections = riderOfferRepository.findBySubOrderAndStatus(
-                subOrder, "REJECTED");
-        List<Long> rejectedRiderIds = previousRejections.stream()
-                .map(offer -> offer.getRider().getId())
-                .toList();
+        // Also exclude riders who already rejected this order or let an offer for it expire,
+        // so it cannot bounce between the same riders
+        Set<Long> passedRiderIds = new HashSet<>(riderOfferRepository.findRiderIdsBySubOrderAndStatusIn(
+                subOrder, List.of("REJECTED", "EXPIRED")));
         
-        if (!rejectedRiderIds.isEmpty()) {
+        if (!passedRiderIds.isEmpty()) {
             candidates = candidates.stream()
-                    .filter(r -> !rejectedRiderIds.contains(r.getId()))
+                    .filter(r -> !passedRiderIds.contains(r.getId()))
                     .toList();
         }
         
@@ -134,6 +158,7 @@ public class RiderService {
             offer.setExpiresAt(LocalDateTime.now().plusMinutes(OFFER_EXPIRY_MINUTES));
             
             RiderOffer savedOffer = riderOfferRepository.save(offer);
+            scheduleExpiry(savedOffer);
             
             // Update suborder status to OFFERED
             subOrder.setStatus("OFFERED");
@@ -189,16 +214,17 @@ public class RiderService {
 
     /**
      * Broadcasts an order to ALL online riders (NEW: All riders can see and accept)
-     * Creates offers for all online available riders
+     * Creates offers for all online available riders in one JDBC batch and
+     * returns the number of riders holding a pending offer for the sub order
      */
-    public List<RiderOffer> broadcastOrderToAllRiders(Long subOrderId) {
+    public int broadcastOrderToAllRiders(Long subOrderId) {
         SubOrder subOrder = subOrderRepository.findById(subOrderId)
                 .orElseThrow(() -> new IllegalArgumentException("SubOrder not found"));
 
         // Check if already has a rider assigned
         if (subOrder.getRider() != null) {
             logger.warn("SubOrder {} already has a rider assigned, skipping broadcast", subOrderId);
-            return new ArrayList<>();
+            return 0;
         }
 
         // Check if order is already accepted or delivered
@@ -207,7 +233,7 @@ public class RiderService {
             "DELIVERED".equals(subOrder.getStatus()) ||
             "COMPLETED".equals(subOrder.getStatus())) {
             logger.warn("SubOrder {} is already in status {}, skipping broadcast", subOrderId, subOrder.getStatus());
-            return new ArrayList<>();
+            return 0;
         }
 
         // Check if order is already in OFFERED status (already broadcasted)
@@ -217,7 +243,7 @@ public class RiderService {
                     subOrder, LocalDateTime.now());
             if (!existingOffers.isEmpty()) {
                 logger.info("SubOrder {} already broadcasted, returning existing offers", subOrderId);
-                return existingOffers;
+                return existingOffers.size();
             }
             // If status is OFFERED but no pending offers, continue to create new offers
         }
@@ -227,71 +253,66 @@ public class RiderService {
             throw new IllegalStateException("SubOrder must have a restaurant for rider assignment");
         }
 
-        // Get ALL online available riders (not just restaurant-specific)
-        List<Rider> allOnlineRiders = riderRepository.findOnlineAvailableRidersWithLocation();
+        // Get ALL online available riders (not just restaurant-specific) - IDs only, no entity hydration
+        List<Long> onlineRiderIds = riderRepository.findOnlineAvailableRiderIdsWithLocation();
         
-        if (allOnlineRiders.isEmpty()) {
+        if (onlineRiderIds.isEmpty()) {
             logger.warn("No online riders available for SubOrder {}", subOrderId);
-            return new ArrayList<>();
+            return 0;
         }
 
-        // Create offers for ALL online riders
-        List<RiderOffer> createdOffers = new ArrayList<>();
         subOrder.setStatus("OFFERED");
         subOrderRepository.save(subOrder);
 
-        for (Rider rider : allOnlineRiders) {
-            // Check if rider already has an offer for this suborder
-            Optional<RiderOffer> existingOffer = riderOfferRepository.findBySubOrderAndRiderAndStatus(
-                    subOrder, rider, "PENDING");
-            
-            if (existingOffer.isPresent()) {
-                // Skip if offer already exists
-                continue;
-            }
+        // One set-based lookup for riders that already hold a pending offer, instead of one query per rider
+        Set<Long> alreadyOffered = new HashSet<>(
+                riderOfferRepository.findRiderIdsBySubOrderAndStatus(subOrder, "PENDING"));
+        List<Long> newRiderIds = onlineRiderIds.stream()
+                .filter(id -> !alreadyOffered.contains(id))
+                .toList();
 
-            RiderOffer offer = new RiderOffer();
-            offer.setSubOrder(subOrder);
-            offer.setRider(rider);
-            offer.setStatus("PENDING");
-            offer.setExpiresAt(LocalDateTime.now().plusMinutes(OFFER_EXPIRY_MINUTES));
-            
-            RiderOffer savedOffer = riderOfferRepository.save(offer);
-            createdOffers.add(savedOffer);
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(OFFER_EXPIRY_MINUTES);
+        int inserted = riderOfferBatchWriter.insertPendingOffers(subOrder.getId(), newRiderIds, expiresAt);
+        
+        // Every rider gets the same frame, so it is serialized once and fanned out.
+        // Riders accept broadcast orders by subOrderId, so no per-rider offerId is needed here.
+        if (subOrder.getMultiOrder() != null && !newRiderIds.isEmpty()) {
+            Map<String, Object> notificationPayload = new HashMap<>();
+            notificationPayload.put("subOrderId", subOrder.getId());
+            notificationPayload.put("multiOrderId", subOrder.getMultiOrder().getId());
+            notificationPayload.put("status", "AVAILABLE");
+            notificationPayload.put("restaurantName", restaurant.getName());
+            notificationPayload.put("restaurantAddress", restaurant.getAddress());
+            notificationPayload.put("totalAmount", subOrder.getTotalAmount());
+            notificationPayload.put("deliveryAddress", subOrder.getMultiOrder().getDeliveryAddress());
+            notificationPayload.put("expiresAt", expiresAt.toString());
+            notificationPayload.put("itemCount", subOrder.getItems() != null ? subOrder.getItems().size() : 0);
             
-            // Send WebSocket notification to each rider
-            if (subOrder.getMultiOrder() != null) {
-                Map<String, Object> notificationPayload = new HashMap<>();
-                notificationPayload.put("offerId", savedOffer.getId());
-                notificationPayload.put("subOrderId", subOrder.getId());
-                notificationPayload.put("multiOrderId", subOrder.getMultiOrder().getId());
-                notificationPayload.put("status", "AVAILABLE");
-                notificationPayload.put("restaurantName", restaurant.getName());
-                notificationPayload.put("restaurantAddress", restaurant.getAddress());
-                notificationPayload.put("totalAmount", subOrder.getTotalAmount());
-                notificationPayload.put("deliveryAddress", subOrder.getMultiOrder().getDeliveryAddress());
-                notificationPayload.put("expiresAt", offer.getExpiresAt().toString());
-                notificationPayload.put("itemCount", subOrder.getItems() != null ? subOrder.getItems().size() : 0);
-                
-                webSocketPublisher.publishToRider(rider.getId(), "NEW_ORDER_AVAILABLE", notificationPayload);
-            }
+            webSocketPublisher.publishToRiders(newRiderIds, "NEW_ORDER_AVAILABLE", notificationPayload);
         }
         
-        logger.info("Broadcasted SubOrder {} to {} riders", subOrderId, createdOffers.size());
+        logger.info("Broadcasted SubOrder {} to {} riders", subOrderId, inserted);
         
-        // Also publish a general notification that a new order is available
-        if (subOrder.getMultiOrder() != null) {
-            Map<String, Object> broadcastPayload = new HashMap<>();
-            broadcastPayload.put("subOrderId", subOrder.getId());
-            broadcastPayload.put("multiOrderId", subOrder.getMultiOrder().getId());
-            broadcastPayload.put("restaurantName", restaurant.getName());
-            broadcastPayload.put("totalAmount", subOrder.getTotalAmount());
-            broadcastPayload.put("deliveryAddress", subOrder.getMultiOrder().getDeliveryAddress());
-            
-            // Publish to all riders topic (if you have one) or individual notifications are enough
+        // The new offers share one deadline, so one wheel entry covers them without reloading them
+        Long broadcastSubOrderId = subOrder.getId();
+        afterCommit(() -> offerExpiryWheel.scheduleBroadcast(broadcastSubOrderId, expiresAt));
+        return alreadyOffered.size() + inserted;
+    }
+
+    /**
+     * Puts an OFFERED sub order that no rider took and that has no live offer left back to
+     * CONFIRMED, where it is listed to riders again. Returns false if it moved on meanwhile.
+     */
+    public boolean returnUnclaimedToConfirmed(Long subOrderId) {
+        SubOrder subOrder = subOrderRepository.findById(subOrderId)
+                .orElseThrow(() -> new IllegalArgumentException("SubOrder not found"));
+        if (!"OFFERED".equals(subOrder.getStatus()) || subOrder.getRider() != null
+                || !riderOfferRepository.findPendingOffersForSubOrder(subOrder, LocalDateTime.now()).isEmpty()) {
+            return false;
         }
-        
-        return createdOffers;
+        subOrder.setStatus("CONFIRMED");
+        subOrderRepository.save(subOrder);
+        return true;
     }
 
     /**
@@ -336,6 +357,7 @@ public class RiderService {
             // Reject this offer since order is already taken
             offer.setStatus("REJECTED");
             riderOfferRepository.save(offer);
+            cancelExpiry(offer.getId());
             return false;
         }
 
@@ -345,6 +367,7 @@ public class RiderService {
             // Accept the offer - assign rider and start tracking (ATOMIC OPERATION)
             offer.setStatus("ACCEPTED");
             riderOfferRepository.save(offer);
+            cancelExpiry(offerId);
             
             // Reject all other pending offers for this suborder (ATOMIC)
             List<RiderOffer> otherOffers = riderOfferRepository.findPendingOffersForSubOrder(
@@ -353,6 +376,7 @@ public class RiderService {
                 if (!otherOffer.getId().equals(offerId)) {
                     otherOffer.setStatus("REJECTED");
                     riderOfferRepository.save(otherOffer);
+                    cancelExpiry(otherOffer.getId());
                     
                     // Notify other riders that order was taken
                     if (otherOffer.getRider() != null && otherOffer.getRider().getId() != riderId) {
@@ -383,8 +407,8 @@ public class RiderService {
                         lockedSubOrder.getId(),
                         "ACCEPTED",
                         rider.getId(),
-                        rider.getCurrentLatitude() != null ? rider.getCurrentLatitude().doubleValue() : null,
-                        rider.getCurrentLongitude() != null ? rider.getCurrentLongitude().doubleValue() : null);
+                        riderLocationBuffer.latestLatitude(rider),
+                        riderLocationBuffer.latestLongitude(rider));
                 
                 // Notify rider that order is now assigned and tracking started
                 Map<String, Object> notificationPayload = new HashMap<>();
@@ -400,6 +424,7 @@ public class RiderService {
             // Reject the offer
             offer.setStatus("REJECTED");
             riderOfferRepository.save(offer);
+            cancelExpiry(offerId);
             
             logger.info("Rider {} rejected offer {} for SubOrder {}", riderId, offerId, subOrder.getId());
             
@@ -478,20 +503,45 @@ public class RiderService {
     }
 
     /**
-     * Updates rider location
+     * Updates rider location immediately (used when going online, where the
+     * position must be persisted before the rider becomes dispatchable)
      */
     public void updateRiderLocation(Long riderId, BigDecimal latitude, BigDecimal longitude) {
         Rider rider = riderRepository.findById(riderId)
                 .orElseThrow(() -> new IllegalArgumentException("Rider not found"));
 
+        riderRepository.updateLocation(riderId, latitude, longitude);
+        riderLocationBuffer.discard(riderId);
+        // Keep the loaded entity in step for the index; the columns are not written by saves
         rider.setCurrentLatitude(latitude);
         rider.setCurrentLongitude(longitude);
-        riderRepository.save(rider);
+        syncLocationIndex(rider);
         
         logger.debug("Updated location for rider {}: lat={}, lon={}", 
                 riderId, latitude, longitude);
     }
 
+    /**
+     * Records a periodic GPS ping from the rider's user. The position goes to the
+     * write-behind buffer (flushed in batches) and moves the rider in the dispatch
+     * index if it is dispatchable. The rider's owner is cached from the first ping
+     * after going online, so no query, transaction or UPDATE is issued per ping.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void recordRiderLocation(Long riderId, Long userId, BigDecimal latitude, BigDecimal longitude) {
+        Long ownerId = riderOwners.get(riderId);
+        if (ownerId == null) {
+            ownerId = riderRepository.findUserIdById(riderId)
+                    .orElseThrow(() -> new IllegalArgumentException("Rider not found"));
+            riderOwners.put(riderId, ownerId);
+        }
+        if (!ownerId.equals(userId)) {
+            throw new SecurityException("Access denied");
+        }
+        riderLocationBuffer.record(riderId, latitude, longitude);
+        riderLocationIndex.moveIfPresent(riderId, latitude.doubleValue(), longitude.doubleValue());
+    }
+
     /**
      * Updates rider online status
      */
@@ -508,6 +558,10 @@ public class RiderService {
             rider.setStatus("IDLE");
         }
         riderRepository.save(rider);
+        syncLocationIndex(rider);
+        if (!isOnline) {
+            riderOwners.remove(riderId);
+        }
         
         logger.info("Rider {} is now {}", riderId, isOnline ? "ONLINE" : "OFFLINE");
     }
@@ -576,7 +630,32 @@ public class RiderService {
         
         // If restaurant has coordinates, use them to find nearest rider
         if (restaurant.getLatitude() != null && restaurant.getLongitude() != null) {
-            // Use repository's nearest rider query (Haversine formula)
+            if (riderLocationIndex.isWarm()) {
+                if (ridersWithLocation.stream().anyMatch(r -> !riderLocationIndex.contains(r.getId()))) {
+                    // The index only sees riders that went online on this node and pings for riders
+                    // it already holds, so a candidate missing from it is loaded from the rider table
+                    logger.debug("Candidates near restaurant {} missing from the location index, refreshing it",
+                            restaurant.getId());
+                    riderLocationIndex.refresh(riderRepository.findOnlineAvailableRidersWithLocation());
+                }
+                Map<Long, Rider> candidatesById = ridersWithLocation.stream()
+                        .collect(Collectors.toMap(Rider::getId, Function.identity(), (a, b) -> a));
+                List<Long> nearestIds = riderLocationIndex.findNearest(
+                        restaurant.getLatitude().doubleValue(),
+                        restaurant.getLongitude().doubleValue(),
+                        1,
+                        candidatesById::containsKey);
+                if (!nearestIds.isEmpty()) {
+                    Rider nearest = candidatesById.get(nearestIds.get(0));
+                    logger.info("Selected nearest rider {} for restaurant {} (location index)", 
+                            nearest.getId(), restaurant.getId());
+                    return nearest;
+                }
+                logger.warn("No indexed candidates near restaurant {}, using least loaded from candidates", restaurant.getId());
+                return selectLeastLoadedRider(ridersWithLocation);
+            }
+
+            // Index not built yet (cold start) - use repository's nearest rider query (Haversine formula)
             List<Rider> nearestRiders = riderRepository.findNearestRiders(
                     restaurant.getLatitude(),
                     restaurant.getLongitude(),
@@ -601,16 +680,56 @@ public class RiderService {
         return selectLeastLoadedRider(ridersWithLocation);
     }
 
+    /**
+     * Changes to the expiry wheel are applied once the transaction commits, so an offer that
+     * is rolled back is never scheduled and a rolled-back accept or reject keeps its deadline.
+     */
+    private void scheduleExpiry(RiderOffer offer) {
+        Long offerId = offer.getId();
+        Long subOrderId = offer.getSubOrder().getId();
+        Long riderId = offer.getRider().getId();
+        LocalDateTime expiresAt = offer.getExpiresAt();
+        afterCommit(() -> offerExpiryWheel.schedule(offerId, subOrderId, riderId, expiresAt));
+    }
+
+    private void cancelExpiry(Long offerId) {
+        afterCommit(() -> offerExpiryWheel.cancel(offerId));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Keeps the in-memory location index in line with the rider row:
+     * only online, available riders with a known position are indexed.
+     */
+    private void syncLocationIndex(Rider rider) {
+        if (Boolean.TRUE.equals(rider.getIsOnline())
+                && Boolean.TRUE.equals(rider.getIsAvailable())
+                && rider.getCurrentLatitude() != null
+                && rider.getCurrentLongitude() != null) {
+            riderLocationIndex.upsert(rider.getId(),
+                    rider.getCurrentLatitude().doubleValue(),
+                    rider.getCurrentLongitude().doubleValue());
+        } else {
+            riderLocationIndex.remove(rider.getId());
+        }
+    }
+
     private Rider selectLeastLoadedRider(List<Rider> candidates) {
-        // Count active assignments per rider
+        // Active assignment counts are kept in memory, so this costs no query per candidate
         return candidates.stream()
-                .min((r1, r2) -> {
-                    long count1 = subOrderRepository.findByRiderAndStatusInOrderByCreatedAtDesc(
-                            r1, List.of("ASSIGNED", "ACCEPTED", "EN_ROUTE")).size();
-                    long count2 = subOrderRepository.findByRiderAndStatusInOrderByCreatedAtDesc(
-                            r2, List.of("ASSIGNED", "ACCEPTED", "EN_ROUTE")).size();
-                    return Long.compare(count1, count2);
-                })
+                .min(Comparator.comparingInt((Rider r) -> riderLoadTracker.activeLoad(r.getId())))
                 .orElse(candidates.get(0));
     }
 
@@ -0,0 +1,44 @@
+package com.srFoodDelivery.service.rider;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.srFoodDelivery.model.OutboxEvent;
+import com.srFoodDelivery.repository.SubOrderRepository;
+import com.srFoodDelivery.service.outbox.DomainEventHandler;
+
+/**
+ * Broadcasts a paid delivery SubOrder to the online riders.
+ * {@link RiderService#broadcastOrderToAllRiders(Long)} skips sub orders that already have a
+ * rider or pending offers and never offers the same rider twice, so retries are safe.
+ */
+@Component
+public class SubOrderDispatchEventHandler implements DomainEventHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(SubOrderDispatchEventHandler.class);
+
+    private final SubOrderRepository subOrderRepository;
+    private final RiderService riderService;
+
+    public SubOrderDispatchEventHandler(SubOrderRepository subOrderRepository, RiderService riderService) {
+        this.subOrderRepository = subOrderRepository;
+        this.riderService = riderService;
+    }
+
+    @Override
+    public String getEventType() {
+        return OutboxEvent.TYPE_SUBORDER_READY_FOR_DISPATCH;
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        Long subOrderId = event.getAggregateId();
+        if (!subOrderRepository.existsById(subOrderId)) {
+            logger.warn("SubOrder {} no longer exists, skipping dispatch", subOrderId);
+            return;
+        }
+        int offered = riderService.broadcastOrderToAllRiders(subOrderId);
+        logger.info("Dispatched SubOrder {} to {} riders", subOrderId, offered);
+    }
+}
@@ -0,0 +1,411 @@
+package com.srFoodDelivery.service.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.srFoodDelivery.model.MenuItem;
+import com.srFoodDelivery.model.Restaurant;
+import com.srFoodDelivery.model.SiteMode;
+import com.srFoodDelivery.repository.MenuItemRepository;
+
+/**
+ * In-memory search index over available menu items for the customer browse page.
+ *
+ * Item names and descriptions are broken into character trigrams; a text search intersects
+ * the posting lists of the query's trigrams and then checks the surviving items with the same
+ * case-insensitive substring match the browse page always used. Queries shorter than a trigram
+ * are checked item by item. Category, tag and veg filters and their facet counts are evaluated
+ * in the same pass.
+ *
+ * The index is loaded at startup, kept current by {@link #index(MenuItem)} and
+ * {@link #remove(Long)} as items are saved and by {@link #restaurantModeChanged(Long, boolean)}
+ * when a restaurant switches between restaurant and cafe, and rebuilt periodically to pick up
+ * changes made elsewhere (deletes that cascade from a restaurant, edits on other nodes).
+ */
+@Component
+public class MenuSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(MenuSearchIndex.class);
+    private static final int GRAM_LENGTH = 3;
+
+    private final MenuItemRepository menuItemRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private Postings postings = new Postings();
+    private List<PendingChange> changesDuringRebuild;
+
+    private volatile boolean warm;
+
+    public MenuSearchIndex(MenuItemRepository menuItemRepository) {
+        this.menuItemRepository = menuItemRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        rebuild();
+    }
+
+    public boolean isWarm() {
+        return warm;
+    }
+
+    /**
+     * Reloads every available item. Changes indexed while the load runs are replayed on top,
+     * so an item saved mid-rebuild is not lost.
+     */
+    @Scheduled(fixedDelayString = "${menu.search.rebuild-interval-ms:300000}", initialDelayString = "${menu.search.rebuild-interval-ms:300000}")
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Postings rebuilt = new Postings();
+        try {
+            for (MenuItem item : menuItemRepository.findAvailableForSearchIndex()) {
+                Document document = Document.of(item);
+                if (document != null) {
+                    rebuilt.put(document);
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Failed to rebuild menu search index: {}", e.getMessage(), e);
+            lock.writeLock().lock();
+            try {
+                changesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (PendingChange change : changesDuringRebuild) {
+                change.applyTo(rebuilt);
+            }
+            changesDuringRebuild = null;
+            postings = rebuilt;
+            warm = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.debug("Menu search index rebuilt with {} items", rebuilt.documents.size());
+    }
+
+    /**
+     * Adds or refreshes an item after the current transaction commits.
+     * Items that are unavailable or have no restaurant are removed instead.
+     */
+    public void index(MenuItem item) {
+        if (item.getId() == null) {
+            return;
+        }
+        Document document = Document.of(item);
+        Long itemId = item.getId();
+        PendingChange change = document != null ? target -> target.put(document) : target -> target.remove(itemId);
+        afterCommit(() -> apply(change));
+    }
+
+    /**
+     * Removes an item after the current transaction commits.
+     */
+    public void remove(Long itemId) {
+        afterCommit(() -> apply(target -> target.remove(itemId)));
+    }
+
+    /**
+     * Moves every item of a restaurant to the cafe or restaurant side after the current
+     * transaction commits.
+     */
+    public void restaurantModeChanged(Long restaurantId, boolean cafe) {
+        if (restaurantId == null) {
+            return;
+        }
+        afterCommit(() -> apply(target -> target.setMode(restaurantId, cafe)));
+    }
+
+    /**
+     * Runs a search. Items are returned in ID order.
+     */
+    public MenuSearchResult search(MenuSearchQuery query) {
+        if (!warm) {
+            ensureWarm();
+        }
+
+        boolean cafe = query.getSiteMode() != null && query.getSiteMode().isCafeMode();
+        String text = query.getText();
+        int from = query.getPage() * query.getSize();
+        int to = from + query.getSize();
+
+        List<Long> pageIds = new ArrayList<>();
+        Map<String, Integer> categoryCounts = new LinkedHashMap<>();
+        Map<String, Integer> tagCounts = new TreeMap<>();
+        int vegCount = 0;
+        int nonVegCount = 0;
+        int total = 0;
+
+        lock.readLock().lock();
+        try {
+            for (Document document : postings.candidates(text)) {
+                if (document.cafe != cafe || (text != null && !document.matchesText(text))) {
+                    continue;
+                }
+
+                if (document.category != null) {
+                    categoryCounts.merge(document.category, 1, Integer::sum);
+                }
+                for (String tag : document.tags) {
+                    tagCounts.merge(tag, 1, Integer::sum);
+                }
+                if (document.veg) {
+                    vegCount++;
+                } else {
+                    nonVegCount++;
+                }
+
+                if (query.getCategory() != null && !query.getCategory().equalsIgnoreCase(document.category)) {
+                    continue;
+                }
+                if (!document.tags.containsAll(query.getTags())) {
+                    continue;
+                }
+                if (query.getVeg() != null && document.veg != query.getVeg()) {
+                    continue;
+                }
+
+                if (total >= from && total < to) {
+                    pageIds.add(document.id);
+                }
+                total++;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return new MenuSearchResult(pageIds, total, query.getPage(), query.getSize(),
+                categoryCounts, tagCounts, vegCount, nonVegCount);
+    }
+
+    /**
+     * Distinct categories of the items available in a mode, in order of first appearance.
+     */
+    public List<String> categories(SiteMode siteMode) {
+        MenuSearchResult all = search(new MenuSearchQuery(siteMode, null, null, null, null, 0, 1));
+        return new ArrayList<>(all.getCategoryCounts().keySet());
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return postings.documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private synchronized void ensureWarm() {
+        if (!warm) {
+            rebuild();
+        }
+    }
+
+    private void apply(PendingChange change) {
+        lock.writeLock().lock();
+        try {
+            change.applyTo(postings);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        if (text != null) {
+            for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+                grams.add(text.substring(i, i + GRAM_LENGTH));
+            }
+        }
+        return grams;
+    }
+
+    /**
+     * Documents by ID plus the trigram posting lists over them.
+     */
+    private static final class Postings {
+        private final TreeMap<Long, Document> documents = new TreeMap<>();
+        private final Map<String, Set<Long>> byGram = new HashMap<>();
+
+        void put(Document document) {
+            remove(document.id);
+            documents.put(document.id, document);
+            for (String gram : document.grams) {
+                byGram.computeIfAbsent(gram, g -> new HashSet<>()).add(document.id);
+            }
+        }
+
+        void setMode(Long restaurantId, boolean cafe) {
+            for (Map.Entry<Long, Document> entry : documents.entrySet()) {
+                Document document = entry.getValue();
+                if (restaurantId.equals(document.restaurantId) && document.cafe != cafe) {
+                    entry.setValue(document.withMode(cafe));
+                }
+            }
+        }
+
+        void remove(Long id) {
+            Document existing = documents.remove(id);
+            if (existing == null) {
+                return;
+            }
+            for (String gram : existing.grams) {
+                Set<Long> ids = byGram.get(gram);
+                if (ids != null) {
+                    ids.remove(id);
+                    if (ids.isEmpty()) {
+                        byGram.remove(gram);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Documents that may contain the text, in ID order. Short or absent text returns everything.
+         */
+        Collection<Document> candidates(String text) {
+            if (text == null || text.length() < GRAM_LENGTH) {
+                return documents.values();
+            }
+
+            List<Set<Long>> lists = new ArrayList<>();
+            for (String gram : grams(text)) {
+                Set<Long> ids = byGram.get(gram);
+                if (ids == null) {
+                    return Collections.emptyList();
+                }
+                lists.add(ids);
+            }
+            lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+
+            List<Long> matches = new ArrayList<>();
+            for (Long id : lists.get(0)) {
+                boolean inAll = true;
+                for (int i = 1; i < lists.size() && inAll; i++) {
+                    inAll = lists.get(i).contains(id);
+                }
+                if (inAll) {
+                    matches.add(id);
+                }
+            }
+            Collections.sort(matches);
+
+            List<Document> result = new ArrayList<>(matches.size());
+            for (Long id : matches) {
+                result.add(documents.get(id));
+            }
+            return result;
+        }
+    }
+
+    private static final class Document {
+        private final Long id;
+        private final Long restaurantId;
+        private final boolean cafe;
+        private final String name;
+        private final String description;
+        private final String category;
+        private final Set<String> tags;
+        private final boolean veg;
+        private final Set<String> grams;
+
+        private Document(MenuItem item, Restaurant restaurant) {
+            this.id = item.getId();
+            this.restaurantId = restaurant.getId();
+            this.cafe = restaurant.isCafeLounge();
+            this.name = item.getName() != null ? item.getName().toLowerCase() : "";
+            this.description = item.getDescription() != null ? item.getDescription().toLowerCase() : null;
+            this.category = item.getCategory() != null && !item.getCategory().trim().isEmpty() ? item.getCategory() : null;
+            this.tags = item.getTags() != null ? Set.copyOf(item.getTags()) : Collections.emptySet();
+            this.veg = item.isVeg();
+
+            Set<String> allGrams = new LinkedHashSet<>(grams(name));
+            allGrams.addAll(grams(description));
+            this.grams = allGrams;
+        }
+
+        private Document(Document source, boolean cafe) {
+            this.id = source.id;
+            this.restaurantId = source.restaurantId;
+            this.cafe = cafe;
+            this.name = source.name;
+            this.description = source.description;
+            this.category = source.category;
+            this.tags = source.tags;
+            this.veg = source.veg;
+            this.grams = source.grams;
+        }
+
+        /**
+         * Builds the document for an item, or returns null if the item should not be searchable.
+         */
+        static Document of(MenuItem item) {
+            if (!item.isAvailable() || item.getMenu() == null || item.getMenu().getRestaurant() == null) {
+                return null;
+            }
+            return new Document(item, item.getMenu().getRestaurant());
+        }
+
+        Document withMode(boolean cafe) {
+            return new Document(this, cafe);
+        }
+
+        boolean matchesText(String text) {
+            return name.contains(text) || (description != null && description.contains(text));
+        }
+    }
+
+    /**
+     * A change applied to the live postings and replayed onto a rebuild that was running.
+     */
+    private interface PendingChange {
+        void applyTo(Postings target);
+    }
+}
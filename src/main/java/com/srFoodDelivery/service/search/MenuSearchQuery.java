@@ -0,0 +1,65 @@
+package com.srFoodDelivery.service.search;
+
+import java.util.Collections;
+import java.util.Set;
+
+import com.srFoodDelivery.model.SiteMode;
+
+/**
+ * Browse-page search: free text plus category, tag and veg filters, one page at a time.
+ */
+public class MenuSearchQuery {
+
+    private final SiteMode siteMode;
+    private final String text;
+    private final String category;
+    private final Set<String> tags;
+    private final Boolean veg;
+    private final int page;
+    private final int size;
+
+    public MenuSearchQuery(SiteMode siteMode, String text, String category, Set<String> tags, Boolean veg,
+            int page, int size) {
+        this.siteMode = siteMode;
+        this.text = text != null && !text.trim().isEmpty() ? text.trim().toLowerCase() : null;
+        this.category = category != null && !category.trim().isEmpty() ? category : null;
+        this.tags = tags != null ? tags : Collections.emptySet();
+        this.veg = veg;
+        this.page = Math.max(page, 0);
+        this.size = Math.max(size, 1);
+    }
+
+    public SiteMode getSiteMode() {
+        return siteMode;
+    }
+
+    /**
+     * Lower-cased, trimmed search text, or null when there is none.
+     */
+    public String getText() {
+        return text;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public Set<String> getTags() {
+        return tags;
+    }
+
+    /**
+     * TRUE for veg only, FALSE for non-veg only, null for both.
+     */
+    public Boolean getVeg() {
+        return veg;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+}
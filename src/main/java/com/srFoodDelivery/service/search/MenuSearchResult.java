@@ -0,0 +1,85 @@
+package com.srFoodDelivery.service.search;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of matching menu item IDs plus facet counts.
+ *
+ * Facets are counted over the items matching the mode and search text, before the
+ * category, tag and veg filters, so every option shows how many items selecting it would give.
+ * The browse page shows the tag counts on its tag buttons.
+ */
+public class MenuSearchResult {
+
+    private final List<Long> itemIds;
+    private final int totalItems;
+    private final int page;
+    private final int size;
+    private final Map<String, Integer> categoryCounts;
+    private final Map<String, Integer> tagCounts;
+    private final int vegCount;
+    private final int nonVegCount;
+
+    public MenuSearchResult(List<Long> itemIds, int totalItems, int page, int size,
+            Map<String, Integer> categoryCounts, Map<String, Integer> tagCounts, int vegCount, int nonVegCount) {
+        this.itemIds = itemIds;
+        this.totalItems = totalItems;
+        this.page = page;
+        this.size = size;
+        this.categoryCounts = categoryCounts;
+        this.tagCounts = tagCounts;
+        this.vegCount = vegCount;
+        this.nonVegCount = nonVegCount;
+    }
+
+    /**
+     * IDs of the items on this page, in ID order.
+     */
+    public List<Long> getItemIds() {
+        return itemIds;
+    }
+
+    public int getTotalItems() {
+        return totalItems;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getTotalPages() {
+        return (totalItems + size - 1) / size;
+    }
+
+    public boolean hasNext() {
+        return page + 1 < getTotalPages();
+    }
+
+    public boolean hasPrevious() {
+        return page > 0;
+    }
+
+    /**
+     * Item count per category, in order of first appearance.
+     */
+    public Map<String, Integer> getCategoryCounts() {
+        return categoryCounts;
+    }
+
+    public Map<String, Integer> getTagCounts() {
+        return tagCounts;
+    }
+
+    public int getVegCount() {
+        return vegCount;
+    }
+
+    public int getNonVegCount() {
+        return nonVegCount;
+    }
+}
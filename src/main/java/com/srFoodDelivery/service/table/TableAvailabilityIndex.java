@@ -0,0 +1,244 @@
+package com.srFoodDelivery.service.table;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.srFoodDelivery.model.TableReservation;
+import com.srFoodDelivery.repository.TableReservationRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * In-memory index of active table reservations per restaurant and day.
+ *
+ * A day is loaded with one query the first time it is asked about. For each table it keeps
+ * the reservations sorted by start with a running maximum of their ends, so "is this table
+ * free for [start, end)" is a binary search, and listing every free table for a restaurant
+ * is a single pass over its tables with no further queries.
+ *
+ * Reservation changes made through {@link com.srFoodDelivery.service.TableService} are applied
+ * to loaded days after the transaction commits. Each change bumps the day's generation, so a
+ * load that raced with it is answered from but never published. Days also expire after
+ * tables.availability.ttl-seconds so changes made outside the service are picked up.
+ */
+@Component
+public class TableAvailabilityIndex {
+
+    private static final List<String> ACTIVE_STATUSES = List.of("PENDING", "CONFIRMED", "CHECKED_IN");
+
+    private final TableReservationRepository reservationRepository;
+    private final Map<DayKey, Day> days = new ConcurrentHashMap<>();
+    private final Map<DayKey, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final long ttlMillis;
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public TableAvailabilityIndex(TableReservationRepository reservationRepository,
+            MeterRegistry meterRegistry,
+            @Value("${tables.availability.ttl-seconds:600}") long ttlSeconds) {
+        this.reservationRepository = reservationRepository;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.hitCounter = Counter.builder("tables.availability.requests")
+                .description("Table availability lookups")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("tables.availability.requests")
+                .description("Table availability lookups")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("tables.availability.days", days, Map::size)
+                .description("Restaurant days held in the table availability index")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The active reservations of one restaurant on one day, loading them if needed.
+     */
+    public Day day(Long restaurantId, LocalDate date) {
+        DayKey key = new DayKey(restaurantId, date);
+        Day day = days.get(key);
+        if (day != null && System.currentTimeMillis() - day.loadedAt < ttlMillis) {
+            hitCounter.increment();
+            return day;
+        }
+
+        missCounter.increment();
+        long loadGeneration = generation(key).get();
+        List<Interval> intervals = new ArrayList<>();
+        for (TableReservationRepository.ReservationInterval row
+                : reservationRepository.findActiveIntervals(restaurantId, date)) {
+            intervals.add(Interval.of(row.getId(), row.getTableId(), row.getReservationTime(), row.getDurationMinutes()));
+        }
+        Day loaded = new Day(intervals, System.currentTimeMillis());
+        // Publish under the key's lock so a change committed during the load is never overwritten
+        days.compute(key, (k, current) -> generation(k).get() == loadGeneration ? loaded : current);
+        return loaded;
+    }
+
+    /**
+     * Applies a created or updated reservation to the index once the current transaction commits.
+     */
+    public void reservationChanged(TableReservation reservation) {
+        DayKey key = new DayKey(reservation.getRestaurant().getId(), reservation.getReservationDate());
+        Interval interval = Interval.of(reservation.getId(), reservation.getTable().getId(),
+                reservation.getReservationTime(), reservation.getDurationMinutes());
+        boolean active = ACTIVE_STATUSES.contains(reservation.getStatus());
+        afterCommit(() -> days.compute(key, (k, day) -> {
+            generation(k).incrementAndGet();
+            if (day == null) {
+                return null;
+            }
+            return active ? day.with(interval) : day.without(interval.reservationId());
+        }));
+    }
+
+    @Scheduled(fixedDelayString = "${tables.availability.sweep-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        days.entrySet().removeIf(entry -> now - entry.getValue().loadedAt >= ttlMillis);
+        // Past days take no more bookings, so their generations are no longer needed
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        generations.keySet().removeIf(key -> key.date().isBefore(yesterday) && !days.containsKey(key));
+    }
+
+    private AtomicLong generation(DayKey key) {
+        return generations.computeIfAbsent(key, k -> new AtomicLong());
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record DayKey(Long restaurantId, LocalDate date) {
+    }
+
+    /**
+     * A reservation as minutes from the start of its day; the end may run past midnight.
+     */
+    private record Interval(Long reservationId, Long tableId, int start, int end) {
+
+        static Interval of(Long reservationId, Long tableId, LocalTime time, Integer durationMinutes) {
+            int start = time.toSecondOfDay() / 60;
+            return new Interval(reservationId, tableId, start, start + (durationMinutes != null ? durationMinutes : 0));
+        }
+    }
+
+    /**
+     * Immutable snapshot of one restaurant day; changes produce a new Day.
+     */
+    public static final class Day {
+
+        private final Map<Long, TableSchedule> byTable;
+        private final long loadedAt;
+
+        private Day(List<Interval> intervals, long loadedAt) {
+            Map<Long, List<Interval>> grouped = new HashMap<>();
+            for (Interval interval : intervals) {
+                grouped.computeIfAbsent(interval.tableId(), id -> new ArrayList<>()).add(interval);
+            }
+            Map<Long, TableSchedule> schedules = new HashMap<>();
+            grouped.forEach((tableId, tableIntervals) -> schedules.put(tableId, new TableSchedule(tableIntervals)));
+            this.byTable = schedules;
+            this.loadedAt = loadedAt;
+        }
+
+        /**
+         * True if no active reservation on the table overlaps [time, time + durationMinutes).
+         */
+        public boolean isFree(Long tableId, LocalTime time, int durationMinutes) {
+            TableSchedule schedule = byTable.get(tableId);
+            if (schedule == null) {
+                return true;
+            }
+            int start = time.toSecondOfDay() / 60;
+            return !schedule.overlaps(start, start + durationMinutes);
+        }
+
+        private Day with(Interval interval) {
+            List<Interval> intervals = allExcept(interval.reservationId());
+            intervals.add(interval);
+            return new Day(intervals, loadedAt);
+        }
+
+        private Day without(Long reservationId) {
+            return new Day(allExcept(reservationId), loadedAt);
+        }
+
+        private List<Interval> allExcept(Long reservationId) {
+            List<Interval> intervals = new ArrayList<>();
+            for (TableSchedule schedule : byTable.values()) {
+                for (Interval interval : schedule.intervals) {
+                    if (!interval.reservationId().equals(reservationId)) {
+                        intervals.add(interval);
+                    }
+                }
+            }
+            return intervals;
+        }
+    }
+
+    /**
+     * One table's reservations sorted by start, with maxEnd[i] the latest end among the
+     * first i + 1. Overlap with [start, end) exists iff some reservation starting before end
+     * ends after start, i.e. iff maxEnd at the last such reservation is after start.
+     */
+    private static final class TableSchedule {
+
+        private final Interval[] intervals;
+        private final int[] maxEnd;
+
+        private TableSchedule(List<Interval> unsorted) {
+            this.intervals = unsorted.toArray(new Interval[0]);
+            Arrays.sort(intervals, Comparator.comparingInt(Interval::start));
+            this.maxEnd = new int[intervals.length];
+            int runningMax = Integer.MIN_VALUE;
+            for (int i = 0; i < intervals.length; i++) {
+                runningMax = Math.max(runningMax, intervals[i].end());
+                maxEnd[i] = runningMax;
+            }
+        }
+
+        private boolean overlaps(int start, int end) {
+            // Index of the last reservation starting before end
+            int low = 0;
+            int high = intervals.length - 1;
+            int last = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (intervals[mid].start() < end) {
+                    last = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return last >= 0 && maxEnd[last] > start;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.srFoodDelivery.websocket;
+
+import java.util.Map;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import com.srFoodDelivery.service.chat.PostedChatMessage;
+import com.srFoodDelivery.websocket.event.EventFrameEncoder;
+
+/**
+ * Delivers chat messages to the personal chat topics of the two participants, and nowhere else.
+ */
+@Component
+public class ChatWebSocketPublisher {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final EventFrameEncoder frameEncoder;
+
+    public ChatWebSocketPublisher(SimpMessagingTemplate messagingTemplate, EventFrameEncoder frameEncoder) {
+        this.messagingTemplate = messagingTemplate;
+        this.frameEncoder = frameEncoder;
+    }
+
+    /**
+     * Sends the message to the receiver and, as confirmation, to the sender.
+     */
+    public void publishToParticipants(PostedChatMessage message) {
+        Message<byte[]> frame = frameEncoder.encode(message);
+        if (frame == null) {
+            return;
+        }
+        messagingTemplate.send(userTopic(message.receiverId()), frame);
+        if (!message.senderId().equals(message.receiverId())) {
+            messagingTemplate.send(userTopic(message.senderId()), frame);
+        }
+    }
+
+    /**
+     * Tells the sender that a message could not be sent.
+     */
+    public void publishError(Long userId, String error) {
+        messagingTemplate.convertAndSend(userTopic(userId), Map.of("error", error));
+    }
+
+    private static String userTopic(Long userId) {
+        return "/topic/chat.user." + userId;
+    }
+}
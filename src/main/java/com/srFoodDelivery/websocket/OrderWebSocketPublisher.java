@@ -1,88 +1,102 @@
 package com.srFoodDelivery.websocket;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collection;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Component;
 
+import com.srFoodDelivery.websocket.event.EventEnvelope;
+import com.srFoodDelivery.websocket.event.EventFrameEncoder;
+import com.srFoodDelivery.websocket.event.OrderUpdatePayload;
+import com.srFoodDelivery.websocket.event.RiderLocationEvent;
+
+/**
+ * Publishes order events to STOMP topics. Every event is encoded once by the
+ * {@link EventFrameEncoder} and the same frame is sent to each of its destinations.
+ */
 @Component
 public class OrderWebSocketPublisher {
 
     private static final Logger logger = LoggerFactory.getLogger(OrderWebSocketPublisher.class);
 
     private final SimpMessagingTemplate messagingTemplate;
+    private final EventFrameEncoder frameEncoder;
 
-    public OrderWebSocketPublisher(SimpMessagingTemplate messagingTemplate) {
+    public OrderWebSocketPublisher(SimpMessagingTemplate messagingTemplate, EventFrameEncoder frameEncoder) {
         this.messagingTemplate = messagingTemplate;
+        this.frameEncoder = frameEncoder;
+    }
+
+    public static String userTopic(Long userId) {
+        return "/topic/user." + userId + ".orders";
+    }
+
+    public static String restaurantTopic(Long restaurantId) {
+        return "/topic/restaurant." + restaurantId;
     }
 
     /**
      * Broadcast order event to user's personal topic
      */
     public void publishToUser(Long userId, String event, Object payload) {
-        String destination = "/topic/user." + userId + ".orders";
-        Map<String, Object> message = createMessage(event, payload);
-        messagingTemplate.convertAndSend(destination, message);
-        logger.debug("Published to {}: event={}", destination, event);
+        send(EventEnvelope.of(event, payload), userTopic(userId));
     }
 
     /**
      * Broadcast order event to restaurant topic
      */
     public void publishToRestaurant(Long restaurantId, String event, Object payload) {
-        String destination = "/topic/restaurant." + restaurantId;
-        Map<String, Object> message = createMessage(event, payload);
-        messagingTemplate.convertAndSend(destination, message);
-        logger.debug("Published to {}: event={}", destination, event);
+        send(EventEnvelope.of(event, payload), restaurantTopic(restaurantId));
     }
 
     /**
      * Broadcast order event to rider topic
      */
     public void publishToRider(Long riderId, String event, Object payload) {
-        String destination = "/topic/rider." + riderId;
-        Map<String, Object> message = createMessage(event, payload);
-        messagingTemplate.convertAndSend(destination, message);
-        logger.debug("Published to {}: event={}", destination, event);
+        send(EventEnvelope.of(event, payload), "/topic/rider." + riderId);
+    }
+
+    /**
+     * Broadcast the same event to many rider topics.
+     */
+    public void publishToRiders(Collection<Long> riderIds, String event, Object payload) {
+        if (riderIds.isEmpty()) {
+            return;
+        }
+        send(EventEnvelope.of(event, payload), riderIds.stream().map(riderId -> "/topic/rider." + riderId).toList());
     }
 
     /**
-     * Broadcast rider location update for a specific multi-order
+     * RIDER_LOCATION_UPDATE frame, encoded once so it can be sent to any number of order topics.
+     * Coordinates keep the precision the rider app reported.
      */
-    public void publishRiderLocation(Long multiOrderId, Long riderId, Double lat, Double lon) {
-        String destination = "/topic/rider.locations." + multiOrderId;
-        Map<String, Object> location = new HashMap<>();
-        location.put("event", "RIDER_LOCATION_UPDATE");
-        location.put("riderId", riderId);
-        location.put("lat", lat);
-        location.put("lon", lon);
-        location.put("timestamp", System.currentTimeMillis());
-        
-        messagingTemplate.convertAndSend(destination, location);
-        logger.debug("Published rider location to {}: riderId={}, lat={}, lon={}", 
-                destination, riderId, lat, lon);
+    public Message<byte[]> riderLocationFrame(Long riderId, BigDecimal lat, BigDecimal lon, long timestamp) {
+        return frameEncoder.encode(new RiderLocationEvent(riderId, lat, lon, timestamp));
     }
 
     /**
-     * Broadcast generic order update
+     * Broadcast a rider location frame to a specific multi-order
+     */
+    public void publishRiderLocation(Long multiOrderId, Message<byte[]> frame) {
+        if (frame != null) {
+            messagingTemplate.send("/topic/rider.locations." + multiOrderId, frame);
+        }
+    }
+
+    /**
+     * Broadcast generic order update to the rider (if any), the general orders topic and the
+     * multi-order tracking topic
      */
     public void publishOrderUpdate(Long multiOrderId, Long subOrderId, String status, 
                                    Long riderId, Double lat, Double lon) {
-        Map<String, Object> payload = new HashMap<>();
-        payload.put("multiOrderId", multiOrderId);
-        payload.put("subOrderId", subOrderId);
-        payload.put("status", status);
-        if (riderId != null) {
-            payload.put("riderId", riderId);
-        }
-        if (lat != null && lon != null) {
-            payload.put("lat", lat);
-            payload.put("lon", lon);
-        }
-        payload.put("timestamp", System.currentTimeMillis());
+        boolean hasPosition = lat != null && lon != null;
+        OrderUpdatePayload payload = new OrderUpdatePayload(multiOrderId, subOrderId, status, riderId,
+                hasPosition ? lat : null, hasPosition ? lon : null, System.currentTimeMillis());
 
         // Determine event type from status
         String event = "ORDER_STATUS_UPDATE";
@@ -96,29 +110,28 @@ public class OrderWebSocketPublisher {
             event = "ORDER_DELIVERED";
         }
 
-        Map<String, Object> message = createMessage(event, payload);
-        
-        // Publish to user topic (if we have multiOrderId, we can look up user)
-        // Note: This requires MultiOrder lookup - for now, publish to general topic
-        // Publish to restaurant topic (if we have subOrderId, we can look up restaurant)
-        // Publish to rider topic (if riderId is provided)
+        // Customers subscribe to the general orders topic and to the multi-order topic for
+        // real-time tracking; the assigned rider gets the same frame on their own topic
         if (riderId != null) {
-            publishToRider(riderId, event, payload);
+            send(EventEnvelope.of(event, payload), "/topic/rider." + riderId, "/topic/orders",
+                    "/topic/multiorder." + multiOrderId);
+        } else {
+            send(EventEnvelope.of(event, payload), "/topic/orders", "/topic/multiorder." + multiOrderId);
         }
-        
-        // Publish to general orders topic (customers can subscribe to this)
-        messagingTemplate.convertAndSend("/topic/orders", message);
-        
-        // Also publish to multi-order specific topic for real-time tracking
-        messagingTemplate.convertAndSend("/topic/multiorder." + multiOrderId, message);
     }
 
-    private Map<String, Object> createMessage(String event, Object payload) {
-        Map<String, Object> message = new HashMap<>();
-        message.put("event", event);
-        message.put("payload", payload);
-        message.put("timestamp", System.currentTimeMillis());
-        return message;
+    private void send(EventEnvelope envelope, String... destinations) {
+        send(envelope, Arrays.asList(destinations));
     }
-}
 
+    private void send(EventEnvelope envelope, Collection<String> destinations) {
+        Message<byte[]> frame = frameEncoder.encode(envelope);
+        if (frame == null) {
+            return;
+        }
+        for (String destination : destinations) {
+            messagingTemplate.send(destination, frame);
+        }
+        logger.debug("Published {} to {} destinations", envelope.event(), destinations.size());
+    }
+}
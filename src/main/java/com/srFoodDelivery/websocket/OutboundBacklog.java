@@ -0,0 +1,215 @@
+package com.srFoodDelivery.websocket;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+/**
+ * Counts MESSAGE frames per destination that are on their way to a session but not yet written
+ * to it. A destination whose subscribers read slowly builds up a backlog here, so publishers can
+ * hold back non-urgent frames for it instead of adding to it.
+ *
+ * A frame is counted when it enters the client outbound channel and stays counted until the
+ * write to its session returns. Frames handed to a session pile up in that session's send buffer
+ * while a write to a slow client blocks, so the count covers the buffer as well as the channel
+ * queue. Writes are seen through a decorator on each session, installed as a WebSocket handler
+ * decorator; the destination of a written frame is read from its STOMP headers. Frames still
+ * counted when a session closes are released with it.
+ */
+@Component
+public class OutboundBacklog implements ChannelInterceptor, WebSocketHandlerDecoratorFactory {
+
+    // STOMP headers come first in a frame; the destination is well within this
+    private static final int MAX_HEADER_CHARS = 1024;
+    private static final String MESSAGE_COMMAND = "MESSAGE";
+    private static final String DESTINATION_HEADER = "destination:";
+
+    private final Map<String, Integer> unwritten = new ConcurrentHashMap<>();
+    private final Map<String, SessionBacklog> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * Frames for the destination that are waiting to be written.
+     */
+    public int get(String destination) {
+        return unwritten.getOrDefault(destination, 0);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        String destination = trackedDestination(message);
+        SessionBacklog session = sessionOf(message);
+        if (destination != null && session != null) {
+            session.add(destination);
+        }
+        return message;
+    }
+
+    @Override
+    public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+        if (!sent) {
+            // Rejected before it was queued; it will never be written
+            String destination = trackedDestination(message);
+            SessionBacklog session = sessionOf(message);
+            if (destination != null && session != null) {
+                session.remove(destination);
+            }
+        }
+    }
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                sessions.put(session.getId(), new SessionBacklog());
+                super.afterConnectionEstablished(new WrittenFrames(session));
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                try {
+                    super.afterConnectionClosed(session, closeStatus);
+                } finally {
+                    SessionBacklog backlog = sessions.remove(session.getId());
+                    if (backlog != null) {
+                        backlog.close();
+                    }
+                }
+            }
+        };
+    }
+
+    private void written(String sessionId, WebSocketMessage<?> message) {
+        SessionBacklog session = sessions.get(sessionId);
+        if (session == null) {
+            return;
+        }
+        String destination = writtenDestination(message);
+        if (destination != null) {
+            session.remove(destination);
+        }
+    }
+
+    private void release(String destination, int count) {
+        unwritten.computeIfPresent(destination, (key, current) -> current > count ? current - count : null);
+    }
+
+    private SessionBacklog sessionOf(Message<?> message) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        return sessionId != null ? sessions.get(sessionId) : null;
+    }
+
+    private static String trackedDestination(Message<?> message) {
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE) {
+            return null;
+        }
+        // A user destination is written with the destination the client subscribed to
+        Object original = message.getHeaders().get(SimpMessageHeaderAccessor.ORIGINAL_DESTINATION);
+        return original instanceof String destination ? destination
+                : SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+    }
+
+    /**
+     * The destination header of a STOMP MESSAGE frame, or null for any other frame.
+     */
+    static String writtenDestination(WebSocketMessage<?> message) {
+        String head;
+        if (message instanceof TextMessage text) {
+            String payload = text.getPayload();
+            head = payload.substring(0, Math.min(payload.length(), MAX_HEADER_CHARS));
+        } else if (message instanceof BinaryMessage binary) {
+            ByteBuffer payload = binary.getPayload().duplicate();
+            byte[] bytes = new byte[Math.min(payload.remaining(), MAX_HEADER_CHARS)];
+            payload.get(bytes);
+            head = new String(bytes, StandardCharsets.UTF_8);
+        } else {
+            return null;
+        }
+
+        String[] lines = head.split("\r?\n", -1);
+        if (!MESSAGE_COMMAND.equals(lines[0])) {
+            return null;
+        }
+        for (int i = 1; i < lines.length && !lines[i].isEmpty(); i++) {
+            if (lines[i].startsWith(DESTINATION_HEADER)) {
+                return lines[i].substring(DESTINATION_HEADER.length());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Frames per destination counted for one session. Guarded by its own monitor, which also
+     * covers the matching change to the per-destination totals, so a frame counted while the
+     * session closes is still released.
+     */
+    private final class SessionBacklog {
+        private final Map<String, Integer> frames = new HashMap<>();
+        private boolean closed;
+
+        private synchronized void add(String destination) {
+            if (closed) {
+                return;
+            }
+            frames.merge(destination, 1, Integer::sum);
+            unwritten.merge(destination, 1, Integer::sum);
+        }
+
+        private synchronized void remove(String destination) {
+            Integer count = frames.get(destination);
+            if (count == null) {
+                return;
+            }
+            if (count > 1) {
+                frames.put(destination, count - 1);
+            } else {
+                frames.remove(destination);
+            }
+            release(destination, 1);
+        }
+
+        private synchronized void close() {
+            closed = true;
+            frames.forEach(OutboundBacklog.this::release);
+            frames.clear();
+        }
+    }
+
+    /**
+     * Releases a frame once the write to the client returns.
+     */
+    private final class WrittenFrames extends WebSocketSessionDecorator {
+
+        private WrittenFrames(WebSocketSession session) {
+            super(session);
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            try {
+                super.sendMessage(message);
+            } finally {
+                written(getId(), message);
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.srFoodDelivery.websocket.event;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Payload of BOARD_UPSERT and BOARD_REMOVE events on a restaurant's topic: one sub order joined,
+ * changed on or left the owner's live order board. lane is DELIVERY or PREORDER and is left out
+ * when the board does not know it; status is left out when the sub order was deleted.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BoardChangePayload(Long subOrderId, String lane, String status) {
+}
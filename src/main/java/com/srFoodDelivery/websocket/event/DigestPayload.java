@@ -0,0 +1,11 @@
+package com.srFoodDelivery.websocket.event;
+
+import java.util.List;
+
+/**
+ * Payload of *_DIGEST events, sent instead of one frame per event when several arrive within one
+ * interval. count is the number of events collapsed; latest holds the most recent payloads,
+ * newest first, and may be shorter than count.
+ */
+public record DigestPayload(int count, String summary, List<Object> latest) {
+}
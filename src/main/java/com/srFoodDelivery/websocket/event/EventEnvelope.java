@@ -0,0 +1,11 @@
+package com.srFoodDelivery.websocket.event;
+
+/**
+ * The {event, payload, timestamp} wrapper every order, restaurant and rider topic receives.
+ */
+public record EventEnvelope(String event, Object payload, long timestamp) {
+
+    public static EventEnvelope of(String event, Object payload) {
+        return new EventEnvelope(event, payload, System.currentTimeMillis());
+    }
+}
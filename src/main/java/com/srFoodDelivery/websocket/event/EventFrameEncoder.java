@@ -0,0 +1,54 @@
+package com.srFoodDelivery.websocket.event;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Turns an event into a ready-to-send JSON frame.
+ *
+ * An event is serialized once and the frame can then be sent to any number of destinations;
+ * SimpMessagingTemplate passes byte[] payloads through without converting them again. Writers
+ * are cached per event class so the serializer lookup also happens once per type rather than
+ * once per message.
+ */
+@Component
+public class EventFrameEncoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventFrameEncoder.class);
+
+    private final ObjectMapper objectMapper;
+    private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    public EventFrameEncoder(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * The event as a JSON frame, or null if it cannot be serialized.
+     */
+    public Message<byte[]> encode(Object event) {
+        ObjectWriter writer = writers.computeIfAbsent(event.getClass(), objectMapper::writerFor);
+        byte[] body;
+        try {
+            body = writer.writeValueAsBytes(event);
+        } catch (JsonProcessingException e) {
+            logger.error("Failed to serialize {}: {}", event.getClass().getSimpleName(), e.getMessage());
+            return null;
+        }
+        return MessageBuilder.withPayload(body)
+                .setHeader(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.APPLICATION_JSON)
+                .build();
+    }
+}
@@ -0,0 +1,17 @@
+package com.srFoodDelivery.websocket.event;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Payload of order status events. The rider and position are left out when unknown.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record OrderUpdatePayload(
+        Long multiOrderId,
+        Long subOrderId,
+        String status,
+        Long riderId,
+        Double lat,
+        Double lon,
+        long timestamp) {
+}
@@ -0,0 +1,16 @@
+package com.srFoodDelivery.websocket.event;
+
+import java.math.BigDecimal;
+
+/**
+ * Rider position sent to order tracking topics. Flat rather than wrapped in an
+ * {@link EventEnvelope}, as tracking pages have always read lat and lon at the top level.
+ */
+public record RiderLocationEvent(String event, Long riderId, BigDecimal lat, BigDecimal lon, long timestamp) {
+
+    public static final String EVENT = "RIDER_LOCATION_UPDATE";
+
+    public RiderLocationEvent(Long riderId, BigDecimal lat, BigDecimal lon, long timestamp) {
+        this(EVENT, riderId, lat, lon, timestamp);
+    }
+}
@@ -0,0 +1,11 @@
+-- Migration: Rider offer expiry
+-- Version: V20
+-- Description: Lets offers be bulk-marked EXPIRED. The old unique key covered (sub_order_id, rider_id, status),
+-- so a rider could only ever hold one EXPIRED or REJECTED offer per suborder. Uniqueness now applies to
+-- PENDING offers only, via a generated column that is NULL for every other status.
+
+ALTER TABLE rider_offer
+ADD COLUMN pending_flag TINYINT AS (CASE WHEN status = 'PENDING' THEN 1 END) STORED,
+DROP INDEX unique_active_offer,
+ADD UNIQUE KEY unique_pending_offer (sub_order_id, rider_id, pending_flag),
+ADD INDEX idx_status_expires_at (status, expires_at);
@@ -0,0 +1,6 @@
+-- Migration: Index for order status progression
+-- Version: V21
+-- Description: Lets OrderStatusScheduler find due, non-terminal orders by (status, created_at) instead of scanning all orders
+
+ALTER TABLE orders
+ADD INDEX idx_orders_status_created_at (status, created_at);
@@ -0,0 +1,10 @@
+-- Migration: Indexes for paged order history
+-- Version: V24
+-- Description: Lets the order history pages seek to (user_id, created_at, id) and read the next page
+--              in index order instead of sorting the user's whole history on every request
+
+ALTER TABLE multi_order
+ADD INDEX idx_multi_order_user_created_at (user_id, created_at, id);
+
+ALTER TABLE orders
+ADD INDEX idx_orders_user_created_at (user_id, created_at, id);
@@ -0,0 +1,17 @@
+-- Migration: Stored reservation end time
+-- Version: V25
+-- Description: Stores when each table reservation ends so conflict checks compare plain columns
+--              (and can use an index) instead of computing ADDTIME(reservation_time, duration) per row
+
+ALTER TABLE table_reservation
+ADD COLUMN reservation_end_at DATETIME NULL AFTER duration_minutes;
+
+UPDATE table_reservation
+SET reservation_end_at = TIMESTAMP(reservation_date, reservation_time) + INTERVAL duration_minutes MINUTE;
+
+ALTER TABLE table_reservation
+MODIFY COLUMN reservation_end_at DATETIME NOT NULL;
+
+ALTER TABLE table_reservation
+ADD INDEX idx_table_date_end (table_id, reservation_date, reservation_end_at),
+ADD INDEX idx_restaurant_date (restaurant_id, reservation_date);
@@ -0,0 +1,47 @@
+-- Migration: Chat message room sequence numbers
+-- Version: V26
+-- Description: Links every chat message to its room and numbers the messages of a room 1, 2, 3, ...
+--              so messages can be written in batches and still be read back in send order
+
+ALTER TABLE chat_room
+ADD COLUMN last_seq BIGINT NOT NULL DEFAULT 0 AFTER last_message_at;
+
+ALTER TABLE chat_message
+ADD COLUMN room_id BIGINT NULL AFTER id,
+ADD COLUMN seq BIGINT NULL AFTER room_id;
+
+-- Rooms are matched the way the application looks them up: same two participants in either
+-- order, and the same sub order, or the same order when the message has no sub order
+UPDATE chat_message cm
+JOIN (
+    SELECT m.id AS message_id, MIN(r.id) AS room_id
+    FROM chat_message m
+    JOIN chat_room r
+      ON ((r.participant1_id = m.sender_id AND r.participant2_id = m.receiver_id)
+       OR (r.participant1_id = m.receiver_id AND r.participant2_id = m.sender_id))
+     AND ((m.sub_order_id IS NOT NULL AND r.sub_order_id = m.sub_order_id)
+       OR (m.sub_order_id IS NULL AND r.order_id <=> m.order_id))
+    GROUP BY m.id
+) matched ON matched.message_id = cm.id
+SET cm.room_id = matched.room_id;
+
+UPDATE chat_message cm
+JOIN (
+    SELECT id, ROW_NUMBER() OVER (PARTITION BY room_id ORDER BY created_at, id) AS seq
+    FROM chat_message
+    WHERE room_id IS NOT NULL
+) numbered ON numbered.id = cm.id
+SET cm.seq = numbered.seq;
+
+UPDATE chat_room r
+JOIN (
+    SELECT room_id, MAX(seq) AS last_seq
+    FROM chat_message
+    WHERE room_id IS NOT NULL
+    GROUP BY room_id
+) latest ON latest.room_id = r.id
+SET r.last_seq = latest.last_seq;
+
+ALTER TABLE chat_message
+ADD CONSTRAINT fk_chat_message_room FOREIGN KEY (room_id) REFERENCES chat_room(id) ON DELETE CASCADE,
+ADD UNIQUE INDEX uk_chat_message_room_seq (room_id, seq);
@@ -0,0 +1,18 @@
+-- Migration: Unread counters per user
+-- Version: V27
+-- Description: Summary table holding each user's unread chat message and notification counts, so
+--              badges read one row instead of counting unread rows on every page render
+
+CREATE TABLE IF NOT EXISTS user_unread_counter (
+    user_id BIGINT PRIMARY KEY,
+    unread_chat_messages INT NOT NULL DEFAULT 0,
+    unread_notifications INT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+INSERT INTO user_unread_counter (user_id, unread_chat_messages, unread_notifications)
+SELECT u.id,
+       (SELECT COUNT(*) FROM chat_message cm WHERE cm.receiver_id = u.id AND cm.is_read = FALSE),
+       (SELECT COUNT(*) FROM notification n WHERE n.user_id = u.id AND n.is_read = FALSE)
+FROM users u;
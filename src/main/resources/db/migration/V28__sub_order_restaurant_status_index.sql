@@ -0,0 +1,7 @@
+-- Migration: Restaurant order board index
+-- Version: V28
+-- Description: Lets the owner's live order board load a restaurant's active sub orders without
+--              reading every delivered, completed, cancelled or rejected one it has ever had
+
+ALTER TABLE sub_order
+ADD INDEX idx_restaurant_status (restaurant_id, status);
@@ -0,0 +1,10 @@
+-- Migration: Restaurant order board version
+-- Version: V29
+-- Description: A counter per restaurant, bumped on every sub order status change, so a node can
+--              tell with one primary key read whether its live order board has missed a change
+
+CREATE TABLE IF NOT EXISTS restaurant_board_version (
+    restaurant_id BIGINT PRIMARY KEY,
+    version BIGINT NOT NULL DEFAULT 0,
+    FOREIGN KEY (restaurant_id) REFERENCES restaurants(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,223 @@
+package com.srFoodDelivery.config;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Minimal in-process STOMP 1.2 broker for tests, standing in for the broker that nodes
+ * share in relay mode. Handles CONNECT, SUBSCRIBE, UNSUBSCRIBE, SEND and DISCONNECT and
+ * delivers every SEND to all subscriptions on the same destination, whichever connection
+ * made them. No heartbeats, acknowledgements or transactions.
+ */
+public class FakeStompBroker implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final List<Connection> connections = new CopyOnWriteArrayList<>();
+    private final AtomicLong messageIds = new AtomicLong();
+
+    public FakeStompBroker() throws IOException {
+        serverSocket = new ServerSocket(0);
+        Thread acceptor = new Thread(this::acceptLoop, "fake-stomp");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    /**
+     * Number of subscriptions to the destination across all connections.
+     */
+    public long getSubscriptionCount(String destination) {
+        return connections.stream()
+                .flatMap(connection -> connection.subscriptions.values().stream())
+                .filter(destination::equals)
+                .count();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Connection connection : connections) {
+            connection.close();
+        }
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Connection connection = new Connection(serverSocket.accept());
+                connections.add(connection);
+                Thread handler = new Thread(connection::readLoop, "fake-stomp-session");
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                // Server socket closed
+            }
+        }
+    }
+
+    private void deliver(Frame send) {
+        String destination = send.headers.get("destination");
+        for (Connection connection : connections) {
+            connection.subscriptions.forEach((subscriptionId, subscribed) -> {
+                if (!subscribed.equals(destination)) {
+                    return;
+                }
+                Map<String, String> headers = new LinkedHashMap<>();
+                headers.put("subscription", subscriptionId);
+                headers.put("message-id", String.valueOf(messageIds.incrementAndGet()));
+                headers.put("destination", destination);
+                if (send.headers.containsKey("content-type")) {
+                    headers.put("content-type", send.headers.get("content-type"));
+                }
+                connection.write("MESSAGE", headers, send.body);
+            });
+        }
+    }
+
+    private final class Connection {
+
+        private final Socket socket;
+        private final Map<String, String> subscriptions = new ConcurrentHashMap<>();
+
+        private Connection(Socket socket) {
+            this.socket = socket;
+        }
+
+        private void readLoop() {
+            try (InputStream in = new BufferedInputStream(socket.getInputStream())) {
+                Frame frame;
+                while ((frame = Frame.read(in)) != null) {
+                    if (!handle(frame)) {
+                        return;
+                    }
+                }
+            } catch (IOException e) {
+                // Client went away
+            } finally {
+                close();
+            }
+        }
+
+        private boolean handle(Frame frame) {
+            switch (frame.command) {
+                case "CONNECT", "STOMP" -> write("CONNECTED", Map.of("version", "1.2", "heart-beat", "0,0"), new byte[0]);
+                case "SUBSCRIBE" -> subscriptions.put(frame.headers.get("id"), frame.headers.get("destination"));
+                case "UNSUBSCRIBE" -> subscriptions.remove(frame.headers.get("id"));
+                case "SEND" -> deliver(frame);
+                default -> {
+                }
+            }
+            String receipt = frame.headers.get("receipt");
+            if (receipt != null) {
+                write("RECEIPT", Map.of("receipt-id", receipt), new byte[0]);
+            }
+            return !"DISCONNECT".equals(frame.command);
+        }
+
+        private synchronized void write(String command, Map<String, String> headers, byte[] body) {
+            StringBuilder head = new StringBuilder(command).append('\n');
+            headers.forEach((name, value) -> head.append(name).append(':').append(value).append('\n'));
+            head.append("content-length:").append(body.length).append("\n\n");
+            try {
+                OutputStream out = socket.getOutputStream();
+                out.write(head.toString().getBytes(StandardCharsets.UTF_8));
+                out.write(body);
+                out.write(0);
+                out.flush();
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        private void close() {
+            connections.remove(this);
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Already closed
+            }
+        }
+    }
+
+    private static final class Frame {
+
+        private final String command;
+        private final Map<String, String> headers;
+        private final byte[] body;
+
+        private Frame(String command, Map<String, String> headers, byte[] body) {
+            this.command = command;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        /**
+         * Reads the next frame, skipping heartbeat newlines. Returns null at end of stream.
+         */
+        private static Frame read(InputStream in) throws IOException {
+            String command;
+            do {
+                command = readLine(in);
+                if (command == null) {
+                    return null;
+                }
+            } while (command.isEmpty());
+
+            Map<String, String> headers = new LinkedHashMap<>();
+            String line;
+            while ((line = readLine(in)) != null && !line.isEmpty()) {
+                int colon = line.indexOf(':');
+                // STOMP 1.2: the first occurrence of a repeated header wins
+                headers.putIfAbsent(line.substring(0, colon), line.substring(colon + 1));
+            }
+
+            byte[] body;
+            String contentLength = headers.get("content-length");
+            if (contentLength != null) {
+                body = in.readNBytes(Integer.parseInt(contentLength));
+                in.read(); // terminating NUL
+            } else {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                int b;
+                while ((b = in.read()) > 0) {
+                    buffer.write(b);
+                }
+                body = buffer.toByteArray();
+            }
+            return new Frame(command, headers, body);
+        }
+
+        private static String readLine(InputStream in) throws IOException {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int b;
+            while ((b = in.read()) != '\n') {
+                if (b == -1) {
+                    return null;
+                }
+                if (b != '\r') {
+                    line.write(b);
+                }
+            }
+            return line.toString(StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.srFoodDelivery.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+
+import com.srFoodDelivery.main.SRfoodDeliveryApplication;
+import com.srFoodDelivery.websocket.OrderWebSocketPublisher;
+
+/**
+ * Runs two application nodes in relay mode against one in-process STOMP broker and checks
+ * that a session on node A receives what node B publishes. The session is driven through
+ * node A's client channels directly, so no WebSocket login is needed.
+ */
+public class MultiNodeBrokerRelayTest {
+
+    private static final String SESSION_ID = "relay-test-session";
+    private static final long RIDER_ID = 4242L;
+    private static final String DESTINATION = "/topic/rider." + RIDER_ID;
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    private static FakeStompBroker broker;
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    public static void startNodes() throws IOException {
+        broker = new FakeStompBroker();
+        nodeA = startNode();
+        nodeB = startNode();
+    }
+
+    @AfterAll
+    public static void stopNodes() throws IOException {
+        if (nodeA != null) {
+            nodeA.close();
+        }
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        broker.close();
+    }
+
+    @Test
+    public void testSessionOnOneNodeReceivesOfferPublishedOnAnother() throws Exception {
+        awaitTrue(() -> relay(nodeA).isBrokerAvailable() && relay(nodeB).isBrokerAvailable(),
+                "Both nodes should connect to the shared broker");
+
+        BlockingQueue<Message<?>> toClient = new LinkedBlockingQueue<>();
+        nodeA.getBean("clientOutboundChannel", AbstractSubscribableChannel.class)
+                .addInterceptor(new ChannelInterceptor() {
+                    @Override
+                    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                        if (SESSION_ID.equals(StompHeaderAccessor.wrap(message).getSessionId())) {
+                            toClient.add(message);
+                        }
+                        return message;
+                    }
+                });
+        MessageChannel fromClient = nodeA.getBean("clientInboundChannel", MessageChannel.class);
+
+        StompHeaderAccessor connect = StompHeaderAccessor.create(StompCommand.CONNECT);
+        connect.setAcceptVersion("1.2");
+        connect.setHeartbeat(0, 0);
+        fromClient.send(clientFrame(connect));
+        assertEquals(StompCommand.CONNECTED, StompHeaderAccessor.wrap(nextFrame(toClient)).getCommand());
+
+        StompHeaderAccessor subscribe = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        subscribe.setDestination(DESTINATION);
+        subscribe.setSubscriptionId("sub-0");
+        fromClient.send(clientFrame(subscribe));
+        awaitTrue(() -> broker.getSubscriptionCount(DESTINATION) == 1,
+                "The subscription made on node A should reach the broker");
+
+        nodeB.getBean(OrderWebSocketPublisher.class)
+                .publishToRider(RIDER_ID, "NEW_ORDER_OFFER", Map.of("subOrderId", 7));
+
+        Message<?> delivered = nextFrame(toClient);
+        StompHeaderAccessor headers = StompHeaderAccessor.wrap(delivered);
+        assertEquals(StompCommand.MESSAGE, headers.getCommand());
+        assertEquals(DESTINATION, headers.getDestination());
+        assertEquals("sub-0", headers.getSubscriptionId());
+        String body = new String((byte[]) delivered.getPayload(), StandardCharsets.UTF_8);
+        assertTrue(body.contains("NEW_ORDER_OFFER"), "Unexpected body: " + body);
+
+        fromClient.send(clientFrame(StompHeaderAccessor.create(StompCommand.DISCONNECT)));
+        awaitTrue(() -> broker.getSubscriptionCount(DESTINATION) == 0,
+                "Disconnecting on node A should close its broker session");
+    }
+
+    private static ConfigurableApplicationContext startNode() {
+        return new SpringApplicationBuilder(SRfoodDeliveryApplication.class)
+                .profiles("test")
+                .properties(
+                        "server.port=0",
+                        "websocket.broker.mode=relay",
+                        "websocket.broker.relay.host=localhost",
+                        "websocket.broker.relay.port=" + broker.getPort())
+                .run();
+    }
+
+    private static AbstractBrokerMessageHandler relay(ConfigurableApplicationContext node) {
+        return node.getBean("stompBrokerRelayMessageHandler", AbstractBrokerMessageHandler.class);
+    }
+
+    private static Message<byte[]> clientFrame(StompHeaderAccessor accessor) {
+        accessor.setSessionId(SESSION_ID);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    /**
+     * The next frame sent to the test session, skipping heartbeats.
+     */
+    private static Message<?> nextFrame(BlockingQueue<Message<?>> toClient) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            Message<?> message = toClient.poll(deadline - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+            if (message != null && StompHeaderAccessor.wrap(message).getCommand() != null) {
+                return message;
+            }
+        }
+        return fail("No frame reached the client within " + TIMEOUT_MILLIS + " ms");
+    }
+
+    private static void awaitTrue(BooleanSupplier condition, String message) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail(message);
+            }
+            Thread.sleep(50);
+        }
+    }
+}
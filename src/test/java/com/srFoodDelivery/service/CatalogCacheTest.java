@@ -0,0 +1,219 @@
+package com.srFoodDelivery.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.srFoodDelivery.dto.RestaurantForm;
+import com.srFoodDelivery.model.Restaurant;
+import com.srFoodDelivery.model.SiteMode;
+import com.srFoodDelivery.model.User;
+import com.srFoodDelivery.repository.RestaurantRepository;
+import com.srFoodDelivery.repository.RestaurantTableRepository;
+import com.srFoodDelivery.service.CatalogCache.Catalog;
+import com.srFoodDelivery.service.restaurant.RestaurantDeletionEngine;
+import com.srFoodDelivery.service.search.MenuSearchIndex;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Which cached catalog lists an edit drops, and when. Loaders count their calls, so a
+ * reload after an edit shows up as a second load.
+ */
+public class CatalogCacheTest {
+
+    private CatalogCache cache;
+
+    @BeforeEach
+    public void setUp() {
+        cache = new CatalogCache(new SimpleMeterRegistry(), 300, 16);
+    }
+
+    @Test
+    public void testListIsLoadedOnceUntilInvalidated() {
+        CountingLoader loader = new CountingLoader();
+
+        cache.get(Catalog.MENU_ITEMS, SiteMode.RESTAURANT, loader);
+        cache.get(Catalog.MENU_ITEMS, SiteMode.RESTAURANT, loader);
+        assertEquals(1, loader.loads());
+
+        cache.invalidate(Catalog.MENU_ITEMS, SiteMode.RESTAURANT);
+        cache.get(Catalog.MENU_ITEMS, SiteMode.RESTAURANT, loader);
+
+        assertEquals(2, loader.loads());
+    }
+
+    @Test
+    public void testMenuEditDropsOnlyItsCatalogAndMode() {
+        CountingLoader cafeItems = new CountingLoader();
+        CountingLoader restaurantItems = new CountingLoader();
+        CountingLoader cafeRestaurants = new CountingLoader();
+        cache.get(Catalog.MENU_ITEMS, SiteMode.CAFE, cafeItems);
+        cache.get(Catalog.MENU_ITEMS, SiteMode.RESTAURANT, restaurantItems);
+        cache.get(Catalog.RESTAURANTS, SiteMode.CAFE, cafeRestaurants);
+
+        // A cafe's menu item was edited
+        cache.invalidate(Catalog.MENU_ITEMS, true);
+        cache.get(Catalog.MENU_ITEMS, SiteMode.CAFE, cafeItems);
+        cache.get(Catalog.MENU_ITEMS, SiteMode.RESTAURANT, restaurantItems);
+        cache.get(Catalog.RESTAURANTS, SiteMode.CAFE, cafeRestaurants);
+
+        assertEquals(2, cafeItems.loads());
+        assertEquals(1, restaurantItems.loads());
+        assertEquals(1, cafeRestaurants.loads());
+    }
+
+    @Test
+    public void testRestaurantEditDropsBothListsOfItsMode() {
+        CountingLoader restaurants = new CountingLoader();
+        CountingLoader items = new CountingLoader();
+        CountingLoader cafeRestaurants = new CountingLoader();
+        cache.get(Catalog.RESTAURANTS, SiteMode.RESTAURANT, restaurants);
+        cache.get(Catalog.MENU_ITEMS, SiteMode.RESTAURANT, items);
+        cache.get(Catalog.RESTAURANTS, SiteMode.CAFE, cafeRestaurants);
+
+        cache.invalidateRestaurant(false);
+        cache.get(Catalog.RESTAURANTS, SiteMode.RESTAURANT, restaurants);
+        cache.get(Catalog.MENU_ITEMS, SiteMode.RESTAURANT, items);
+        cache.get(Catalog.RESTAURANTS, SiteMode.CAFE, cafeRestaurants);
+
+        assertEquals(2, restaurants.loads());
+        assertEquals(2, items.loads());
+        assertEquals(1, cafeRestaurants.loads());
+    }
+
+    @Test
+    public void testRestaurantSwitchingModeDropsBothModes() {
+        CountingLoader restaurantMode = new CountingLoader();
+        CountingLoader cafeMode = new CountingLoader();
+        cache.get(Catalog.RESTAURANTS, SiteMode.RESTAURANT, restaurantMode);
+        cache.get(Catalog.RESTAURANTS, SiteMode.CAFE, cafeMode);
+
+        User owner = new User();
+        owner.setId(5L);
+        Restaurant restaurant = new Restaurant();
+        restaurant.setId(1L);
+        restaurant.setOwner(owner);
+        restaurant.setCafeLounge(false);
+        RestaurantRepository restaurantRepository = mock(RestaurantRepository.class);
+        when(restaurantRepository.findById(1L)).thenReturn(Optional.of(restaurant));
+        when(restaurantRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        RestaurantService restaurantService = new RestaurantService(restaurantRepository, mock(ImageService.class),
+                mock(RestaurantTableRepository.class), mock(RestaurantDeletionEngine.class), cache,
+                mock(MenuSearchIndex.class));
+        RestaurantForm form = new RestaurantForm();
+        form.setName("Corner Cafe");
+        form.setImageUrl("https://example.com/cafe.jpg");
+        form.setBusinessType("CAFE");
+
+        restaurantService.updateRestaurant(1L, form, owner);
+        cache.get(Catalog.RESTAURANTS, SiteMode.RESTAURANT, restaurantMode);
+        cache.get(Catalog.RESTAURANTS, SiteMode.CAFE, cafeMode);
+
+        assertEquals(2, restaurantMode.loads(), "The restaurant left this list");
+        assertEquals(2, cafeMode.loads(), "The restaurant joined this list");
+    }
+
+    @Test
+    public void testInvalidationInsideATransactionWaitsForCommit() {
+        CountingLoader loader = new CountingLoader();
+        cache.get(Catalog.MENU_ITEMS, SiteMode.RESTAURANT, loader);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.invalidate(Catalog.MENU_ITEMS, SiteMode.RESTAURANT);
+            cache.get(Catalog.MENU_ITEMS, SiteMode.RESTAURANT, loader);
+            assertEquals(1, loader.loads(), "Not committed yet");
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        cache.get(Catalog.MENU_ITEMS, SiteMode.RESTAURANT, loader);
+
+        assertEquals(2, loader.loads());
+    }
+
+    @Test
+    public void testRolledBackEditKeepsTheList() {
+        CountingLoader loader = new CountingLoader();
+        cache.get(Catalog.MENU_ITEMS, SiteMode.RESTAURANT, loader);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.invalidateAll(Catalog.MENU_ITEMS);
+            TransactionSynchronizationManager.getSynchronizations().forEach(
+                    sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        cache.get(Catalog.MENU_ITEMS, SiteMode.RESTAURANT, loader);
+
+        assertEquals(1, loader.loads());
+    }
+
+    @Test
+    public void testLoadRacingAnEditIsNotCached() {
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<List<String>> racingLoader = () -> {
+            if (loads.incrementAndGet() == 1) {
+                // The edit commits after this load read the table
+                cache.invalidate(Catalog.MENU_ITEMS, SiteMode.RESTAURANT);
+                return List.of("stale");
+            }
+            return List.of("fresh");
+        };
+
+        assertEquals(List.of("stale"), cache.get(Catalog.MENU_ITEMS, SiteMode.RESTAURANT, racingLoader));
+
+        assertEquals(List.of("fresh"), cache.get(Catalog.MENU_ITEMS, SiteMode.RESTAURANT, racingLoader));
+    }
+
+    @Test
+    public void testOfferChangeReloadsThroughTheStamp() {
+        CountingLoader loader = new CountingLoader();
+        Object offersBefore = new Object();
+        Object offersAfter = new Object();
+
+        cache.get(Catalog.MENU_ITEMS, SiteMode.RESTAURANT, offersBefore, loader);
+        cache.get(Catalog.MENU_ITEMS, SiteMode.RESTAURANT, offersBefore, loader);
+        cache.get(Catalog.MENU_ITEMS, SiteMode.RESTAURANT, offersAfter, loader);
+
+        assertEquals(2, loader.loads());
+    }
+
+    @Test
+    public void testExpiredListIsReloaded() {
+        cache = new CatalogCache(new SimpleMeterRegistry(), 0, 16);
+        CountingLoader loader = new CountingLoader();
+
+        cache.get(Catalog.RESTAURANTS, SiteMode.RESTAURANT, loader);
+        cache.get(Catalog.RESTAURANTS, SiteMode.RESTAURANT, loader);
+
+        assertEquals(2, loader.loads());
+    }
+
+    private static final class CountingLoader implements Supplier<List<String>> {
+        private final AtomicInteger loads = new AtomicInteger();
+
+        @Override
+        public List<String> get() {
+            return List.of("load-" + loads.incrementAndGet());
+        }
+
+        int loads() {
+            return loads.get();
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.srFoodDelivery.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.srFoodDelivery.main.SRfoodDeliveryApplication;
+import com.srFoodDelivery.model.User;
+import com.srFoodDelivery.repository.NotificationRepository;
+import com.srFoodDelivery.repository.UserRepository;
+import com.srFoodDelivery.websocket.OrderWebSocketPublisher;
+import com.srFoodDelivery.websocket.OutboundBacklog;
+import com.srFoodDelivery.websocket.event.DigestPayload;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Notifications are written to the test database; frames go to a mocked publisher. Not
+ * @Transactional: the flush commits its own writes.
+ */
+@SpringBootTest(classes = SRfoodDeliveryApplication.class)
+@ActiveProfiles("test")
+public class NotificationAggregatorTest {
+
+    private static final int MAX_BACKLOG_FRAMES = 20;
+    private static final Long RESTAURANT_ID = 7L;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private OrderWebSocketPublisher publisher;
+    private OutboundBacklog outboundBacklog;
+    private Long userId;
+
+    @BeforeEach
+    public void setUp() {
+        publisher = mock(OrderWebSocketPublisher.class);
+        outboundBacklog = mock(OutboundBacklog.class);
+        List<User> users = userRepository.findAll();
+        assumeTrue(!users.isEmpty(), "Needs a user to notify");
+        userId = users.get(0).getId();
+    }
+
+    @Test
+    public void testSingleNotificationIsSentAsItself() {
+        NotificationAggregator aggregator = newAggregator(notificationRepository);
+
+        aggregator.notifyUser(userId, "Order placed", "Order #1 placed", "NEW_ORDER", "ORDER", 1L);
+        aggregator.flush();
+
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(publisher).publishToUser(eq(userId), eq("NOTIFICATION"), payload.capture());
+        NotificationView view = (NotificationView) payload.getValue();
+        assertEquals("Order placed", view.getTitle());
+        assertNotNull(view.getId(), "The view should carry the generated id");
+    }
+
+    @Test
+    public void testNotificationsOfOneTypeCollapseIntoADigest() {
+        NotificationAggregator aggregator = newAggregator(notificationRepository);
+
+        for (int i = 1; i <= 3; i++) {
+            aggregator.notifyUser(userId, "Order " + i, "Order #" + i + " placed", "NEW_ORDER", "ORDER", (long) i);
+        }
+        aggregator.flush();
+
+        DigestPayload digest = userDigest();
+        assertEquals(3, digest.count());
+        assertEquals("3 new orders", digest.summary());
+        assertEquals("Order 3", ((NotificationView) digest.latest().get(0)).getTitle(), "Newest first");
+        assertEquals(3, digest.latest().size());
+    }
+
+    @Test
+    public void testMixedTypesGetTheGenericNoun() {
+        NotificationAggregator aggregator = newAggregator(notificationRepository);
+
+        aggregator.notifyUser(userId, "Order", "Order placed", "NEW_ORDER", "ORDER", 1L);
+        aggregator.notifyUser(userId, "Review", "New review", "REVIEW", "REVIEW", 2L);
+        aggregator.flush();
+
+        assertEquals("2 new notifications", userDigest().summary());
+    }
+
+    @Test
+    public void testDigestKeepsOnlyTheNewestPayloads() {
+        NotificationAggregator aggregator = newAggregator(notificationRepository);
+
+        for (int i = 1; i <= 12; i++) {
+            aggregator.notifyUser(userId, "Order " + i, "Order placed", "NEW_ORDER", "ORDER", (long) i);
+        }
+        aggregator.flush();
+
+        DigestPayload digest = userDigest();
+        assertEquals(12, digest.count());
+        assertEquals(10, digest.latest().size());
+        assertEquals("Order 12", ((NotificationView) digest.latest().get(0)).getTitle());
+        assertEquals("Order 3", ((NotificationView) digest.latest().get(9)).getTitle());
+    }
+
+    @Test
+    public void testBackedUpDestinationIsDeferredAndFoldedIntoTheNextDigest() {
+        NotificationAggregator aggregator = newAggregator(notificationRepository);
+        String topic = OrderWebSocketPublisher.userTopic(userId);
+        when(outboundBacklog.get(topic)).thenReturn(MAX_BACKLOG_FRAMES + 1);
+
+        aggregator.notifyUser(userId, "Order 1", "Order placed", "NEW_ORDER", "ORDER", 1L);
+        aggregator.flush();
+        verify(publisher, never()).publishToUser(anyLong(), anyString(), any());
+
+        aggregator.notifyUser(userId, "Order 2", "Order placed", "NEW_ORDER", "ORDER", 2L);
+        when(outboundBacklog.get(topic)).thenReturn(MAX_BACKLOG_FRAMES);
+        aggregator.flush();
+
+        DigestPayload digest = userDigest();
+        assertEquals(2, digest.count());
+        assertEquals("2 new orders", digest.summary());
+    }
+
+    @Test
+    public void testRestaurantEventsCollapsePerEvent() {
+        NotificationAggregator aggregator = newAggregator(notificationRepository);
+
+        aggregator.publishToRestaurant(RESTAURANT_ID, "NEW_SUBORDER", "first");
+        aggregator.publishToRestaurant(RESTAURANT_ID, "NEW_SUBORDER", "second");
+        aggregator.publishToRestaurant(RESTAURANT_ID, "ORDER_CANCELLED", "third");
+        aggregator.flush();
+
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(publisher).publishToRestaurant(eq(RESTAURANT_ID), eq("NEW_SUBORDER_DIGEST"), payload.capture());
+        DigestPayload digest = (DigestPayload) payload.getValue();
+        assertEquals("2 new orders", digest.summary());
+        assertEquals(List.of("second", "first"), digest.latest());
+        verify(publisher).publishToRestaurant(RESTAURANT_ID, "ORDER_CANCELLED", "third");
+    }
+
+    @Test
+    public void testNotificationWrittenWhileTheInboxLoadsIsKept() throws InterruptedException {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch finishLoad = new CountDownLatch(1);
+        NotificationRepository slowRepository = mock(NotificationRepository.class);
+        when(slowRepository.findLatestForUser(eq(userId), any(Pageable.class))).thenAnswer(invocation -> {
+            loading.countDown();
+            finishLoad.await();
+            // Read before the notification below was written
+            return List.of();
+        });
+        NotificationAggregator aggregator = newAggregator(slowRepository);
+
+        AtomicReference<List<NotificationView>> firstRead = new AtomicReference<>();
+        Thread reader = new Thread(() -> firstRead.set(aggregator.getInbox(userId)));
+        reader.start();
+        loading.await();
+
+        aggregator.notifyUser(userId, "Written during load", "Order placed", "NEW_ORDER", "ORDER", 1L);
+        Thread flusher = new Thread(aggregator::flush);
+        flusher.start();
+        // The flush must wait for the load rather than skip the inbox that is not there yet
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (flusher.isAlive() && flusher.getState() != Thread.State.BLOCKED
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        finishLoad.countDown();
+        reader.join(5_000);
+        flusher.join(5_000);
+
+        List<NotificationView> inbox = aggregator.getInbox(userId);
+        assertTrue(inbox.stream().anyMatch(view -> "Written during load".equals(view.getTitle())),
+                "The notification is missing from the inbox");
+    }
+
+    private NotificationAggregator newAggregator(NotificationRepository repository) {
+        return new NotificationAggregator(jdbcTemplate, repository, publisher, outboundBacklog,
+                mock(UnreadCounters.class), new SimpleMeterRegistry(), 50, MAX_BACKLOG_FRAMES, 1_800_000);
+    }
+
+    private DigestPayload userDigest() {
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(publisher).publishToUser(eq(userId), eq("NOTIFICATION_DIGEST"), payload.capture());
+        return (DigestPayload) payload.getValue();
+    }
+}
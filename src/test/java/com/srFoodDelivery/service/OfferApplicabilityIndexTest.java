@@ -0,0 +1,195 @@
+package com.srFoodDelivery.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.srFoodDelivery.model.Offer;
+import com.srFoodDelivery.repository.OfferRepository;
+import com.srFoodDelivery.repository.OfferRepository.OfferRule;
+
+/**
+ * Labels built from the active offers and dropped when an offer changes. The repository
+ * serves the rules from a list the tests edit, as an admin edit would change the table.
+ */
+public class OfferApplicabilityIndexTest {
+
+    private static final Long RESTAURANT_ID = 1L;
+
+    private final List<OfferRule> rules = new ArrayList<>();
+    private OfferRepository offerRepository;
+    private OfferApplicabilityIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        offerRepository = mock(OfferRepository.class);
+        when(offerRepository.findCurrentAndUpcomingOfferRules(any())).thenAnswer(invocation -> List.copyOf(rules));
+        index = new OfferApplicabilityIndex(offerRepository);
+    }
+
+    @Test
+    public void testItemSpecificOfferOverridesTheRestaurantDefault() {
+        rules.add(rule(1L, RESTAURANT_ID, "PERCENTAGE_OFF", "20", null, active()));
+        rules.add(rule(2L, RESTAURANT_ID, "BUY_ONE_GET_ONE", null, "5", active()));
+
+        OfferApplicabilityIndex.Snapshot snapshot = index.current();
+
+        assertEquals("BOGO FREE", snapshot.bestLabel(RESTAURANT_ID, 5L));
+        assertEquals("20% OFF", snapshot.bestLabel(RESTAURANT_ID, 6L));
+        assertNull(snapshot.bestLabel(2L, 5L), "Offers of another restaurant do not apply");
+        assertEquals("BOGO FREE", snapshot.bestLabel(null, 5L));
+    }
+
+    @Test
+    public void testLabelsAreReusedUntilAnOfferChanges() {
+        rules.add(rule(1L, RESTAURANT_ID, "PERCENTAGE_OFF", "20", null, active()));
+        index.current();
+        index.current();
+        verify(offerRepository, times(1)).findCurrentAndUpcomingOfferRules(any());
+
+        rules.set(0, rule(1L, RESTAURANT_ID, "PERCENTAGE_OFF", "30", null, active()));
+        assertEquals("20% OFF", index.current().bestLabel(RESTAURANT_ID, 6L), "Not invalidated yet");
+
+        index.invalidate();
+
+        assertEquals("30% OFF", index.current().bestLabel(RESTAURANT_ID, 6L));
+    }
+
+    @Test
+    public void testInvalidationInsideATransactionWaitsForCommit() {
+        index.current();
+        rules.add(rule(1L, RESTAURANT_ID, "PERCENTAGE_OFF", "20", null, active()));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.invalidate();
+            assertNull(index.current().bestLabel(RESTAURANT_ID, 6L), "Other requests keep the committed labels");
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals("20% OFF", index.current().bestLabel(RESTAURANT_ID, 6L));
+    }
+
+    @Test
+    public void testRolledBackChangeKeepsTheLabels() {
+        index.current();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.invalidate();
+            TransactionSynchronizationManager.getSynchronizations().forEach(
+                    sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        index.current();
+
+        verify(offerRepository, times(1)).findCurrentAndUpcomingOfferRules(any());
+    }
+
+    @Test
+    public void testChangeDuringABuildIsNotHiddenByIt() {
+        AtomicBoolean changed = new AtomicBoolean();
+        when(offerRepository.findCurrentAndUpcomingOfferRules(any())).thenAnswer(invocation -> {
+            if (changed.compareAndSet(false, true)) {
+                // An offer is saved after this build read the table
+                List<OfferRule> read = List.copyOf(rules);
+                rules.add(rule(1L, RESTAURANT_ID, "PERCENTAGE_OFF", "20", null, active()));
+                index.invalidate();
+                return read;
+            }
+            return List.copyOf(rules);
+        });
+
+        assertNull(index.current().bestLabel(RESTAURANT_ID, 6L));
+
+        assertEquals("20% OFF", index.current().bestLabel(RESTAURANT_ID, 6L),
+                "The stale build must not have been kept");
+    }
+
+    @Test
+    public void testOfferStartingLaterIsPickedUpWithoutAnEdit() throws InterruptedException {
+        LocalDateTime start = LocalDateTime.now().plusNanos(300_000_000);
+        rules.add(rule(1L, RESTAURANT_ID, "PERCENTAGE_OFF", "20", null, start));
+
+        assertNull(index.current().bestLabel(RESTAURANT_ID, 6L));
+        Thread.sleep(400);
+
+        assertEquals("20% OFF", index.current().bestLabel(RESTAURANT_ID, 6L));
+    }
+
+    @Test
+    public void testOfferServiceEditsInvalidateTheLabels() {
+        OfferService offerService = new OfferService(offerRepository, index);
+        index.current();
+
+        rules.add(rule(1L, RESTAURANT_ID, "PERCENTAGE_OFF", "20", null, active()));
+        offerService.createOffer(new Offer());
+        assertEquals("20% OFF", index.current().bestLabel(RESTAURANT_ID, 6L));
+
+        rules.clear();
+        offerService.deleteOffer(1L);
+        assertNull(index.current().bestLabel(RESTAURANT_ID, 6L));
+    }
+
+    private static LocalDateTime active() {
+        return LocalDateTime.now().minusDays(1);
+    }
+
+    private static OfferRule rule(Long id, Long restaurantId, String type, String value, String itemIds,
+            LocalDateTime start) {
+        return new OfferRule() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getRestaurantId() {
+                return restaurantId;
+            }
+
+            @Override
+            public String getOfferType() {
+                return type;
+            }
+
+            @Override
+            public BigDecimal getDiscountValue() {
+                return value != null ? new BigDecimal(value) : null;
+            }
+
+            @Override
+            public String getApplicableMenuItemIds() {
+                return itemIds;
+            }
+
+            @Override
+            public LocalDateTime getStartDate() {
+                return start;
+            }
+
+            @Override
+            public LocalDateTime getEndDate() {
+                return start.plusDays(7);
+            }
+        };
+    }
+}
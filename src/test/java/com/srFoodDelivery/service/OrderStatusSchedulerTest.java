@@ -0,0 +1,147 @@
+package com.srFoodDelivery.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.srFoodDelivery.model.Order;
+import com.srFoodDelivery.model.OrderStatus;
+import com.srFoodDelivery.model.User;
+import com.srFoodDelivery.repository.OrderRepository;
+
+/**
+ * Stage advancement and chunk transactions. The repository answers the due-order query from
+ * an in-memory list; the transaction manager records where each chunk begins and ends.
+ */
+public class OrderStatusSchedulerTest {
+
+    private final List<Order> orders = new ArrayList<>();
+    private final List<String> log = new ArrayList<>();
+    private OrderRepository orderRepository;
+    private EmailService emailService;
+    private OrderStatusScheduler scheduler;
+
+    @BeforeEach
+    public void setUp() {
+        orderRepository = mock(OrderRepository.class);
+        emailService = mock(EmailService.class);
+        when(orderRepository.findByStatusAndCreatedAtLessThanEqualOrderByCreatedAtAsc(anyString(), any(), any()))
+                .thenAnswer(invocation -> {
+                    String status = invocation.getArgument(0);
+                    LocalDateTime createdBefore = invocation.getArgument(1);
+                    Pageable page = invocation.getArgument(2);
+                    log.add("find " + status);
+                    return orders.stream()
+                            .filter(order -> status.equals(order.getStatus()))
+                            .filter(order -> !order.getCreatedAt().isAfter(createdBefore))
+                            .limit(page.getPageSize())
+                            .toList();
+                });
+        when(orderRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> {
+            log.add("begin");
+            return null;
+        });
+        doAnswer(invocation -> log.add("commit")).when(transactionManager).commit(any());
+        doAnswer(invocation -> log.add("rollback")).when(transactionManager).rollback(any());
+
+        scheduler = new OrderStatusScheduler(orderRepository, emailService, transactionManager);
+    }
+
+    @Test
+    public void testOrderAdvancesOneStagePerRun() {
+        // Old enough for every transition
+        Order order = order(1L, OrderStatus.NEW, 120);
+
+        scheduler.autoUpdateOrderStatuses();
+        assertEquals(OrderStatus.CONFIRMED, order.getStatus());
+
+        scheduler.autoUpdateOrderStatuses();
+        assertEquals(OrderStatus.PREPARING, order.getStatus());
+
+        scheduler.autoUpdateOrderStatuses();
+        scheduler.autoUpdateOrderStatuses();
+        assertEquals(OrderStatus.DELIVERED, order.getStatus());
+        assertNotNull(order.getActualDeliveryTime());
+    }
+
+    @Test
+    public void testOrderThatIsNotDueStays() {
+        Order order = order(1L, OrderStatus.CONFIRMED, 5);
+
+        scheduler.autoUpdateOrderStatuses();
+
+        assertEquals(OrderStatus.CONFIRMED, order.getStatus());
+        verify(emailService, never()).sendOrderStatusUpdateEmail(any(), any());
+    }
+
+    @Test
+    public void testEachChunkCommitsBeforeTheNextIsRead() {
+        for (long id = 1; id <= 450; id++) {
+            order(id, OrderStatus.NEW, 15);
+        }
+
+        scheduler.autoUpdateOrderStatuses();
+
+        // The three later stages have nothing due; NEW takes chunks of 200, 200 and 50
+        List<String> expected = new ArrayList<>();
+        for (String status : List.of(OrderStatus.OUT_FOR_DELIVERY, OrderStatus.PREPARING, OrderStatus.CONFIRMED)) {
+            expected.addAll(List.of("begin", "find " + status, "commit"));
+        }
+        for (int chunk = 0; chunk < 3; chunk++) {
+            expected.addAll(List.of("begin", "find " + OrderStatus.NEW, "commit"));
+        }
+        assertEquals(expected, log);
+        assertTrue(orders.stream().allMatch(order -> OrderStatus.CONFIRMED.equals(order.getStatus())));
+        verify(emailService, times(450)).sendOrderStatusUpdateEmail(any(), any());
+    }
+
+    @Test
+    public void testFailedChunkRollsBackAndLaterStagesStillRun() {
+        for (long id = 1; id <= 450; id++) {
+            order(id, OrderStatus.PREPARING, 50);
+        }
+        Order confirmed = order(1000L, OrderStatus.CONFIRMED, 30);
+        // Saves: the empty OUT_FOR_DELIVERY chunk, the first PREPARING chunk, then the second fails
+        when(orderRepository.saveAll(anyList()))
+                .thenAnswer(invocation -> invocation.getArgument(0))
+                .thenAnswer(invocation -> invocation.getArgument(0))
+                .thenThrow(new IllegalStateException("deadlock"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        scheduler.autoUpdateOrderStatuses();
+
+        assertEquals(1, log.stream().filter("rollback"::equals).count());
+        // No further chunk of the failed stage is attempted in this run
+        assertEquals(2, log.stream().filter(("find " + OrderStatus.PREPARING)::equals).count());
+        assertEquals(OrderStatus.PREPARING, confirmed.getStatus(), "The CONFIRMED stage still runs");
+    }
+
+    private Order order(Long id, String status, long ageSeconds) {
+        Order order = new Order();
+        order.setId(id);
+        order.setStatus(status);
+        order.setCreatedAt(LocalDateTime.now().minusSeconds(ageSeconds));
+        order.setUser(new User());
+        orders.add(order);
+        return order;
+    }
+}
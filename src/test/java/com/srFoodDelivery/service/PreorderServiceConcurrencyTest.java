@@ -1,6 +1,7 @@
 package com.srFoodDelivery.service;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -8,10 +9,13 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongPredicate;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 
 import com.srFoodDelivery.main.SRfoodDeliveryApplication;
@@ -24,6 +28,9 @@ import com.srFoodDelivery.repository.RestaurantRepository;
 @ActiveProfiles("test")
 public class PreorderServiceConcurrencyTest {
 
+    // The benchmark allows for timing noise between two runs of the same number of reservers
+    private static final long MAX_SLOWDOWN = 2;
+
     @Autowired
     private PreorderService preorderService;
 
@@ -33,14 +40,16 @@ public class PreorderServiceConcurrencyTest {
     @Autowired
     private RestaurantRepository restaurantRepository;
 
+    @Autowired
+    private PreorderSlotCapacity preorderSlotCapacity;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Test
     public void testConcurrentSlotReservation() throws InterruptedException {
-        // Create a test restaurant
         List<Restaurant> restaurants = restaurantRepository.findAll();
-        if (restaurants.isEmpty()) {
-            // Skip if no restaurants
-            return;
-        }
+        assumeFalse(restaurants.isEmpty(), "No restaurant to create a slot for");
 
         Restaurant restaurant = restaurants.get(0);
 
@@ -92,5 +101,101 @@ public class PreorderServiceConcurrencyTest {
                 .orElseThrow();
         assertEquals(expectedSuccessfulReservations, updatedSlot.getCurrentCapacity().intValue());
     }
-}
 
+    @Test
+    public void testPlacesTakenByAnotherNodeAreRespected() {
+        List<Restaurant> restaurants = restaurantRepository.findAll();
+        assumeFalse(restaurants.isEmpty(), "No restaurant to create a slot for");
+
+        PreorderSlot slot = createSlot(restaurants.get(0), 3);
+        // Another node has taken two of the three places
+        jdbcTemplate.update("UPDATE preorder_slot SET current_capacity = 2 WHERE id = ?", slot.getId());
+
+        assertTrue(preorderSlotCapacity.tryReserve(slot.getId()));
+        assertFalse(preorderSlotCapacity.tryReserve(slot.getId()), "The slot is full across nodes");
+        assertEquals(3, preorderSlotRepository.findById(slot.getId()).orElseThrow().getCurrentCapacity().intValue());
+
+        // A release on this node makes the place available again straight away
+        assertTrue(preorderSlotCapacity.release(slot.getId()));
+        assertTrue(preorderSlotCapacity.tryReserve(slot.getId()));
+    }
+
+    /**
+     * 1,000 concurrent reservers on one slot: admitting from leased places, with one row UPDATE per
+     * lease, must not be slower than running the conditional UPDATE for every reserver.
+     * Run with: mvn test -Dtest=PreorderServiceConcurrencyTest -Dbenchmark=true
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    public void benchmarkThousandConcurrentReservers() throws InterruptedException {
+        List<Restaurant> restaurants = restaurantRepository.findAll();
+        assumeFalse(restaurants.isEmpty(), "No restaurant to create a slot for");
+
+        int reservers = 1000;
+        int capacity = 200;
+
+        PreorderSlot rowLockSlot = createSlot(restaurants.get(0), capacity);
+        long rowLockMillis = runReservers(reservers, slotId -> jdbcTemplate.update(
+                "UPDATE preorder_slot SET current_capacity = current_capacity + 1, version = version + 1 " +
+                "WHERE id = ? AND current_capacity < max_capacity", slotId) > 0,
+                rowLockSlot.getId(), capacity);
+
+        PreorderSlot allocatorSlot = createSlot(restaurants.get(0), capacity);
+        long allocatorMillis = runReservers(reservers, preorderService::reserveSlot,
+                allocatorSlot.getId(), capacity);
+
+        assertEquals(capacity, preorderSlotRepository.findById(allocatorSlot.getId())
+                .orElseThrow().getCurrentCapacity().intValue());
+        assertTrue(allocatorMillis <= Math.max(rowLockMillis, 1) * MAX_SLOWDOWN,
+                "Reservations took " + allocatorMillis + " ms against " + rowLockMillis + " ms for plain row updates");
+    }
+
+    private PreorderSlot createSlot(Restaurant restaurant, int capacity) {
+        PreorderSlot slot = new PreorderSlot();
+        slot.setRestaurant(restaurant);
+        slot.setSlotStartTime(LocalDateTime.now().plusHours(1));
+        slot.setSlotEndTime(LocalDateTime.now().plusHours(2));
+        slot.setMaxCapacity(capacity);
+        slot.setCurrentCapacity(0);
+        slot.setIsActive(true);
+        return preorderSlotRepository.save(slot);
+    }
+
+    /**
+     * Releases all reservers at once and returns the wall time until the last one finished.
+     */
+    private long runReservers(int reservers, LongPredicate reserve, Long slotId, int capacity)
+            throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(reservers);
+        CountDownLatch ready = new CountDownLatch(reservers);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(reservers);
+        AtomicInteger successCount = new AtomicInteger();
+
+        for (int i = 0; i < reservers; i++) {
+            executor.submit(() -> {
+                ready.countDown();
+                try {
+                    start.await();
+                    if (reserve.test(slotId)) {
+                        successCount.incrementAndGet();
+                    }
+                } catch (Exception e) {
+                    // Counted as a rejection
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        ready.await();
+        long startNanos = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        executor.shutdown();
+
+        assertEquals(capacity, successCount.get());
+        return elapsedMillis;
+    }
+}
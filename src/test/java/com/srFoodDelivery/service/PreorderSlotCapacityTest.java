@@ -0,0 +1,195 @@
+package com.srFoodDelivery.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.srFoodDelivery.repository.PreorderSlotRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Admission from leased places. The lease UPDATE is stubbed through the mocked JdbcTemplate,
+ * returning how many places the row granted; with lease size 4 a refill asks for 5.
+ */
+public class PreorderSlotCapacityTest {
+
+    private static final Long SLOT_ID = 1L;
+    private static final int LEASE_SIZE = 4;
+
+    private PreorderSlotRepository preorderSlotRepository;
+    private JdbcTemplate jdbcTemplate;
+    private PreorderSlotCapacity capacity;
+
+    @BeforeEach
+    public void setUp() {
+        preorderSlotRepository = mock(PreorderSlotRepository.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        capacity = capacity(60_000);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testReservationsAreAdmittedFromOneLease() {
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn(LEASE_SIZE + 1, 0);
+
+        for (int i = 0; i < LEASE_SIZE + 1; i++) {
+            assertTrue(capacity.tryReserve(SLOT_ID));
+        }
+        verify(jdbcTemplate, times(1)).execute(any(ConnectionCallback.class));
+
+        assertFalse(capacity.tryReserve(SLOT_ID), "The row has no places left");
+        assertFalse(capacity.tryReserve(SLOT_ID));
+        verify(jdbcTemplate, times(2)).execute(any(ConnectionCallback.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testLeaseReachesOthersOnlyAfterCommit() {
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn(2, 2);
+
+        TransactionSynchronizationManager.initSynchronization();
+        assertTrue(capacity.tryReserve(SLOT_ID));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // The rolled-back refill granted nothing, so the next reservation takes a new lease
+        TransactionSynchronizationManager.initSynchronization();
+        assertTrue(capacity.tryReserve(SLOT_ID));
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        verify(jdbcTemplate, times(2)).execute(any(ConnectionCallback.class));
+
+        assertTrue(capacity.tryReserve(SLOT_ID), "The spare place of the committed lease");
+        verify(jdbcTemplate, times(2)).execute(any(ConnectionCallback.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRolledBackReservationPutsItsPlaceBack() {
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn(2, 0);
+        assertTrue(capacity.tryReserve(SLOT_ID));
+
+        TransactionSynchronizationManager.initSynchronization();
+        assertTrue(capacity.tryReserve(SLOT_ID));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertTrue(capacity.tryReserve(SLOT_ID), "The place went back into the lease");
+        verify(jdbcTemplate, times(1)).execute(any(ConnectionCallback.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testReserverWaitsForALeaseInFlight() throws Exception {
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn(2);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CountDownLatch leased = new CountDownLatch(1);
+            CountDownLatch commit = new CountDownLatch(1);
+            Future<Boolean> refiller = executor.submit(() -> {
+                TransactionSynchronizationManager.initSynchronization();
+                try {
+                    boolean reserved = capacity.tryReserve(SLOT_ID);
+                    leased.countDown();
+                    commit.await();
+                    complete(TransactionSynchronization.STATUS_COMMITTED);
+                    return reserved;
+                } finally {
+                    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                        TransactionSynchronizationManager.clearSynchronization();
+                    }
+                }
+            });
+            assertTrue(leased.await(5, TimeUnit.SECONDS));
+
+            Thread committer = new Thread(() -> {
+                sleep(100);
+                commit.countDown();
+            });
+            committer.start();
+            assertTrue(capacity.tryReserve(SLOT_ID), "Takes the spare place once the lease commits");
+
+            assertTrue(refiller.get(5, TimeUnit.SECONDS));
+            committer.join();
+            verify(jdbcTemplate, times(1)).execute(any(ConnectionCallback.class));
+            verify(preorderSlotRepository, never()).reserveSlotAtomic(SLOT_ID);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testIdleLeaseIsReturnedToTheRow() {
+        capacity = capacity(0);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn(LEASE_SIZE + 1, LEASE_SIZE + 1);
+        assertTrue(capacity.tryReserve(SLOT_ID));
+        sleep(5);
+
+        capacity.returnIdleLeases();
+
+        verify(jdbcTemplate).update(anyString(), eq(LEASE_SIZE), eq(SLOT_ID));
+        assertTrue(capacity.tryReserve(SLOT_ID));
+        verify(jdbcTemplate, times(2)).execute(any(ConnectionCallback.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testReleaseForgetsTheFullMark() {
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn(0, 1);
+        when(preorderSlotRepository.releaseSlotAtomic(SLOT_ID)).thenReturn(1);
+        assertFalse(capacity.tryReserve(SLOT_ID));
+
+        assertTrue(capacity.release(SLOT_ID));
+
+        assertTrue(capacity.tryReserve(SLOT_ID));
+    }
+
+    private PreorderSlotCapacity capacity(long leaseIdleMillis) {
+        return new PreorderSlotCapacity(preorderSlotRepository, jdbcTemplate,
+                mock(PlatformTransactionManager.class), new SimpleMeterRegistry(),
+                LEASE_SIZE, leaseIdleMillis, 60_000, 5_000);
+    }
+
+    private static void complete(int status) {
+        try {
+            TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.afterCompletion(status));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
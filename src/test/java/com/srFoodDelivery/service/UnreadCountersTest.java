@@ -0,0 +1,134 @@
+package com.srFoodDelivery.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.srFoodDelivery.main.SRfoodDeliveryApplication;
+import com.srFoodDelivery.model.User;
+import com.srFoodDelivery.repository.UserRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Not @Transactional: the flush commits its own writes. Each instance built here stands
+ * in for one node.
+ */
+@SpringBootTest(classes = SRfoodDeliveryApplication.class)
+@ActiveProfiles("test")
+public class UnreadCountersTest {
+
+    private static final long MISSING_USER_ID = -1L;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void testChangesFromTwoNodesAddUp() {
+        Long userId = someUserId();
+        UnreadCounters nodeA = newCounters(new SimpleMeterRegistry());
+        UnreadCounters nodeB = newCounters(new SimpleMeterRegistry());
+        nodeA.flush();
+        int before = nodeA.getUnreadChatMessages(userId);
+        assertEquals(before, nodeB.getUnreadChatMessages(userId));
+
+        nodeA.chatMessageReceived(userId);
+        nodeA.chatMessageReceived(userId);
+        nodeB.chatMessageReceived(userId);
+        nodeA.flush();
+        nodeB.flush();
+
+        try {
+            assertEquals(before + 3, storedChatMessages(userId));
+            assertEquals(before + 3, nodeB.getUnreadChatMessages(userId));
+            nodeA.flush();
+            assertEquals(before + 3, nodeA.getUnreadChatMessages(userId), "Node A should see node B's change");
+        } finally {
+            nodeA.chatMessagesRead(userId, 3);
+            nodeA.flush();
+        }
+        assertEquals(before, storedChatMessages(userId));
+    }
+
+    @Test
+    public void testCountsNeverGoBelowZero() {
+        Long userId = someUserId();
+        UnreadCounters counters = newCounters(new SimpleMeterRegistry());
+        int before = counters.getUnreadNotifications(userId);
+
+        counters.notificationsRead(userId, before + 5);
+        assertEquals(0, counters.getUnreadNotifications(userId));
+        counters.flush();
+
+        try {
+            assertEquals(0, jdbcTemplate.queryForObject(
+                    "SELECT unread_notifications FROM user_unread_counter WHERE user_id = ?", Integer.class, userId));
+        } finally {
+            jdbcTemplate.update("UPDATE user_unread_counter SET unread_notifications = ? WHERE user_id = ?",
+                    before, userId);
+        }
+    }
+
+    @Test
+    public void testDeletedUserIsDroppedWithoutHoldingBackOthers() {
+        Long userId = someUserId();
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        UnreadCounters counters = newCounters(meterRegistry);
+        int before = counters.getUnreadChatMessages(userId);
+
+        counters.chatMessageReceived(MISSING_USER_ID);
+        counters.chatMessageReceived(userId);
+        counters.flush();
+
+        try {
+            assertEquals(before + 1, storedChatMessages(userId));
+            assertEquals(1.0, meterRegistry.get("unread.counters.dropped").counter().count());
+            assertEquals(1.0, meterRegistry.get("unread.counters.users").gauge().value());
+        } finally {
+            counters.chatMessagesRead(userId, 1);
+            counters.flush();
+        }
+    }
+
+    @Test
+    public void testForgottenUserIsDropped() {
+        Long userId = someUserId();
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        UnreadCounters counters = newCounters(meterRegistry);
+        counters.getUnreadChatMessages(userId);
+
+        counters.forget(userId);
+
+        assertEquals(0.0, meterRegistry.get("unread.counters.users").gauge().value());
+    }
+
+    private UnreadCounters newCounters(MeterRegistry meterRegistry) {
+        return new UnreadCounters(jdbcTemplate, transactionManager, meterRegistry, 1_800_000);
+    }
+
+    private Long someUserId() {
+        List<User> users = userRepository.findAll();
+        assumeTrue(!users.isEmpty(), "Needs a user");
+        return users.get(0).getId();
+    }
+
+    private int storedChatMessages(Long userId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT unread_chat_messages FROM user_unread_counter WHERE user_id = ?", Integer.class, userId);
+    }
+}
@@ -0,0 +1,124 @@
+package com.srFoodDelivery.service.chat;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.srFoodDelivery.dto.order.CursorPage;
+import com.srFoodDelivery.main.SRfoodDeliveryApplication;
+import com.srFoodDelivery.model.User;
+import com.srFoodDelivery.repository.UserRepository;
+
+/**
+ * Not @Transactional: messages are written by the log's own flush. The room may already hold
+ * messages from other tests, so only the newest messages, the ones sent here, are checked exactly.
+ */
+@SpringBootTest(classes = SRfoodDeliveryApplication.class, properties = "chat.history.page-size=" + ChatHistoryPagingTest.PAGE_SIZE)
+@ActiveProfiles("test")
+public class ChatHistoryPagingTest {
+
+    static final int PAGE_SIZE = 3;
+    private static final int SENT = 5;
+
+    @Autowired
+    private ChatService chatService;
+
+    @Autowired
+    private ChatMessageLog chatMessageLog;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    public void testLatestPageWithUnwrittenMessagesHoldsOnePage() {
+        List<User> users = twoUsers();
+        List<PostedChatMessage> sent = send(users, SENT);
+
+        // None of them is written yet: all five come from the log's queue
+        CursorPage<PostedChatMessage> latest = chatService.getRoomMessages(sent.get(0).roomId(), users.get(0), null);
+        assertEquals(seqs(sent.subList(SENT - PAGE_SIZE, SENT)), seqs(latest.getItems()));
+        assertEquals(String.valueOf(sent.get(SENT - PAGE_SIZE).seq()), latest.getNextCursor());
+
+        CursorPage<PostedChatMessage> older = chatService.getRoomMessages(
+                sent.get(0).roomId(), users.get(0), latest.getNextCursor());
+        assertTrue(older.getItems().size() <= PAGE_SIZE);
+        assertEquals(seqs(sent.subList(0, SENT - PAGE_SIZE)), tail(seqs(older.getItems()), SENT - PAGE_SIZE));
+
+        chatMessageLog.flush();
+    }
+
+    @Test
+    public void testPagesAreTheSameBeforeAndAfterTheWrite() {
+        List<User> users = twoUsers();
+        List<PostedChatMessage> written = send(users, 2);
+        chatMessageLog.flush();
+        List<PostedChatMessage> queued = send(users, 2);
+        Long roomId = written.get(0).roomId();
+
+        CursorPage<PostedChatMessage> beforeWrite = chatService.getRoomMessages(roomId, users.get(0), null);
+        CursorPage<PostedChatMessage> olderBeforeWrite = chatService.getRoomMessages(
+                roomId, users.get(0), beforeWrite.getNextCursor());
+        chatMessageLog.flush();
+        CursorPage<PostedChatMessage> afterWrite = chatService.getRoomMessages(roomId, users.get(0), null);
+        CursorPage<PostedChatMessage> olderAfterWrite = chatService.getRoomMessages(
+                roomId, users.get(0), afterWrite.getNextCursor());
+
+        assertEquals(PAGE_SIZE, beforeWrite.getItems().size());
+        assertEquals(List.of(written.get(1).seq(), queued.get(0).seq(), queued.get(1).seq()),
+                seqs(beforeWrite.getItems()));
+        assertEquals(seqs(beforeWrite.getItems()), seqs(afterWrite.getItems()));
+        assertEquals(beforeWrite.getNextCursor(), afterWrite.getNextCursor());
+        assertEquals(seqs(olderBeforeWrite.getItems()), seqs(olderAfterWrite.getItems()));
+    }
+
+    @Test
+    public void testLastPageHasNoCursor() {
+        List<User> users = twoUsers();
+        List<PostedChatMessage> sent = send(users, 1);
+        String cursor = String.valueOf(sent.get(0).seq());
+
+        // Walk back to the start of the room; every page is full except possibly the last
+        CursorPage<PostedChatMessage> page = chatService.getRoomMessages(sent.get(0).roomId(), users.get(0), null);
+        while (page.getNextCursor() != null) {
+            assertEquals(PAGE_SIZE, page.getItems().size());
+            assertTrue(Long.parseLong(page.getNextCursor()) < Long.parseLong(cursor));
+            cursor = page.getNextCursor();
+            page = chatService.getRoomMessages(sent.get(0).roomId(), users.get(0), cursor);
+        }
+        assertTrue(page.getItems().size() <= PAGE_SIZE);
+
+        chatMessageLog.flush();
+    }
+
+    private List<PostedChatMessage> send(List<User> users, int count) {
+        List<PostedChatMessage> sent = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            sent.add(chatService.sendMessage(users.get(0).getId(), users.get(1).getId(),
+                    "Paging test message " + i, null, null));
+        }
+        return sent;
+    }
+
+    private List<User> twoUsers() {
+        List<User> users = userRepository.findAll();
+        assumeTrue(users.size() >= 2, "Needs two users to chat");
+        return users.subList(0, 2);
+    }
+
+    private static List<Long> seqs(List<PostedChatMessage> messages) {
+        List<Long> seqs = new ArrayList<>(messages.size());
+        messages.forEach(message -> seqs.add(message.seq()));
+        return seqs;
+    }
+
+    private static List<Long> tail(List<Long> values, int count) {
+        return values.subList(Math.max(0, values.size() - count), values.size());
+    }
+}
@@ -0,0 +1,167 @@
+package com.srFoodDelivery.service.chat;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.srFoodDelivery.main.SRfoodDeliveryApplication;
+import com.srFoodDelivery.model.User;
+import com.srFoodDelivery.repository.ChatRoomRepository;
+import com.srFoodDelivery.repository.MultiOrderRepository;
+import com.srFoodDelivery.repository.SubOrderRepository;
+import com.srFoodDelivery.repository.UserRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Not @Transactional: sequence numbers are taken in statements of their own. Each extra cache
+ * built here stands in for another node sending into the same rooms.
+ */
+@SpringBootTest(classes = SRfoodDeliveryApplication.class)
+@ActiveProfiles("test")
+public class ChatRoomCacheTest {
+
+    private static final int SENDERS = 8;
+    private static final int MESSAGES_PER_SENDER = 25;
+
+    @Autowired
+    private ChatRoomCache chatRoomCache;
+
+    @Autowired
+    private ChatRoomRepository chatRoomRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MultiOrderRepository multiOrderRepository;
+
+    @Autowired
+    private SubOrderRepository subOrderRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testSequenceNumbersFollowTheRoomRow() {
+        List<User> users = twoUsers();
+        Long sender = users.get(0).getId();
+        Long receiver = users.get(1).getId();
+
+        ChatRoomCache.Slot first = chatRoomCache.nextMessage(sender, receiver, null, null);
+        ChatRoomCache.Slot second = chatRoomCache.nextMessage(receiver, sender, null, null);
+
+        assertSame(first.room(), second.room(), "Both directions share one room");
+        assertEquals(first.seq() + 1, second.seq());
+        assertEquals(second.seq(), lastSeq(first.room().getId()));
+    }
+
+    @Test
+    public void testNodesSharingARoomNeverReuseASequenceNumber() throws InterruptedException {
+        List<User> users = twoUsers();
+        Long sender = users.get(0).getId();
+        Long receiver = users.get(1).getId();
+        ChatRoomCache otherNode = newCache(new SimpleMeterRegistry(), 1_800_000);
+        Long roomId = chatRoomCache.nextMessage(sender, receiver, null, null).room().getId();
+        long before = lastSeq(roomId);
+
+        Set<Long> seqs = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(SENDERS);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < SENDERS; i++) {
+            ChatRoomCache node = i % 2 == 0 ? chatRoomCache : otherNode;
+            executor.submit(() -> {
+                start.await();
+                for (int m = 0; m < MESSAGES_PER_SENDER; m++) {
+                    seqs.add(node.nextMessage(sender, receiver, null, null).seq());
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+
+        int sent = SENDERS * MESSAGES_PER_SENDER;
+        assertEquals(sent, seqs.size(), "A sequence number was handed out twice");
+        assertEquals(before + sent, lastSeq(roomId));
+        assertTrue(seqs.stream().allMatch(seq -> seq > before && seq <= before + sent));
+    }
+
+    @Test
+    public void testEvictedRoomContinuesItsSequence() {
+        List<User> users = twoUsers();
+        Long sender = users.get(0).getId();
+        Long receiver = users.get(1).getId();
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ChatRoomCache cache = newCache(meterRegistry, 0);
+
+        ChatRoomCache.Slot beforeEviction = cache.nextMessage(sender, receiver, null, null);
+        assertEquals(1.0, cachedRooms(meterRegistry));
+
+        cache.evictIdle();
+        assertEquals(0.0, cachedRooms(meterRegistry));
+
+        ChatRoomCache.Slot afterEviction = cache.nextMessage(sender, receiver, null, null);
+        assertNotSame(beforeEviction.room(), afterEviction.room(), "The room should have been loaded again");
+        assertEquals(beforeEviction.room().getId(), afterEviction.room().getId());
+        assertEquals(beforeEviction.seq() + 1, afterEviction.seq());
+    }
+
+    @Test
+    public void testRecentlyUsedRoomIsKept() {
+        List<User> users = twoUsers();
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ChatRoomCache cache = newCache(meterRegistry, 1_800_000);
+
+        cache.nextMessage(users.get(0).getId(), users.get(1).getId(), null, null);
+        cache.evictIdle();
+
+        assertEquals(1.0, cachedRooms(meterRegistry));
+    }
+
+    @Test
+    public void testUnknownSenderIsRejected() {
+        List<User> users = twoUsers();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> chatRoomCache.nextMessage(-1L, users.get(0).getId(), null, null));
+    }
+
+    private ChatRoomCache newCache(MeterRegistry meterRegistry, long idleMillis) {
+        return new ChatRoomCache(chatRoomRepository, userRepository, multiOrderRepository, subOrderRepository,
+                transactionManager, jdbcTemplate, meterRegistry, idleMillis);
+    }
+
+    private List<User> twoUsers() {
+        List<User> users = userRepository.findAll();
+        assumeTrue(users.size() >= 2, "Needs two users to chat");
+        return users.subList(0, 2);
+    }
+
+    private long lastSeq(Long roomId) {
+        return jdbcTemplate.queryForObject("SELECT last_seq FROM chat_room WHERE id = ?", Long.class, roomId);
+    }
+
+    private static double cachedRooms(MeterRegistry meterRegistry) {
+        return meterRegistry.get("chat.rooms.cached").gauge().value();
+    }
+}
@@ -0,0 +1,163 @@
+package com.srFoodDelivery.service.mail;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.srFoodDelivery.main.SRfoodDeliveryApplication;
+import com.srFoodDelivery.model.EmailOutboxMessage;
+import com.srFoodDelivery.model.Order;
+import com.srFoodDelivery.model.OrderStatus;
+import com.srFoodDelivery.model.User;
+import com.srFoodDelivery.repository.EmailOutboxRepository;
+import com.srFoodDelivery.service.EmailService;
+
+/**
+ * Sends outbox emails to an in-process fake SMTP server.
+ * Not @Transactional: the dispatcher claims and updates rows in its own transactions.
+ */
+@SpringBootTest(classes = SRfoodDeliveryApplication.class, properties = {
+        "mail.outbox.poll-interval-ms=3600000",
+        "spring.mail.username=",
+        "spring.mail.password=",
+        "spring.mail.properties.mail.smtp.auth=false",
+        "spring.mail.properties.mail.smtp.starttls.enable=false",
+        "spring.mail.properties.mail.smtp.starttls.required=false",
+        "spring.mail.properties.mail.debug=false"
+})
+@ActiveProfiles("test")
+public class EmailOutboxDispatcherTest {
+
+    private static final String RECIPIENT_PREFIX = "outbox-test-";
+
+    private static final FakeSmtpServer smtpServer = startServer();
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private EmailOutboxDispatcher dispatcher;
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @DynamicPropertySource
+    static void mailProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.mail.host", () -> "localhost");
+        registry.add("spring.mail.port", smtpServer::getPort);
+    }
+
+    @BeforeEach
+    public void resetServer() {
+        smtpServer.reset();
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        emailOutboxRepository.deleteAll(testMessages());
+    }
+
+    @AfterAll
+    public static void stopServer() throws IOException {
+        smtpServer.close();
+    }
+
+    @Test
+    public void testQueuedEmailsAreSentOverOneConnection() {
+        for (int i = 0; i < 5; i++) {
+            emailService.sendOrderStatusUpdateEmail(customer(i), order());
+        }
+        assertEquals(5, testMessages().size());
+        assertTrue(testMessages().stream().allMatch(m -> EmailOutboxMessage.STATUS_PENDING.equals(m.getStatus())));
+        assertTrue(smtpServer.getMessages().isEmpty(), "Nothing should be sent before the outbox is drained");
+
+        dispatcher.drainNow();
+
+        Set<String> received = smtpServer.getMessages().stream()
+                .map(FakeSmtpServer.ReceivedMessage::getRecipient)
+                .collect(Collectors.toSet());
+        for (int i = 0; i < 5; i++) {
+            assertTrue(received.contains(customer(i).getEmail()), "Missing email for customer " + i);
+        }
+        assertTrue(smtpServer.getConnectionCount() < smtpServer.getMessages().size(),
+                "Messages in a batch should share one SMTP connection");
+        assertTrue(testMessages().stream().allMatch(m -> EmailOutboxMessage.STATUS_SENT.equals(m.getStatus())));
+    }
+
+    @Test
+    public void testRejectedEmailIsRescheduledWithBackoff() {
+        User rejected = customer(0);
+        User accepted = customer(1);
+        smtpServer.rejectRecipient(rejected.getEmail());
+
+        emailService.sendOrderStatusUpdateEmail(rejected, order());
+        emailService.sendOrderStatusUpdateEmail(accepted, order());
+
+        dispatcher.drainNow();
+
+        for (EmailOutboxMessage message : testMessages()) {
+            if (message.getRecipient().equals(rejected.getEmail())) {
+                assertEquals(EmailOutboxMessage.STATUS_PENDING, message.getStatus());
+                assertEquals(1, message.getAttempts());
+                assertNotNull(message.getLastError());
+                assertTrue(message.getNextAttemptAt().isAfter(LocalDateTime.now()), "Retry should be delayed");
+            } else {
+                assertEquals(EmailOutboxMessage.STATUS_SENT, message.getStatus());
+            }
+        }
+    }
+
+    @Test
+    public void testStaleCutoffCoversABatchOfSlowSends() {
+        // 10 s to connect, then 50 messages that each wait out 10 s read and 10 s write timeouts
+        assertEquals(1_010_000, EmailOutboxDispatcher.staleAfterMillis(300_000, 50, 10_000, 10_000, 10_000));
+        assertEquals(300_000, EmailOutboxDispatcher.staleAfterMillis(300_000, 5, 1_000, 1_000, 1_000));
+        assertEquals(300_000, EmailOutboxDispatcher.staleAfterMillis(300_000, 50, 10_000, 0, 10_000),
+                "Without a read timeout no bound can be derived");
+    }
+
+    private List<EmailOutboxMessage> testMessages() {
+        return emailOutboxRepository.findAll().stream()
+                .filter(m -> m.getRecipient().startsWith(RECIPIENT_PREFIX))
+                .toList();
+    }
+
+    private User customer(int index) {
+        User user = new User();
+        user.setFullName("Outbox Customer " + index);
+        user.setEmail(RECIPIENT_PREFIX + index + "@example.com");
+        return user;
+    }
+
+    private Order order() {
+        Order order = new Order();
+        order.setStatus(OrderStatus.PREPARING);
+        order.setTotalAmount(new BigDecimal("250.00"));
+        order.setDeliveryAddress("123 Test St");
+        return order;
+    }
+
+    private static FakeSmtpServer startServer() {
+        try {
+            return new FakeSmtpServer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
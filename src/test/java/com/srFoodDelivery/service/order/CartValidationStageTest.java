@@ -0,0 +1,130 @@
+package com.srFoodDelivery.service.order;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.srFoodDelivery.dto.order.MultiOrderCreateRequest;
+import com.srFoodDelivery.main.SRfoodDeliveryApplication;
+import com.srFoodDelivery.model.MenuItem;
+import com.srFoodDelivery.repository.MenuItemRepository;
+
+@SpringBootTest(classes = SRfoodDeliveryApplication.class)
+@ActiveProfiles("test")
+@Transactional
+public class CartValidationStageTest {
+
+    @Autowired
+    private CartValidationStage cartValidationStage;
+
+    @Autowired
+    private MenuItemRepository menuItemRepository;
+
+    @Test
+    public void testLinesAreGroupedByRestaurantInCartOrder() {
+        List<MenuItem> items = itemsFromTwoRestaurants();
+        MenuItem first = items.get(0);
+        MenuItem second = items.get(1);
+
+        ValidatedCart cart = cartValidationStage.validate(List.of(
+                line(first.getId(), 2),
+                line(second.getId(), 1),
+                line(first.getId(), 3)));
+
+        assertEquals(2, cart.getGroups().size());
+        ValidatedCart.RestaurantGroup firstGroup = cart.getGroups().get(0);
+        ValidatedCart.RestaurantGroup secondGroup = cart.getGroups().get(1);
+        assertEquals(first.getMenu().getRestaurant().getId(), firstGroup.getRestaurant().getId());
+        assertEquals(second.getMenu().getRestaurant().getId(), secondGroup.getRestaurant().getId());
+
+        assertEquals(2, firstGroup.getLines().size());
+        assertEquals(2, firstGroup.getLines().get(0).getQuantity());
+        assertEquals(3, firstGroup.getLines().get(1).getQuantity());
+        assertEquals(0, first.getEffectivePrice().compareTo(firstGroup.getLines().get(0).getUnitPrice()));
+        assertEquals(0, first.getEffectivePrice().multiply(BigDecimal.valueOf(5)).compareTo(firstGroup.getSubtotal()));
+
+        assertEquals(1, secondGroup.getLines().size());
+        assertEquals(0, firstGroup.getSubtotal().add(secondGroup.getSubtotal()).compareTo(cart.getSubtotal()));
+    }
+
+    @Test
+    public void testLinesForOneItemArePricedFromTheSnapshot() {
+        MenuItem item = itemsFromTwoRestaurants().get(0);
+        Map<Long, MenuItem> menuItems = Map.of(item.getId(), item);
+        Map<Long, BigDecimal> priceSnapshot = new LinkedHashMap<>();
+        priceSnapshot.put(item.getId(), new BigDecimal("120.00"));
+
+        // A price change after the snapshot is taken must not reach any line
+        item.setPrice(new BigDecimal("999.00"));
+        ValidatedCart.RestaurantGroup group = CartValidationStage.priceGroup(item.getMenu().getRestaurant(),
+                List.of(line(item.getId(), 1), line(item.getId(), 2)), menuItems, priceSnapshot);
+
+        assertEquals(new BigDecimal("120.00"), group.getLines().get(0).getUnitPrice());
+        assertEquals(new BigDecimal("120.00"), group.getLines().get(1).getUnitPrice());
+        assertEquals(new BigDecimal("360.00"), group.getSubtotal());
+    }
+
+    @Test
+    public void testEmptyCartIsValid() {
+        ValidatedCart cart = cartValidationStage.validate(List.of());
+
+        assertTrue(cart.isEmpty());
+        assertEquals(BigDecimal.ZERO, cart.getSubtotal());
+    }
+
+    @Test
+    public void testMissingItemIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> cartValidationStage.validate(List.of(line(99999L, 1))));
+    }
+
+    @Test
+    public void testNonPositiveQuantityIsRejected() {
+        MenuItem item = itemsFromTwoRestaurants().get(0);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> cartValidationStage.validate(List.of(line(item.getId(), 0))));
+    }
+
+    @Test
+    public void testUnavailableItemIsRejected() {
+        MenuItem item = itemsFromTwoRestaurants().get(0);
+        item.setAvailable(false);
+        menuItemRepository.saveAndFlush(item);
+
+        assertThrows(IllegalStateException.class,
+                () -> cartValidationStage.validate(List.of(line(item.getId(), 1))));
+    }
+
+    /**
+     * One available item from each of two different restaurants.
+     */
+    private List<MenuItem> itemsFromTwoRestaurants() {
+        Map<Long, MenuItem> byRestaurant = new LinkedHashMap<>();
+        for (MenuItem item : menuItemRepository.findAvailableForSearchIndex()) {
+            if (item.getMenu().getRestaurant() != null) {
+                byRestaurant.putIfAbsent(item.getMenu().getRestaurant().getId(), item);
+            }
+        }
+        assumeTrue(byRestaurant.size() >= 2, "Needs available items from two restaurants");
+        return new ArrayList<>(byRestaurant.values()).subList(0, 2);
+    }
+
+    private MultiOrderCreateRequest.CartItemRequest line(Long menuItemId, int quantity) {
+        MultiOrderCreateRequest.CartItemRequest line = new MultiOrderCreateRequest.CartItemRequest();
+        line.setMenuItemId(menuItemId);
+        line.setQuantity(quantity);
+        return line;
+    }
+}
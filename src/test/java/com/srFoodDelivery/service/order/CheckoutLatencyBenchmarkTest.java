@@ -0,0 +1,143 @@
+package com.srFoodDelivery.service.order;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.srFoodDelivery.main.SRfoodDeliveryApplication;
+import com.srFoodDelivery.model.MenuItem;
+import com.srFoodDelivery.model.MultiOrder;
+import com.srFoodDelivery.model.SubOrder;
+import com.srFoodDelivery.model.User;
+import com.srFoodDelivery.model.UserRole;
+import com.srFoodDelivery.repository.MenuItemRepository;
+import com.srFoodDelivery.repository.MultiOrderRepository;
+import com.srFoodDelivery.repository.UserRepository;
+import com.srFoodDelivery.service.CartService;
+import com.srFoodDelivery.service.OrderService;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Checks that checkout latency does not grow with the customer's order history, which it did
+ * while checkout loaded every order to find the newest one.
+ * Run with: mvn test -Dtest=CheckoutLatencyBenchmarkTest -Dbenchmark=true
+ */
+@SpringBootTest(classes = SRfoodDeliveryApplication.class)
+@ActiveProfiles("test")
+@Transactional
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class CheckoutLatencyBenchmarkTest {
+
+    private static final int[] HISTORY_SIZES = {0, 100, 500, 1000};
+    private static final int RUNS_PER_SIZE = 3;
+    // Checkout at the largest history may take at most this many times as long as at the smallest
+    private static final long MAX_GROWTH = 3;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MenuItemRepository menuItemRepository;
+
+    @Autowired
+    private MultiOrderRepository multiOrderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    public void benchmarkCheckoutLatencyByOrderHistory() {
+        MenuItem menuItem = menuItemRepository.findAvailableForSearchIndex().stream()
+                .filter(item -> item.getMenu().getRestaurant() != null)
+                .findFirst()
+                .orElse(null);
+        assumeTrue(menuItem != null, "No available menu item to check out");
+        User customer = createCustomer();
+
+        // Warm up so the first measurement does not include class loading and JIT compilation
+        checkout(customer, menuItem);
+        int created = 1;
+
+        long[] bestMicros = new long[HISTORY_SIZES.length];
+        for (int i = 0; i < HISTORY_SIZES.length; i++) {
+            for (; created < HISTORY_SIZES[i]; created++) {
+                createHistoricalOrder(customer, menuItem);
+            }
+            entityManager.flush();
+            entityManager.clear();
+
+            bestMicros[i] = Long.MAX_VALUE;
+            for (int run = 0; run < RUNS_PER_SIZE; run++) {
+                bestMicros[i] = Math.min(bestMicros[i], checkout(customer, menuItem));
+                created++;
+            }
+        }
+
+        long smallest = Math.max(bestMicros[0], 1);
+        long largest = bestMicros[HISTORY_SIZES.length - 1];
+        assertTrue(largest <= smallest * MAX_GROWTH,
+                "Checkout took " + largest + " us with " + HISTORY_SIZES[HISTORY_SIZES.length - 1]
+                        + " past orders but " + smallest + " us with " + HISTORY_SIZES[0]);
+    }
+
+    /**
+     * Checks out one item and returns how long it took, in microseconds.
+     */
+    private long checkout(User customer, MenuItem menuItem) {
+        cartService.addItem(customer, menuItem.getId(), 1);
+        long start = System.nanoTime();
+        PlacedOrder placed = orderService.checkout(customer, "123 Test St", null, null,
+                BigDecimal.ZERO, null, null, null, true);
+        entityManager.flush();
+        long micros = (System.nanoTime() - start) / 1_000;
+        entityManager.clear();
+
+        assertNotNull(placed.getMultiOrderId());
+        assertEquals("CONFIRMED", placed.getStatus());
+        assertEquals("PAID", placed.getPaymentStatus());
+        return micros;
+    }
+
+    private User createCustomer() {
+        User user = new User();
+        user.setFullName("Benchmark Customer");
+        user.setEmail("bench-checkout-customer@example.com");
+        user.setPasswordHash("benchmark-password-hash");
+        user.setRole(UserRole.CUSTOMER);
+        user.setPhoneNumber("9000000000");
+        return userRepository.save(user);
+    }
+
+    private void createHistoricalOrder(User customer, MenuItem menuItem) {
+        MultiOrder multiOrder = new MultiOrder();
+        multiOrder.setUser(customer);
+        multiOrder.setTotalAmount(menuItem.getPrice());
+        multiOrder.setDeliveryAddress("123 Test St");
+        multiOrder.setStatus("DELIVERED");
+        multiOrder.setPaymentStatus("PAID");
+
+        SubOrder subOrder = new SubOrder();
+        subOrder.setMultiOrder(multiOrder);
+        subOrder.setRestaurant(menuItem.getMenu().getRestaurant());
+        subOrder.setTotalAmount(menuItem.getPrice());
+        subOrder.setStatus("DELIVERED");
+        multiOrder.addSubOrder(subOrder);
+
+        multiOrderRepository.save(multiOrder);
+    }
+}
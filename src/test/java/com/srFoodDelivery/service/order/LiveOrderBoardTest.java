@@ -0,0 +1,171 @@
+package com.srFoodDelivery.service.order;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.srFoodDelivery.repository.SubOrderRepository;
+import com.srFoodDelivery.repository.SubOrderRepository.BoardRow;
+import com.srFoodDelivery.websocket.OrderWebSocketPublisher;
+import com.srFoodDelivery.websocket.event.BoardChangePayload;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Changes applied to a loaded board, and reloads when restaurant_board_version moves on.
+ * The version row is simulated by a counter behind the mocked JdbcTemplate.
+ */
+public class LiveOrderBoardTest {
+
+    private static final Long RESTAURANT_ID = 1L;
+    private static final long TTL_MILLIS = 600_000;
+
+    private final AtomicLong storedVersion = new AtomicLong();
+    private SubOrderRepository subOrderRepository;
+    private OrderWebSocketPublisher publisher;
+    private LiveOrderBoard board;
+
+    @BeforeEach
+    public void setUp() {
+        subOrderRepository = mock(SubOrderRepository.class);
+        publisher = mock(OrderWebSocketPublisher.class);
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(RESTAURANT_ID)))
+                .thenAnswer(invocation -> List.of(storedVersion.get()));
+        when(jdbcTemplate.update(anyString(), eq(RESTAURANT_ID)))
+                .thenAnswer(invocation -> {
+                    storedVersion.incrementAndGet();
+                    return 1;
+                });
+        when(jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Long.class))
+                .thenAnswer(invocation -> storedVersion.get());
+        board = new LiveOrderBoard(subOrderRepository, publisher, jdbcTemplate,
+                mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), TTL_MILLIS);
+    }
+
+    @Test
+    public void testNewOrderIsAddedToItsLane() {
+        loadBoard(row(10L, "PREPARING", false));
+        when(subOrderRepository.findBoardRow(11L)).thenReturn(Optional.of(row(11L, "CONFIRMED", true)));
+
+        board.onSubOrderStatusChanged(change(11L, null, "CONFIRMED"));
+
+        List<LiveOrderBoard.Entry> entries = board.entries(RESTAURANT_ID);
+        assertEquals(List.of(11L, 10L), entries.stream().map(LiveOrderBoard.Entry::subOrderId).toList());
+        assertTrue(entries.get(0).isPreorder());
+        verify(publisher).publishToRestaurant(RESTAURANT_ID, "BOARD_UPSERT",
+                new BoardChangePayload(11L, LiveOrderBoard.PREORDER, "CONFIRMED"));
+        // The board held the change itself, so the bumped version did not force a reload
+        verify(subOrderRepository, times(1)).findBoardRows(eq(RESTAURANT_ID), any());
+    }
+
+    @Test
+    public void testStatusChangeKeepsTheLaneWithoutALookup() {
+        loadBoard(row(10L, "PREPARING", false));
+
+        board.onSubOrderStatusChanged(change(10L, "PREPARING", "READY"));
+
+        LiveOrderBoard.Entry entry = board.entries(RESTAURANT_ID).get(0);
+        assertEquals("READY", entry.status());
+        assertEquals(LiveOrderBoard.DELIVERY, entry.lane());
+        verify(subOrderRepository, never()).findBoardRow(anyLong());
+    }
+
+    @Test
+    public void testClosedOrderLeavesTheBoard() {
+        loadBoard(row(10L, "PREPARING", false), row(11L, "READY", false));
+
+        board.onSubOrderStatusChanged(change(11L, "READY", "DELIVERED"));
+
+        assertEquals(List.of(10L), board.entries(RESTAURANT_ID).stream().map(LiveOrderBoard.Entry::subOrderId).toList());
+        verify(publisher).publishToRestaurant(RESTAURANT_ID, "BOARD_REMOVE",
+                new BoardChangePayload(11L, null, "DELIVERED"));
+    }
+
+    @Test
+    public void testUnchangedStatusIsIgnored() {
+        loadBoard(row(10L, "PREPARING", false));
+
+        board.onSubOrderStatusChanged(change(10L, "PREPARING", "PREPARING"));
+
+        assertEquals(0, storedVersion.get());
+        verify(publisher, never()).publishToRestaurant(anyLong(), anyString(), any());
+    }
+
+    @Test
+    public void testChangeToAnUnloadedBoardIsOnlyPublished() {
+        board.onSubOrderStatusChanged(change(11L, null, "CONFIRMED"));
+
+        verify(subOrderRepository, never()).findBoardRow(anyLong());
+        verify(publisher).publishToRestaurant(RESTAURANT_ID, "BOARD_UPSERT",
+                new BoardChangePayload(11L, null, "CONFIRMED"));
+        assertEquals(1, storedVersion.get(), "Other nodes must still learn of the change");
+    }
+
+    @Test
+    public void testChangeMadeOnAnotherNodeReloadsTheBoard() {
+        loadBoard(row(10L, "PREPARING", false));
+
+        // Another node moved order 10 on and bumped the version
+        when(subOrderRepository.findBoardRows(eq(RESTAURANT_ID), any()))
+                .thenReturn(List.of(row(10L, "READY", false)));
+        storedVersion.incrementAndGet();
+
+        assertEquals("READY", board.entries(RESTAURANT_ID).get(0).status());
+        verify(subOrderRepository, times(2)).findBoardRows(eq(RESTAURANT_ID), any());
+    }
+
+    @Test
+    public void testUnchangedVersionServesTheBoardFromMemory() {
+        loadBoard(row(10L, "PREPARING", false));
+
+        board.entries(RESTAURANT_ID);
+        board.entries(RESTAURANT_ID);
+
+        verify(subOrderRepository, times(1)).findBoardRows(eq(RESTAURANT_ID), any());
+    }
+
+    private void loadBoard(BoardRow... rows) {
+        when(subOrderRepository.findBoardRows(eq(RESTAURANT_ID), any())).thenReturn(List.of(rows));
+        assertEquals(rows.length, board.entries(RESTAURANT_ID).size());
+    }
+
+    private static SubOrderStatusChangedEvent change(Long subOrderId, String oldStatus, String newStatus) {
+        return new SubOrderStatusChangedEvent(subOrderId, 100L, RESTAURANT_ID, oldStatus, newStatus, null, null);
+    }
+
+    private static BoardRow row(Long id, String status, boolean preorder) {
+        return new BoardRow() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getStatus() {
+                return status;
+            }
+
+            @Override
+            public Boolean getPreorder() {
+                return preorder;
+            }
+        };
+    }
+}
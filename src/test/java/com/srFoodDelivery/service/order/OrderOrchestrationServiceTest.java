@@ -12,6 +12,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.srFoodDelivery.dto.order.CursorPage;
 import com.srFoodDelivery.dto.order.MultiOrderCreateRequest;
 // Import MultiOrderDTO from the correct package
 import com.srFoodDelivery.dto.order.MultiOrderDTO;
@@ -90,4 +91,60 @@ public class OrderOrchestrationServiceTest {
         assertFalse(result.getSubOrders().isEmpty());
         assertTrue(result.getTotalAmount().compareTo(BigDecimal.ZERO) > 0);
     }
+
+    @Test
+    public void testUserMultiOrderPage_WalksWholeHistoryWithoutGapsOrDuplicates() {
+        User user = userRepository.findByEmail("customer1@example.com")
+                .orElseThrow(() -> new RuntimeException("Test user not found"));
+
+        List<MenuItem> availableItems = menuItemRepository.findByAvailableTrue();
+        if (availableItems.isEmpty()) {
+            // Skip test if no items available
+            return;
+        }
+
+        // Orders created in the same second share created_at, so the id tie-break is exercised
+        List<Long> created = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            MultiOrderCreateRequest request = new MultiOrderCreateRequest();
+            request.setDeliveryAddress("123 Test St");
+            MultiOrderCreateRequest.CartItemRequest item = new MultiOrderCreateRequest.CartItemRequest();
+            item.setMenuItemId(availableItems.get(0).getId());
+            item.setQuantity(1);
+            request.setCartItems(new ArrayList<>(List.of(item)));
+            created.add(orderOrchestrationService.createMultiOrder(user, request).getId());
+        }
+
+        List<Long> expected = orderOrchestrationService.getUserMultiOrders(user).stream()
+                .map(MultiOrderDTO::getId)
+                .toList();
+
+        List<Long> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<MultiOrderDTO> page = orderOrchestrationService.getUserMultiOrderPage(user, cursor, 2);
+            assertTrue(page.getItems().size() <= 2);
+            for (MultiOrderDTO order : page.getItems()) {
+                if (created.contains(order.getId())) {
+                    assertFalse(order.getSubOrders().isEmpty());
+                    assertFalse(order.getSubOrders().get(0).getItems().isEmpty());
+                }
+                paged.add(order.getId());
+            }
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(expected.size(), paged.size());
+        assertEquals(expected.size(), paged.stream().distinct().count());
+        assertTrue(paged.containsAll(expected));
+    }
+
+    @Test
+    public void testUserMultiOrderPage_RejectsForgedCursor() {
+        User user = userRepository.findByEmail("customer1@example.com")
+                .orElseThrow(() -> new RuntimeException("Test user not found"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> orderOrchestrationService.getUserMultiOrderPage(user, "not-a-cursor", 10));
+    }
 }
@@ -15,8 +15,10 @@ import com.srFoodDelivery.dto.payment.DemoPaymentResponse;
 import com.srFoodDelivery.dto.payment.OtpVerificationRequest;
 import com.srFoodDelivery.main.SRfoodDeliveryApplication;
 import com.srFoodDelivery.model.MultiOrder;
+import com.srFoodDelivery.model.OutboxEvent;
 import com.srFoodDelivery.model.User;
 import com.srFoodDelivery.repository.MultiOrderRepository;
+import com.srFoodDelivery.repository.OutboxEventRepository;
 import com.srFoodDelivery.repository.UserRepository;
 
 @SpringBootTest(classes = SRfoodDeliveryApplication.class)
@@ -33,6 +35,9 @@ public class DemoPaymentServiceTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
     @Test
     public void testPaymentBelowThreshold_AutoApproved() {
         User user = userRepository.findByEmail("customer1@example.com")
@@ -64,6 +69,34 @@ public class DemoPaymentServiceTest {
         assertEquals("CONFIRMED", updatedOrder.getStatus());
     }
 
+    @Test
+    public void testPaymentRecordsOrderConfirmedEventOnce() {
+        User user = userRepository.findByEmail("customer1@example.com")
+                .orElseThrow(() -> new RuntimeException("Test user not found"));
+
+        MultiOrder multiOrder = new MultiOrder();
+        multiOrder.setUser(user);
+        multiOrder.setTotalAmount(new BigDecimal("100.00"));
+        multiOrder.setDeliveryAddress("123 Test St");
+        multiOrder.setStatus("PENDING");
+        multiOrder.setPaymentStatus("PENDING");
+        MultiOrder savedOrder = multiOrderRepository.save(multiOrder);
+
+        DemoPaymentRequest request = new DemoPaymentRequest();
+        request.setMultiOrderId(savedOrder.getId());
+        request.setAmount(new BigDecimal("100.00"));
+        demoPaymentService.processPayment(request);
+
+        // Written in the payment's transaction; handled by the dispatcher only after commit
+        String dedupKey = OutboxEvent.TYPE_ORDER_CONFIRMED + ":" + savedOrder.getId();
+        assertTrue(outboxEventRepository.existsByDedupKey(dedupKey));
+        long recorded = outboxEventRepository.findAll().stream()
+                .filter(e -> dedupKey.equals(e.getDedupKey()))
+                .filter(e -> OutboxEvent.STATUS_PENDING.equals(e.getStatus()))
+                .count();
+        assertEquals(1, recorded);
+    }
+
     @Test
     public void testPaymentAboveThreshold_RequiresOtp() {
         User user = userRepository.findByEmail("customer1@example.com")
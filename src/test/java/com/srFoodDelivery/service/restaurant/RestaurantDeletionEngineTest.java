@@ -0,0 +1,143 @@
+package com.srFoodDelivery.service.restaurant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.srFoodDelivery.main.SRfoodDeliveryApplication;
+import com.srFoodDelivery.model.Menu;
+import com.srFoodDelivery.model.MenuItem;
+import com.srFoodDelivery.model.Restaurant;
+import com.srFoodDelivery.model.User;
+import com.srFoodDelivery.repository.MenuItemRepository;
+import com.srFoodDelivery.repository.MenuRepository;
+import com.srFoodDelivery.repository.RestaurantRepository;
+import com.srFoodDelivery.repository.UserRepository;
+import com.srFoodDelivery.service.search.MenuSearchIndex;
+import com.srFoodDelivery.service.search.MenuSearchQuery;
+
+/**
+ * Not @Transactional: the job runs on its own thread and commits each chunk itself.
+ */
+@SpringBootTest(classes = SRfoodDeliveryApplication.class, properties = "restaurant.deletion.chunk-size=2")
+@ActiveProfiles("test")
+public class RestaurantDeletionEngineTest {
+
+    private static final int ITEM_COUNT = 5;
+
+    @Autowired
+    private RestaurantDeletionEngine deletionEngine;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    @Autowired
+    private MenuRepository menuRepository;
+
+    @Autowired
+    private MenuItemRepository menuItemRepository;
+
+    @Autowired
+    private MenuSearchIndex menuSearchIndex;
+
+    @Test
+    public void testStepsDeleteChildrenBeforeParents() {
+        List<String> order = new ArrayList<>();
+        RestaurantDeletionEngine.STEPS.forEach(step -> order.add(step.table()));
+        order.add("restaurants");
+
+        List<Map<String, Object>> foreignKeys = jdbcTemplate.queryForList(
+                "SELECT kcu.TABLE_NAME AS child, kcu.REFERENCED_TABLE_NAME AS parent, rc.DELETE_RULE AS rule " +
+                "FROM information_schema.KEY_COLUMN_USAGE kcu " +
+                "JOIN information_schema.REFERENTIAL_CONSTRAINTS rc " +
+                "ON rc.CONSTRAINT_SCHEMA = kcu.TABLE_SCHEMA AND rc.CONSTRAINT_NAME = kcu.CONSTRAINT_NAME " +
+                "WHERE kcu.TABLE_SCHEMA = DATABASE() AND kcu.REFERENCED_TABLE_NAME IS NOT NULL");
+        assumeFalse(foreignKeys.isEmpty(), "Schema has no foreign keys to check");
+
+        for (Map<String, Object> foreignKey : foreignKeys) {
+            String child = ((String) foreignKey.get("child")).toLowerCase();
+            String parent = ((String) foreignKey.get("parent")).toLowerCase();
+            String rule = (String) foreignKey.get("rule");
+            int parentIndex = order.indexOf(parent);
+            if (parentIndex < 0 || child.equals(parent)) {
+                continue;
+            }
+            int childIndex = order.indexOf(child);
+            if (childIndex >= 0) {
+                assertTrue(childIndex < parentIndex, child + " must be deleted before " + parent);
+            } else {
+                assertTrue("CASCADE".equals(rule) || "SET NULL".equals(rule),
+                        child + " references " + parent + " but is not deleted by the job");
+            }
+        }
+    }
+
+    @Test
+    public void testDeletionRunsInChunksAndDropsItemsFromSearch() throws InterruptedException {
+        List<User> users = userRepository.findAll();
+        assumeFalse(users.isEmpty(), "No user to own the restaurant");
+
+        Restaurant restaurant = new Restaurant();
+        restaurant.setName("Deletion Test Restaurant");
+        restaurant.setAddress("1 Test Lane");
+        restaurant.setOwner(users.get(0));
+        restaurant = restaurantRepository.save(restaurant);
+
+        Menu menu = new Menu();
+        menu.setTitle("Deletion Test Menu");
+        menu.setType(Menu.Type.RESTAURANT);
+        menu.setRestaurant(restaurant);
+        menu = menuRepository.save(menu);
+
+        List<Long> itemIds = new ArrayList<>();
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            MenuItem item = new MenuItem();
+            item.setMenu(menu);
+            item.setName("Deletion test dish " + i);
+            item.setPrice(new BigDecimal("100.00"));
+            item = menuItemRepository.save(item);
+            menuSearchIndex.index(item);
+            itemIds.add(item.getId());
+        }
+        assertTrue(searchFinds(itemIds.get(0)), "Item should be searchable before the deletion");
+
+        RestaurantDeletionJob job = deletionEngine.submit(restaurant.getId());
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (!job.isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+
+        assertEquals(RestaurantDeletionJob.STATUS_COMPLETED, job.getStatus(), job.getError());
+        assertEquals(job.getTotalSteps(), job.getCompletedSteps());
+        // Five items at two per statement take three chunks; all of them must go
+        assertEquals(Long.valueOf(ITEM_COUNT), job.getRowsDeleted().get("menu_items"));
+        assertEquals(Long.valueOf(1), job.getRowsDeleted().get("menus"));
+        assertEquals(Long.valueOf(1), job.getRowsDeleted().get("restaurants"));
+        assertFalse(restaurantRepository.existsById(restaurant.getId()));
+        for (Long itemId : itemIds) {
+            assertFalse(menuItemRepository.existsById(itemId));
+            assertFalse(searchFinds(itemId), "Deleted item " + itemId + " is still in the search index");
+        }
+    }
+
+    private boolean searchFinds(Long itemId) {
+        return menuSearchIndex.search(new MenuSearchQuery(null, "deletion test dish", null, null, null, 0, 1000))
+                .getItemIds().contains(itemId);
+    }
+}
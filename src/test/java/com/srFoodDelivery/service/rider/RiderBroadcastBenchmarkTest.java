@@ -0,0 +1,136 @@
+package com.srFoodDelivery.service.rider;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.srFoodDelivery.main.SRfoodDeliveryApplication;
+import com.srFoodDelivery.model.MultiOrder;
+import com.srFoodDelivery.model.Restaurant;
+import com.srFoodDelivery.model.Rider;
+import com.srFoodDelivery.model.SubOrder;
+import com.srFoodDelivery.model.User;
+import com.srFoodDelivery.model.UserRole;
+import com.srFoodDelivery.repository.MultiOrderRepository;
+import com.srFoodDelivery.repository.RestaurantRepository;
+import com.srFoodDelivery.repository.RiderRepository;
+import com.srFoodDelivery.repository.SubOrderRepository;
+import com.srFoodDelivery.repository.UserRepository;
+
+/**
+ * Measures broadcastOrderToAllRiders latency as the number of online riders grows. Offers are
+ * written in batches and fanned out from one encoded frame, so each broadcast must stay within
+ * a fixed budget and the cost per rider must not grow with the number of riders.
+ * Run with: mvn test -Dtest=RiderBroadcastBenchmarkTest -Dbenchmark=true
+ */
+@SpringBootTest(classes = SRfoodDeliveryApplication.class)
+@ActiveProfiles("test")
+@Transactional
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class RiderBroadcastBenchmarkTest {
+
+    private static final int[] RIDER_COUNTS = {100, 500, 1000, 2000};
+    private static final long BROADCAST_BUDGET_MILLIS = 2000;
+
+    @Autowired
+    private RiderService riderService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RiderRepository riderRepository;
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    @Autowired
+    private MultiOrderRepository multiOrderRepository;
+
+    @Autowired
+    private SubOrderRepository subOrderRepository;
+
+    @Test
+    public void benchmarkBroadcastLatencyByRiderCount() {
+        List<Restaurant> restaurants = restaurantRepository.findAll();
+        assumeFalse(restaurants.isEmpty(), "Needs a seeded restaurant");
+        Restaurant restaurant = restaurants.get(0);
+        User customer = userRepository.findByEmail("customer1@example.com")
+                .orElseThrow(() -> new RuntimeException("Test user not found"));
+
+        int created = 0;
+        double smallestPerRiderMicros = 0;
+        double largestPerRiderMicros = 0;
+        for (int riderCount : RIDER_COUNTS) {
+            for (; created < riderCount; created++) {
+                createOnlineRider(created);
+            }
+
+            SubOrder subOrder = createConfirmedSubOrder(customer, restaurant);
+
+            long start = System.nanoTime();
+            int offered = riderService.broadcastOrderToAllRiders(subOrder.getId());
+            long elapsedMicros = (System.nanoTime() - start) / 1_000;
+
+            assertTrue(offered >= riderCount,
+                    "Expected an offer for each of the " + riderCount + " online riders");
+            assertTrue(elapsedMicros <= BROADCAST_BUDGET_MILLIS * 1_000,
+                    "Broadcast to " + riderCount + " riders took " + elapsedMicros + " us");
+
+            double perRiderMicros = (double) elapsedMicros / riderCount;
+            if (riderCount == RIDER_COUNTS[0]) {
+                smallestPerRiderMicros = perRiderMicros;
+            }
+            largestPerRiderMicros = perRiderMicros;
+        }
+
+        // Fixed costs dominate the smallest run, so batching should make the largest one no dearer per rider
+        assertTrue(largestPerRiderMicros <= smallestPerRiderMicros,
+                "Per-rider cost grew from " + smallestPerRiderMicros + " us to " + largestPerRiderMicros + " us");
+    }
+
+    private void createOnlineRider(int index) {
+        User user = new User();
+        user.setFullName("Benchmark Rider " + index);
+        user.setEmail("bench-rider-" + index + "@example.com");
+        user.setPasswordHash("benchmark-password-hash");
+        user.setRole(UserRole.RIDER);
+        user.setPhoneNumber("9000000000");
+        userRepository.save(user);
+
+        Rider rider = new Rider();
+        rider.setUser(user);
+        rider.setPhoneNumber("9000000000");
+        rider.setIsOnline(true);
+        rider.setIsAvailable(true);
+        rider.setCurrentLatitude(new BigDecimal("17.38500000").add(BigDecimal.valueOf(index % 100, 4)));
+        rider.setCurrentLongitude(new BigDecimal("78.48670000").add(BigDecimal.valueOf(index / 100, 4)));
+        riderRepository.save(rider);
+    }
+
+    private SubOrder createConfirmedSubOrder(User customer, Restaurant restaurant) {
+        MultiOrder multiOrder = new MultiOrder();
+        multiOrder.setUser(customer);
+        multiOrder.setTotalAmount(new BigDecimal("250.00"));
+        multiOrder.setDeliveryAddress("123 Test St");
+        multiOrder.setStatus("CONFIRMED");
+        multiOrder.setPaymentStatus("PAID");
+        multiOrderRepository.save(multiOrder);
+
+        SubOrder subOrder = new SubOrder();
+        subOrder.setMultiOrder(multiOrder);
+        subOrder.setRestaurant(restaurant);
+        subOrder.setTotalAmount(new BigDecimal("250.00"));
+        subOrder.setStatus("CONFIRMED");
+        return subOrderRepository.save(subOrder);
+    }
+}
@@ -0,0 +1,142 @@
+package com.srFoodDelivery.service.rider;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.srFoodDelivery.repository.SubOrderRepository;
+import com.srFoodDelivery.repository.SubOrderRepository.RiderActiveLoad;
+import com.srFoodDelivery.service.order.SubOrderStatusChangedEvent;
+
+/**
+ * Load changes from status events, applied after commit, and reconciliation against the
+ * database count, which is stubbed.
+ */
+public class RiderLoadTrackerTest {
+
+    private static final Long RIDER_ID = 1L;
+    private static final Long OTHER_RIDER_ID = 2L;
+
+    private SubOrderRepository subOrderRepository;
+    private RiderLoadTracker tracker;
+
+    @BeforeEach
+    public void setUp() {
+        subOrderRepository = mock(SubOrderRepository.class);
+        tracker = new RiderLoadTracker(subOrderRepository);
+    }
+
+    @Test
+    public void testAssignmentAndCompletionMoveTheLoad() {
+        tracker.onSubOrderStatusChanged(change("OFFERED", "ASSIGNED", null, RIDER_ID));
+        tracker.onSubOrderStatusChanged(change("OFFERED", "ASSIGNED", null, RIDER_ID));
+        assertEquals(2, tracker.activeLoad(RIDER_ID));
+
+        tracker.onSubOrderStatusChanged(change("ASSIGNED", "ACCEPTED", RIDER_ID, RIDER_ID));
+        tracker.onSubOrderStatusChanged(change("ACCEPTED", "EN_ROUTE", RIDER_ID, RIDER_ID));
+        assertEquals(2, tracker.activeLoad(RIDER_ID), "Moving between active statuses keeps the load");
+
+        tracker.onSubOrderStatusChanged(change("EN_ROUTE", "DELIVERED", RIDER_ID, RIDER_ID));
+        assertEquals(1, tracker.activeLoad(RIDER_ID));
+    }
+
+    @Test
+    public void testReassignmentMovesTheLoadBetweenRiders() {
+        tracker.onSubOrderStatusChanged(change("OFFERED", "ASSIGNED", null, RIDER_ID));
+
+        tracker.onSubOrderStatusChanged(change("ASSIGNED", "ASSIGNED", RIDER_ID, OTHER_RIDER_ID));
+
+        assertEquals(0, tracker.activeLoad(RIDER_ID));
+        assertEquals(1, tracker.activeLoad(OTHER_RIDER_ID));
+    }
+
+    @Test
+    public void testLoadNeverReadsBelowZero() {
+        tracker.onSubOrderStatusChanged(change("EN_ROUTE", "CANCELLED", RIDER_ID, RIDER_ID));
+
+        assertEquals(0, tracker.activeLoad(RIDER_ID));
+    }
+
+    @Test
+    public void testChangeAppliesOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            tracker.onSubOrderStatusChanged(change("OFFERED", "ASSIGNED", null, RIDER_ID));
+            assertEquals(0, tracker.activeLoad(RIDER_ID));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertEquals(1, tracker.activeLoad(RIDER_ID));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void testRolledBackChangeIsNotApplied() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            tracker.onSubOrderStatusChanged(change("OFFERED", "ASSIGNED", null, RIDER_ID));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(
+                    sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(0, tracker.activeLoad(RIDER_ID));
+    }
+
+    @Test
+    public void testReconcileCorrectsDriftAndAddsUnknownRiders() {
+        tracker.onSubOrderStatusChanged(change("OFFERED", "ASSIGNED", null, RIDER_ID));
+        tracker.onSubOrderStatusChanged(change("OFFERED", "ASSIGNED", null, RIDER_ID));
+        // Rider 1's sub orders were closed in bulk; rider 2 was assigned on another node
+        when(subOrderRepository.countByRiderAndStatusIn(anyList()))
+                .thenReturn(List.of(load(OTHER_RIDER_ID, 3)));
+
+        tracker.reconcile();
+
+        assertEquals(0, tracker.activeLoad(RIDER_ID));
+        assertEquals(3, tracker.activeLoad(OTHER_RIDER_ID));
+    }
+
+    @Test
+    public void testReconcileKeepsAChangeMadeWhileItCounted() {
+        tracker.onSubOrderStatusChanged(change("OFFERED", "ASSIGNED", null, RIDER_ID));
+        when(subOrderRepository.countByRiderAndStatusIn(anyList())).thenAnswer(invocation -> {
+            // The count is stale, and a second assignment commits while it runs
+            tracker.onSubOrderStatusChanged(change("OFFERED", "ASSIGNED", null, RIDER_ID));
+            return List.of();
+        });
+
+        tracker.reconcile();
+
+        assertEquals(2, tracker.activeLoad(RIDER_ID), "The newer change must not be overwritten");
+    }
+
+    private static SubOrderStatusChangedEvent change(String oldStatus, String newStatus, Long oldRiderId, Long newRiderId) {
+        return new SubOrderStatusChangedEvent(10L, 100L, 1000L, oldStatus, newStatus, oldRiderId, newRiderId);
+    }
+
+    private static RiderActiveLoad load(Long riderId, long count) {
+        return new RiderActiveLoad() {
+            @Override
+            public Long getRiderId() {
+                return riderId;
+            }
+
+            @Override
+            public Long getActiveCount() {
+                return count;
+            }
+        };
+    }
+}
@@ -0,0 +1,143 @@
+package com.srFoodDelivery.service.rider;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.srFoodDelivery.model.Rider;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Coalescing and flushing of buffered GPS pings. Rows are the UPDATE parameters:
+ * latitude, longitude, captured at, rider id.
+ */
+public class RiderLocationBufferTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private RiderLocationBuffer buffer;
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        buffer = new RiderLocationBuffer(jdbcTemplate, new SimpleMeterRegistry());
+    }
+
+    @Test
+    public void testLastPingPerRiderWins() {
+        buffer.record(1L, coordinate("12.1"), coordinate("77.1"));
+        buffer.record(1L, coordinate("12.2"), coordinate("77.2"));
+        buffer.record(2L, coordinate("13.0"), coordinate("78.0"));
+
+        buffer.flush();
+
+        List<List<Object[]>> batches = writtenBatches(1);
+        assertEquals(2, batches.get(0).size(), "One row per rider");
+        Object[] first = rowFor(batches.get(0), 1L);
+        assertEquals(coordinate("12.2"), first[0]);
+        assertEquals(coordinate("77.2"), first[1]);
+        assertNull(buffer.getPending(1L));
+    }
+
+    @Test
+    public void testFlushWritesInBatchesOfFiveHundred() {
+        for (long riderId = 1; riderId <= 501; riderId++) {
+            buffer.record(riderId, coordinate("12.0"), coordinate("77.0"));
+        }
+
+        buffer.flush();
+
+        List<List<Object[]>> batches = writtenBatches(2);
+        assertEquals(501, batches.get(0).size() + batches.get(1).size());
+        assertTrue(batches.get(0).size() <= 500 && batches.get(1).size() <= 500);
+    }
+
+    @Test
+    public void testEmptyBufferWritesNothing() {
+        buffer.flush();
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    public void testFailedBatchIsKeptButANewerPingWins() {
+        buffer.record(1L, coordinate("12.1"), coordinate("77.1"));
+        buffer.record(2L, coordinate("13.1"), coordinate("78.1"));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            // A ping arrives while the write is in flight, then the write fails
+            buffer.record(1L, coordinate("12.9"), coordinate("77.9"));
+            throw new QueryTimeoutException("timeout");
+        });
+
+        buffer.flush();
+
+        assertEquals(coordinate("12.9"), buffer.getPending(1L).getLatitude());
+        assertEquals(coordinate("13.1"), buffer.getPending(2L).getLatitude(), "The failed row is put back");
+    }
+
+    @Test
+    public void testShutdownWritesWhatIsBuffered() {
+        buffer.record(1L, coordinate("12.1"), coordinate("77.1"));
+
+        buffer.flushOnShutdown();
+
+        assertEquals(1, writtenBatches(1).get(0).size());
+        assertNull(buffer.getPending(1L));
+    }
+
+    @Test
+    public void testDiscardDropsTheBufferedPing() {
+        buffer.record(1L, coordinate("12.1"), coordinate("77.1"));
+
+        buffer.discard(1L);
+        buffer.flush();
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    public void testLatestPositionPrefersTheBufferedPing() {
+        Rider rider = new Rider();
+        rider.setId(1L);
+        rider.setCurrentLatitude(coordinate("10.0"));
+        rider.setCurrentLongitude(coordinate("70.0"));
+        assertEquals(10.0, buffer.latestLatitude(rider));
+
+        buffer.record(1L, coordinate("12.5"), coordinate("77.5"));
+
+        assertEquals(12.5, buffer.latestLatitude(rider));
+        assertEquals(77.5, buffer.latestLongitude(rider));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<Object[]>> writtenBatches(int expected) {
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(expected)).batchUpdate(anyString(), rows.capture());
+        return rows.getAllValues();
+    }
+
+    private static Object[] rowFor(List<Object[]> batch, Long riderId) {
+        return batch.stream()
+                .filter(row -> riderId.equals(row[3]))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static BigDecimal coordinate(String value) {
+        return new BigDecimal(value);
+    }
+}
@@ -0,0 +1,145 @@
+package com.srFoodDelivery.service.rider;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.srFoodDelivery.model.Rider;
+import com.srFoodDelivery.repository.RiderRepository;
+
+/**
+ * Nearest-rider lookups on the grid. Cells are 0.01 degrees; positions below are placed
+ * relative to the middle of the restaurant's cell.
+ */
+public class RiderLocationIndexTest {
+
+    private static final double LAT = 12.975;
+    private static final double LON = 77.595;
+
+    private RiderLocationIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new RiderLocationIndex(mock(RiderRepository.class));
+        index.rebuild(List.of());
+    }
+
+    @Test
+    public void testNearestFirstAcrossCells() {
+        index.upsert(1L, LAT + 0.0049, LON + 0.0049); // same cell, far corner: ~0.77 km
+        index.upsert(2L, LAT + 0.0051, LON);          // next cell north: ~0.57 km
+        index.upsert(3L, LAT + 0.5, LON);             // ~56 km
+
+        assertEquals(List.of(2L, 1L, 3L), index.findNearest(LAT, LON, 3, id -> true));
+    }
+
+    @Test
+    public void testCloserRiderInAnOuterRingIsNotMissed() {
+        index.upsert(1L, LAT + 0.0149, LON + 0.0149); // ring 1, diagonal: ~2.3 km
+        index.upsert(2L, LAT + 0.016, LON);           // ring 2, straight north: ~1.8 km
+
+        assertEquals(List.of(2L), index.findNearest(LAT, LON, 1, id -> true),
+                "The search must not stop at the first ring holding a rider");
+    }
+
+    @Test
+    public void testLimit() {
+        for (long id = 1; id <= 5; id++) {
+            index.upsert(id, LAT + id * 0.01, LON);
+        }
+
+        assertEquals(List.of(1L, 2L, 3L), index.findNearest(LAT, LON, 3, id -> true));
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), index.findNearest(LAT, LON, 10, id -> true));
+        assertTrue(index.findNearest(LAT, LON, 0, id -> true).isEmpty());
+    }
+
+    @Test
+    public void testFilteredRidersAreSkipped() {
+        index.upsert(1L, LAT + 0.001, LON);
+        index.upsert(2L, LAT + 0.02, LON);
+        index.upsert(3L, LAT + 0.03, LON);
+
+        assertEquals(List.of(2L, 3L), index.findNearest(LAT, LON, 2, id -> id != 1L));
+        assertTrue(index.findNearest(LAT, LON, 2, id -> false).isEmpty());
+    }
+
+    @Test
+    public void testNearThePoleNarrowLongitudeCellsAreSearched() {
+        double lat = 89.95;
+        double lon = 0.005;
+        // 500 longitude cells away, but longitude cells are ~10 m wide here: ~0.5 km
+        index.upsert(1L, lat, lon + 5.0);
+        // 3 latitude cells away: ~3.3 km
+        index.upsert(2L, lat - 0.03, lon);
+
+        assertEquals(List.of(1L), index.findNearest(lat, lon, 1, id -> true));
+    }
+
+    @Test
+    public void testMoveIfPresentIgnoresRidersNotIndexed() {
+        index.moveIfPresent(1L, LAT, LON);
+
+        assertFalse(index.contains(1L));
+        assertTrue(index.findNearest(LAT, LON, 1, id -> true).isEmpty());
+    }
+
+    @Test
+    public void testMoveIfPresentMovesBetweenCells() {
+        index.upsert(1L, LAT, LON);
+        index.upsert(2L, LAT + 0.02, LON);
+
+        index.moveIfPresent(1L, LAT + 1.0, LON);
+
+        assertEquals(List.of(2L), index.findNearest(LAT, LON, 1, id -> true),
+                "The old cell must no longer hold the moved rider");
+        assertEquals(List.of(1L), index.findNearest(LAT + 1.0, LON, 1, id -> true));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    public void testMoveIfPresentWithinACell() {
+        index.upsert(1L, LAT, LON);
+
+        index.moveIfPresent(1L, LAT + 0.001, LON);
+        index.moveIfPresent(1L, LAT + 0.002, LON);
+
+        assertEquals(List.of(1L), index.findNearest(LAT, LON, 5, id -> true));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void testRemovedRiderIsNotFound() {
+        index.upsert(1L, LAT, LON);
+        index.upsert(2L, LAT + 0.02, LON);
+
+        index.remove(1L);
+
+        assertFalse(index.contains(1L));
+        assertEquals(List.of(2L), index.findNearest(LAT, LON, 5, id -> true));
+    }
+
+    @Test
+    public void testRefreshAddsRidersAndKeepsTheOthers() {
+        index.upsert(1L, LAT, LON);
+
+        index.refresh(List.of(rider(2L, LAT + 0.02, LON), rider(3L, null, null)));
+
+        assertTrue(index.contains(1L));
+        assertTrue(index.contains(2L));
+        assertFalse(index.contains(3L), "A rider without a position cannot be indexed");
+        assertEquals(List.of(1L, 2L), index.findNearest(LAT, LON, 5, id -> true));
+    }
+
+    private static Rider rider(Long id, Double lat, Double lon) {
+        Rider rider = new Rider();
+        rider.setId(id);
+        rider.setCurrentLatitude(lat != null ? BigDecimal.valueOf(lat) : null);
+        rider.setCurrentLongitude(lon != null ? BigDecimal.valueOf(lon) : null);
+        return rider;
+    }
+}
@@ -0,0 +1,163 @@
+package com.srFoodDelivery.service.rider;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.srFoodDelivery.model.RiderOffer;
+import com.srFoodDelivery.model.SubOrder;
+import com.srFoodDelivery.repository.RiderOfferRepository;
+import com.srFoodDelivery.repository.RiderOfferRepository.PendingOfferDeadline;
+import com.srFoodDelivery.repository.SubOrderRepository;
+
+/**
+ * Recovery of pending offers into the wheel, and the claim that keeps two nodes expiring
+ * the same offer from both re-dispatching its sub order. Repositories are mocked.
+ */
+public class RiderOfferExpiryServiceTest {
+
+    private static final Long SUB_ORDER_ID = 10L;
+
+    private RiderOfferExpiryWheel wheel;
+    private RiderOfferRepository riderOfferRepository;
+    private SubOrderRepository subOrderRepository;
+    private RiderService riderService;
+    private RiderOfferExpiryService service;
+
+    @BeforeEach
+    public void setUp() {
+        wheel = new RiderOfferExpiryWheel();
+        riderOfferRepository = mock(RiderOfferRepository.class);
+        subOrderRepository = mock(SubOrderRepository.class);
+        riderService = mock(RiderService.class);
+        service = new RiderOfferExpiryService(wheel, riderOfferRepository, subOrderRepository, riderService,
+                mock(PlatformTransactionManager.class), 5000);
+    }
+
+    @Test
+    public void testRecoveredOffersAreScheduledAndOverdueOnesFireFirst() {
+        when(riderOfferRepository.findPendingOfferDeadlines()).thenReturn(List.of(
+                deadline(1L, LocalDateTime.now().minusMinutes(5)),
+                deadline(2L, LocalDateTime.now().plusMinutes(5))));
+
+        service.recoverPendingOffers();
+
+        assertEquals(2, wheel.size());
+        List<RiderOfferExpiryWheel.Timeout> due = wheel.advance(System.currentTimeMillis() + 2000);
+        assertEquals(List.of(1L), due.stream().map(RiderOfferExpiryWheel.Timeout::getOfferId).toList());
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    public void testOverdueSweepSchedulesOffersLeftByAnotherNode() {
+        when(riderOfferRepository.findOverduePendingOfferDeadlines(any()))
+                .thenReturn(List.of(deadline(1L, LocalDateTime.now().minusMinutes(1))));
+
+        service.sweepOverdueOffers();
+
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    public void testSubOrderHeldByAnotherNodeIsNotRedispatched() {
+        whenLeftWithoutOffer();
+        when(subOrderRepository.claimOfferedForRedispatch(SUB_ORDER_ID)).thenReturn(Optional.empty());
+
+        service.expire(dueOffer(1L));
+
+        verify(riderOfferRepository).markExpired(eq(List.of(1L)), any());
+        verify(riderService, never()).sendOfferToNearestRider(anyLong(), any(), anyList());
+        verify(riderService, never()).returnUnclaimedToConfirmed(anyLong());
+    }
+
+    @Test
+    public void testSubOrderRedispatchedElsewhereIsLeftAlone() {
+        whenLeftWithoutOffer();
+        SubOrder subOrder = claimable();
+        // The other node's new offer committed before this node got the row
+        when(riderOfferRepository.findPendingOffersForSubOrder(eq(subOrder), any()))
+                .thenReturn(List.of(new RiderOffer()));
+
+        service.expire(dueOffer(1L));
+
+        verify(riderService, never()).sendOfferToNearestRider(anyLong(), any(), anyList());
+    }
+
+    @Test
+    public void testClaimedSubOrderIsRedispatched() {
+        whenLeftWithoutOffer();
+        claimable();
+        when(riderService.sendOfferToNearestRider(eq(SUB_ORDER_ID), any(), anyList())).thenReturn(Optional.empty());
+        when(riderService.returnUnclaimedToConfirmed(SUB_ORDER_ID)).thenReturn(true);
+
+        service.expire(dueOffer(1L));
+
+        verify(riderService).sendOfferToNearestRider(eq(SUB_ORDER_ID), eq(RiderService.AssignmentStrategy.NEAREST), anyList());
+        verify(riderService).returnUnclaimedToConfirmed(SUB_ORDER_ID);
+    }
+
+    @Test
+    public void testNothingIsRedispatchedWhenExpiryFails() {
+        when(riderOfferRepository.markExpired(anyCollection(), any())).thenThrow(new IllegalStateException("down"));
+
+        service.expire(dueOffer(1L));
+
+        verify(subOrderRepository, never()).findOfferedWithoutPendingOffers(anyCollection(), any());
+    }
+
+    private void whenLeftWithoutOffer() {
+        when(subOrderRepository.findOfferedWithoutPendingOffers(anyCollection(), any()))
+                .thenReturn(List.of(SUB_ORDER_ID));
+    }
+
+    private SubOrder claimable() {
+        SubOrder subOrder = new SubOrder();
+        subOrder.setId(SUB_ORDER_ID);
+        when(subOrderRepository.claimOfferedForRedispatch(SUB_ORDER_ID)).thenReturn(Optional.of(subOrder));
+        return subOrder;
+    }
+
+    private List<RiderOfferExpiryWheel.Timeout> dueOffer(Long offerId) {
+        wheel.schedule(offerId, SUB_ORDER_ID, 100L, LocalDateTime.now().minusSeconds(1));
+        return wheel.advance(System.currentTimeMillis() + 2000);
+    }
+
+    private static PendingOfferDeadline deadline(Long offerId, LocalDateTime expiresAt) {
+        return new PendingOfferDeadline() {
+            @Override
+            public Long getId() {
+                return offerId;
+            }
+
+            @Override
+            public Long getSubOrderId() {
+                return SUB_ORDER_ID + offerId;
+            }
+
+            @Override
+            public Long getRiderId() {
+                return 100L;
+            }
+
+            @Override
+            public LocalDateTime getExpiresAt() {
+                return expiresAt;
+            }
+        };
+    }
+}
@@ -0,0 +1,108 @@
+package com.srFoodDelivery.service.rider;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Deadlines on the one-second wheel, driven with explicit clock values. The wheel has
+ * 512 buckets, so deadlines more than 512 seconds out share a bucket with earlier ticks.
+ */
+public class RiderOfferExpiryWheelTest {
+
+    private RiderOfferExpiryWheel wheel;
+    private long base;
+
+    @BeforeEach
+    public void setUp() {
+        wheel = new RiderOfferExpiryWheel();
+        base = System.currentTimeMillis();
+    }
+
+    @Test
+    public void testOfferFiresOnceItsDeadlinePasses() {
+        wheel.schedule(1L, 10L, 100L, at(base + 30_000));
+
+        assertTrue(wheel.advance(base + 29_000).isEmpty());
+        List<RiderOfferExpiryWheel.Timeout> due = wheel.advance(base + 31_000);
+
+        assertEquals(1, due.size());
+        assertEquals(1L, due.get(0).getOfferId());
+        assertEquals(10L, due.get(0).getSubOrderId());
+        assertEquals(100L, due.get(0).getRiderId());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testDeadlineBeyondOneRevolutionWaitsForItsRound() {
+        wheel.schedule(1L, 10L, 100L, at(base + 600_000));
+
+        // The bucket first comes round 512 seconds early; the entry must stay in it
+        for (long second = 1; second < 600; second++) {
+            assertTrue(wheel.advance(base + second * 1000).isEmpty(), "Fired early at second " + second);
+        }
+        assertEquals(1, wheel.advance(base + 601_000).size());
+        assertTrue(wheel.advance(base + 1_200_000).isEmpty(), "An entry fires only once");
+    }
+
+    @Test
+    public void testLongPauseStillFiresEveryDueEntry() {
+        wheel.schedule(1L, 10L, 100L, at(base + 5_000));
+        wheel.schedule(2L, 11L, 100L, at(base + 700_000));
+
+        List<RiderOfferExpiryWheel.Timeout> due = wheel.advance(base + 2_000_000);
+
+        assertEquals(2, due.size());
+    }
+
+    @Test
+    public void testCancelledOfferDoesNotFire() {
+        wheel.schedule(1L, 10L, 100L, at(base + 5_000));
+
+        wheel.cancel(1L);
+
+        assertEquals(0, wheel.size());
+        assertTrue(wheel.advance(base + 10_000).isEmpty());
+    }
+
+    @Test
+    public void testRescheduleReplacesTheEarlierDeadline() {
+        wheel.schedule(1L, 10L, 100L, at(base + 5_000));
+        wheel.schedule(1L, 10L, 100L, at(base + 20_000));
+
+        assertTrue(wheel.advance(base + 6_000).isEmpty());
+        assertEquals(1, wheel.advance(base + 21_000).size());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testPastDeadlineFiresOnTheNextTick() {
+        wheel.schedule(1L, 10L, 100L, at(base - 60_000));
+
+        assertEquals(1, wheel.advance(base + 1_000).size());
+    }
+
+    @Test
+    public void testBroadcastHasOneEntryPerSubOrder() {
+        wheel.scheduleBroadcast(10L, at(base + 5_000));
+        wheel.scheduleBroadcast(10L, at(base + 8_000));
+        assertEquals(1, wheel.size());
+
+        assertTrue(wheel.advance(base + 6_000).isEmpty());
+        List<RiderOfferExpiryWheel.Timeout> due = wheel.advance(base + 9_000);
+
+        assertEquals(1, due.size());
+        assertTrue(due.get(0).isBroadcast());
+        assertEquals(10L, due.get(0).getSubOrderId());
+    }
+
+    private static LocalDateTime at(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
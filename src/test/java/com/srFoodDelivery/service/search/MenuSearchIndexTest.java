@@ -0,0 +1,165 @@
+package com.srFoodDelivery.service.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.srFoodDelivery.model.Menu;
+import com.srFoodDelivery.model.MenuItem;
+import com.srFoodDelivery.model.Restaurant;
+import com.srFoodDelivery.model.SiteMode;
+import com.srFoodDelivery.repository.MenuItemRepository;
+
+/**
+ * Keeping the index in step with item saves and deletes and with restaurants switching
+ * between restaurant and cafe mode. The repository only serves full rebuilds.
+ */
+public class MenuSearchIndexTest {
+
+    private MenuItemRepository menuItemRepository;
+    private MenuSearchIndex index;
+    private Restaurant restaurant;
+    private Restaurant cafe;
+
+    @BeforeEach
+    public void setUp() {
+        menuItemRepository = mock(MenuItemRepository.class);
+        index = new MenuSearchIndex(menuItemRepository);
+        restaurant = restaurant(1L, false);
+        cafe = restaurant(2L, true);
+        when(menuItemRepository.findAvailableForSearchIndex()).thenReturn(List.of(
+                item(10L, "Paneer Tikka", restaurant),
+                item(11L, "Chicken Biryani", restaurant),
+                item(20L, "Cold Coffee", cafe)));
+        index.rebuild();
+    }
+
+    @Test
+    public void testSavedItemIsFoundUnderItsNewName() {
+        index.index(item(10L, "Paneer Butter Masala", restaurant));
+
+        assertEquals(List.of(), search(SiteMode.RESTAURANT, "tikka"));
+        assertEquals(List.of(10L), search(SiteMode.RESTAURANT, "butter"));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    public void testNewItemIsAdded() {
+        index.index(item(12L, "Veg Biryani", restaurant));
+
+        assertEquals(List.of(11L, 12L), search(SiteMode.RESTAURANT, "biryani"));
+    }
+
+    @Test
+    public void testUnavailableItemIsDropped() {
+        MenuItem soldOut = item(11L, "Chicken Biryani", restaurant);
+        soldOut.setAvailable(false);
+
+        index.index(soldOut);
+
+        assertEquals(List.of(), search(SiteMode.RESTAURANT, "biryani"));
+        assertEquals(List.of(10L), search(SiteMode.RESTAURANT, null));
+    }
+
+    @Test
+    public void testDeletedItemIsDropped() {
+        index.remove(20L);
+
+        assertEquals(List.of(), search(SiteMode.CAFE, null));
+    }
+
+    @Test
+    public void testChangeInsideATransactionAppliesAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.remove(10L);
+            assertEquals(List.of(10L), search(SiteMode.RESTAURANT, "paneer"), "Not committed yet");
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(List.of(), search(SiteMode.RESTAURANT, "paneer"));
+    }
+
+    @Test
+    public void testRolledBackChangeIsNotApplied() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.remove(10L);
+            TransactionSynchronizationManager.getSynchronizations().forEach(
+                    sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(List.of(10L), search(SiteMode.RESTAURANT, "paneer"));
+    }
+
+    @Test
+    public void testRestaurantSwitchingToCafeMovesItsItems() {
+        index.restaurantModeChanged(1L, true);
+
+        assertEquals(List.of(), search(SiteMode.RESTAURANT, null));
+        assertEquals(List.of(10L, 11L, 20L), search(SiteMode.CAFE, null));
+        assertEquals(List.of(11L), search(SiteMode.CAFE, "biryani"), "Text search still works after the move");
+
+        index.restaurantModeChanged(1L, false);
+
+        assertEquals(List.of(10L, 11L), search(SiteMode.RESTAURANT, null));
+        assertEquals(List.of(20L), search(SiteMode.CAFE, null));
+    }
+
+    @Test
+    public void testChangesDuringARebuildAreReplayed() {
+        List<MenuItem> stale = new ArrayList<>(List.of(
+                item(10L, "Paneer Tikka", restaurant),
+                item(11L, "Chicken Biryani", restaurant)));
+        when(menuItemRepository.findAvailableForSearchIndex()).thenAnswer(invocation -> {
+            // Saved after the rebuild read the table
+            index.index(item(10L, "Paneer Butter Masala", restaurant));
+            index.restaurantModeChanged(1L, true);
+            index.remove(11L);
+            return stale;
+        });
+
+        index.rebuild();
+
+        assertEquals(List.of(10L), search(SiteMode.CAFE, "butter"));
+        assertEquals(List.of(), search(SiteMode.CAFE, "biryani"));
+        assertEquals(1, index.size());
+    }
+
+    private List<Long> search(SiteMode siteMode, String text) {
+        return index.search(new MenuSearchQuery(siteMode, text, null, null, null, 0, 50)).getItemIds();
+    }
+
+    private static MenuItem item(Long id, String name, Restaurant restaurant) {
+        Menu menu = new Menu();
+        menu.setRestaurant(restaurant);
+        MenuItem item = new MenuItem();
+        item.setId(id);
+        item.setName(name);
+        item.setMenu(menu);
+        item.setAvailable(true);
+        item.setTags(Set.of());
+        return item;
+    }
+
+    private static Restaurant restaurant(Long id, boolean cafeLounge) {
+        Restaurant restaurant = new Restaurant();
+        restaurant.setId(id);
+        restaurant.setCafeLounge(cafeLounge);
+        return restaurant;
+    }
+}
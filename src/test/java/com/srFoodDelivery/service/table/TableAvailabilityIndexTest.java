@@ -0,0 +1,110 @@
+package com.srFoodDelivery.service.table;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.srFoodDelivery.repository.TableReservationRepository;
+import com.srFoodDelivery.repository.TableReservationRepository.ReservationInterval;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Overlap checks of one loaded day. Reservations are half-open: [start, start + duration).
+ */
+public class TableAvailabilityIndexTest {
+
+    private static final Long RESTAURANT_ID = 1L;
+    private static final Long TABLE_ID = 10L;
+    private static final Long OTHER_TABLE_ID = 11L;
+    private static final LocalDate DATE = LocalDate.of(2030, 1, 15);
+
+    @Test
+    public void testAdjacentReservationsDoNotOverlap() {
+        TableAvailabilityIndex.Day day = dayWith(reservation(1L, TABLE_ID, "18:00", 60));
+
+        assertTrue(day.isFree(TABLE_ID, LocalTime.parse("19:00"), 60), "Starting when the booking ends");
+        assertTrue(day.isFree(TABLE_ID, LocalTime.parse("17:00"), 60), "Ending when the booking starts");
+        assertFalse(day.isFree(TABLE_ID, LocalTime.parse("18:59"), 60), "Starting one minute before it ends");
+        assertFalse(day.isFree(TABLE_ID, LocalTime.parse("17:01"), 60), "Ending one minute after it starts");
+    }
+
+    @Test
+    public void testContainedAndContainingRequestsOverlap() {
+        TableAvailabilityIndex.Day day = dayWith(reservation(1L, TABLE_ID, "18:00", 120));
+
+        assertFalse(day.isFree(TABLE_ID, LocalTime.parse("18:30"), 30), "Inside the booking");
+        assertFalse(day.isFree(TABLE_ID, LocalTime.parse("17:00"), 240), "Around the booking");
+        assertFalse(day.isFree(TABLE_ID, LocalTime.parse("18:00"), 120), "Same times as the booking");
+    }
+
+    @Test
+    public void testRequestStraddlingTwoReservationsOverlaps() {
+        TableAvailabilityIndex.Day day = dayWith(
+                reservation(1L, TABLE_ID, "12:00", 60),
+                reservation(2L, TABLE_ID, "14:00", 60));
+
+        assertTrue(day.isFree(TABLE_ID, LocalTime.parse("13:00"), 60), "The gap between them");
+        assertFalse(day.isFree(TABLE_ID, LocalTime.parse("12:30"), 120), "Across both");
+        assertFalse(day.isFree(TABLE_ID, LocalTime.parse("13:30"), 60), "Into the second");
+    }
+
+    @Test
+    public void testLongEarlyReservationIsFoundThroughMaxEnd() {
+        // The 10:00 booking runs to 16:00, past later bookings that end sooner; only the running
+        // maximum of ends shows that it still covers 15:00
+        TableAvailabilityIndex.Day day = dayWith(
+                reservation(1L, TABLE_ID, "10:00", 360),
+                reservation(2L, TABLE_ID, "11:00", 30),
+                reservation(3L, TABLE_ID, "12:00", 30));
+
+        assertFalse(day.isFree(TABLE_ID, LocalTime.parse("15:00"), 30));
+        assertTrue(day.isFree(TABLE_ID, LocalTime.parse("16:00"), 30));
+    }
+
+    @Test
+    public void testOtherTablesAreIndependent() {
+        TableAvailabilityIndex.Day day = dayWith(reservation(1L, TABLE_ID, "18:00", 60));
+
+        assertTrue(day.isFree(OTHER_TABLE_ID, LocalTime.parse("18:00"), 60));
+    }
+
+    private TableAvailabilityIndex.Day dayWith(ReservationInterval... reservations) {
+        TableReservationRepository repository = mock(TableReservationRepository.class);
+        when(repository.findActiveIntervals(eq(RESTAURANT_ID), any(LocalDate.class))).thenReturn(List.of(reservations));
+        TableAvailabilityIndex index = new TableAvailabilityIndex(repository, new SimpleMeterRegistry(), 600);
+        return index.day(RESTAURANT_ID, DATE);
+    }
+
+    private ReservationInterval reservation(Long id, Long tableId, String time, int durationMinutes) {
+        return new ReservationInterval() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getTableId() {
+                return tableId;
+            }
+
+            @Override
+            public LocalTime getReservationTime() {
+                return LocalTime.parse(time);
+            }
+
+            @Override
+            public Integer getDurationMinutes() {
+                return durationMinutes;
+            }
+        };
+    }
+}
@@ -0,0 +1,106 @@
+package com.srFoodDelivery.websocket;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.srFoodDelivery.websocket.event.EventFrameEncoder;
+
+/**
+ * Compares bytes allocated per order update between the old publisher, which built maps and
+ * let the template serialize them once per destination, and the typed events encoded once.
+ * Allocation is read from the thread allocation counter since JMH is not part of the build;
+ * the template has no broker attached, so only building and encoding the frames is measured.
+ * Run with: mvn test -Dtest=EventEncodingBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class EventEncodingBenchmarkTest {
+
+    private static final int WARMUP_CALLS = 20_000;
+    private static final int MEASURED_CALLS = 100_000;
+    // Typed events may cost at most this much more time per update than the maps they replaced
+    private static final double MAX_SLOWDOWN = 1.5;
+
+    @Test
+    public void benchmarkAllocationsPerOrderUpdate() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled(),
+                "JVM does not report per-thread allocation");
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        SimpMessagingTemplate messagingTemplate = new SimpMessagingTemplate(new ExecutorSubscribableChannel());
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+        converter.setObjectMapper(objectMapper);
+        messagingTemplate.setMessageConverter(converter);
+        OrderWebSocketPublisher publisher = new OrderWebSocketPublisher(messagingTemplate, new EventFrameEncoder(objectMapper));
+
+        Measurement before = measure(() -> legacyPublishOrderUpdate(messagingTemplate,
+                100L, 200L, "OUT_FOR_DELIVERY", 7L, 12.9716, 77.5946));
+        Measurement after = measure(() -> publisher.publishOrderUpdate(
+                100L, 200L, "OUT_FOR_DELIVERY", 7L, 12.9716, 77.5946));
+
+        assertTrue(after.bytesPerCall < before.bytesPerCall,
+                "Encoding once allocated " + after.bytesPerCall + " bytes per update against "
+                        + before.bytesPerCall + " when serializing per destination");
+        assertTrue(after.nanosPerCall <= before.nanosPerCall * MAX_SLOWDOWN,
+                "Encoding once took " + after.nanosPerCall + " ns per update against "
+                        + before.nanosPerCall + " when serializing per destination");
+    }
+
+    private Measurement measure(Runnable call) {
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            call.run();
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            call.run();
+        }
+        long nanos = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        return new Measurement(allocated / MEASURED_CALLS, nanos / MEASURED_CALLS);
+    }
+
+    /**
+     * publishOrderUpdate as it was before typed events, including the separate publishToRider call.
+     */
+    private static void legacyPublishOrderUpdate(SimpMessagingTemplate messagingTemplate, Long multiOrderId,
+            Long subOrderId, String status, Long riderId, Double lat, Double lon) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("multiOrderId", multiOrderId);
+        payload.put("subOrderId", subOrderId);
+        payload.put("status", status);
+        payload.put("riderId", riderId);
+        payload.put("lat", lat);
+        payload.put("lon", lon);
+        payload.put("timestamp", System.currentTimeMillis());
+
+        String event = "ORDER_OUT_FOR_DELIVERY";
+        Map<String, Object> message = legacyMessage(event, payload);
+        messagingTemplate.convertAndSend("/topic/rider." + riderId, legacyMessage(event, payload));
+        messagingTemplate.convertAndSend("/topic/orders", message);
+        messagingTemplate.convertAndSend("/topic/multiorder." + multiOrderId, message);
+    }
+
+    private static Map<String, Object> legacyMessage(String event, Object payload) {
+        Map<String, Object> message = new HashMap<>();
+        message.put("event", event);
+        message.put("payload", payload);
+        message.put("timestamp", System.currentTimeMillis());
+        return message;
+    }
+
+    private record Measurement(long bytesPerCall, long nanosPerCall) {
+    }
+}
@@ -0,0 +1,116 @@
+package com.srFoodDelivery.websocket;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+
+/**
+ * A frame stays counted from the outbound channel until the write to its session returns.
+ */
+public class OutboundBacklogTest {
+
+    private static final String SESSION_ID = "session-1";
+    private static final String TOPIC = "/topic/user/5";
+
+    private final MessageChannel channel = mock(MessageChannel.class);
+    private OutboundBacklog backlog;
+    private WebSocketHandler handler;
+    private WebSocketSession writtenSession;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        backlog = new OutboundBacklog();
+        AtomicReference<WebSocketSession> seen = new AtomicReference<>();
+        WebSocketHandler inner = mock(WebSocketHandler.class);
+        doAnswer(invocation -> {
+            seen.set(invocation.getArgument(0));
+            return null;
+        }).when(inner).afterConnectionEstablished(any());
+        handler = backlog.decorate(inner);
+
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(SESSION_ID);
+        handler.afterConnectionEstablished(session);
+        // The session the STOMP handler writes to; its writes are what release frames
+        writtenSession = seen.get();
+    }
+
+    @Test
+    public void testFrameIsCountedUntilItIsWritten() throws Exception {
+        Message<byte[]> message = frame(SESSION_ID, TOPIC);
+        backlog.preSend(message, channel);
+        backlog.afterSendCompletion(message, channel, true, null);
+        assertEquals(1, backlog.get(TOPIC), "Handing the frame over is not writing it");
+
+        writtenSession.sendMessage(new TextMessage("MESSAGE\ndestination:" + TOPIC + "\nsubscription:sub-0\n\n{}\u0000"));
+
+        assertEquals(0, backlog.get(TOPIC));
+    }
+
+    @Test
+    public void testOnlyMessageFramesOfTheDestinationAreReleased() throws Exception {
+        backlog.preSend(frame(SESSION_ID, TOPIC), channel);
+        backlog.preSend(frame(SESSION_ID, TOPIC), channel);
+
+        writtenSession.sendMessage(new TextMessage("\n"));
+        writtenSession.sendMessage(new TextMessage("RECEIPT\nreceipt-id:1\n\n\u0000"));
+        assertEquals(2, backlog.get(TOPIC), "Heartbeats and receipts carry no frame of the topic");
+
+        writtenSession.sendMessage(new BinaryMessage(
+                ("MESSAGE\r\ndestination:" + TOPIC + "\r\n\r\n").getBytes(StandardCharsets.UTF_8)));
+        assertEquals(1, backlog.get(TOPIC));
+    }
+
+    @Test
+    public void testRejectedFrameIsReleased() {
+        Message<byte[]> message = frame(SESSION_ID, TOPIC);
+        backlog.preSend(message, channel);
+        backlog.afterSendCompletion(message, channel, false, null);
+
+        assertEquals(0, backlog.get(TOPIC));
+    }
+
+    @Test
+    public void testClosedSessionReleasesItsFrames() throws Exception {
+        backlog.preSend(frame(SESSION_ID, TOPIC), channel);
+        backlog.preSend(frame(SESSION_ID, TOPIC), channel);
+
+        handler.afterConnectionClosed(writtenSession, CloseStatus.SESSION_NOT_RELIABLE);
+        assertEquals(0, backlog.get(TOPIC));
+
+        backlog.preSend(frame(SESSION_ID, TOPIC), channel);
+        assertEquals(0, backlog.get(TOPIC), "Frames for a closed session are not counted");
+    }
+
+    @Test
+    public void testFramesForUnknownSessionsAreNotCounted() {
+        backlog.preSend(frame("other-session", TOPIC), channel);
+
+        assertEquals(0, backlog.get(TOPIC));
+    }
+
+    private static Message<byte[]> frame(String sessionId, String destination) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        accessor.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}